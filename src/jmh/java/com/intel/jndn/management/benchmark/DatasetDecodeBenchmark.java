@@ -0,0 +1,95 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.benchmark;
+
+import com.intel.jndn.management.DatasetGenerator;
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.helpers.StatusDatasetHelper;
+import com.intel.jndn.management.types.Decodable;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.util.Blob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link StatusDatasetHelper#wireDecode(List, Class)}, from the segments as received to the decoded
+ * entries, for each status dataset type and size. Run with the GC profiler (the build's default) to also get the
+ * allocation rate per operation.
+ * <p/>
+ * With {@code names = uniform} the entries come from {@link Datasets}, with names of equal depth; with
+ * {@code names = zipf} they are {@link DatasetGenerator} fixtures, whose Zipf-distributed name depths and shared
+ * prefixes are closer to a real forwarder. Fixtures are generated on first use and read back from the directory
+ * given by the {@code jndn.fixtures} system property (default: {@code jndn-fixtures} under {@code java.io.tmpdir}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DatasetDecodeBenchmark {
+  @Param({"FaceStatus", "FibEntry", "RibEntry", "StrategyChoice", "ChannelStatus"})
+  private DatasetGenerator.Type type;
+
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  @Param({"uniform", "zipf"})
+  private String names;
+
+  private List<Data> segments;
+
+  /**
+   * Build (or load) and segment the dataset once per trial.
+   *
+   * @throws IOException if the fixture cannot be read or written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Blob payload;
+    if ("zipf".equals(names)) {
+      String directory = System.getProperty("jndn.fixtures",
+                                            Paths.get(System.getProperty("java.io.tmpdir"), "jndn-fixtures")
+                                              .toString());
+      payload = new DatasetGenerator(1).fixture(Paths.get(directory), type, size);
+    } else {
+      payload = Datasets.payload(type, size);
+    }
+    segments = Datasets.segments(type, payload);
+  }
+
+  /**
+   * @return the decoded entries, consumed by JMH so decoding is not optimized away
+   * @throws ManagementException if the dataset cannot be decoded
+   */
+  @Benchmark
+  public List<? extends Decodable> wireDecode() throws ManagementException {
+    return StatusDatasetHelper.wireDecode(segments, type.getEntryClass());
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.benchmark;
+
+import com.intel.jndn.management.DatasetGenerator;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.util.Blob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of encoding whole status datasets: all entries into one TlvEncoder, as a stand-in forwarder builds its
+ * replies, and additionally split into Data segments. The entries are built once, so only encoding is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DatasetEncodeBenchmark {
+  @Param({"FaceStatus", "FibEntry", "RibEntry", "StrategyChoice", "ChannelStatus"})
+  private DatasetGenerator.Type type;
+
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private List<Object> entries;
+
+  /**
+   * Build the entries once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    entries = Datasets.entries(type, size);
+  }
+
+  /**
+   * @return the dataset payload
+   */
+  @Benchmark
+  public Blob encode() {
+    return Datasets.encode(type, entries);
+  }
+
+  /**
+   * @return the dataset segments
+   */
+  @Benchmark
+  public List<Data> encodeAndSegment() {
+    return Datasets.segments(type, Datasets.encode(type, entries));
+  }
+}
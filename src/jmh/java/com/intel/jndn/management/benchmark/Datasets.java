@@ -0,0 +1,214 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.benchmark;
+
+import com.intel.jndn.management.DatasetGenerator;
+import com.intel.jndn.management.DatasetGenerator.Type;
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.FaceScope;
+import com.intel.jndn.management.enums.LinkType;
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.types.ChannelStatus;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.FibEntry;
+import com.intel.jndn.management.types.NextHopRecord;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.management.types.StrategyChoice;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic, realistic-looking status datasets for benchmarks: entry {@code i} of every dataset is the same on
+ * each run, with URIs, names and counters of typical sizes.
+ */
+final class Datasets {
+  /**
+   * Payload size of each dataset segment, as produced by NFD.
+   */
+  static final int SEGMENT_SIZE = 8000;
+
+  private static final String[] STRATEGIES = {
+    "/localhost/nfd/strategy/best-route/%FD%05",
+    "/localhost/nfd/strategy/multicast/%FD%03",
+    "/localhost/nfd/strategy/asf/%FD%03",
+  };
+
+  private Datasets() {
+    // do not instantiate this class
+  }
+
+  /**
+   * @param i entry index
+   * @return a face status with distinct URIs and non-trivial counters
+   */
+  static FaceStatus faceStatus(final int i) {
+    return new FaceStatus()
+      .setFaceId(256 + i)
+      .setRemoteUri("udp4://10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF) + ":6363")
+      .setLocalUri("udp4://192.0.2.1:6363")
+      .setFaceScope(FaceScope.NON_LOCAL)
+      .setFacePersistency(i % 2 == 0 ? FacePersistency.PERSISTENT : FacePersistency.ON_DEMAND)
+      .setLinkType(LinkType.POINT_TO_POINT)
+      .setMtu(8800)
+      .setNInInterests(i * 31)
+      .setNInData(i * 29)
+      .setNInNacks(i)
+      .setNOutInterests(i * 37)
+      .setNOutData(i * 23)
+      .setNOutNacks(i / 2)
+      .setNInBytes(i * 4099 & Integer.MAX_VALUE)
+      .setNOutBytes(i * 8191 & Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param i entry index
+   * @return a FIB entry with a four-component prefix and two next hops
+   */
+  static FibEntry fibEntry(final int i) {
+    return new FibEntry()
+      .setPrefix(prefix(i))
+      .addNextHopRecord(new NextHopRecord().setFaceId(256 + i).setCost(10))
+      .addNextHopRecord(new NextHopRecord().setFaceId(257 + i).setCost(20));
+  }
+
+  /**
+   * @param i entry index
+   * @return a RIB entry with a four-component prefix and two routes
+   */
+  static RibEntry ribEntry(final int i) {
+    return new RibEntry()
+      .setName(prefix(i))
+      .addRoute(route(256 + i, RouteOrigin.STATIC, 10))
+      .addRoute(route(257 + i, RouteOrigin.NLSR, 20).setExpirationPeriod(3600000));
+  }
+
+  /**
+   * @param faceId face ID
+   * @param origin route origin
+   * @param cost   route cost
+   * @return a route
+   */
+  static Route route(final int faceId, final RouteOrigin origin, final int cost) {
+    return new Route().setFaceId(faceId).setOrigin(origin.toInteger()).setCost(cost).setFlags(1);
+  }
+
+  /**
+   * @param i entry index
+   * @return a strategy choice on a four-component prefix
+   */
+  static StrategyChoice strategyChoice(final int i) {
+    return new StrategyChoice().setName(prefix(i)).setStrategy(new Name(STRATEGIES[i % STRATEGIES.length]));
+  }
+
+  /**
+   * @param i entry index
+   * @return a channel status
+   */
+  static ChannelStatus channelStatus(final int i) {
+    return new ChannelStatus()
+      .setLocalUri("udp4://10.0." + (i >> 8 & 0xFF) + "." + (i & 0xFF) + ":" + (6363 + i % 1000));
+  }
+
+  /**
+   * @param i entry index
+   * @return a distinct four-component prefix
+   */
+  static Name prefix(final int i) {
+    return new Name("/ndn/edu/site" + (i % 1000)).append("app" + i);
+  }
+
+  /**
+   * @param type dataset type
+   * @param i    entry index
+   * @return entry {@code i} of the dataset
+   */
+  static Object entry(final Type type, final int i) {
+    switch (type) {
+      case FaceStatus:
+        return faceStatus(i);
+      case FibEntry:
+        return fibEntry(i);
+      case RibEntry:
+        return ribEntry(i);
+      case StrategyChoice:
+        return strategyChoice(i);
+      case ChannelStatus:
+        return channelStatus(i);
+      default:
+        throw new IllegalArgumentException("Unknown dataset type: " + type);
+    }
+  }
+
+  /**
+   * @param type  dataset type
+   * @param count number of entries
+   * @return the entries, in index order
+   */
+  static List<Object> entries(final Type type, final int count) {
+    List<Object> entries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      entries.add(entry(type, i));
+    }
+    return entries;
+  }
+
+  /**
+   * @param type  dataset type
+   * @param count number of entries
+   * @return the dataset as a single payload, entries in index order
+   */
+  static Blob payload(final Type type, final int count) {
+    return encode(type, entries(type, count));
+  }
+
+  /**
+   * Encode a dataset the way NFD does: all entries back to back in one payload.
+   *
+   * @param type    dataset type
+   * @param entries the entries, as returned by {@link #entries(Type, int)}
+   * @return the dataset payload
+   */
+  static Blob encode(final Type type, final List<Object> entries) {
+    switch (type) {
+      case FaceStatus:
+        return DatasetGenerator.encode(entries, (entry, encoder) -> ((FaceStatus) entry).wireEncode(encoder));
+      case FibEntry:
+        return DatasetGenerator.encode(entries, (entry, encoder) -> ((FibEntry) entry).wireEncode(encoder));
+      case RibEntry:
+        return DatasetGenerator.encode(entries, (entry, encoder) -> ((RibEntry) entry).wireEncode(encoder));
+      case StrategyChoice:
+        return DatasetGenerator.encode(entries, (entry, encoder) -> ((StrategyChoice) entry).wireEncode(encoder));
+      case ChannelStatus:
+        return DatasetGenerator.encode(entries, (entry, encoder) -> ((ChannelStatus) entry).wireEncode(encoder));
+      default:
+        throw new IllegalArgumentException("Unknown dataset type: " + type);
+    }
+  }
+
+  /**
+   * Split a dataset payload into segments the way NFD publishes it.
+   *
+   * @param type    dataset type, for the segment names
+   * @param payload the dataset payload
+   * @return the segments, named /prefix/version/segment, each carrying the FinalBlockId
+   */
+  static List<Data> segments(final Type type, final Blob payload) {
+    return DatasetGenerator.segments(type.getPrefix().appendVersion(1), payload, SEGMENT_SIZE);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.benchmark;
+
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.FibEntry;
+import com.intel.jndn.management.types.ForwarderStatus;
+import com.intel.jndn.management.types.NextHopRecord;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.management.types.StrategyChoice;
+import net.named_data.jndn.util.Blob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to encode one entry of each management type with {@code wireEncode()}, which allocates a new TlvEncoder and
+ * Blob per call; the GC profiler shows the bytes allocated per entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntryEncodeBenchmark {
+  private FaceStatus faceStatus;
+  private FibEntry fibEntry;
+  private NextHopRecord nextHopRecord;
+  private RibEntry ribEntry;
+  private Route route;
+  private StrategyChoice strategyChoice;
+  private ForwarderStatus forwarderStatus;
+
+  /**
+   * Build the entries once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    faceStatus = Datasets.faceStatus(12345);
+    fibEntry = Datasets.fibEntry(12345);
+    nextHopRecord = new NextHopRecord().setFaceId(12345).setCost(10);
+    ribEntry = Datasets.ribEntry(12345);
+    route = Datasets.route(12345, RouteOrigin.STATIC, 10);
+    strategyChoice = Datasets.strategyChoice(12345);
+    forwarderStatus = new ForwarderStatus()
+      .setNfdVersion("0.7.1")
+      .setStartTimestamp(1600000000000L)
+      .setCurrentTimestamp(1600000123456L)
+      .setNNameTreeEntries(123456)
+      .setNFibEntries(12345)
+      .setNPitEntries(54321)
+      .setNMeasurementsEntries(1234)
+      .setNCsEntries(65536)
+      .setNInInterests(3000000000L)
+      .setNInData(2900000000L)
+      .setNInNacks(12345)
+      .setNOutInterests(3100000000L)
+      .setNOutData(2800000000L)
+      .setNOutNacks(23456)
+      .setNSatisfiedInterests(2750000000L)
+      .setNUnsatisfiedInterests(250000000L);
+  }
+
+  /**
+   * @return the encoding
+   */
+  @Benchmark
+  public Blob faceStatus() {
+    return faceStatus.wireEncode();
+  }
+
+  /**
+   * @return the encoding
+   */
+  @Benchmark
+  public Blob fibEntry() {
+    return fibEntry.wireEncode();
+  }
+
+  /**
+   * @return the encoding
+   */
+  @Benchmark
+  public Blob nextHopRecord() {
+    return nextHopRecord.wireEncode();
+  }
+
+  /**
+   * @return the encoding
+   */
+  @Benchmark
+  public Blob ribEntry() {
+    return ribEntry.wireEncode();
+  }
+
+  /**
+   * @return the encoding
+   */
+  @Benchmark
+  public Blob route() {
+    return route.wireEncode();
+  }
+
+  /**
+   * @return the encoding
+   */
+  @Benchmark
+  public Blob strategyChoice() {
+    return strategyChoice.wireEncode();
+  }
+
+  /**
+   * @return the encoding
+   */
+  @Benchmark
+  public Blob forwarderStatus() {
+    return forwarderStatus.wireEncode();
+  }
+}
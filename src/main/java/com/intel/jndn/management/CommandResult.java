@@ -0,0 +1,77 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.ControlResponse;
+
+/**
+ * Outcome of a single command sent as part of a batch, e.g. by
+ * {@link Nfdc#registerAll(net.named_data.jndn.Face, java.util.Collection)}.
+ */
+public final class CommandResult {
+  private final ControlParameters parameters;
+  private final ControlResponse response;
+  private final ManagementException error;
+
+  /**
+   * Constructor.
+   *
+   * @param parameters the {@link ControlParameters} sent with the command
+   * @param response   the forwarder's response, or null if none was decoded
+   * @param error      the reason the command failed, or null if it succeeded
+   */
+  public CommandResult(final ControlParameters parameters, final ControlResponse response,
+                       final ManagementException error) {
+    this.parameters = parameters;
+    this.response = response;
+    this.error = error;
+  }
+
+  /**
+   * @return true if the forwarder accepted the command
+   */
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  /**
+   * @return the {@link ControlParameters} sent with the command
+   */
+  public ControlParameters getParameters() {
+    return parameters;
+  }
+
+  /**
+   * @return the forwarder's response, or null if the command timed out or the response could not be decoded
+   */
+  public ControlResponse getResponse() {
+    return response;
+  }
+
+  /**
+   * @return the reason the command failed, or null if it succeeded
+   */
+  public ManagementException getError() {
+    return error;
+  }
+
+  @Override
+  public String toString() {
+    if (isSuccess()) {
+      return "CommandResult(OK)";
+    }
+    return "CommandResult(" + error.getMessage() + ")";
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import net.named_data.jndn.Name;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a paged Content Store purge; see {@link Nfdc#eraseCsAll(net.named_data.jndn.Face, Name, long)}.
+ */
+public final class CsEraseReport {
+  private final Name prefix;
+  private final long erasedCount;
+  private final int commandCount;
+  private final long elapsedNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param prefix       the purged prefix
+   * @param erasedCount  total number of packets erased
+   * @param commandCount number of cs/erase commands sent
+   * @param elapsedNanos duration of the purge in nanoseconds
+   */
+  public CsEraseReport(final Name prefix, final long erasedCount, final int commandCount, final long elapsedNanos) {
+    this.prefix = prefix;
+    this.erasedCount = erasedCount;
+    this.commandCount = commandCount;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * @return the purged prefix
+   */
+  public Name getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @return total number of packets erased
+   */
+  public long getErasedCount() {
+    return erasedCount;
+  }
+
+  /**
+   * @return number of cs/erase commands sent
+   */
+  public int getCommandCount() {
+    return commandCount;
+  }
+
+  /**
+   * @return duration of the purge in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * @return packets erased per second, or 0 if no time elapsed
+   */
+  public double getErasedPerSecond() {
+    return elapsedNanos <= 0 ? 0 : erasedCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "CsEraseReport(prefix: " + prefix.toUri() + ", erased: " + erasedCount + ", commands: " + commandCount +
+      ", elapsed: " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms)";
+  }
+}
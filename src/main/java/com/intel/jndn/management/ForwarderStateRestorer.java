@@ -0,0 +1,311 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import com.intel.jndn.management.types.NfdControlParameters;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.management.types.StrategyChoice;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Name;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Re-install routes and strategy choices lost in a forwarder restart. {@link #capture()} remembers the routes of the
+ * chosen origins (by default {@link RouteOrigin#STATIC}, i.e. those installed by operators) together with the remote
+ * URI of their face, and all strategy choices. {@link #restore()} re-creates the faces, whose IDs change across a
+ * restart, then registers the routes with the new face IDs and sets the strategy choices, each as one pipelined batch.
+ * A face that already exists, e.g. re-created by the forwarder's configuration, keeps the ID the forwarder reports.
+ * <p/>
+ * A capture remembers the forwarder's StartTimestamp and, until {@link #restore()} has run, does not replace a
+ * snapshot taken before a restart: a periodic capture that runs after the restart but before the restore would
+ * otherwise overwrite the routes to restore with the empty state of the restarted forwarder.
+ * <p/>
+ * Routes on on-demand faces are not captured: such faces are created by remote peers and cannot be re-created
+ * locally. Routes on reserved faces (e.g. the content store face) keep their face ID. Typical use, re-capturing
+ * periodically so the snapshot stays current:
+ * <pre>
+ *   ForwarderStateRestorer restorer = new ForwarderStateRestorer(forwarder);
+ *   restorer.capture();
+ *   RestartDetector detector = new RestartDetector(forwarder).addListener((previous, current) -&gt; {
+ *     try {
+ *       restorer.restore();
+ *       restorer.capture();
+ *     } catch (ManagementException e) {
+ *       ...
+ *     }
+ *   });
+ * </pre>
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/RibMgmt">RIB Management</a>
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/StrategyChoice">StrategyChoice</a>
+ */
+public final class ForwarderStateRestorer {
+  /**
+   * Face IDs below this value are reserved by NFD and identical across restarts.
+   */
+  private static final int MIN_DYNAMIC_FACE_ID = 256;
+  /**
+   * StartTimestamp of a capture whose forwarder instance is unknown.
+   */
+  private static final long UNKNOWN_START = -1;
+
+  private final Face face;
+  private final Set<RouteOrigin> origins = EnumSet.of(RouteOrigin.STATIC);
+  private int windowSize = Nfdc.DEFAULT_WINDOW_SIZE;
+  private List<SavedRoute> routes = Collections.emptyList();
+  private List<StrategyChoice> strategies = Collections.emptyList();
+  private long startTimestamp = UNKNOWN_START;
+  private boolean restored = false;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face only a localhost {@link Face}, command signing info must be set
+   */
+  public ForwarderStateRestorer(final Face face) {
+    this.face = face;
+  }
+
+  /**
+   * Choose the origins of the routes to capture; applies from the next capture.
+   *
+   * @param routeOrigins the origins, e.g. {@link RouteOrigin#STATIC} and {@link RouteOrigin#NLSR}
+   * @return this
+   */
+  public synchronized ForwarderStateRestorer setOrigins(final RouteOrigin... routeOrigins) {
+    origins.clear();
+    Collections.addAll(origins, routeOrigins);
+    return this;
+  }
+
+  /**
+   * Limit the number of command Interests in flight; defaults to {@link Nfdc#DEFAULT_WINDOW_SIZE}.
+   *
+   * @param windowSize maximum number of outstanding command Interests
+   * @return this
+   */
+  public synchronized ForwarderStateRestorer setWindowSize(final int windowSize) {
+    this.windowSize = windowSize;
+    return this;
+  }
+
+  /**
+   * Fetch faces/list, rib/list, strategy-choice/list and status/general and remember the routes and strategy choices
+   * to restore, replacing the previous capture unless that was taken before a forwarder restart and has not been
+   * restored yet. The status is fetched last, so that datasets fetched across a restart are attributed to the
+   * restarted forwarder and do not replace the snapshot either.
+   *
+   * @return true if the capture replaced the previous one
+   * @throws ManagementException if a dataset could not be retrieved
+   */
+  public boolean capture() throws ManagementException {
+    List<FaceStatus> faces = Nfdc.getFaceList(face);
+    List<RibEntry> rib = Nfdc.getRouteList(face);
+    List<StrategyChoice> strategyChoices = Nfdc.getStrategyList(face);
+    ForwarderStatus status = Nfdc.getForwarderStatus(face);
+    return capture(status.getStartTimestamp(), faces, rib, strategyChoices);
+  }
+
+  /**
+   * Remember routes and strategy choices obtained elsewhere, replacing the previous capture unconditionally.
+   *
+   * @param faces           the face dataset, to find the remote URI of each route's face
+   * @param rib             the RIB dataset
+   * @param strategyChoices the strategy choice dataset
+   */
+  public void capture(final Collection<FaceStatus> faces, final Collection<RibEntry> rib,
+                      final Collection<StrategyChoice> strategyChoices) {
+    capture(UNKNOWN_START, faces, rib, strategyChoices);
+  }
+
+  /**
+   * Remember routes and strategy choices obtained elsewhere; {@link #capture()} calls this. A snapshot taken under
+   * another StartTimestamp, i.e. before a restart, is kept until {@link #restore()} has run.
+   *
+   * @param forwarderStart  the StartTimestamp of the forwarder the datasets were fetched from
+   * @param faces           the face dataset, to find the remote URI of each route's face
+   * @param rib             the RIB dataset
+   * @param strategyChoices the strategy choice dataset
+   * @return true if the capture replaced the previous one
+   */
+  public synchronized boolean capture(final long forwarderStart, final Collection<FaceStatus> faces,
+                                      final Collection<RibEntry> rib,
+                                      final Collection<StrategyChoice> strategyChoices) {
+    if (forwarderStart != UNKNOWN_START && startTimestamp != UNKNOWN_START && forwarderStart != startTimestamp &&
+        !restored) {
+      return false;
+    }
+
+    Map<Integer, FaceStatus> facesById = new HashMap<>();
+    for (FaceStatus status : faces) {
+      facesById.put(status.getFaceId(), status);
+    }
+
+    List<SavedRoute> captured = new ArrayList<>();
+    for (RibEntry entry : rib) {
+      for (Route route : entry.getRoutes()) {
+        if (!isCaptured(route.getOrigin())) {
+          continue;
+        }
+        FaceStatus status = facesById.get(route.getFaceId());
+        if (route.getFaceId() < MIN_DYNAMIC_FACE_ID) {
+          captured.add(new SavedRoute(entry.getName(), route, null));
+        } else if (status != null && status.getFacePersistency() != FacePersistency.ON_DEMAND) {
+          captured.add(new SavedRoute(entry.getName(), route, status));
+        }
+      }
+    }
+    routes = captured;
+    strategies = new ArrayList<>(strategyChoices);
+    startTimestamp = forwarderStart;
+    restored = false;
+    return true;
+  }
+
+  /**
+   * @return number of routes remembered by the last capture
+   */
+  public synchronized int getRouteCount() {
+    return routes.size();
+  }
+
+  /**
+   * @return number of strategy choices remembered by the last capture
+   */
+  public synchronized int getStrategyCount() {
+    return strategies.size();
+  }
+
+  /**
+   * Re-create the faces of the captured routes, register the routes on them and set the captured strategy choices.
+   * A face that cannot be created fails its routes only; a rejected command does not stop the remaining ones. The
+   * face IDs remembered by {@link Nfdc#createFace(Face, String)} are forgotten first, as the restart invalidated them.
+   * Afterwards the next capture may replace the snapshot, whatever the forwarder's StartTimestamp.
+   *
+   * @return one {@link CommandResult} per captured route, in capture order, followed by one per strategy choice
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  public List<CommandResult> restore() throws ManagementException {
+    List<SavedRoute> savedRoutes;
+    List<StrategyChoice> savedStrategies;
+    int window;
+    synchronized (this) {
+      savedRoutes = routes;
+      savedStrategies = strategies;
+      window = windowSize;
+    }
+
+    // the face IDs remembered before the restart are stale
+    Nfdc.clearFaceIdCache(face);
+
+    // one pipelined faces/create per distinct face; the forwarder assigns new IDs, or reports an existing face
+    Map<String, NfdControlParameters> distinctFaces = new LinkedHashMap<>();
+    for (SavedRoute route : savedRoutes) {
+      if (route.face != null && !distinctFaces.containsKey(route.face.getRemoteUri())) {
+        distinctFaces.put(route.face.getRemoteUri(), new NfdControlParameters()
+          .setUri(route.face.getRemoteUri())
+          .setFacePersistency(route.face.getFacePersistency()));
+      }
+    }
+    Map<String, Integer> faceIds = new HashMap<>();
+    Map<String, ManagementException> faceErrors = new HashMap<>();
+    List<CommandResult> created = Nfdc.createFaceAll(face, new ArrayList<>(distinctFaces.values()), window);
+    int index = 0;
+    for (String uri : distinctFaces.keySet()) {
+      CommandResult result = created.get(index++);
+      if (result.isSuccess()) {
+        faceIds.put(uri, result.getResponse().getBodyAsControlParameters().getFaceId());
+      } else {
+        faceErrors.put(uri, result.getError());
+      }
+    }
+
+    // results keyed by position so that failed faces and pipelined registrations interleave in capture order
+    Map<Integer, CommandResult> failed = new HashMap<>();
+    List<ControlParameters> registrations = new ArrayList<>(savedRoutes.size());
+    for (int i = 0; i < savedRoutes.size(); i++) {
+      SavedRoute route = savedRoutes.get(i);
+      ControlParameters parameters = Nfdc.toControlParameters(route.prefix, route.route);
+      if (route.face != null) {
+        ManagementException error = faceErrors.get(route.face.getRemoteUri());
+        if (error != null) {
+          failed.put(i, new CommandResult(parameters, null, error));
+          continue;
+        }
+        parameters.setFaceId(faceIds.get(route.face.getRemoteUri()));
+      }
+      registrations.add(parameters);
+    }
+
+    List<CommandResult> registered = Nfdc.registerAll(face, registrations, window);
+    List<CommandResult> results = new ArrayList<>(savedRoutes.size() + savedStrategies.size());
+    int next = 0;
+    for (int i = 0; i < savedRoutes.size(); i++) {
+      CommandResult result = failed.get(i);
+      results.add(result != null ? result : registered.get(next++));
+    }
+    results.addAll(Nfdc.setStrategyAll(face, savedStrategies, window));
+    synchronized (this) {
+      restored = true;
+    }
+    return results;
+  }
+
+  /**
+   * @param origin a route origin code
+   * @return true if routes of this origin are captured
+   */
+  private boolean isCaptured(final int origin) {
+    for (RouteOrigin routeOrigin : origins) {
+      if (routeOrigin.toInteger() == origin) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * A captured route and the face it was on.
+   */
+  private static final class SavedRoute {
+    private final Name prefix;
+    private final Route route;
+    private final FaceStatus face;
+
+    private SavedRoute(final Name prefix, final Route route, final FaceStatus face) {
+      this.prefix = prefix;
+      this.route = route;
+      this.face = face;
+    }
+  }
+}
@@ -0,0 +1,380 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.Strategies;
+import com.intel.jndn.management.helpers.OperationStats;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Name;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drive the management path of a forwarder with many concurrent clients and measure how much it sustains.
+ * <p/>
+ * Each client runs on its own thread with its own {@link Face} and sends one operation after another (a closed loop,
+ * so the offered load adapts to the forwarder's speed): operations are taken in turn from a schedule built from the
+ * weights given to {@link #setWeight(Operation, int)}. A client registers routes under
+ * {@code <prefix>/<client>/<n>}, unregisters the oldest of them, and sets the strategy of {@code <prefix>/<client>};
+ * the routes left over and the strategy choices are removed when the client stops, without being measured. Every
+ * operation is timed into the {@link OperationStats} of the {@link LoadReport}.
+ * <p/>
+ * Example, against a local NFD:
+ * <pre>{@code
+ * LoadReport report = new LoadGenerator(() -> {
+ *     Face face = new Face("localhost");
+ *     face.setCommandSigningInfo(keyChain, keyChain.getDefaultCertificateName());
+ *     return face;
+ *   })
+ *   .setClients(16)
+ *   .setDuration(30, TimeUnit.SECONDS)
+ *   .setWeight(LoadGenerator.Operation.RIB_LIST, 0)
+ *   .run();
+ * System.out.println(report);
+ * }</pre>
+ */
+public final class LoadGenerator {
+  private static final Logger LOG = Logger.getLogger(LoadGenerator.class.getName());
+  private static final int DEFAULT_CLIENTS = 4;
+  private static final long DEFAULT_DURATION = TimeUnit.SECONDS.toNanos(10);
+  private static final int DEFAULT_COMMAND_WEIGHT = 4;
+
+  private final FaceFactory faceFactory;
+  private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+  private int nClients = DEFAULT_CLIENTS;
+  private long durationNanos = DEFAULT_DURATION;
+  private long operationsPerClient = -1;
+  private Name prefix = new Name("/localhost/load-generator");
+  private Name strategy = Strategies.MULTICAST;
+  private int cost = 0;
+
+  /**
+   * Operations a client can send.
+   */
+  public enum Operation {
+    /**
+     * rib/register of a new prefix.
+     */
+    REGISTER,
+    /**
+     * rib/unregister of the oldest prefix the client registered.
+     */
+    UNREGISTER,
+    /**
+     * strategy-choice/set on the client's prefix.
+     */
+    SET_STRATEGY,
+    /**
+     * Fetch of the faces/list dataset.
+     */
+    FACE_LIST,
+    /**
+     * Fetch of the fib/list dataset.
+     */
+    FIB_LIST,
+    /**
+     * Fetch of the rib/list dataset.
+     */
+    RIB_LIST,
+    /**
+     * Fetch of the status/general dataset.
+     */
+    STATUS
+  }
+
+  /**
+   * Creates the face of each client.
+   */
+  @FunctionalInterface
+  public interface FaceFactory {
+    /**
+     * @return a new localhost Face with command signing info set; it is used by a single client thread and shut
+     * down when the client stops
+     * @throws IOException if the face cannot be created
+     */
+    Face newFace() throws IOException;
+  }
+
+  /**
+   * Constructor; by default 4 clients run for 10 seconds and register, unregister and fetch rib/list in a 4:4:1
+   * ratio.
+   *
+   * @param faceFactory creates the face of each client
+   */
+  public LoadGenerator(final FaceFactory faceFactory) {
+    this.faceFactory = faceFactory;
+    weights.put(Operation.REGISTER, DEFAULT_COMMAND_WEIGHT);
+    weights.put(Operation.UNREGISTER, DEFAULT_COMMAND_WEIGHT);
+    weights.put(Operation.RIB_LIST, 1);
+  }
+
+  /**
+   * @param clients number of concurrent clients
+   * @return this
+   */
+  public LoadGenerator setClients(final int clients) {
+    if (clients < 1) {
+      throw new IllegalArgumentException("Number of clients must be positive: " + clients);
+    }
+    this.nClients = clients;
+    return this;
+  }
+
+  /**
+   * @param duration how long the clients run
+   * @param unit     unit of {@code duration}
+   * @return this
+   */
+  public LoadGenerator setDuration(final long duration, final TimeUnit unit) {
+    this.durationNanos = unit.toNanos(duration);
+    return this;
+  }
+
+  /**
+   * Stop each client after a number of operations, even if the duration has not elapsed.
+   *
+   * @param operations number of operations per client; negative for no limit (the default)
+   * @return this
+   */
+  public LoadGenerator setOperationsPerClient(final long operations) {
+    this.operationsPerClient = operations;
+    return this;
+  }
+
+  /**
+   * @param operation an operation
+   * @param weight    how many times the operation occurs in each round of a client's schedule; 0 to leave it out
+   * @return this
+   */
+  public LoadGenerator setWeight(final Operation operation, final int weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Weight must not be negative: " + weight);
+    }
+    weights.put(operation, weight);
+    return this;
+  }
+
+  /**
+   * @param prefix the prefix under which clients register routes and set strategies
+   * @return this
+   */
+  public LoadGenerator setPrefix(final Name prefix) {
+    this.prefix = new Name(prefix);
+    return this;
+  }
+
+  /**
+   * @param strategy the strategy set by {@link Operation#SET_STRATEGY}, multicast by default
+   * @return this
+   */
+  public LoadGenerator setStrategy(final Name strategy) {
+    this.strategy = new Name(strategy);
+    return this;
+  }
+
+  /**
+   * @param cost the cost of the registered routes
+   * @return this
+   */
+  public LoadGenerator setCost(final int cost) {
+    this.cost = cost;
+    return this;
+  }
+
+  /**
+   * Run the clients until the duration elapses or each client has sent its operations.
+   *
+   * @return the measurements
+   * @throws IOException if a client face cannot be created
+   * @throws InterruptedException if interrupted while waiting for the clients
+   */
+  public LoadReport run() throws IOException, InterruptedException {
+    // interleave the operations, e.g. weights 2:2:1 give the round A B C A B
+    List<Operation> schedule = new ArrayList<>();
+    int maxWeight = weights.isEmpty() ? 0 : Collections.max(weights.values());
+    for (int round = 0; round < maxWeight; round++) {
+      for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+        if (weight.getValue() > round) {
+          schedule.add(weight.getKey());
+        }
+      }
+    }
+    if (schedule.isEmpty()) {
+      throw new IllegalStateException("All operation weights are 0");
+    }
+
+    Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, new OperationStats(operation.name()));
+    }
+
+    // create all faces first so that connection setup is not measured
+    List<Face> faces = new ArrayList<>(nClients);
+    try {
+      for (int i = 0; i < nClients; i++) {
+        faces.add(faceFactory.newFace());
+      }
+    } catch (IOException e) {
+      for (Face face : faces) {
+        face.shutdown();
+      }
+      throw e;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(nClients);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    AtomicLong start = new AtomicLong();
+    List<Future<Long>> clients = new ArrayList<>(nClients);
+    try {
+      for (int i = 0; i < nClients; i++) {
+        Client client = new Client(faces.get(i), new Name(prefix).appendSegment(i), schedule, stats);
+        clients.add(executor.submit(() -> {
+          startSignal.await();
+          return client.run(start.get() + durationNanos);
+        }));
+      }
+      start.set(System.nanoTime());
+      startSignal.countDown();
+
+      long end = start.get();
+      for (Future<Long> client : clients) {
+        end = Math.max(end, client.get());
+      }
+      return new LoadReport(nClients, end - start.get(), stats);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Load generator client failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      for (Face face : faces) {
+        face.shutdown();
+      }
+    }
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * The state of one client; used by a single thread.
+   */
+  private final class Client {
+    private final Face face;
+    private final Name clientPrefix;
+    private final List<Operation> schedule;
+    private final Map<Operation, OperationStats> stats;
+    private final Deque<Name> registered = new ArrayDeque<>();
+    private long nRegistered = 0;
+    private boolean strategySet = false;
+
+    private Client(final Face face, final Name clientPrefix, final List<Operation> schedule,
+                   final Map<Operation, OperationStats> stats) {
+      this.face = face;
+      this.clientPrefix = clientPrefix;
+      this.schedule = schedule;
+      this.stats = stats;
+    }
+
+    /**
+     * Send operations until the deadline or the operation limit, then clean up.
+     *
+     * @param deadline when to stop, as given by {@link System#nanoTime()}
+     * @return when the last measured operation completed, as given by {@link System#nanoTime()}
+     */
+    private long run(final long deadline) {
+      long now = System.nanoTime();
+      for (long n = 0; (operationsPerClient < 0 || n < operationsPerClient) && now < deadline; n++) {
+        Operation operation = schedule.get((int) (n % schedule.size()));
+        String outcome = OperationStats.SUCCESS;
+        try {
+          execute(operation);
+        } catch (ManagementException e) {
+          outcome = Nfdc.outcome(e);
+        }
+        long completed = System.nanoTime();
+        stats.get(operation).record(completed - now, outcome);
+        now = completed;
+      }
+      cleanUp();
+      return now;
+    }
+
+    private void execute(final Operation operation) throws ManagementException {
+      switch (operation) {
+        case REGISTER:
+          Name route = new Name(clientPrefix).appendSegment(nRegistered++);
+          // remembered before sending: a route whose reply was lost may still have been registered
+          registered.addLast(route);
+          Nfdc.register(face, route, cost);
+          break;
+        case UNREGISTER:
+          Nfdc.unregister(face, registered.isEmpty() ? new Name(clientPrefix).appendSegment(nRegistered) :
+            registered.removeFirst());
+          break;
+        case SET_STRATEGY:
+          strategySet = true;
+          Nfdc.setStrategy(face, clientPrefix, strategy);
+          break;
+        case FACE_LIST:
+          Nfdc.getFaceList(face);
+          break;
+        case FIB_LIST:
+          Nfdc.getFibList(face);
+          break;
+        case RIB_LIST:
+          Nfdc.getRouteList(face);
+          break;
+        case STATUS:
+          Nfdc.getForwarderStatus(face);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown operation: " + operation);
+      }
+    }
+
+    /**
+     * Remove the routes and strategy choice left by this client; failures are only logged.
+     */
+    private void cleanUp() {
+      try {
+        List<ControlParameters> routes = new ArrayList<>(registered.size());
+        for (Name route : registered) {
+          routes.add(new ControlParameters().setName(route));
+        }
+        registered.clear();
+        Nfdc.unregisterAll(face, routes);
+        if (strategySet) {
+          Nfdc.unsetStrategy(face, clientPrefix);
+        }
+      } catch (ManagementException e) {
+        LOG.log(Level.INFO, "Failed to clean up after client " + clientPrefix.toUri(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.helpers.LatencyHistogram;
+import com.intel.jndn.management.helpers.OperationStats;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measurements of a {@link LoadGenerator} run: per operation, the number of operations completed and failed and the
+ * latency distribution of each outcome.
+ */
+public final class LoadReport {
+  private static final double PERCENT = 100.0;
+  private static final double P50 = 50;
+  private static final double P99 = 99;
+  private static final double P999 = 99.9;
+
+  private final int clientCount;
+  private final long elapsedNanos;
+  private final Map<LoadGenerator.Operation, OperationStats> stats;
+
+  /**
+   * Constructor.
+   *
+   * @param clientCount  number of concurrent clients
+   * @param elapsedNanos duration of the run in nanoseconds
+   * @param stats        measurements of each operation
+   */
+  public LoadReport(final int clientCount, final long elapsedNanos,
+                    final Map<LoadGenerator.Operation, OperationStats> stats) {
+    this.clientCount = clientCount;
+    this.elapsedNanos = elapsedNanos;
+    this.stats = Collections.unmodifiableMap(new EnumMap<>(stats));
+  }
+
+  /**
+   * @return number of concurrent clients
+   */
+  public int getClientCount() {
+    return clientCount;
+  }
+
+  /**
+   * @return duration of the run in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * @return measurements of each operation, including those that were not sent
+   */
+  public Map<LoadGenerator.Operation, OperationStats> getOperationStats() {
+    return stats;
+  }
+
+  /**
+   * @param operation an operation
+   * @return number of operations completed, successfully or not
+   */
+  public long getCount(final LoadGenerator.Operation operation) {
+    return stats.get(operation).getCount();
+  }
+
+  /**
+   * @param operation an operation
+   * @return operations completed per second, successfully or not; 0 if no time elapsed
+   */
+  public double getThroughput(final LoadGenerator.Operation operation) {
+    return elapsedNanos <= 0 ? 0 : getCount(operation) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  /**
+   * @param operation an operation
+   * @return fraction of the completed operations that failed, in [0, 1]; 0 if none completed
+   */
+  public double getErrorRate(final LoadGenerator.Operation operation) {
+    long count = getCount(operation);
+    return count == 0 ? 0 : (double) stats.get(operation).getFailureCount() / count;
+  }
+
+  /**
+   * @param operation an operation
+   * @return latency distribution of the successful operations
+   */
+  public LatencyHistogram.Snapshot getLatency(final LoadGenerator.Operation operation) {
+    LatencyHistogram.Snapshot snapshot = stats.get(operation).snapshot().get(OperationStats.SUCCESS);
+    return snapshot != null ? snapshot : new LatencyHistogram().snapshot();
+  }
+
+  /**
+   * @param operation an operation
+   * @return number of failures of each kind, e.g. "timeout" or "nfd-403"; see {@link OperationStats}
+   */
+  public Map<String, Long> getFailures(final LoadGenerator.Operation operation) {
+    Map<String, Long> failures = new TreeMap<>();
+    for (Map.Entry<String, LatencyHistogram.Snapshot> outcome : stats.get(operation).snapshot().entrySet()) {
+      if (!OperationStats.SUCCESS.equals(outcome.getKey())) {
+        failures.put(outcome.getKey(), outcome.getValue().getCount());
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * @return one line per operation that was sent, with its throughput, error rate and latency percentiles
+   */
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder();
+    out.append("LoadReport(clients: ").append(clientCount)
+      .append(", elapsed: ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms)");
+    for (LoadGenerator.Operation operation : stats.keySet()) {
+      if (getCount(operation) == 0) {
+        continue;
+      }
+      LatencyHistogram.Snapshot latency = getLatency(operation);
+      out.append(String.format("%n  %-12s %10.1f ops/s, errors %6.2f%% %s, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms",
+                               operation, getThroughput(operation), getErrorRate(operation) * PERCENT,
+                               getFailures(operation), millis(latency.getValueAtPercentile(P50)),
+                               millis(latency.getValueAtPercentile(P99)), millis(latency.getValueAtPercentile(P999))));
+    }
+    return out.toString();
+  }
+
+  private static double millis(final long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
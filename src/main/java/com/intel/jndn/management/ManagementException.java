@@ -25,12 +25,15 @@ import net.named_data.jndn.ControlResponse;
  * @author Andrew Brown <andrew.brown@intel.com>
  */
 public class ManagementException extends Exception {
+  private final int statusCode;
+
   /**
    * Constructor from the message.
    * @param message Error message
    */
   public ManagementException(final String message) {
     super(message);
+    this.statusCode = -1;
   }
 
   /**
@@ -40,6 +43,17 @@ public class ManagementException extends Exception {
    */
   public ManagementException(final String message, final Throwable cause) {
     super(message, cause);
+    this.statusCode = -1;
+  }
+
+  /**
+   * Constructor from the message and the status code of a rejected command.
+   * @param message Error message
+   * @param statusCode Status code returned by the forwarder
+   */
+  private ManagementException(final String message, final int statusCode) {
+    super(message);
+    this.statusCode = statusCode;
   }
 
   /**
@@ -49,6 +63,13 @@ public class ManagementException extends Exception {
    */
   public static ManagementException fromResponse(final ControlResponse response) {
     String message = "Action failed, forwarder returned: " + response.getStatusCode() + " " + response.getStatusText();
-    return new ManagementException(message);
+    return new ManagementException(message, response.getStatusCode());
+  }
+
+  /**
+   * @return the status code returned by the forwarder, or -1 if the failure was not a rejected command
+   */
+  public int getStatusCode() {
+    return statusCode;
   }
 }
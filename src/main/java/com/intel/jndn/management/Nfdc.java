@@ -13,14 +13,26 @@
  */
 package com.intel.jndn.management;
 
+import com.intel.jndn.management.enums.CsFlags;
+import com.intel.jndn.management.enums.NfdTlv;
 import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.helpers.CommandSigner;
+import com.intel.jndn.management.helpers.EncodingHelper;
 import com.intel.jndn.management.helpers.FetchHelper;
+import com.intel.jndn.management.helpers.FetchTimeoutException;
+import com.intel.jndn.management.helpers.InterestSigner;
+import com.intel.jndn.management.helpers.NetworkNackException;
+import com.intel.jndn.management.helpers.OperationStats;
+import com.intel.jndn.management.helpers.SingleFlight;
 import com.intel.jndn.management.helpers.StatusDatasetHelper;
 import com.intel.jndn.management.types.ChannelStatus;
+import com.intel.jndn.management.types.CsInfo;
 import com.intel.jndn.management.types.FaceStatus;
 import com.intel.jndn.management.types.FibEntry;
 import com.intel.jndn.management.types.ForwarderStatus;
+import com.intel.jndn.management.types.NfdControlParameters;
 import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
 import com.intel.jndn.management.types.StrategyChoice;
 import net.named_data.jndn.ControlParameters;
 import net.named_data.jndn.ControlResponse;
@@ -31,10 +43,20 @@ import net.named_data.jndn.KeyLocator;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.RegistrationOptions;
 import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.encoding.tlv.TlvDecoder;
 import net.named_data.jndn.security.SecurityException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Helper class for interacting with an NDN forwarder daemon; see
@@ -44,8 +66,19 @@ import java.util.List;
  * @author Andrew Brown <andrew.brown@intel.com>
  */
 public final class Nfdc {
-  private static final int OK_STATUS = 200;
-  private static final int FACE_ALREADY_EXISTS = 409;
+  public static final int DEFAULT_WINDOW_SIZE = 64;
+  static final int OK_STATUS = 200;
+  static final int FACE_ALREADY_EXISTS = 409;
+  static final int FACE_NOT_FOUND = 410;
+  private static final long COMMAND_TIMEOUT = 2000;
+  private static final Map<Face, CommandSigner> COMMAND_SIGNERS =
+    Collections.synchronizedMap(new WeakHashMap<Face, CommandSigner>());
+  private static final int DEFAULT_NFD_PORT = 6363;
+  private static final Map<Face, Map<String, Integer>> FACE_IDS =
+    Collections.synchronizedMap(new WeakHashMap<Face, Map<String, Integer>>());
+  private static final SingleFlight<FaceKey, Integer> FACE_CREATIONS = new SingleFlight<>();
+  private static final SingleFlight<FaceKey, List<Data>> DATASET_FETCHES = new SingleFlight<>();
+  private static final ConcurrentMap<String, OperationStats> OPERATION_STATS = new ConcurrentHashMap<>();
 
   /////////////////////////////////////////////////////////////////////////////
 
@@ -55,6 +88,34 @@ public final class Nfdc {
   private Nfdc() {
   }
 
+  /**
+   * Sign all commands sent on the given face with a {@link CommandSigner} instead of Face.makeCommandInterest();
+   * use this when several threads send commands through the same forwarder (each command is signed and sent as one
+   * {@link CommandSigner#dispatch dispatch} of the signer, so timestamps reach the forwarder in increasing order), or
+   * to sign the commands that fill the window of {@link #registerAll(Face, Collection, int)} in parallel.
+   *
+   * @param face   only a localhost {@link Face}
+   * @param signer the signer to use, or null to go back to the face's command signing info
+   */
+  public static void setCommandSigner(final Face face, final CommandSigner signer) {
+    if (signer == null) {
+      COMMAND_SIGNERS.remove(face);
+    } else {
+      COMMAND_SIGNERS.put(face, signer);
+    }
+  }
+
+  /**
+   * Counts, failures and durations of the dataset fetches and commands sent by this class, across all faces, keyed
+   * by operation, e.g. "faces/list" or "rib/register". Pipelined commands (e.g. {@link #registerAll(Face, Collection,
+   * int)}) are recorded one by one, each with the time from its first transmission to its reply.
+   *
+   * @return a live, read-only view of the statistics
+   */
+  public static Map<String, OperationStats> getOperationStats() {
+    return Collections.unmodifiableMap(OPERATION_STATS);
+  }
+
   /**
    * Retrieve the status of the given forwarder; calls /localhost/nfd/status/general
    * which requires a local Face (all non-local packets are dropped).
@@ -66,7 +127,7 @@ public final class Nfdc {
    */
   public static ForwarderStatus getForwarderStatus(final Face face) throws ManagementException {
     try {
-      List<Data> segments = FetchHelper.getSegmentedData(face, new Name("/localhost/nfd/status/general"));
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/status/general"));
       return new ForwarderStatus(StatusDatasetHelper.combine(segments));
     } catch (IOException | EncodingException e) {
       throw new ManagementException(e.getMessage(), e);
@@ -85,7 +146,7 @@ public final class Nfdc {
    */
   public static List<FaceStatus> getFaceList(final Face face) throws ManagementException {
     try {
-      List<Data> segments = FetchHelper.getSegmentedData(face, new Name("/localhost/nfd/faces/list"));
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/faces/list"));
       return StatusDatasetHelper.wireDecode(segments, FaceStatus.class);
     } catch (IOException e) {
       throw new ManagementException(e.getMessage(), e);
@@ -104,7 +165,7 @@ public final class Nfdc {
    */
   public static List<FibEntry> getFibList(final Face face) throws ManagementException {
     try {
-      List<Data> segments = FetchHelper.getSegmentedData(face, new Name("/localhost/nfd/fib/list"));
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/fib/list"));
       return StatusDatasetHelper.wireDecode(segments, FibEntry.class);
     } catch (IOException e) {
       throw new ManagementException(e.getMessage(), e);
@@ -123,7 +184,7 @@ public final class Nfdc {
    */
   public static List<RibEntry> getRouteList(final Face face) throws ManagementException {
     try {
-      List<Data> segments = FetchHelper.getSegmentedData(face, new Name("/localhost/nfd/rib/list"));
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/rib/list"));
       return StatusDatasetHelper.wireDecode(segments, RibEntry.class);
     } catch (IOException e) {
       throw new ManagementException(e.getMessage(), e);
@@ -143,7 +204,7 @@ public final class Nfdc {
    */
   public static List<StrategyChoice> getStrategyList(final Face face) throws ManagementException {
     try {
-      List<Data> segments = FetchHelper.getSegmentedData(face, new Name("/localhost/nfd/strategy-choice/list"));
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/strategy-choice/list"));
       return StatusDatasetHelper.wireDecode(segments, StrategyChoice.class);
     } catch (IOException e) {
       throw new ManagementException(e.getMessage(), e);
@@ -163,13 +224,117 @@ public final class Nfdc {
    */
   public static List<ChannelStatus> getChannelStatusList(final Face face) throws ManagementException {
     try {
-      List<Data> segments = FetchHelper.getSegmentedData(face, new Name("/localhost/nfd/faces/channels"));
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/faces/channels"));
       return StatusDatasetHelper.wireDecode(segments, ChannelStatus.class);
     } catch (IOException e) {
       throw new ManagementException(e.getMessage(), e);
     }
   }
 
+  /**
+   * Retrieve the Content Store configuration and counters; calls /localhost/nfd/cs/info which requires a local Face
+   * (all non-local packets are dropped).
+   *
+   * @param face only a localhost Face
+   * @return the CS information
+   * @throws ManagementException if the network request failed or the returned information could not be decoded
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/CsMgmt#CS-Information-Dataset">CS Information</a>
+   */
+  public static CsInfo getCsInfo(final Face face) throws ManagementException {
+    try {
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/cs/info"));
+      return new CsInfo(StatusDatasetHelper.combine(segments));
+    } catch (IOException | EncodingException e) {
+      throw new ManagementException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Change the Content Store capacity and/or its admit and serve flags; only the capacity if set and the flags in
+   * the mask (see {@link NfdControlParameters#setFlag(CsFlags, boolean)}) are changed. Ensure the forwarding face is
+   * on the local machine (management requests are to /localhost/...) and that command signing has been set up (e.g.
+   * forwarder.setCommandSigningInfo()).
+   *
+   * @param face       only a localhost {@link Face}
+   * @param parameters the capacity and flags to set
+   * @return the CS configuration after the change (capacity and flags)
+   * @throws ManagementException if the network request failed, the NFD response could not be decoded, or
+   *                             the NFD rejected the request
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/CsMgmt#Configure-CS">Configure CS</a>
+   */
+  public static NfdControlParameters setCsConfig(final Face face, final NfdControlParameters parameters)
+    throws ManagementException {
+    return sendCommand(face, new Name("/localhost/nfd/cs/config"), parameters);
+  }
+
+  /**
+   * Change the Content Store capacity; see {@link #setCsConfig(Face, NfdControlParameters)}.
+   *
+   * @param face     only a localhost {@link Face}
+   * @param capacity maximum number of packets the Content Store may hold
+   * @param admit    whether the Content Store admits new Data
+   * @param serve    whether the Content Store satisfies Interests
+   * @return the CS configuration after the change (capacity and flags)
+   * @throws ManagementException if the network request failed, the NFD response could not be decoded, or
+   *                             the NFD rejected the request
+   */
+  public static NfdControlParameters setCsConfig(final Face face, final long capacity, final boolean admit,
+                                                 final boolean serve) throws ManagementException {
+    return setCsConfig(face, new NfdControlParameters()
+      .setCapacity(capacity)
+      .setFlag(CsFlags.ENABLE_ADMIT, admit)
+      .setFlag(CsFlags.ENABLE_SERVE, serve));
+  }
+
+  /**
+   * Erase cached Data under a prefix from the Content Store, at most {@code limit} packets per command. Ensure the
+   * forwarding face is on the local machine (management requests are to /localhost/...) and that command signing
+   * has been set up (e.g. forwarder.setCommandSigningInfo()).
+   *
+   * @param face   only a localhost {@link Face}
+   * @param prefix the {@link Name} prefix of the Data to erase
+   * @param limit  maximum number of packets to erase, or -1 for the forwarder's own limit
+   * @return the response: {@link NfdControlParameters#getCount()} is the number of packets erased; if
+   * {@link NfdControlParameters#getCapacity()} is set, the limit was reached and more packets may remain
+   * @throws ManagementException if the network request failed, the NFD response could not be decoded, or
+   *                             the NFD rejected the request
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/CsMgmt#Erase-entries">Erase entries</a>
+   */
+  public static NfdControlParameters eraseCs(final Face face, final Name prefix, final long limit)
+    throws ManagementException {
+    return sendCommand(face, new Name("/localhost/nfd/cs/erase"),
+                       new NfdControlParameters().setName(prefix).setCount(limit));
+  }
+
+  /**
+   * Erase all cached Data under a prefix, {@code pageSize} packets per cs/erase command, until the forwarder reports
+   * that no more remain. Each command holds the forwarder only as long as it takes to erase one page, so a purge of
+   * millions of packets does not stall packet processing.
+   *
+   * @param face     only a localhost {@link Face}
+   * @param prefix   the {@link Name} prefix of the Data to erase
+   * @param pageSize maximum number of packets to erase per command
+   * @return the erased total, number of commands and duration
+   * @throws ManagementException if a command failed; packets erased by earlier commands stay erased
+   */
+  public static CsEraseReport eraseCsAll(final Face face, final Name prefix, final long pageSize)
+    throws ManagementException {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+
+    long start = System.nanoTime();
+    long erased = 0;
+    int commands = 0;
+    NfdControlParameters response;
+    do {
+      response = eraseCs(face, prefix, pageSize);
+      commands++;
+      erased += Math.max(response.getCount(), 0);
+    } while (response.getCapacity() >= 0 && response.getCount() > 0);
+    return new CsEraseReport(prefix, erased, commands, System.nanoTime() - start);
+  }
+
   /**
    * Retrieve the {@link KeyLocator} for an NFD.
    *
@@ -180,7 +345,7 @@ public final class Nfdc {
    */
   public static KeyLocator getKeyLocator(final Face face) throws ManagementException {
     try {
-      List<Data> segments = FetchHelper.getSegmentedData(face, new Name("/localhost/nfd/status/general"));
+      List<Data> segments = fetchDataset(face, new Name("/localhost/nfd/status/general"));
       if (segments.isEmpty() || !KeyLocator.canGetFromSignature(segments.get(0).getSignature())) {
         throw new ManagementException("No key locator available.");
       }
@@ -194,6 +359,11 @@ public final class Nfdc {
    * Create a new face on the given forwarder. Ensure the forwarding face is on
    * the local machine (management requests are to /localhost/...) and that
    * command signing has been set up (e.g. forwarder.setCommandSigningInfo()).
+   * <p/>
+   * Concurrent calls for the same URI send a single faces/create command and share its face ID; the face ID is then
+   * remembered per forwarder and URI, so later calls (e.g. from
+   * {@link #register(Face, String, Name, int)}) need no round trip until the face is destroyed with
+   * {@link #destroyFace(Face, int)} or the cache is cleared with {@link #clearFaceIdCache(Face)}.
    *
    * @param face only a localhost {@link Face}
    * @param uri  a string like "tcp4://host.name.com" (see nfd-status channels
@@ -203,20 +373,110 @@ public final class Nfdc {
    *                             the NFD rejected the request
    */
   public static int createFace(final Face face, final String uri) throws ManagementException {
-    Name command = new Name("/localhost/nfd/faces/create");
-    ControlParameters parameters = new ControlParameters();
-    parameters.setUri(uri);
-    command.append(parameters.wireEncode());
+    return createFace(face, new NfdControlParameters().setUri(uri));
+  }
 
-    try {
-      // send the interest
-      ControlResponse response = sendCommand(face, command);
+  /**
+   * Forget the face IDs remembered by {@link #createFace(Face, String)} for the given forwarder; call this when faces
+   * may have been destroyed by another application or closed by the forwarder.
+   *
+   * @param face only a localhost {@link Face}
+   */
+  public static void clearFaceIdCache(final Face face) {
+    FACE_IDS.remove(face);
+  }
 
-      // return
-      return response.getBodyAsControlParameters().getFaceId();
-    } catch (IOException | EncodingException e) {
-      throw new ManagementException(e.getMessage(), e);
+  /**
+   * Create a new face on the given forwarder with full control over its properties (persistency, MTU, congestion
+   * marking, flags). Ensure the forwarding face is on the local machine (management requests are to /localhost/...)
+   * and that command signing has been set up (e.g. forwarder.setCommandSigningInfo()).
+   * <p/>
+   * The face ID is cached and concurrent calls are coalesced as by {@link #createFace(Face, String)}, keyed on the
+   * remote URI: if the face is already known, its ID is returned and the other properties are not sent.
+   *
+   * @param face       only a localhost {@link Face}
+   * @param parameters the face properties; the remote URI must be set
+   * @return the newly created face ID (or the ID of the already existing face with that URI)
+   * @throws ManagementException if the network request failed, the NFD response could not be decoded, or
+   *                             the NFD rejected the request
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/FaceMgmt#Create-a-face">Create a face</a>
+   */
+  public static int createFace(final Face face, final NfdControlParameters parameters) throws ManagementException {
+    if (parameters.getUri() == null) {
+      // nothing to cache by; let the forwarder reject the command
+      return sendCommand(face, new Name("/localhost/nfd/faces/create"), parameters).getFaceId();
+    }
+
+    final String canonicalUri = canonicalizeUri(parameters.getUri());
+    final Map<String, Integer> faceIds = FACE_IDS.computeIfAbsent(face, f -> new ConcurrentHashMap<>());
+    Integer cached = faceIds.get(canonicalUri);
+    if (cached != null) {
+      return cached;
+    }
+
+    // concurrent callers for the same URI share one faces/create command
+    return FACE_CREATIONS.execute(new FaceKey(face, canonicalUri), () -> {
+      NfdControlParameters created = sendCommand(face, new Name("/localhost/nfd/faces/create"), parameters);
+
+      // remember the face under both the requested and the forwarder's canonical URI
+      faceIds.put(canonicalUri, created.getFaceId());
+      if (created.getUri() != null && !created.getUri().isEmpty()) {
+        faceIds.put(canonicalizeUri(created.getUri()), created.getFaceId());
+      }
+      return created.getFaceId();
+    });
+  }
+
+  /**
+   * Create several faces, pipelining the faces/create commands; see {@link #createFace(Face, NfdControlParameters)}.
+   * A face that already exists counts as created. The face IDs are remembered as by {@link #createFace(Face, String)}.
+   *
+   * @param face       only a localhost {@link Face}
+   * @param parameters the properties of each face; the remote URI must be set
+   * @param windowSize maximum number of outstanding command Interests
+   * @return one {@link CommandResult} per face, in list order; its parameters carry the URI only and the face ID is
+   * in the body of its response
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  static List<CommandResult> createFaceAll(final Face face, final List<NfdControlParameters> parameters,
+                                           final int windowSize) throws ManagementException {
+    Name verb = new Name("/localhost/nfd/faces/create");
+    List<Name> commands = new ArrayList<>(parameters.size());
+    List<ControlParameters> sent = new ArrayList<>(parameters.size());
+    for (NfdControlParameters faceParameters : parameters) {
+      commands.add(new Name(verb).append(faceParameters.wireEncode()));
+      sent.add(new ControlParameters().setUri(faceParameters.getUri()));
     }
+
+    List<CommandResult> results = pipelineCommands(face, commands, sent, windowSize);
+    Map<String, Integer> faceIds = FACE_IDS.computeIfAbsent(face, f -> new ConcurrentHashMap<>());
+    for (int i = 0; i < results.size(); i++) {
+      if (results.get(i).isSuccess()) {
+        faceIds.put(canonicalizeUri(parameters.get(i).getUri()),
+                    results.get(i).getResponse().getBodyAsControlParameters().getFaceId());
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Change the properties of an existing face in place, e.g. to tune congestion marking on a busy link without
+   * destroying and re-creating the face. Only the fields set in {@code parameters} are changed; flags are changed
+   * only for the bits set in the mask (see {@link NfdControlParameters#setFlag}). Ensure the forwarding face is on
+   * the local machine (management requests are to /localhost/...) and that command signing has been set up (e.g.
+   * forwarder.setCommandSigningInfo()).
+   *
+   * @param face       only a localhost {@link Face}
+   * @param parameters the face ID and the properties to change
+   * @return the properties of the face after the update
+   * @throws ManagementException if the network request failed, the NFD response could not be decoded, or
+   *                             the NFD rejected the request
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/FaceMgmt#Update-the-static-properties-of-a-face">
+   * Update a face</a>
+   */
+  public static NfdControlParameters updateFace(final Face face, final NfdControlParameters parameters)
+    throws ManagementException {
+    return sendCommand(face, new Name("/localhost/nfd/faces/update"), parameters);
   }
 
   /**
@@ -237,9 +497,24 @@ public final class Nfdc {
 
     try {
       sendCommand(face, command);
-    } catch (IOException | EncodingException | ManagementException e) {
+    } catch (IOException | EncodingException e) {
       throw new ManagementException(e.getMessage(), e);
     }
+
+    forgetFaceId(face, faceId);
+  }
+
+  /**
+   * Forget the URIs remembered by {@link #createFace(Face, String)} for a face that was or may have been destroyed.
+   *
+   * @param face   only a localhost {@link Face}
+   * @param faceId the ID of the face
+   */
+  static void forgetFaceId(final Face face, final int faceId) {
+    Map<String, Integer> faceIds = FACE_IDS.get(face);
+    if (faceIds != null) {
+      faceIds.values().removeIf(id -> id == faceId);
+    }
   }
 
   /**
@@ -262,7 +537,7 @@ public final class Nfdc {
 
     try {
       sendCommand(face, command);
-    } catch (IOException | EncodingException | ManagementException e) {
+    } catch (IOException | EncodingException e) {
       throw new ManagementException(e.getMessage(), e);
     }
   }
@@ -293,6 +568,10 @@ public final class Nfdc {
    * Register a route on a forwarder; this will create a new face on the
    * forwarder to the given URI/route pair. See register(Face,
    * ControlParameters) for more detailed documentation.
+   * <p/>
+   * The face ID is taken from the cache of {@link #createFace(Face, String)}; if the forwarder reports that the
+   * cached face no longer exists (it was closed or destroyed by another application), the face is created again and
+   * the registration retried once.
    *
    * @param face  only a localhost {@link Face}
    * @param uri   the URI (e.g. "tcp4://10.10.2.2:6363") of the remote node; note
@@ -310,7 +589,16 @@ public final class Nfdc {
     int faceId = createFace(face, uri);
 
     // run base method
-    register(face, faceId, route, cost);
+    try {
+      register(face, faceId, route, cost);
+    } catch (ManagementException e) {
+      if (e.getStatusCode() != FACE_NOT_FOUND) {
+        throw e;
+      }
+      // the cached face was closed by the forwarder or destroyed by another application: create it again
+      forgetFaceId(face, faceId);
+      register(face, createFace(face, uri), route, cost);
+    }
   }
 
   /**
@@ -362,7 +650,7 @@ public final class Nfdc {
 
     try {
       sendCommand(face, command);
-    } catch (IOException | EncodingException | ManagementException e) {
+    } catch (IOException | EncodingException e) {
       throw new ManagementException(e.getMessage(), e);
     }
   }
@@ -446,6 +734,77 @@ public final class Nfdc {
     unregister(face, route, faceId);
   }
 
+  /**
+   * Register many routes on the forwarder, keeping up to a default number of command Interests in flight; see
+   * {@link #registerAll(Face, Collection, int)}.
+   *
+   * @param face              only a localhost {@link Face}
+   * @param controlParameters the {@link ControlParameters} of each route to register
+   * @return one {@link CommandResult} per route, in iteration order of {@code controlParameters}
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  public static List<CommandResult> registerAll(final Face face, final Collection<ControlParameters> controlParameters)
+    throws ManagementException {
+    return registerAll(face, controlParameters, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Register many routes on the forwarder without waiting for each response before sending the next command;
+   * at most {@code windowSize} command Interests are outstanding at any time. A rejected or timed-out route does
+   * not stop the remaining ones; inspect the returned results instead.
+   * <p/>
+   * Ensure the forwarding face is on the local machine (management requests are to /localhost/...) and that command
+   * signing has been set up (e.g. forwarder.setCommandSigningInfo()).
+   *
+   * @param face              only a localhost {@link Face}
+   * @param controlParameters the {@link ControlParameters} of each route to register
+   * @param windowSize        maximum number of outstanding command Interests
+   * @return one {@link CommandResult} per route, in iteration order of {@code controlParameters}
+   * @throws ManagementException if the command Interests could not be sent
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/RibMgmt">RIB Management</a>
+   */
+  public static List<CommandResult> registerAll(final Face face, final Collection<ControlParameters> controlParameters,
+                                                final int windowSize) throws ManagementException {
+    return sendCommands(face, Collections.nCopies(controlParameters.size(), new Name("/localhost/nfd/rib/register")),
+                        new ArrayList<>(controlParameters), windowSize);
+  }
+
+  /**
+   * Unregister many routes on the forwarder, keeping up to a default number of command Interests in flight; see
+   * {@link #unregisterAll(Face, Collection, int)}.
+   *
+   * @param face              only a localhost {@link Face}
+   * @param controlParameters the {@link ControlParameters} of each route to unregister
+   * @return one {@link CommandResult} per route, in iteration order of {@code controlParameters}
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  public static List<CommandResult> unregisterAll(final Face face,
+                                                  final Collection<ControlParameters> controlParameters)
+    throws ManagementException {
+    return unregisterAll(face, controlParameters, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Unregister many routes on the forwarder without waiting for each response before sending the next command;
+   * at most {@code windowSize} command Interests are outstanding at any time.
+   * <p/>
+   * Ensure the forwarding face is on the local machine (management requests are to /localhost/...) and that command
+   * signing has been set up (e.g. forwarder.setCommandSigningInfo()).
+   *
+   * @param face              only a localhost {@link Face}
+   * @param controlParameters the {@link ControlParameters} of each route to unregister
+   * @param windowSize        maximum number of outstanding command Interests
+   * @return one {@link CommandResult} per route, in iteration order of {@code controlParameters}
+   * @throws ManagementException if the command Interests could not be sent
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/RibMgmt">RIB Management</a>
+   */
+  public static List<CommandResult> unregisterAll(final Face face,
+                                                  final Collection<ControlParameters> controlParameters,
+                                                  final int windowSize) throws ManagementException {
+    return sendCommands(face, Collections.nCopies(controlParameters.size(), new Name("/localhost/nfd/rib/unregister")),
+                        new ArrayList<>(controlParameters), windowSize);
+  }
+
   /**
    * Set a strategy on the forwarder
    * <p/>
@@ -471,7 +830,7 @@ public final class Nfdc {
 
     try {
       sendCommand(face, command);
-    } catch (IOException | EncodingException | ManagementException e) {
+    } catch (IOException | EncodingException e) {
       throw new ManagementException(e.getMessage(), e);
     }
   }
@@ -497,11 +856,135 @@ public final class Nfdc {
 
     try {
       sendCommand(face, command);
-    } catch (IOException | EncodingException | ManagementException e) {
+    } catch (IOException | EncodingException e) {
       throw new ManagementException(e.getMessage(), e);
     }
   }
 
+  /**
+   * Set many strategy choices on the forwarder, keeping up to a default number of command Interests in flight; see
+   * {@link #setStrategyAll(Face, Collection, int)}.
+   *
+   * @param face       only a localhost {@link Face}
+   * @param strategies the prefix and strategy of each choice to set
+   * @return one {@link CommandResult} per strategy choice, in iteration order of {@code strategies}
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  public static List<CommandResult> setStrategyAll(final Face face, final Collection<StrategyChoice> strategies)
+    throws ManagementException {
+    return setStrategyAll(face, strategies, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Set many strategy choices on the forwarder without waiting for each response before sending the next command;
+   * at most {@code windowSize} command Interests are outstanding at any time. A rejected or timed-out choice does
+   * not stop the remaining ones; inspect the returned results instead.
+   * <p/>
+   * Ensure the forwarding face is on the local machine (management requests are to /localhost/...) and that command
+   * signing has been set up (e.g. forwarder.setCommandSigningInfo()).
+   *
+   * @param face       only a localhost {@link Face}
+   * @param strategies the prefix and strategy of each choice to set
+   * @param windowSize maximum number of outstanding command Interests
+   * @return one {@link CommandResult} per strategy choice, in iteration order of {@code strategies}
+   * @throws ManagementException if the command Interests could not be sent
+   * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/StrategyChoice">StrategyChoice</a>
+   */
+  public static List<CommandResult> setStrategyAll(final Face face, final Collection<StrategyChoice> strategies,
+                                                   final int windowSize) throws ManagementException {
+    List<ControlParameters> parameters = new ArrayList<>(strategies.size());
+    for (StrategyChoice choice : strategies) {
+      parameters.add(new ControlParameters().setName(choice.getName()).setStrategy(choice.getStrategy()));
+    }
+    return sendCommands(face, Collections.nCopies(parameters.size(),
+                                                  new Name("/localhost/nfd/strategy-choice/set")),
+                        parameters, windowSize);
+  }
+
+  /**
+   * Normalize a face URI so that equivalent spellings share a cache entry: the scheme and, for UDP and TCP, the host
+   * are lower-cased, a missing UDP/TCP port is replaced by the default NFD port and a trailing slash is dropped. Host
+   * names are not resolved.
+   *
+   * @param uri a face URI, e.g. "UDP4://192.0.2.1"
+   * @return the normalized URI, e.g. "udp4://192.0.2.1:6363"
+   */
+  static String canonicalizeUri(final String uri) {
+    String trimmed = uri.trim();
+    int schemeEnd = trimmed.indexOf("://");
+    if (schemeEnd < 0) {
+      return trimmed;
+    }
+
+    String scheme = trimmed.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+    String rest = trimmed.substring(schemeEnd + "://".length());
+    if (rest.endsWith("/")) {
+      rest = rest.substring(0, rest.length() - 1);
+    }
+    if (scheme.startsWith("udp") || scheme.startsWith("tcp")) {
+      rest = rest.toLowerCase(Locale.ROOT);
+      int hostEnd = rest.startsWith("[") ? rest.indexOf(']') + 1 : 0;
+      if (rest.indexOf(':', hostEnd) < 0) {
+        rest = rest + ":" + DEFAULT_NFD_PORT;
+      }
+    }
+    return scheme + "://" + rest;
+  }
+
+  /**
+   * Build the rib/register {@link ControlParameters} that (re)create the given route.
+   *
+   * @param prefix the {@link Name} prefix of the route
+   * @param route  the route, as found in a {@link RibEntry}
+   * @return the command options
+   */
+  static ControlParameters toControlParameters(final Name prefix, final Route route) {
+    ControlParameters parameters = new ControlParameters();
+    parameters.setName(prefix);
+    parameters.setFaceId(route.getFaceId());
+    parameters.setOrigin(route.getOrigin());
+    parameters.setCost(route.getCost());
+    parameters.setForwardingFlags(new RegistrationOptions().setNfdForwardingFlags(route.getFlags()));
+    if (!route.hasInfiniteExpirationPeriod()) {
+      parameters.setExpirationPeriod(route.getExpirationPeriod());
+    }
+    return parameters;
+  }
+
+  /**
+   * Retrieve all segments of a status dataset. Concurrent requests for the same dataset from the same forwarder are
+   * coalesced: a caller arriving while an identical fetch is in flight waits for that fetch and shares its segments
+   * (which are never modified, so each caller decodes its own copy of the entries).
+   *
+   * @param face   only a localhost Face
+   * @param prefix the dataset prefix, e.g. /localhost/nfd/faces/list
+   * @return the dataset segments, in order
+   * @throws IOException if the network request failed
+   */
+  private static List<Data> fetchDataset(final Face face, final Name prefix) throws IOException {
+    long start = System.nanoTime();
+    String outcome = OperationStats.ERROR;
+    try {
+      // the key holds its own copy of the prefix, so that nothing can change it while the fetch is in flight
+      List<Data> segments = DATASET_FETCHES.execute(new FaceKey(face, new Name(prefix)),
+                                                    () -> FetchHelper.getSegmentedData(face, prefix));
+      outcome = OperationStats.SUCCESS;
+      return segments;
+    } catch (IOException e) {
+      outcome = outcome(e);
+      throw e;
+    } finally {
+      record(prefix, start, outcome);
+    }
+  }
+
+  /**
+   * @return number of dataset fetches currently in flight, for tests
+   */
+  static int getInFlightDatasetFetchCount() {
+    return DATASET_FETCHES.getInFlightCount();
+  }
+
   /**
    * Send an interest as a command to the forwarder; this method will convert
    * the interest to a command interest and block until a response is received
@@ -519,34 +1002,359 @@ public final class Nfdc {
    * @throws EncodingException   if the NFD response could not be decoded
    * @throws ManagementException if the NFD rejected the request
    */
-  private static ControlResponse sendCommand(final Face face, final Name name) throws IOException, EncodingException,
+  static ControlResponse sendCommand(final Face face, final Name name) throws IOException, EncodingException,
     ManagementException {
+    long start = System.nanoTime();
+    String outcome = OperationStats.ERROR;
+    try {
+      ControlResponse response = decodeResponse(fetchCommand(face, name));
+      outcome = OperationStats.SUCCESS;
+      return response;
+    } catch (IOException | ManagementException e) {
+      outcome = outcome(e);
+      throw e;
+    } finally {
+      record(name, start, outcome);
+    }
+  }
+
+  /**
+   * Send a command whose parameters or response body cannot be expressed with jNDN's {@link ControlParameters};
+   * see {@link #sendCommand(Face, Name)}.
+   *
+   * @param face       only a localhost Face, command signing info must be set
+   * @param verb       the command prefix, e.g. /localhost/nfd/faces/update
+   * @param parameters the command parameters to append to the prefix
+   * @return the body of the response, empty if the forwarder sent none
+   * @throws ManagementException if the network request failed, the NFD response could not be decoded, or
+   *                             the NFD rejected the request
+   */
+  private static NfdControlParameters sendCommand(final Face face, final Name verb,
+                                                  final NfdControlParameters parameters) throws ManagementException {
+    long start = System.nanoTime();
+    String outcome = OperationStats.ERROR;
+    try {
+      Data data = fetchCommand(face, new Name(verb).append(parameters.wireEncode()));
+
+      TlvDecoder decoder = new TlvDecoder(data.getContent().buf());
+      int endOffset = decoder.readNestedTlvsStart(NfdTlv.ControlResponse);
+      ControlResponse response = new ControlResponse();
+      response.setStatusCode((int) decoder.readNonNegativeIntegerTlv(NfdTlv.StatusCode));
+      response.setStatusText(EncodingHelper.toString(decoder.readBlobTlv(NfdTlv.StatusText)));
+      NfdControlParameters body = new NfdControlParameters();
+      if (decoder.peekType(NfdTlv.ControlParameters, endOffset)) {
+        body.wireDecode(decoder);
+      }
+      decoder.finishNestedTlvs(endOffset);
+
+      if (!isSuccess(response)) {
+        throw ManagementException.fromResponse(response);
+      }
+      outcome = OperationStats.SUCCESS;
+      return body;
+    } catch (ManagementException e) {
+      outcome = outcome(e);
+      throw e;
+    } catch (IOException | EncodingException e) {
+      outcome = outcome(e);
+      throw new ManagementException(e.getMessage(), e);
+    } finally {
+      record(verb, start, outcome);
+    }
+  }
+
+  /**
+   * Sign a command and wait for the forwarder's reply.
+   *
+   * @param face only a localhost Face, command signing info must be set
+   * @param name the command name, including its parameters
+   * @return the reply Data packet
+   * @throws IOException if the network request failed
+   */
+  private static Data fetchCommand(final Face face, final Name name) throws IOException {
     if (face == null) {
       throw new IllegalArgumentException("Face parameter is null.");
     }
 
     Interest interest = new Interest(name);
+    interest.setInterestLifetimeMilliseconds(COMMAND_TIMEOUT);
+    interest.setMustBeFresh(false);
+
+    // send command packet, signed anew at each transmission; forwarder must have command signing info set
+    return FetchHelper.getData(face, interest, new CommandInterestSigner(face));
+  }
+
+  /**
+   * Send one command per verb/parameters pair, pipelining the command Interests; see
+   * {@link #sendCommand(Face, Name)}. Commands are signed and sent in list order.
+   *
+   * @param face       only a localhost Face, command signing info must be set
+   * @param verbs      command prefixes, e.g. /localhost/nfd/rib/register
+   * @param parameters the {@link ControlParameters} to append to the corresponding command prefix
+   * @param windowSize maximum number of outstanding command Interests
+   * @return one {@link CommandResult} per command, in list order
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  static List<CommandResult> sendCommands(final Face face, final List<Name> verbs,
+                                          final List<ControlParameters> parameters,
+                                          final int windowSize) throws ManagementException {
+    List<Name> commands = new ArrayList<>(parameters.size());
+    for (int i = 0; i < parameters.size(); i++) {
+      commands.add(new Name(verbs.get(i)).append(parameters.get(i).wireEncode()));
+    }
+    return pipelineCommands(face, commands, parameters, windowSize);
+  }
+
+  /**
+   * Send the given commands, pipelining the command Interests; see {@link #sendCommands(Face, List, List, int)}.
+   *
+   * @param face       only a localhost Face, command signing info must be set
+   * @param commands   unsigned command names, e.g. /localhost/nfd/rib/register/[parameters]
+   * @param parameters the {@link ControlParameters} to report in the corresponding {@link CommandResult}
+   * @param windowSize maximum number of outstanding command Interests
+   * @return one {@link CommandResult} per command, in list order
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  private static List<CommandResult> pipelineCommands(final Face face, final List<Name> commands,
+                                                      final List<ControlParameters> parameters,
+                                                      final int windowSize) throws ManagementException {
+    if (face == null) {
+      throw new IllegalArgumentException("Face parameter is null.");
+    }
+
+    List<Interest> interests = new ArrayList<>(commands.size());
+    for (Name command : commands) {
+      Interest interest = new Interest(command);
+      interest.setInterestLifetimeMilliseconds(COMMAND_TIMEOUT);
+      interests.add(interest);
+    }
+
+    // signed as they are sent, so that timestamps reach the forwarder in increasing order, retransmissions included
+    List<Data> responses;
+    long[] elapsedNanos = new long[interests.size()];
+    IOException[] failures = new IOException[interests.size()];
+    try {
+      responses = FetchHelper.getData(face, interests, windowSize, elapsedNanos, failures,
+                                      new CommandInterestSigner(face));
+    } catch (IOException e) {
+      throw new ManagementException(e.getMessage(), e);
+    }
 
-    // forwarder must have command signing info set
+    List<CommandResult> results = new ArrayList<>(responses.size());
+    for (int i = 0; i < responses.size(); i++) {
+      results.add(toResult(parameters.get(i), responses.get(i), failures[i]));
+    }
+    for (int i = 0; i < results.size(); i++) {
+      recordElapsed(commands.get(i), elapsedNanos[i], outcome(results.get(i)));
+    }
+    return results;
+  }
+
+  /**
+   * Convert the reply to a pipelined command into a {@link CommandResult}.
+   *
+   * @param parameters the {@link ControlParameters} sent with the command
+   * @param data       the reply, or null if the command got none
+   * @param failure    why the command got no reply (its last attempt timed out or was Nacked), if {@code data} is null
+   * @return the command result
+   */
+  private static CommandResult toResult(final ControlParameters parameters, final Data data,
+                                        final IOException failure) {
+    if (data == null) {
+      return new CommandResult(parameters, null, new ManagementException(failure.getMessage(), failure));
+    }
+
+    ControlResponse response = new ControlResponse();
     try {
-      face.makeCommandInterest(interest);
-    } catch (SecurityException e) {
-      throw new IllegalArgumentException("Failed to make command interest; ensure command signing info is set on the " +
-        "face.", e);
+      response.wireDecode(data.getContent().buf());
+    } catch (EncodingException e) {
+      return new CommandResult(parameters, null, new ManagementException(e.getMessage(), e));
     }
 
-    // send command packet
-    Data data = FetchHelper.getData(face, interest.getName());
+    if (!isSuccess(response)) {
+      return new CommandResult(parameters, response, ManagementException.fromResponse(response));
+    }
+    return new CommandResult(parameters, response, null);
+  }
 
-    // decode response
+  /**
+   * Decode the forwarder's reply to a command.
+   *
+   * @param data the reply Data packet
+   * @return a successful {@link ControlResponse}
+   * @throws EncodingException   if the NFD response could not be decoded
+   * @throws ManagementException if the NFD rejected the request
+   */
+  private static ControlResponse decodeResponse(final Data data) throws EncodingException, ManagementException {
     ControlResponse response = new ControlResponse();
     response.wireDecode(data.getContent().buf());
 
     // check response for success
-    if (response.getStatusCode() != OK_STATUS && response.getStatusCode() != FACE_ALREADY_EXISTS) {
+    if (!isSuccess(response)) {
       throw ManagementException.fromResponse(response);
     }
 
     return response;
   }
+
+  /**
+   * Record a completed dataset fetch or command in {@link #getOperationStats()}.
+   *
+   * @param name    the dataset or command name, e.g. /localhost/nfd/faces/list
+   * @param start   when the operation started, as given by {@link System#nanoTime()}
+   * @param outcome how the operation ended, see {@link OperationStats#record(long, String)}
+   */
+  private static void record(final Name name, final long start, final String outcome) {
+    recordElapsed(name, System.nanoTime() - start, outcome);
+  }
+
+  /**
+   * Record a completed dataset fetch or command in {@link #getOperationStats()}.
+   *
+   * @param name    the dataset or command name, e.g. /localhost/nfd/faces/list
+   * @param elapsed how long the operation took, in nanoseconds
+   * @param outcome how the operation ended, see {@link OperationStats#record(long, String)}
+   */
+  private static void recordElapsed(final Name name, final long elapsed, final String outcome) {
+    String operation = OperationStats.operationName(name);
+    OperationStats stats = OPERATION_STATS.get(operation);
+    if (stats == null) {
+      stats = OPERATION_STATS.computeIfAbsent(operation, OperationStats::new);
+    }
+    stats.record(elapsed, outcome);
+  }
+
+  /**
+   * @param e why an operation failed
+   * @return the outcome to record for it
+   */
+  static String outcome(final Exception e) {
+    if (e instanceof ManagementException) {
+      int statusCode = ((ManagementException) e).getStatusCode();
+      if (statusCode >= 0) {
+        return OperationStats.forStatusCode(statusCode);
+      }
+      return e.getCause() instanceof Exception ? outcome((Exception) e.getCause()) : OperationStats.ERROR;
+    }
+    if (e instanceof NetworkNackException) {
+      return OperationStats.NACK;
+    }
+    if (e instanceof FetchTimeoutException) {
+      return OperationStats.TIMEOUT;
+    }
+    return OperationStats.ERROR;
+  }
+
+  /**
+   * @param result the result of a pipelined command
+   * @return the outcome to record for it
+   */
+  private static String outcome(final CommandResult result) {
+    if (result.isSuccess()) {
+      return OperationStats.SUCCESS;
+    }
+    return outcome(result.getError());
+  }
+
+  /**
+   * @param response a decoded {@link ControlResponse}
+   * @return true if the status code reports success (an already existing face counts as success)
+   */
+  private static boolean isSuccess(final ControlResponse response) {
+    return response.getStatusCode() == OK_STATUS || response.getStatusCode() == FACE_ALREADY_EXISTS;
+  }
+
+  /**
+   * Signs command Interests with the face's {@link CommandSigner}, if one was set with
+   * {@link #setCommandSigner(Face, CommandSigner)}, or else with Face.makeCommandInterest(). With a CommandSigner,
+   * signing and sending are one dispatch of the signer, so threads sharing it cannot reorder their timestamps.
+   */
+  private static final class CommandInterestSigner implements InterestSigner {
+    private final Face face;
+    private final CommandSigner signer;
+
+    private CommandInterestSigner(final Face face) {
+      this.face = face;
+      this.signer = COMMAND_SIGNERS.get(face);
+    }
+
+    @Override
+    public Interest sign(final Interest unsigned) {
+      Interest interest = new Interest(unsigned);
+      try {
+        if (signer != null) {
+          signer.sign(interest);
+        } else {
+          face.makeCommandInterest(interest);
+        }
+      } catch (SecurityException e) {
+        throw signingFailed(e);
+      }
+      return interest;
+    }
+
+    @Override
+    public List<Interest> signAll(final List<Interest> unsigned) {
+      if (signer == null) {
+        return InterestSigner.super.signAll(unsigned);
+      }
+
+      List<Name> commands = new ArrayList<>(unsigned.size());
+      for (Interest interest : unsigned) {
+        commands.add(interest.getName());
+      }
+      List<Interest> signed;
+      try {
+        signed = signer.signAll(commands);
+      } catch (SecurityException e) {
+        throw signingFailed(e);
+      }
+      for (int i = 0; i < signed.size(); i++) {
+        signed.get(i).setInterestLifetimeMilliseconds(unsigned.get(i).getInterestLifetimeMilliseconds());
+        signed.get(i).setMustBeFresh(unsigned.get(i).getMustBeFresh());
+      }
+      return signed;
+    }
+
+    @Override
+    public void dispatch(final CommandSigner.Dispatch<IOException> dispatch) throws IOException {
+      if (signer != null) {
+        signer.dispatch(dispatch);
+      } else {
+        dispatch.run();
+      }
+    }
+
+    private static IllegalArgumentException signingFailed(final SecurityException e) {
+      return new IllegalArgumentException("Failed to make command interest; ensure command signing info is set on " +
+        "the face.", e);
+    }
+  }
+
+  /**
+   * Identifies identical requests: the same face URI or dataset name on the same forwarder.
+   */
+  private static final class FaceKey {
+    private final Face face;
+    private final Object key;
+
+    private FaceKey(final Face face, final Object key) {
+      this.face = face;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (!(other instanceof FaceKey)) {
+        return false;
+      }
+      FaceKey that = (FaceKey) other;
+      return face == that.face && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(face), key);
+    }
+  }
 }
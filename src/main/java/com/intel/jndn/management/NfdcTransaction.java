@@ -0,0 +1,312 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.management.types.StrategyChoice;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.ControlResponse;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.EncodingException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Apply a multi-step configuration change and undo it if a later step fails. Every successful command records its
+ * inverse in a journal; {@link #rollback()} sends the inverses, newest first, as one pipelined batch.
+ * <p/>
+ * Inverses: a face created by the transaction is destroyed (a face that already existed is left alone) and
+ * forgotten by {@link Nfdc#createFace(Face, String)}, a registered route is restored to the cost, flags and
+ * expiration it had before the transaction (or unregistered if it did not exist), and a strategy choice is restored
+ * to the strategy the prefix had before the transaction (or unset if it had none). A step that fails is not
+ * journaled; since a timed-out command may still have been applied by the forwarder, such a step may need to be
+ * checked by hand.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/ControlCommand">ControlCommand</a>
+ */
+public final class NfdcTransaction {
+  private static final Name FACES_DESTROY = new Name("/localhost/nfd/faces/destroy");
+
+  private final Face face;
+  private final List<Name> undoVerbs = new ArrayList<>();
+  private final List<ControlParameters> undoParameters = new ArrayList<>();
+  private Map<Name, Name> strategies = null;
+  private Map<Name, List<Route>> routes = null;
+  private int windowSize = Nfdc.DEFAULT_WINDOW_SIZE;
+  private boolean isOpen = true;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Steps of a transaction run by {@link #execute(Face, Body)}.
+   */
+  @FunctionalInterface
+  public interface Body {
+    /**
+     * Issue the commands of the transaction.
+     *
+     * @param transaction the transaction to issue commands through
+     * @throws ManagementException if a command fails
+     */
+    void apply(NfdcTransaction transaction) throws ManagementException;
+  }
+
+  /**
+   * Start a transaction.
+   *
+   * @param face only a localhost {@link Face}, command signing info must be set
+   */
+  public NfdcTransaction(final Face face) {
+    this.face = face;
+  }
+
+  /**
+   * Run {@code body} in a new transaction: commit if it completes, roll back the applied steps if it throws.
+   *
+   * @param face only a localhost {@link Face}, command signing info must be set
+   * @param body the steps of the transaction
+   * @throws ManagementException the exception thrown by {@code body}; failures of the rollback itself are attached
+   *                             as suppressed exceptions
+   */
+  public static void execute(final Face face, final Body body) throws ManagementException {
+    NfdcTransaction transaction = new NfdcTransaction(face);
+    try {
+      body.apply(transaction);
+    } catch (ManagementException e) {
+      try {
+        for (CommandResult result : transaction.rollback()) {
+          if (!result.isSuccess()) {
+            e.addSuppressed(result.getError());
+          }
+        }
+      } catch (ManagementException rollbackFailure) {
+        e.addSuppressed(rollbackFailure);
+      }
+      throw e;
+    }
+    transaction.commit();
+  }
+
+  /**
+   * Limit the number of inverse commands in flight during rollback; defaults to {@link Nfdc#DEFAULT_WINDOW_SIZE}.
+   *
+   * @param windowSize maximum number of outstanding command Interests
+   * @return this
+   */
+  public NfdcTransaction setWindowSize(final int windowSize) {
+    this.windowSize = windowSize;
+    return this;
+  }
+
+  /**
+   * Create a face; see {@link Nfdc#createFace(Face, String)}. Rolled back by destroying the face, unless it
+   * existed before.
+   *
+   * @param uri the remote URI of the face
+   * @return the face ID
+   * @throws ManagementException if the forwarder rejected the command
+   */
+  public int createFace(final String uri) throws ManagementException {
+    checkOpen();
+    ControlParameters parameters = new ControlParameters();
+    parameters.setUri(uri);
+
+    ControlResponse response;
+    try {
+      response = Nfdc.sendCommand(face, new Name("/localhost/nfd/faces/create").append(parameters.wireEncode()));
+    } catch (IOException | EncodingException e) {
+      throw new ManagementException(e.getMessage(), e);
+    }
+
+    int faceId = response.getBodyAsControlParameters().getFaceId();
+    if (response.getStatusCode() != Nfdc.FACE_ALREADY_EXISTS) {
+      journal("/localhost/nfd/faces/destroy", new ControlParameters().setFaceId(faceId));
+    }
+    return faceId;
+  }
+
+  /**
+   * Register a route; see {@link Nfdc#register(Face, ControlParameters)}. Rolled back by re-registering the route
+   * with its previous cost, flags and expiration if the command updated an existing route, or by unregistering it;
+   * the RIB is fetched once per transaction for this.
+   *
+   * @param controlParameters the {@link ControlParameters} command options
+   * @throws ManagementException if the RIB could not be retrieved or the forwarder rejected the command
+   */
+  public void register(final ControlParameters controlParameters) throws ManagementException {
+    checkOpen();
+    if (routes == null) {
+      routes = new HashMap<>();
+      for (RibEntry entry : Nfdc.getRouteList(face)) {
+        routes.put(entry.getName(), new ArrayList<>(entry.getRoutes()));
+      }
+    }
+
+    ControlResponse response;
+    try {
+      response = Nfdc.sendCommand(face, new Name("/localhost/nfd/rib/register")
+        .append(controlParameters.wireEncode()));
+    } catch (IOException | EncodingException e) {
+      throw new ManagementException(e.getMessage(), e);
+    }
+
+    // the forwarder reports the face and origin it used, also when the command left them to their defaults
+    ControlParameters applied = response.getBodyAsControlParameters();
+    int faceId = applied != null && applied.getFaceId() >= 0 ? applied.getFaceId() : controlParameters.getFaceId();
+    int origin = applied != null && applied.getOrigin() >= 0 ? applied.getOrigin() : controlParameters.getOrigin();
+    if (origin < 0) {
+      origin = RouteOrigin.APP.toInteger();
+    }
+
+    Name prefix = controlParameters.getName();
+    Route registered = new Route()
+      .setFaceId(faceId)
+      .setOrigin(origin)
+      .setCost(Math.max(controlParameters.getCost(), 0))
+      .setFlags(controlParameters.getForwardingFlags().getNfdForwardingFlags());
+    if (controlParameters.getExpirationPeriod() >= 0) {
+      registered.setExpirationPeriod((int) controlParameters.getExpirationPeriod());
+    }
+
+    // a later register of the same route in this transaction is undone back to the route registered here
+    List<Route> prefixRoutes = routes.computeIfAbsent(prefix, name -> new ArrayList<>());
+    Route previous = null;
+    for (int i = 0; i < prefixRoutes.size() && previous == null; i++) {
+      if (prefixRoutes.get(i).getFaceId() == faceId && prefixRoutes.get(i).getOrigin() == origin) {
+        previous = prefixRoutes.set(i, registered);
+      }
+    }
+
+    if (previous != null) {
+      journal("/localhost/nfd/rib/register", Nfdc.toControlParameters(prefix, previous));
+    } else {
+      prefixRoutes.add(registered);
+      ControlParameters inverse = new ControlParameters().setName(prefix).setOrigin(origin);
+      if (faceId >= 0) {
+        inverse.setFaceId(faceId);
+      }
+      journal("/localhost/nfd/rib/unregister", inverse);
+    }
+  }
+
+  /**
+   * Register a route towards an existing face; see {@link Nfdc#register(Face, int, Name, int)}.
+   *
+   * @param faceId the ID of the face to assign to the route
+   * @param route  the {@link Name} prefix of the route
+   * @param cost   the numeric cost of forwarding along the route
+   * @throws ManagementException if the forwarder rejected the command
+   */
+  public void register(final int faceId, final Name route, final int cost) throws ManagementException {
+    register(Nfdc.toControlParameters(route, new Route()
+      .setFaceId(faceId)
+      .setOrigin(RouteOrigin.STATIC.toInteger())
+      .setCost(cost)));
+  }
+
+  /**
+   * Set a strategy; see {@link Nfdc#setStrategy(Face, Name, Name)}. Rolled back by restoring the previous strategy
+   * choice of the prefix; the strategy choice list is fetched once per transaction for this.
+   *
+   * @param prefix   the {@link Name} prefix
+   * @param strategy the {@link Name} of the strategy to set
+   * @throws ManagementException if the strategy list could not be retrieved or the forwarder rejected the command
+   */
+  public void setStrategy(final Name prefix, final Name strategy) throws ManagementException {
+    checkOpen();
+    if (strategies == null) {
+      strategies = new HashMap<>();
+      for (StrategyChoice choice : Nfdc.getStrategyList(face)) {
+        strategies.put(choice.getName(), choice.getStrategy());
+      }
+    }
+
+    Nfdc.setStrategy(face, prefix, strategy);
+
+    Name previous = strategies.put(prefix, strategy);
+    if (previous != null) {
+      journal("/localhost/nfd/strategy-choice/set", new ControlParameters().setName(prefix).setStrategy(previous));
+    } else {
+      journal("/localhost/nfd/strategy-choice/unset", new ControlParameters().setName(prefix));
+    }
+  }
+
+  /**
+   * @return number of applied steps that would be undone by {@link #rollback()}
+   */
+  public int getJournalSize() {
+    return undoVerbs.size();
+  }
+
+  /**
+   * Keep all applied steps and close the transaction.
+   */
+  public void commit() {
+    checkOpen();
+    undoVerbs.clear();
+    undoParameters.clear();
+    isOpen = false;
+  }
+
+  /**
+   * Undo all applied steps, newest first, and close the transaction.
+   *
+   * @return one result per inverse command, newest step first
+   * @throws ManagementException if the inverse commands could not be sent
+   */
+  public List<CommandResult> rollback() throws ManagementException {
+    checkOpen();
+    isOpen = false;
+
+    List<Name> verbs = new ArrayList<>(undoVerbs.size());
+    List<ControlParameters> parameters = new ArrayList<>(undoParameters.size());
+    for (int i = undoVerbs.size() - 1; i >= 0; i--) {
+      verbs.add(undoVerbs.get(i));
+      parameters.add(undoParameters.get(i));
+    }
+    undoVerbs.clear();
+    undoParameters.clear();
+
+    if (verbs.isEmpty()) {
+      return new ArrayList<>();
+    }
+    for (int i = 0; i < verbs.size(); i++) {
+      if (verbs.get(i).equals(FACES_DESTROY)) {
+        // even if the command fails, the face may be gone: the next createFace must ask the forwarder
+        Nfdc.forgetFaceId(face, parameters.get(i).getFaceId());
+      }
+    }
+    return Nfdc.sendCommands(face, verbs, parameters, windowSize);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  private void journal(final String verb, final ControlParameters inverse) {
+    undoVerbs.add(new Name(verb));
+    undoParameters.add(inverse);
+  }
+
+  private void checkOpen() {
+    if (!isOpen) {
+      throw new IllegalStateException("Transaction is already committed or rolled back.");
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.Face;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bring the forwarder's RIB to a desired set of routes with as few commands as possible: routes that are missing
+ * are registered, routes whose cost or flags differ are re-registered, and routes that are no longer wanted are
+ * unregistered. Only routes with the reconciler's origin are touched, so routes installed by applications or other
+ * daemons survive reconciliation.
+ * <p/>
+ * Registrations are applied before unregistrations (make-before-break), each as one pipelined batch.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/RibMgmt">RIB Management</a>
+ */
+public final class RibReconciler {
+  private final Face face;
+  private final RouteOrigin origin;
+  private int windowSize = Nfdc.DEFAULT_WINDOW_SIZE;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face   only a localhost {@link Face}, command signing info must be set
+   * @param origin the origin of the routes owned by this reconciler
+   */
+  public RibReconciler(final Face face, final RouteOrigin origin) {
+    this.face = face;
+    this.origin = origin;
+  }
+
+  /**
+   * Limit the number of command Interests in flight; defaults to {@link Nfdc#DEFAULT_WINDOW_SIZE}.
+   *
+   * @param windowSize maximum number of outstanding command Interests
+   * @return this
+   */
+  public RibReconciler setWindowSize(final int windowSize) {
+    this.windowSize = windowSize;
+    return this;
+  }
+
+  /**
+   * Fetch the current RIB and compute the commands needed to reach the target.
+   *
+   * @param target the desired routes; route origins are ignored and replaced by the reconciler's origin
+   * @return the plan
+   * @throws ManagementException if the RIB could not be retrieved
+   */
+  public Plan plan(final Collection<RibEntry> target) throws ManagementException {
+    return plan(Nfdc.getRouteList(face), target, origin);
+  }
+
+  /**
+   * Fetch the current RIB, compute the plan and apply it.
+   *
+   * @param target the desired routes; route origins are ignored and replaced by the reconciler's origin
+   * @return report on the applied plan
+   * @throws ManagementException if the RIB could not be retrieved or the commands could not be sent
+   */
+  public Report reconcile(final Collection<RibEntry> target) throws ManagementException {
+    long start = System.nanoTime();
+    Plan plan = plan(target);
+    long planned = System.nanoTime();
+    return apply(plan, planned - start);
+  }
+
+  /**
+   * Apply a previously computed plan.
+   *
+   * @param plan the plan to apply
+   * @return report on the applied plan
+   * @throws ManagementException if the commands could not be sent
+   */
+  public Report apply(final Plan plan) throws ManagementException {
+    return apply(plan, 0);
+  }
+
+  /**
+   * Compute the commands that turn {@code current} into {@code target}, considering only routes of the given origin.
+   *
+   * @param current the RIB as returned by {@link Nfdc#getRouteList(Face)}
+   * @param target  the desired routes; route origins are ignored and replaced by {@code origin}
+   * @param origin  the origin of the managed routes
+   * @return the plan
+   */
+  public static Plan plan(final List<RibEntry> current, final Collection<RibEntry> target,
+                          final RouteOrigin origin) {
+    Map<RouteKey, Route> existing = index(current, origin, false);
+    Map<RouteKey, Route> wanted = index(target, origin, true);
+
+    Plan plan = new Plan();
+    for (Map.Entry<RouteKey, Route> entry : wanted.entrySet()) {
+      Route have = existing.get(entry.getKey());
+      Route want = entry.getValue();
+      if (have == null) {
+        plan.registrations.add(Nfdc.toControlParameters(entry.getKey().getPrefix(), want));
+      } else if (have.getCost() != want.getCost() || have.getFlags() != want.getFlags()) {
+        plan.updates.add(Nfdc.toControlParameters(entry.getKey().getPrefix(), want));
+      }
+    }
+    for (Map.Entry<RouteKey, Route> entry : existing.entrySet()) {
+      if (!wanted.containsKey(entry.getKey())) {
+        plan.unregistrations.add(new ControlParameters()
+                                   .setName(entry.getKey().getPrefix())
+                                   .setFaceId(entry.getKey().getFaceId())
+                                   .setOrigin(origin.toInteger()));
+      }
+    }
+    return plan;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  private Report apply(final Plan plan, final long planningNanos) throws ManagementException {
+    long start = System.nanoTime();
+    List<ControlParameters> registrations = new ArrayList<>(plan.registrations.size() + plan.updates.size());
+    registrations.addAll(plan.registrations);
+    registrations.addAll(plan.updates);
+
+    List<CommandResult> results = new ArrayList<>(plan.size());
+    if (!registrations.isEmpty()) {
+      results.addAll(Nfdc.registerAll(face, registrations, windowSize));
+    }
+    if (!plan.unregistrations.isEmpty()) {
+      results.addAll(Nfdc.unregisterAll(face, plan.unregistrations, windowSize));
+    }
+    return new Report(plan, results, planningNanos, System.nanoTime() - start);
+  }
+
+  private static Map<RouteKey, Route> index(final Collection<RibEntry> entries, final RouteOrigin origin,
+                                            final boolean isTarget) {
+    Map<RouteKey, Route> routes = new LinkedHashMap<>();
+    for (RibEntry entry : entries) {
+      for (Route route : entry.getRoutes()) {
+        if (isTarget) {
+          routes.put(new RouteKey(entry.getName(), route.getFaceId()), copyWithOrigin(route, origin));
+        } else if (route.getOrigin() == origin.toInteger()) {
+          routes.put(new RouteKey(entry.getName(), route.getFaceId()), route);
+        }
+      }
+    }
+    return routes;
+  }
+
+  private static Route copyWithOrigin(final Route route, final RouteOrigin origin) {
+    return new Route()
+      .setFaceId(route.getFaceId())
+      .setOrigin(origin.toInteger())
+      .setCost(route.getCost())
+      .setFlags(route.getFlags())
+      .setExpirationPeriod(route.getExpirationPeriod());
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * The commands needed to reach the target RIB.
+   */
+  public static final class Plan {
+    private final List<ControlParameters> registrations = new ArrayList<>();
+    private final List<ControlParameters> updates = new ArrayList<>();
+    private final List<ControlParameters> unregistrations = new ArrayList<>();
+
+    private Plan() {
+    }
+
+    /**
+     * @return routes that do not exist yet
+     */
+    public List<ControlParameters> getRegistrations() {
+      return Collections.unmodifiableList(registrations);
+    }
+
+    /**
+     * @return existing routes whose cost or flags change
+     */
+    public List<ControlParameters> getUpdates() {
+      return Collections.unmodifiableList(updates);
+    }
+
+    /**
+     * @return routes to remove
+     */
+    public List<ControlParameters> getUnregistrations() {
+      return Collections.unmodifiableList(unregistrations);
+    }
+
+    /**
+     * @return total number of commands in the plan
+     */
+    public int size() {
+      return registrations.size() + updates.size() + unregistrations.size();
+    }
+
+    /**
+     * @return true if the RIB already matches the target
+     */
+    public boolean isEmpty() {
+      return size() == 0;
+    }
+
+    @Override
+    public String toString() {
+      return "Plan(register: " + registrations.size() + ", update: " + updates.size() + ", unregister: " +
+        unregistrations.size() + ")";
+    }
+  }
+
+  /**
+   * Outcome of applying a {@link Plan}.
+   */
+  public static final class Report {
+    private final Plan plan;
+    private final List<CommandResult> results;
+    private final long planningNanos;
+    private final long executionNanos;
+
+    private Report(final Plan plan, final List<CommandResult> results, final long planningNanos,
+                   final long executionNanos) {
+      this.plan = plan;
+      this.results = Collections.unmodifiableList(results);
+      this.planningNanos = planningNanos;
+      this.executionNanos = executionNanos;
+    }
+
+    /**
+     * @return the applied plan
+     */
+    public Plan getPlan() {
+      return plan;
+    }
+
+    /**
+     * @return one result per command: registrations, then updates, then unregistrations
+     */
+    public List<CommandResult> getResults() {
+      return results;
+    }
+
+    /**
+     * @return number of commands the forwarder did not accept
+     */
+    public int getFailureCount() {
+      int count = 0;
+      for (CommandResult result : results) {
+        if (!result.isSuccess()) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * @return time spent fetching the RIB and computing the plan, in nanoseconds (0 if the plan was supplied)
+     */
+    public long getPlanningNanos() {
+      return planningNanos;
+    }
+
+    /**
+     * @return time spent sending the commands and waiting for their responses, in nanoseconds
+     */
+    public long getExecutionNanos() {
+      return executionNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Report(" + plan + ", failed: " + getFailureCount() +
+        ", planning: " + TimeUnit.NANOSECONDS.toMillis(planningNanos) + " ms" +
+        ", execution: " + TimeUnit.NANOSECONDS.toMillis(executionNanos) + " ms)";
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import net.named_data.jndn.Name;
+
+import java.util.Objects;
+
+/**
+ * A route is identified by its prefix and next-hop face (for a given origin).
+ */
+final class RouteKey {
+  private final Name prefix;
+  private final int faceId;
+
+  /**
+   * Constructor.
+   *
+   * @param prefix the route prefix
+   * @param faceId the next-hop face
+   */
+  RouteKey(final Name prefix, final int faceId) {
+    this.prefix = prefix;
+    this.faceId = faceId;
+  }
+
+  /**
+   * @return the route prefix
+   */
+  Name getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @return the next-hop face
+   */
+  int getFaceId() {
+    return faceId;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof RouteKey)) {
+      return false;
+    }
+    RouteKey key = (RouteKey) other;
+    return faceId == key.faceId && prefix.equals(key.prefix);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(prefix, faceId);
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Name;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keep soft-state routes alive: each leased route is registered with an ExpirationPeriod and re-registered shortly
+ * before it expires. Renewals are kept in a hashed timing wheel, so finding the due routes costs one slot scan per
+ * tick regardless of how many routes are leased, and routes falling due in the same tick are renewed together as one
+ * pipelined batch. If the manager stops renewing (e.g. the process dies), the forwarder removes the routes on its own.
+ * <p/>
+ * A renewal that times out or is Nacked is retried with exponential backoff, starting at one tick and capped at the
+ * renewal margin (a third of the lease), so an unreachable forwarder is not flooded every tick. A renewal that the
+ * forwarder rejects (e.g. 403, or 410 for a destroyed face) would be rejected again: its lease is dropped and the
+ * listeners are told.
+ * <p/>
+ * The manager owns no thread; the caller invokes {@link #renewDue()} at least every {@link #getTickMillis()}
+ * milliseconds from the thread that processes events on the face.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/RibMgmt">RIB Management</a>
+ */
+public final class RouteLeaseManager {
+  /**
+   * Default maximum number of commands sent by one {@link #renewDue()} call.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+  private static final int WHEEL_SLOTS = 512;
+  private static final int TICKS_PER_LEASE = 64;
+  private static final long MIN_TICK_MILLIS = 10;
+  private static final int RENEW_MARGIN_DIVISOR = 3;
+
+  private final Face face;
+  private final long leaseMillis;
+  private final long tickMillis;
+  private final long renewMarginMillis;
+  private final List<List<Lease>> wheel = new ArrayList<>(WHEEL_SLOTS);
+  private final Map<RouteKey, Lease> leases = new HashMap<>();
+  private final Queue<Lease> pending = new ArrayDeque<>();
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private long nextTick = -1;
+  private int windowSize = Nfdc.DEFAULT_WINDOW_SIZE;
+  private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+  private long nRenewed;
+  private long nFailed;
+
+  /**
+   * Receives the leases dropped by a {@link RouteLeaseManager} because the forwarder rejected their registration.
+   */
+  @FunctionalInterface
+  public interface Listener {
+    /**
+     * @param parameters the parameters of the dropped lease
+     * @param result     the rejected registration, with the forwarder's response
+     */
+    void onRejected(ControlParameters parameters, CommandResult result);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face        only a localhost {@link Face}, command signing info must be set
+   * @param leaseMillis the ExpirationPeriod of each registered route, in milliseconds; routes are renewed once about
+   *                    two thirds of it have elapsed
+   */
+  public RouteLeaseManager(final Face face, final long leaseMillis) {
+    if (leaseMillis <= 0) {
+      throw new IllegalArgumentException("Lease must be positive: " + leaseMillis);
+    }
+    this.face = face;
+    this.leaseMillis = leaseMillis;
+    this.tickMillis = Math.max(MIN_TICK_MILLIS, leaseMillis / TICKS_PER_LEASE);
+    this.renewMarginMillis = leaseMillis / RENEW_MARGIN_DIVISOR;
+    for (int i = 0; i < WHEEL_SLOTS; i++) {
+      wheel.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Limit the number of command Interests in flight; defaults to {@link Nfdc#DEFAULT_WINDOW_SIZE}.
+   *
+   * @param windowSize maximum number of outstanding command Interests
+   * @return this
+   */
+  public RouteLeaseManager setWindowSize(final int windowSize) {
+    this.windowSize = windowSize;
+    return this;
+  }
+
+  /**
+   * Bound the burst of commands sent by one {@link #renewDue()} call; routes beyond the limit stay due and are sent
+   * by the next call. Defaults to {@link #DEFAULT_MAX_BATCH_SIZE}.
+   *
+   * @param maxBatchSize maximum number of commands per call
+   * @return this
+   */
+  public RouteLeaseManager setMaxBatchSize(final int maxBatchSize) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+    }
+    this.maxBatchSize = maxBatchSize;
+    return this;
+  }
+
+  /**
+   * @param listener called for every lease dropped by subsequent {@link #renewDue()} calls
+   * @return this
+   */
+  public RouteLeaseManager addListener(final Listener listener) {
+    listeners.add(listener);
+    return this;
+  }
+
+  /**
+   * @param listener a listener previously added
+   * @return this
+   */
+  public RouteLeaseManager removeListener(final Listener listener) {
+    listeners.remove(listener);
+    return this;
+  }
+
+  /**
+   * @return the wheel resolution; {@link #renewDue()} should be called at least this often
+   */
+  public long getTickMillis() {
+    return tickMillis;
+  }
+
+  /**
+   * Lease a route. It is registered by the next {@link #renewDue()} call and renewed until {@link #cancel(Name, int)}
+   * is called. Leasing a route that is already leased replaces its parameters and re-registers it.
+   *
+   * @param controlParameters the route's name, face ID, cost, origin and flags; the ExpirationPeriod is overwritten
+   *                          with the lease duration
+   */
+  public synchronized void lease(final ControlParameters controlParameters) {
+    ControlParameters parameters = new ControlParameters(controlParameters);
+    parameters.setExpirationPeriod(leaseMillis);
+    Lease lease = new Lease(new RouteKey(parameters.getName(), parameters.getFaceId()), parameters);
+    Lease previous = leases.put(lease.key, lease);
+    if (previous != null) {
+      previous.cancelled = true;
+    }
+    pending.add(lease);
+  }
+
+  /**
+   * Lease a route; see {@link #lease(ControlParameters)}.
+   *
+   * @param prefix the route prefix
+   * @param faceId the next-hop face
+   * @param cost   the route cost
+   */
+  public void lease(final Name prefix, final int faceId, final int cost) {
+    lease(new ControlParameters().setName(prefix).setFaceId(faceId).setCost(cost));
+  }
+
+  /**
+   * Stop renewing a route. No command is sent; the forwarder removes the route once its current lease expires.
+   *
+   * @param prefix the route prefix
+   * @param faceId the next-hop face
+   * @return true if the route was leased
+   */
+  public synchronized boolean cancel(final Name prefix, final int faceId) {
+    Lease lease = leases.remove(new RouteKey(prefix, faceId));
+    if (lease == null) {
+      return false;
+    }
+    lease.cancelled = true;
+    return true;
+  }
+
+  /**
+   * @return number of leased routes
+   */
+  public synchronized int size() {
+    return leases.size();
+  }
+
+  /**
+   * Register new routes and renew the routes whose lease is about to expire.
+   *
+   * @return one {@link CommandResult} per command sent, possibly none
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  public List<CommandResult> renewDue() throws ManagementException {
+    return renewDue(System.currentTimeMillis());
+  }
+
+  /**
+   * Register new routes and renew the routes whose lease is about to expire at the given time. A route that times
+   * out or is Nacked is retried after a backoff; a route that the forwarder rejects is dropped and reported to the
+   * listeners before this method returns.
+   *
+   * @param nowMillis the current time in milliseconds; must not go backwards between calls
+   * @return one {@link CommandResult} per command sent, possibly none
+   * @throws ManagementException if the command Interests could not be sent
+   */
+  public List<CommandResult> renewDue(final long nowMillis) throws ManagementException {
+    List<Lease> due = collectDue(nowMillis / tickMillis);
+    if (due.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<ControlParameters> parameters = new ArrayList<>(due.size());
+    for (Lease lease : due) {
+      parameters.add(lease.parameters);
+    }
+    List<CommandResult> results = Nfdc.registerAll(face, parameters, windowSize);
+
+    List<Lease> rejected = new ArrayList<>();
+    List<CommandResult> rejections = new ArrayList<>();
+    synchronized (this) {
+      for (int i = 0; i < due.size(); i++) {
+        Lease lease = due.get(i);
+        CommandResult result = results.get(i);
+        if (result.isSuccess()) {
+          nRenewed++;
+          lease.nFailures = 0;
+          schedule(lease, nowMillis + leaseMillis - renewMarginMillis);
+        } else if (result.getResponse() != null) {
+          // the forwarder answered: retrying would be rejected the same way
+          nFailed++;
+          if (!lease.cancelled) {
+            leases.remove(lease.key);
+            lease.cancelled = true;
+            rejected.add(lease);
+            rejections.add(result);
+          }
+        } else {
+          nFailed++;
+          lease.nFailures++;
+          schedule(lease, nowMillis + backoff(lease.nFailures));
+        }
+      }
+    }
+
+    for (int i = 0; i < rejected.size(); i++) {
+      for (Listener listener : listeners) {
+        listener.onRejected(rejected.get(i).parameters, rejections.get(i));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * @return number of successful registrations and renewals
+   */
+  public synchronized long getRenewedCount() {
+    return nRenewed;
+  }
+
+  /**
+   * @return number of registrations and renewals rejected by the forwarder, timed out or Nacked
+   */
+  public synchronized long getFailedCount() {
+    return nFailed;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Take up to {@link #maxBatchSize} due leases: new leases first, then the wheel slots from {@link #nextTick} up to
+   * {@code currentTick}. If the batch fills up, {@link #nextTick} stays at the unfinished slot.
+   *
+   * @param currentTick the current tick
+   * @return the due leases, removed from the wheel
+   */
+  private synchronized List<Lease> collectDue(final long currentTick) {
+    if (nextTick < 0) {
+      nextTick = currentTick;
+    }
+
+    List<Lease> due = new ArrayList<>();
+    while (!pending.isEmpty() && due.size() < maxBatchSize) {
+      Lease lease = pending.remove();
+      if (!lease.cancelled) {
+        due.add(lease);
+      }
+    }
+
+    // after a long pause, one pass over the wheel finds every due lease
+    long lastTick = Math.min(currentTick, nextTick + WHEEL_SLOTS - 1);
+    for (long tick = nextTick; tick <= lastTick; tick++) {
+      Iterator<Lease> slot = wheel.get((int) (tick % WHEEL_SLOTS)).iterator();
+      while (slot.hasNext()) {
+        Lease lease = slot.next();
+        if (lease.cancelled) {
+          slot.remove();
+        } else if (lease.dueTick <= currentTick) {
+          if (due.size() == maxBatchSize) {
+            nextTick = tick;
+            return due;
+          }
+          slot.remove();
+          due.add(lease);
+        }
+      }
+    }
+    nextTick = currentTick + 1;
+    return due;
+  }
+
+  /**
+   * @param nFailures number of consecutive renewals of a lease that timed out or were Nacked, at least 1
+   * @return milliseconds until the next attempt: one tick, doubling with each failure, at most the renewal margin
+   */
+  private long backoff(final int nFailures) {
+    int shift = Math.min(nFailures - 1, Long.numberOfLeadingZeros(tickMillis) - 1);
+    return Math.max(tickMillis, Math.min(tickMillis << shift, renewMarginMillis));
+  }
+
+  /**
+   * Put a lease back on the wheel unless it was cancelled or replaced meanwhile.
+   *
+   * @param lease     the lease
+   * @param dueMillis when the lease should be renewed
+   */
+  private void schedule(final Lease lease, final long dueMillis) {
+    if (lease.cancelled) {
+      return;
+    }
+    // rounding down renews at most one tick early, never late
+    lease.dueTick = Math.max(dueMillis / tickMillis, nextTick);
+    wheel.get((int) (lease.dueTick % WHEEL_SLOTS)).add(lease);
+  }
+
+  /**
+   * A leased route and its position on the wheel.
+   */
+  private static final class Lease {
+    private final RouteKey key;
+    private final ControlParameters parameters;
+    private long dueTick;
+    private int nFailures;
+    private boolean cancelled;
+
+    private Lease(final RouteKey key, final ControlParameters parameters) {
+      this.key = key;
+      this.parameters = parameters;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.enums;
+
+/**
+ * NFD Content Store flags; used by CsInfo and by the Flags/Mask fields of cs/config.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/CsMgmt">CS Management</a>
+ */
+public enum CsFlags {
+
+  ENABLE_ADMIT(1),
+  ENABLE_SERVE(2);
+
+  private final int value;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Create enum using NFD's CS flag bit.
+   *
+   * @param value NFD's CS flag bit
+   */
+  CsFlags(final int value) {
+    this.value = value;
+  }
+
+  /**
+   * Convert CsFlags to the NFD code.
+   *
+   * @return NFD's CS flag bit
+   */
+  public final int toInteger() {
+    return value;
+  }
+}
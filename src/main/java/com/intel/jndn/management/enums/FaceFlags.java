@@ -0,0 +1,48 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.enums;
+
+/**
+ * NFD face flags; used by FaceStatus and by the Flags/Mask fields of faces/create and faces/update.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/FaceMgmt">Face Management</a>
+ */
+public enum FaceFlags {
+
+  LOCAL_FIELDS_ENABLED(1),
+  LP_RELIABILITY_ENABLED(2),
+  CONGESTION_MARKING_ENABLED(4);
+
+  private final int value;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Create enum using NFD's face flag bit.
+   *
+   * @param value NFD's face flag bit
+   */
+  FaceFlags(final int value) {
+    this.value = value;
+  }
+
+  /**
+   * Convert FaceFlags to the NFD code.
+   *
+   * @return NFD's face flag bit
+   */
+  public final int toInteger() {
+    return value;
+  }
+}
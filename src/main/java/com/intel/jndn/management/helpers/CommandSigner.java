@@ -0,0 +1,262 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.OnData;
+import net.named_data.jndn.OnNetworkNack;
+import net.named_data.jndn.OnTimeout;
+import net.named_data.jndn.security.KeyChain;
+import net.named_data.jndn.security.SecurityException;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe replacement for Face.makeCommandInterest(): every command Interest gets a timestamp strictly greater
+ * than any previously issued by this signer (across all threads) and a random nonce. Signing a batch with
+ * {@link #signAll(List)} reserves the timestamps in list order first and then, if an executor was provided, signs
+ * the Interests in parallel, so the batch can be sent in list order without the forwarder rejecting reordered
+ * timestamps.
+ * <p/>
+ * Timestamps increase in the order they are reserved, but the forwarder checks them per signing key in the order
+ * the commands arrive: if one thread signs and another thread signs and sends first, the first thread's command is
+ * rejected. Threads sharing a signer must therefore sign and send as one step, with
+ * {@link #signAndExpress(Face, Interest, OnData, OnTimeout, OnNetworkNack)} or {@link #dispatch(Dispatch)};
+ * {@link com.intel.jndn.management.Nfdc} does so for all commands sent with a signer set by
+ * {@link com.intel.jndn.management.Nfdc#setCommandSigner(Face, CommandSigner)}.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/ndn-cxx/wiki/CommandInterest">Command Interest</a>
+ */
+public final class CommandSigner {
+  private static final int NONCE_LENGTH = 8;
+
+  private final KeyChain keyChain;
+  private final Name certificateName;
+  private final ExecutorService executor;
+  private final SecureRandom random = new SecureRandom();
+  private final AtomicLong lastTimestamp = new AtomicLong();
+  private final Object dispatchLock = new Object();
+
+  private final LongAdder nSigned = new LongAdder();
+  private final LongAdder totalSigningNanos = new LongAdder();
+  private final AtomicLong maxSigningNanos = new AtomicLong();
+
+  /**
+   * Work that signs command Interests with a {@link CommandSigner} and sends them; see {@link #dispatch(Dispatch)}.
+   *
+   * @param <E> the exception thrown by the work
+   */
+  @FunctionalInterface
+  public interface Dispatch<E extends Exception> {
+    /**
+     * Sign and send the command Interests.
+     *
+     * @throws E if signing or sending fails
+     */
+    void run() throws E;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Create a signer that signs on the calling thread.
+   *
+   * @param keyChain        the {@link KeyChain} holding the signing key
+   * @param certificateName the name of the certificate to sign with
+   */
+  public CommandSigner(final KeyChain keyChain, final Name certificateName) {
+    this(keyChain, certificateName, null);
+  }
+
+  /**
+   * Create a signer that signs batches in parallel.
+   *
+   * @param keyChain        the {@link KeyChain} holding the signing key; it must tolerate concurrent signing
+   * @param certificateName the name of the certificate to sign with
+   * @param executor        executor used by {@link #signAll(List)}, or null to sign on the calling thread
+   */
+  public CommandSigner(final KeyChain keyChain, final Name certificateName, final ExecutorService executor) {
+    this.keyChain = keyChain;
+    this.certificateName = certificateName;
+    this.executor = executor;
+  }
+
+  /**
+   * Convert the Interest into a command Interest: append a timestamp and a nonce to its name and sign it.
+   *
+   * @param interest the Interest to modify
+   * @throws SecurityException if signing fails
+   */
+  public void sign(final Interest interest) throws SecurityException {
+    prepare(interest, nextTimestamp(1));
+    signPrepared(interest);
+  }
+
+  /**
+   * Sign the Interest and express it on the face, with no other command signed by this signer in between, so that
+   * it reaches the forwarder after every command signed earlier and before every command signed later.
+   *
+   * @param face          the face to express the Interest on
+   * @param interest      the Interest to modify and express
+   * @param onData        called when the Data arrives
+   * @param onTimeout     called when the Interest times out
+   * @param onNetworkNack called when the Interest is Nacked
+   * @throws SecurityException if signing fails
+   * @throws IOException       if the Interest cannot be expressed
+   */
+  public void signAndExpress(final Face face, final Interest interest, final OnData onData,
+                             final OnTimeout onTimeout, final OnNetworkNack onNetworkNack)
+    throws SecurityException, IOException {
+    synchronized (dispatchLock) {
+      sign(interest);
+      face.expressInterest(interest, onData, onTimeout, onNetworkNack);
+    }
+  }
+
+  /**
+   * Run work that signs command Interests with this signer and sends them, e.g. a batch signed with
+   * {@link #signAll(List)} and expressed in list order, with no other dispatch of this signer in between. Dispatches
+   * may nest on the same thread.
+   *
+   * @param dispatch the work
+   * @param <E>      the exception thrown by the work
+   * @throws E if the work fails
+   */
+  public <E extends Exception> void dispatch(final Dispatch<E> dispatch) throws E {
+    synchronized (dispatchLock) {
+      dispatch.run();
+    }
+  }
+
+  /**
+   * Build a signed command Interest for each name. Timestamps increase in list order.
+   *
+   * @param commands command names, each with encoded ControlParameters appended
+   * @return signed command Interests in the same order as {@code commands}
+   * @throws SecurityException if signing any of the Interests fails
+   */
+  public List<Interest> signAll(final List<Name> commands) throws SecurityException {
+    List<Interest> interests = new ArrayList<>(commands.size());
+    if (commands.isEmpty()) {
+      return interests;
+    }
+
+    long timestamp = nextTimestamp(commands.size());
+    for (Name command : commands) {
+      Interest interest = new Interest(command);
+      prepare(interest, timestamp++);
+      interests.add(interest);
+    }
+
+    if (executor == null) {
+      for (Interest interest : interests) {
+        signPrepared(interest);
+      }
+      return interests;
+    }
+
+    List<Future<Void>> pending = new ArrayList<>(interests.size());
+    for (final Interest interest : interests) {
+      pending.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws SecurityException {
+          signPrepared(interest);
+          return null;
+        }
+      }));
+    }
+    for (Future<Void> future : pending) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SecurityException("Interrupted while signing command interests");
+      } catch (ExecutionException e) {
+        throw new SecurityException("Failed to sign command interest: " + e.getCause().getMessage());
+      }
+    }
+    return interests;
+  }
+
+  /**
+   * @return number of command Interests signed so far
+   */
+  public long getSignedCount() {
+    return nSigned.sum();
+  }
+
+  /**
+   * @return mean time spent signing a single command Interest, in nanoseconds (0 if none were signed)
+   */
+  public long getMeanSigningNanos() {
+    long count = nSigned.sum();
+    return count == 0 ? 0 : totalSigningNanos.sum() / count;
+  }
+
+  /**
+   * @return longest time spent signing a single command Interest, in nanoseconds
+   */
+  public long getMaxSigningNanos() {
+    return maxSigningNanos.get();
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Reserve {@code count} consecutive timestamps, all greater than any previously reserved one and not earlier than
+   * the current time.
+   *
+   * @param count number of timestamps to reserve
+   * @return the first reserved timestamp (milliseconds since January 1, 1970)
+   */
+  private long nextTimestamp(final int count) {
+    while (true) {
+      long last = lastTimestamp.get();
+      long first = Math.max(System.currentTimeMillis(), last + 1);
+      if (lastTimestamp.compareAndSet(last, first + count - 1)) {
+        return first;
+      }
+    }
+  }
+
+  private void prepare(final Interest interest, final long timestamp) {
+    byte[] nonce = new byte[NONCE_LENGTH];
+    random.nextBytes(nonce);
+    interest.getName().append(Name.Component.fromNumber(timestamp)).append(nonce);
+  }
+
+  private void signPrepared(final Interest interest) throws SecurityException {
+    long start = System.nanoTime();
+    keyChain.sign(interest, certificateName);
+    long elapsed = System.nanoTime() - start;
+
+    nSigned.increment();
+    totalSigningNanos.add(elapsed);
+    long max = maxSigningNanos.get();
+    while (elapsed > max && !maxSigningNanos.compareAndSet(max, elapsed)) {
+      max = maxSigningNanos.get();
+    }
+  }
+}
@@ -17,28 +17,49 @@ import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
 import net.named_data.jndn.OnData;
+import net.named_data.jndn.OnNetworkNack;
 import net.named_data.jndn.OnTimeout;
 import net.named_data.jndn.encoding.EncodingException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Trivial NDN client to fetch one or multiple data packets.
+ * <p/>
+ * An Interest is retransmitted when it times out or is Nacked, up to three attempts in total. A NoRoute Nack is not
+ * retried, since the forwarder would give the same answer; after any other Nack (e.g. Congestion) the Interest is
+ * retransmitted after a backoff of 50 ms, doubling with each attempt.
  */
-public final class FetchHelper implements OnData, OnTimeout {
+public final class FetchHelper implements OnData, OnTimeout, OnNetworkNack {
   private static final long DEFAULT_TIMEOUT = 2000;
   private static final Logger LOG = Logger.getLogger(FetchHelper.class.getName());
   private static final int SLEEP_TIMEOUT = 20;
+  private static final long NACK_BACKOFF = 50;
   private static final int SEGMENT_NAME_COMPONENT_OFFSET = -1;
   private static final int VERSION_NAME_COMPONENT_OFFSET = -2;
+  private static final LongAdder N_EXPRESSED = new LongAdder();
+  private static final LongAdder N_DATA = new LongAdder();
+  private static final LongAdder N_TIMEOUTS = new LongAdder();
+  private static final ConcurrentMap<String, OperationStats> INTEREST_STATS = new ConcurrentHashMap<>();
+  private static volatile FetchListener listener = FetchListener.NONE;
 
   private State state;
   private Face face;
+  private final FetchListener events;
+  private final InterestSigner signer;
 
   /////////////////////////////////////////////////////////////////////////////
 
@@ -48,7 +69,19 @@ public final class FetchHelper implements OnData, OnTimeout {
    * @param face Face instance
    */
   private FetchHelper(final Face face) {
+    this(face, null);
+  }
+
+  /**
+   * Private constructor: use getData or getSegmentedData.
+   *
+   * @param face   Face instance
+   * @param signer signs each transmission, or null to express Interests as given
+   */
+  private FetchHelper(final Face face, final InterestSigner signer) {
     this.face = face;
+    this.events = listener;
+    this.signer = signer;
   }
 
   /**
@@ -62,7 +95,23 @@ public final class FetchHelper implements OnData, OnTimeout {
   public static Data
   getData(final Face face, final Interest interest) throws IOException {
     FetchHelper fetcher = new FetchHelper(face);
-    return fetcher.getData(interest);
+    return fetcher.getSingleData(interest);
+  }
+
+  /**
+   * Get a single Data packet for a command Interest that is signed anew at each transmission, so that a
+   * retransmission is not rejected by the forwarder as a replay.
+   *
+   * @param face     Face instance
+   * @param interest the unsigned command Interest; not modified
+   * @param signer   signs each transmission of the Interest
+   * @return Data packet
+   * @throws IOException if failed to retrieve packet, e.g., timeout occured
+   */
+  public static Data
+  getData(final Face face, final Interest interest, final InterestSigner signer) throws IOException {
+    FetchHelper fetcher = new FetchHelper(face, signer);
+    return fetcher.getSingleData(interest);
   }
 
   /**
@@ -84,7 +133,7 @@ public final class FetchHelper implements OnData, OnTimeout {
     interest.setMustBeFresh(false); // this is bug in jndn
     // interest.setMinSuffixComponents(1); // implicit digest
     // interest.setMaxSuffixComponents(1); // implicit digest
-    return fetcher.getData(interest);
+    return fetcher.getSingleData(interest);
   }
 
   /**
@@ -104,7 +153,26 @@ public final class FetchHelper implements OnData, OnTimeout {
   public static List<Data>
   getSegmentedData(final Face face, final Name prefix) throws IOException {
     FetchHelper fetcher = new FetchHelper(face);
+    long start = System.nanoTime();
+    List<Data> segments = new ArrayList<>();
+    try {
+      fetcher.getSegmentedData(prefix, segments);
+    } catch (IOException e) {
+      complete(fetcher.events, prefix, segments.size(), 1, start);
+      throw e;
+    }
+    complete(fetcher.events, prefix, segments.size(), 0, start);
+    return segments;
+  }
 
+  /**
+   * Retrieve the segments of a dataset; see {@link #getSegmentedData(Face, Name)}.
+   *
+   * @param prefix   dataset prefix, without version and segment
+   * @param segments receives the retrieved segments
+   * @throws IOException when communication with NFD fails
+   */
+  private void getSegmentedData(final Name prefix, final List<Data> segments) throws IOException {
     Interest interest = new Interest(new Name(prefix));
     interest.setInterestLifetimeMilliseconds(DEFAULT_TIMEOUT);
     interest.setMustBeFresh(true);
@@ -112,15 +180,16 @@ public final class FetchHelper implements OnData, OnTimeout {
     // interest.setMinSuffixComponents(3); // version, segment, implicit digest
     // interest.setMaxSuffixComponents(3); // version, segment, implicit digest
 
-    Data data = fetcher.getData(interest);
+    Data data = getData(interest);
 
     if (data.getName().size() != prefix.size() + 2) {
       throw new IOException("Retrieved data is not part of segmented stream; " +
               "data name must end with .../[version]/[segment]");
     }
 
+    long firstSegment;
     try {
-      data.getName().get(SEGMENT_NAME_COMPONENT_OFFSET).toSegment();
+      firstSegment = data.getName().get(SEGMENT_NAME_COMPONENT_OFFSET).toSegment();
     } catch (EncodingException e) {
       throw new IOException("Retrieved data does not have segment number as the last name component", e);
     }
@@ -132,28 +201,273 @@ public final class FetchHelper implements OnData, OnTimeout {
       throw new IOException("Requested segmented stream is unbounded", e);
     }
 
-    List<Data> segments = new ArrayList<>();
-    segments.add(data);
-
-    prefix.append(data.getName().get(VERSION_NAME_COMPONENT_OFFSET));
-    for (int i = 0; i < finalBlockId; i++) {
-      interest = new Interest(new Name(prefix).appendSegment(i));
+    // the caller's prefix is not modified: it may be in use as a map key
+    Name versioned = new Name(prefix).append(data.getName().get(VERSION_NAME_COMPONENT_OFFSET));
+    for (long i = 0; i <= finalBlockId; i++) {
+      if (i == firstSegment) {
+        segments.add(data);
+        continue;
+      }
+      interest = new Interest(new Name(versioned).appendSegment(i));
       interest.setInterestLifetimeMilliseconds(DEFAULT_TIMEOUT);
       interest.setMustBeFresh(false);
       // interest.setMinSuffixComponents(1); // implicit digest
       // interest.setMaxSuffixComponents(1); // implicit digest
-      segments.add(fetcher.getData(interest));
+      segments.add(getData(interest));
     }
+  }
 
-    return segments;
+  /**
+   * Get Data packets for multiple Interests, keeping at most {@code windowSize} Interests in flight at a time.
+   * <p/>
+   * Interests are expressed in list order, so command Interests signed in that order arrive at the forwarder with
+   * increasing timestamps; if they may be retransmitted, pass them unsigned to
+   * {@link #getData(Face, List, int, long[], InterestSigner)} instead. Each Interest is retried on timeout like
+   * {@link #getData(Face, Interest)}.
+   *
+   * @param face       Face instance
+   * @param interests  Interests to express
+   * @param windowSize maximum number of outstanding Interests
+   * @return retrieved Data packets in the same order as the Interests; an entry is null if its Interest timed out
+   * @throws IOException when an Interest cannot be expressed
+   */
+  public static List<Data>
+  getData(final Face face, final List<Interest> interests, final int windowSize) throws IOException {
+    return getData(face, interests, windowSize, null);
   }
 
+  /**
+   * Get Data packets for multiple Interests, like {@link #getData(Face, List, int)}, and report how long each
+   * Interest took.
+   *
+   * @param face         Face instance
+   * @param interests    Interests to express
+   * @param windowSize   maximum number of outstanding Interests
+   * @param elapsedNanos if not null, receives for each Interest the nanoseconds from its first expression to its
+   *                     completion (Data, or the last retransmission failing), retransmissions included; it must be
+   *                     at least as long as {@code interests}
+   * @return retrieved Data packets in the same order as the Interests; an entry is null if its Interest timed out
+   * @throws IOException when an Interest cannot be expressed
+   */
+  public static List<Data>
+  getData(final Face face, final List<Interest> interests, final int windowSize,
+          final long[] elapsedNanos) throws IOException {
+    return getData(face, interests, windowSize, elapsedNanos, null, null);
+  }
+
+  /**
+   * Get Data packets for multiple command Interests, like {@link #getData(Face, List, int, long[])}, signing each
+   * transmission when it is sent: the Interests that fill the window are signed together, in list order, and a
+   * retransmission is signed anew. Timestamps thus increase in sending order, retransmissions included.
+   *
+   * @param face         Face instance
+   * @param interests    unsigned Interests to express; not modified
+   * @param windowSize   maximum number of outstanding Interests
+   * @param elapsedNanos if not null, receives for each Interest the nanoseconds from its first expression to its
+   *                     completion; see {@link #getData(Face, List, int, long[])}
+   * @param failures     if not null, receives for each Interest that retrieved no Data why its last attempt failed:
+   *                     a {@link NetworkNackException} or a {@link FetchTimeoutException}; it must be at least as
+   *                     long as {@code interests}
+   * @param signer       signs each transmission, or null to express the Interests as given
+   * @return retrieved Data packets in the same order as the Interests; an entry is null if its Interest failed
+   * @throws IOException when an Interest cannot be expressed
+   */
+  public static List<Data>
+  getData(final Face face, final List<Interest> interests, final int windowSize, final long[] elapsedNanos,
+          final IOException[] failures, final InterestSigner signer) throws IOException {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+    }
+
+    long start = System.nanoTime();
+    List<Data> responses = new ArrayList<>(Collections.<Data>nCopies(interests.size(), null));
+    Pipeline pipeline = new Pipeline(face, responses, elapsedNanos, failures, listener, signer);
+
+    int next = 0;
+    while (next < interests.size() || pipeline.nInFlight > 0) {
+      final int first = next;
+      final int end = Math.min(interests.size(), next + windowSize - pipeline.nInFlight);
+      if (end > next) {
+        dispatch(signer, () -> {
+          List<Interest> unsigned = interests.subList(first, end);
+          List<Interest> expressed = signer == null ? unsigned : signer.signAll(unsigned);
+          for (int i = 0; i < unsigned.size(); i++) {
+            pipeline.express(first + i, unsigned.get(i), expressed.get(i));
+          }
+        });
+        next = end;
+      }
+
+      int nCompletedBefore = pipeline.nCompleted;
+      try {
+        face.processEvents();
+      } catch (EncodingException e) {
+        LOG.log(Level.INFO, "Decoding error: " + e.getMessage(), e);
+      }
+      pipeline.retryDeferred();
+
+      // only back off when the forwarder has nothing for us yet
+      if (pipeline.nCompleted == nCompletedBefore) {
+        try {
+          Thread.sleep(SLEEP_TIMEOUT);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    if (pipeline.events != FetchListener.NONE && !interests.isEmpty()) {
+      int nFailed = Collections.frequency(responses, null);
+      complete(pipeline.events, interests.get(0).getName(), responses.size() - nFailed, nFailed, start);
+    }
+    return responses;
+  }
+
+  /**
+   * Install a listener for the packet-level events of all subsequent FetchHelper calls.
+   *
+   * @param fetchListener the listener, or null for {@link FetchListener#NONE}
+   */
+  public static void setListener(final FetchListener fetchListener) {
+    listener = fetchListener == null ? FetchListener.NONE : fetchListener;
+  }
+
+  /**
+   * @return the installed listener, {@link FetchListener#NONE} by default
+   */
+  public static FetchListener getListener() {
+    return listener;
+  }
+
+  /**
+   * @return number of Interests expressed by all FetchHelper calls, retransmissions included
+   */
+  public static long getExpressedCount() {
+    return N_EXPRESSED.sum();
+  }
+
+  /**
+   * @return number of Data packets received by all FetchHelper calls
+   */
+  public static long getDataCount() {
+    return N_DATA.sum();
+  }
+
+  /**
+   * @return number of Interests expressed by all FetchHelper calls that timed out, whether or not they were retried
+   */
+  public static long getTimeoutCount() {
+    return N_TIMEOUTS.sum();
+  }
+
+  /**
+   * Round-trip time of every Interest expressed by FetchHelper (each retransmission separately), keyed by operation
+   * (see {@link OperationStats#operationName(Name)}), with outcomes {@link OperationStats#SUCCESS},
+   * {@link OperationStats#TIMEOUT} and {@link OperationStats#NACK}.
+   *
+   * @return a live, read-only view of the statistics
+   */
+  public static Map<String, OperationStats> getInterestStats() {
+    return Collections.unmodifiableMap(INTEREST_STATS);
+  }
 
   /////////////////////////////////////////////////////////////////////////////
 
+  /**
+   * Record the round trip of one Interest in {@link #getInterestStats()}.
+   *
+   * @param interest the Interest
+   * @param elapsed  its round-trip time in nanoseconds
+   * @param outcome  how it was answered
+   */
+  private static void record(final Interest interest, final long elapsed, final String outcome) {
+    String operation = OperationStats.operationName(interest.getName());
+    OperationStats stats = INTEREST_STATS.get(operation);
+    if (stats == null) {
+      stats = INTEREST_STATS.computeIfAbsent(operation, OperationStats::new);
+    }
+    stats.record(elapsed, outcome);
+  }
+
+  /**
+   * @param interest an Interest
+   * @return its segment number, or -1 if the name does not end with a segment
+   */
+  private static long segmentOf(final Interest interest) {
+    Name name = interest.getName();
+    if (name.size() == 0 || !name.get(SEGMENT_NAME_COMPONENT_OFFSET).isSegment()) {
+      return -1;
+    }
+    try {
+      return name.get(SEGMENT_NAME_COMPONENT_OFFSET).toSegment();
+    } catch (EncodingException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * @param reason   why the Interest was Nacked
+   * @param attempt  number of times the Interest has been expressed
+   * @param nRetries number of attempts left, the Nacked one included
+   * @return milliseconds to wait before retransmitting the Interest, or -1 not to retransmit it
+   */
+  private static long nackBackoff(final NetworkNack.Reason reason, final int attempt, final int nRetries) {
+    if (reason == NetworkNack.Reason.NO_ROUTE || nRetries <= 1) {
+      return -1;
+    }
+    return NACK_BACKOFF << (attempt - 1);
+  }
+
+  /**
+   * Run work that signs Interests and expresses them as one dispatch of the signer; see
+   * {@link InterestSigner#dispatch(CommandSigner.Dispatch)}.
+   *
+   * @param signer   the signer, or null to run the work directly
+   * @param dispatch the work
+   * @throws IOException if an Interest cannot be expressed
+   */
+  private static void dispatch(final InterestSigner signer, final CommandSigner.Dispatch<IOException> dispatch)
+    throws IOException {
+    if (signer == null) {
+      dispatch.run();
+    } else {
+      signer.dispatch(dispatch);
+    }
+  }
+
+  /**
+   * Report the end of a FetchHelper call to the listener.
+   *
+   * @param events  the listener
+   * @param name    the requested name
+   * @param nData   number of Data retrieved
+   * @param nFailed number of packets not retrieved
+   * @param start   when the call started, as given by {@link System#nanoTime()}
+   */
+  private static void complete(final FetchListener events, final Name name, final int nData, final int nFailed,
+                               final long start) {
+    if (events != FetchListener.NONE) {
+      long now = System.nanoTime();
+      events.onComplete(name, nData, nFailed, now - start, now);
+    }
+  }
+
+  private Data getSingleData(final Interest interest) throws IOException {
+    long start = System.nanoTime();
+    try {
+      Data data = getData(interest);
+      complete(events, interest.getName(), 1, 0, start);
+      return data;
+    } catch (IOException e) {
+      complete(events, interest.getName(), 0, 1, start);
+      throw e;
+    }
+  }
+
   private Data getData(final Interest interest) throws IOException {
     this.state = new State();
-    this.face.expressInterest(interest, this, this);
+    state.unsigned = interest;
+    dispatch(signer, () -> express(signer == null ? interest : signer.sign(interest)));
 
     while (!state.isDone) {
       try {
@@ -161,6 +475,11 @@ public final class FetchHelper implements OnData, OnTimeout {
       } catch (EncodingException e) {
         LOG.log(Level.INFO, "Decoding error: " + e.getMessage(), e);
       }
+      if (state.deferred != null && System.nanoTime() - state.retryAtNanos >= 0) {
+        Interest deferred = state.deferred;
+        state.deferred = null;
+        retry(deferred);
+      }
       try {
         Thread.sleep(SLEEP_TIMEOUT);
       } catch (InterruptedException e) {
@@ -169,7 +488,10 @@ public final class FetchHelper implements OnData, OnTimeout {
     }
 
     if (state.response == null) {
-      throw new IOException("Communication with NFD failed");
+      if (state.nack != null) {
+        throw new NetworkNackException("Communication with NFD failed: Nack " + state.nack, state.nack);
+      }
+      throw new FetchTimeoutException("Communication with NFD failed");
     }
 
     return state.response;
@@ -177,16 +499,63 @@ public final class FetchHelper implements OnData, OnTimeout {
 
   @Override
   public void onData(final Interest interest, final Data data) {
+    long now = System.nanoTime();
+    N_DATA.increment();
+    record(interest, now - state.sentNanos, OperationStats.SUCCESS);
+    if (events != FetchListener.NONE) {
+      events.onData(interest, data, segmentOf(interest), now - state.sentNanos, now);
+    }
     state.response = data;
     state.isDone = true;
   }
 
   @Override
   public void onTimeout(final Interest interest) {
+    long now = System.nanoTime();
+    N_TIMEOUTS.increment();
+    record(interest, now - state.sentNanos, OperationStats.TIMEOUT);
+    if (events != FetchListener.NONE) {
+      events.onTimeout(interest, segmentOf(interest), state.attempt, now);
+    }
+    state.nack = null;
+    retry(interest);
+  }
+
+  @Override
+  public void onNetworkNack(final Interest interest, final NetworkNack networkNack) {
+    long now = System.nanoTime();
+    record(interest, now - state.sentNanos, OperationStats.NACK);
+    if (events != FetchListener.NONE) {
+      events.onNack(interest, networkNack, segmentOf(interest), state.attempt, now);
+    }
+    state.nack = networkNack.getReason();
+    long backoff = nackBackoff(state.nack, state.attempt, state.nRetries);
+    if (backoff < 0) {
+      state.isDone = true;
+    } else {
+      state.deferred = interest;
+      state.retryAtNanos = now + TimeUnit.MILLISECONDS.toNanos(backoff);
+    }
+  }
+
+  private void express(final Interest interest) throws IOException {
+    N_EXPRESSED.increment();
+    state.attempt++;
+    state.sentNanos = System.nanoTime();
+    if (events != FetchListener.NONE) {
+      events.onInterest(interest, segmentOf(interest), state.attempt, state.sentNanos);
+    }
+    face.expressInterest(interest, this, this, this);
+  }
+
+  private void retry(final Interest interest) {
     state.nRetries--;
     if (state.nRetries > 0) {
+      if (events != FetchListener.NONE) {
+        events.onRetransmission(interest, segmentOf(interest), state.attempt + 1, System.nanoTime());
+      }
       try {
-        face.expressInterest(new Interest(interest), this, this);
+        dispatch(signer, () -> express(signer == null ? new Interest(interest) : signer.sign(state.unsigned)));
       } catch (IOException e) {
         LOG.log(Level.INFO, "Error while expressing interest: " + e.toString(), e);
       }
@@ -202,6 +571,170 @@ public final class FetchHelper implements OnData, OnTimeout {
 
     private int nRetries = DEFAULT_NUMBER_OF_RETRIES;
     private Data response = null;
+    private NetworkNack.Reason nack = null;
+    private int attempt = 0;
+    private long sentNanos = 0;
+    private Interest unsigned = null;
+    private Interest deferred = null;
+    private long retryAtNanos = 0;
     private boolean isDone = false;
   }
+
+  /**
+   * Bookkeeping for Interests expressed by {@link #getData(Face, List, int)}.
+   */
+  private static final class Pipeline {
+    private final Face face;
+    private final List<Data> responses;
+    private final long[] elapsedNanos;
+    private final IOException[] failures;
+    private final FetchListener events;
+    private final InterestSigner signer;
+    private final List<Request> deferred = new ArrayList<>();
+    private int nInFlight = 0;
+    private int nCompleted = 0;
+
+    private Pipeline(final Face face, final List<Data> responses, final long[] elapsedNanos,
+                     final IOException[] failures, final FetchListener events, final InterestSigner signer) {
+      this.face = face;
+      this.responses = responses;
+      this.elapsedNanos = elapsedNanos;
+      this.failures = failures;
+      this.events = events;
+      this.signer = signer;
+    }
+
+    private void express(final int index, final Interest unsigned, final Interest interest) throws IOException {
+      nInFlight++;
+      new Request(index, unsigned).express(interest);
+    }
+
+    /**
+     * Retransmit the Nacked Interests whose backoff has elapsed.
+     */
+    private void retryDeferred() {
+      if (deferred.isEmpty()) {
+        return;
+      }
+      long now = System.nanoTime();
+      List<Request> due = new ArrayList<>();
+      for (Iterator<Request> i = deferred.iterator(); i.hasNext();) {
+        Request request = i.next();
+        if (now - request.retryAtNanos >= 0) {
+          i.remove();
+          due.add(request);
+        }
+      }
+      for (Request request : due) {
+        Interest interest = request.deferredInterest;
+        request.deferredInterest = null;
+        request.retry(interest);
+      }
+    }
+
+    /**
+     * Callbacks for a single pipelined Interest.
+     */
+    private final class Request implements OnData, OnTimeout, OnNetworkNack {
+      private final int index;
+      private final Interest unsigned;
+      private int nRetries = State.DEFAULT_NUMBER_OF_RETRIES;
+      private int attempt = 0;
+      private long firstSentNanos;
+      private long sentNanos;
+      private Interest deferredInterest;
+      private long retryAtNanos;
+      private NetworkNack.Reason nack;
+
+      private Request(final int index, final Interest unsigned) {
+        this.index = index;
+        this.unsigned = unsigned;
+      }
+
+      private void express(final Interest interest) throws IOException {
+        N_EXPRESSED.increment();
+        attempt++;
+        sentNanos = System.nanoTime();
+        if (attempt == 1) {
+          firstSentNanos = sentNanos;
+        }
+        if (events != FetchListener.NONE) {
+          events.onInterest(interest, segmentOf(interest), attempt, sentNanos);
+        }
+        face.expressInterest(interest, this, this, this);
+      }
+
+      private void complete(final Data data) {
+        if (elapsedNanos != null) {
+          elapsedNanos[index] = System.nanoTime() - firstSentNanos;
+        }
+        if (data == null && failures != null) {
+          failures[index] = nack != null ?
+            new NetworkNackException("Communication with NFD failed: Nack " + nack, nack) :
+            new FetchTimeoutException("Communication with NFD failed");
+        }
+        responses.set(index, data);
+        nInFlight--;
+        nCompleted++;
+      }
+
+      @Override
+      public void onData(final Interest interest, final Data data) {
+        long now = System.nanoTime();
+        N_DATA.increment();
+        record(interest, now - sentNanos, OperationStats.SUCCESS);
+        if (events != FetchListener.NONE) {
+          events.onData(interest, data, segmentOf(interest), now - sentNanos, now);
+        }
+        complete(data);
+      }
+
+      @Override
+      public void onTimeout(final Interest interest) {
+        long now = System.nanoTime();
+        N_TIMEOUTS.increment();
+        record(interest, now - sentNanos, OperationStats.TIMEOUT);
+        if (events != FetchListener.NONE) {
+          events.onTimeout(interest, segmentOf(interest), attempt, now);
+        }
+        nack = null;
+        retry(interest);
+      }
+
+      @Override
+      public void onNetworkNack(final Interest interest, final NetworkNack networkNack) {
+        long now = System.nanoTime();
+        record(interest, now - sentNanos, OperationStats.NACK);
+        if (events != FetchListener.NONE) {
+          events.onNack(interest, networkNack, segmentOf(interest), attempt, now);
+        }
+        nack = networkNack.getReason();
+        long backoff = nackBackoff(nack, attempt, nRetries);
+        if (backoff < 0) {
+          complete(null);
+        } else {
+          deferredInterest = interest;
+          retryAtNanos = now + TimeUnit.MILLISECONDS.toNanos(backoff);
+          deferred.add(this);
+        }
+      }
+
+      private void retry(final Interest interest) {
+        nRetries--;
+        if (nRetries > 0) {
+          if (events != FetchListener.NONE) {
+            events.onRetransmission(interest, segmentOf(interest), attempt + 1, System.nanoTime());
+          }
+          try {
+            // a command is signed anew: the forwarder may have seen the first timestamp and rejects it as a replay
+            dispatch(signer, () -> express(signer == null ? new Interest(interest) : signer.sign(unsigned)));
+            return;
+          } catch (IOException e) {
+            LOG.log(Level.INFO, "Error while expressing interest: " + e.toString(), e);
+          }
+        }
+        complete(null);
+      }
+    }
+  }
 }
@@ -0,0 +1,111 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+
+/**
+ * Packet-level events of {@link FetchHelper}, e.g. for tracing slow dataset fetches; install with
+ * {@link FetchHelper#setListener(FetchListener)}. All methods do nothing by default, so an implementation overrides
+ * only the events it needs. Events are delivered synchronously on the thread processing the face, so
+ * implementations must be quick and must not throw.
+ * <p/>
+ * Timestamps are {@link System#nanoTime()} values. {@code segment} is the segment number of the Interest name, or -1
+ * if the name does not end with a segment; {@code attempt} counts from 1 and grows with each retransmission.
+ */
+public interface FetchListener {
+  /**
+   * The default listener; ignores all events. While it is installed, FetchHelper skips preparing event arguments.
+   */
+  FetchListener NONE = new FetchListener() {
+  };
+
+  /**
+   * An Interest was expressed.
+   *
+   * @param interest       the Interest
+   * @param segment        its segment number, or -1
+   * @param attempt        1 for the first transmission
+   * @param timestampNanos when it was expressed
+   */
+  default void onInterest(final Interest interest, final long segment, final int attempt,
+                          final long timestampNanos) {
+  }
+
+  /**
+   * An Interest is about to be expressed again after a timeout or Nack; {@link #onInterest} follows.
+   *
+   * @param interest       the Interest
+   * @param segment        its segment number, or -1
+   * @param attempt        the upcoming attempt, at least 2
+   * @param timestampNanos when the retransmission was decided
+   */
+  default void onRetransmission(final Interest interest, final long segment, final int attempt,
+                                final long timestampNanos) {
+  }
+
+  /**
+   * Data answered an Interest.
+   *
+   * @param interest       the Interest
+   * @param data           the Data
+   * @param segment        the Interest's segment number, or -1
+   * @param rttNanos       time since the Interest was expressed
+   * @param timestampNanos when the Data was received
+   */
+  default void onData(final Interest interest, final Data data, final long segment, final long rttNanos,
+                      final long timestampNanos) {
+  }
+
+  /**
+   * An Interest timed out.
+   *
+   * @param interest       the Interest
+   * @param segment        its segment number, or -1
+   * @param attempt        which attempt timed out
+   * @param timestampNanos when the timeout fired
+   */
+  default void onTimeout(final Interest interest, final long segment, final int attempt,
+                         final long timestampNanos) {
+  }
+
+  /**
+   * A network Nack answered an Interest.
+   *
+   * @param interest       the Interest
+   * @param nack           the Nack
+   * @param segment        the Interest's segment number, or -1
+   * @param attempt        which attempt was Nacked
+   * @param timestampNanos when the Nack was received
+   */
+  default void onNack(final Interest interest, final NetworkNack nack, final long segment, final int attempt,
+                      final long timestampNanos) {
+  }
+
+  /**
+   * A FetchHelper call finished: a single packet, a whole segmented dataset or a pipelined batch.
+   *
+   * @param name           the requested name or dataset prefix; for a batch, the name of its first Interest
+   * @param nData          number of Data packets retrieved
+   * @param nFailed        number of packets that could not be retrieved
+   * @param elapsedNanos   duration of the call
+   * @param timestampNanos when the call finished
+   */
+  default void onComplete(final Name name, final int nData, final int nFailed, final long elapsedNanos,
+                          final long timestampNanos) {
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link FetchHelper} when every attempt to retrieve a packet timed out.
+ */
+public class FetchTimeoutException extends IOException {
+  /**
+   * Constructor.
+   *
+   * @param message error message
+   */
+  public FetchTimeoutException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import net.named_data.jndn.Interest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Signs the command Interests expressed by {@link FetchHelper} at the moment they are sent, so that every
+ * transmission, retransmissions included, carries a fresh timestamp and nonce: the forwarder rejects a command whose
+ * timestamp is not greater than that of the last command it accepted. Signing failures are reported with unchecked
+ * exceptions, which propagate out of the FetchHelper call.
+ */
+public interface InterestSigner {
+  /**
+   * Sign a copy of one Interest.
+   *
+   * @param unsigned the Interest to sign; not modified
+   * @return the signed copy
+   */
+  Interest sign(Interest unsigned);
+
+  /**
+   * Sign a copy of each Interest, with timestamps increasing in list order; by default calls {@link #sign(Interest)}
+   * for each.
+   *
+   * @param unsigned the Interests to sign, in sending order; not modified
+   * @return the signed copies, in the same order
+   */
+  default List<Interest> signAll(final List<Interest> unsigned) {
+    List<Interest> signed = new ArrayList<>(unsigned.size());
+    for (Interest interest : unsigned) {
+      signed.add(sign(interest));
+    }
+    return signed;
+  }
+
+  /**
+   * Run work that signs Interests with this signer and expresses them, such that no other thread signing with the
+   * same key sends in between; FetchHelper wraps each signing and the sending that follows in one dispatch. By
+   * default runs the work directly.
+   *
+   * @param dispatch the work
+   * @throws IOException if an Interest cannot be expressed
+   */
+  default void dispatch(final CommandSigner.Dispatch<IOException> dispatch) throws IOException {
+    dispatch.run();
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets: values below 16 ns have a bucket each, and every
+ * larger power-of-two range is split into 16 equal buckets, so a recorded value is known to within 1/16 (6.25%) of
+ * itself over the whole {@code long} range. Recording is one atomic increment per counter and never allocates.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_MASK = SUB_BUCKETS - 1;
+  private static final int HIGHEST_BIT = 62;
+  private static final int BUCKETS = SUB_BUCKETS + (HIGHEST_BIT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Record one value.
+   *
+   * @param nanos the latency in nanoseconds; negative values are recorded as 0
+   */
+  public void record(final long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(bucket(value));
+    totalNanos.addAndGet(value);
+    long max = maxNanos.get();
+    while (value > max && !maxNanos.compareAndSet(max, value)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /**
+   * @return a copy of the recorded values
+   */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+    }
+    return new Snapshot(copy, totalNanos.get(), maxNanos.get());
+  }
+
+  /**
+   * Take a copy of the recorded values and start over. A value recorded while the reset is under way ends up either
+   * in the returned snapshot or in the histogram, but its bucket count and its contribution to the mean and maximum
+   * may be split between the two.
+   *
+   * @return the values recorded since the previous reset
+   */
+  public Snapshot snapshotAndReset() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.getAndSet(i, 0);
+    }
+    return new Snapshot(copy, totalNanos.getAndSet(0), maxNanos.getAndSet(0));
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * @param value a non-negative value
+   * @return the index of its bucket
+   */
+  static int bucket(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = highestBit - SUB_BUCKET_BITS;
+    return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+  }
+
+  /**
+   * @param bucket a bucket index
+   * @return the largest value falling into the bucket
+   */
+  static long highestValue(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    long lowest = (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /**
+   * Immutable copy of a histogram.
+   */
+  public static final class Snapshot {
+    private static final double PERCENT = 100.0;
+    private static final double P50 = 50;
+    private static final double P90 = 90;
+    private static final double P99 = 99;
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    private Snapshot(final long[] counts, final long totalNanos, final long maxNanos) {
+      this.counts = counts;
+      long sum = 0;
+      for (long bucketCount : counts) {
+        sum += bucketCount;
+      }
+      this.count = sum;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * @return exact mean of the recorded values, in nanoseconds (0 if there are none)
+     */
+    public double getMeanNanos() {
+      return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * @return exact maximum of the recorded values, in nanoseconds
+     */
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 99.9
+     * @return a value, within 6.25%, that {@code percentile} percent of the recorded values do not exceed; 0 if
+     * there are none
+     */
+    public long getValueAtPercentile(final double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(Math.min(PERCENT, Math.max(0, percentile)) / PERCENT * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(highestValue(i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Latency(n: %d, mean: %.3f ms, p50: %.3f ms, p90: %.3f ms, p99: %.3f ms, max: %.3f ms)",
+                           count, millis(getMeanNanos()), millis(getValueAtPercentile(P50)),
+                           millis(getValueAtPercentile(P90)), millis(getValueAtPercentile(P99)), millis(maxNanos));
+    }
+
+    private static double millis(final double nanos) {
+      return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import net.named_data.jndn.NetworkNack;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link FetchHelper} when the last attempt to retrieve a packet was answered with a network Nack rather
+ * than timing out, e.g. because the forwarder has no route for the name.
+ */
+public class NetworkNackException extends IOException {
+  private final NetworkNack.Reason reason;
+
+  /**
+   * Constructor.
+   *
+   * @param message error message
+   * @param reason  the Nack reason
+   */
+  public NetworkNackException(final String message, final NetworkNack.Reason reason) {
+    super(message);
+    this.reason = reason;
+  }
+
+  /**
+   * @return the Nack reason
+   */
+  public final NetworkNack.Reason getReason() {
+    return reason;
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import net.named_data.jndn.Name;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count and time one kind of management operation, e.g. every faces/list fetch or every rib/register command, with
+ * a {@link LatencyHistogram} per outcome. Recording is lock-free and safe from any thread.
+ */
+public final class OperationStats {
+  /**
+   * Outcome of an operation that succeeded.
+   */
+  public static final String SUCCESS = "success";
+  /**
+   * Outcome of an operation that got no reply in time.
+   */
+  public static final String TIMEOUT = "timeout";
+  /**
+   * Outcome of an operation answered with a network Nack.
+   */
+  public static final String NACK = "nack";
+  /**
+   * Outcome of an operation that failed otherwise, e.g. with an undecodable reply.
+   */
+  public static final String ERROR = "error";
+  private static final int MODULE_NAME_COMPONENT = 2;
+  private static final int VERB_NAME_COMPONENT = 3;
+  private static final Name LOCALHOST_NFD = new Name("/localhost/nfd");
+
+  private final String name;
+  private final LongAdder nCompleted = new LongAdder();
+  private final LongAdder nFailed = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+  private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param name the operation, e.g. "faces/list"
+   */
+  public OperationStats(final String name) {
+    this.name = name;
+  }
+
+  /**
+   * @param name a dataset, command or Interest name, e.g. /localhost/nfd/faces/list/%FD%00/%00%00
+   * @return the operation the name belongs to, e.g. "faces/list"; the URI of names outside /localhost/nfd
+   */
+  public static String operationName(final Name name) {
+    if (name.size() > VERB_NAME_COMPONENT && LOCALHOST_NFD.match(name)) {
+      return name.get(MODULE_NAME_COMPONENT).toEscapedString() + "/" + name.get(VERB_NAME_COMPONENT).toEscapedString();
+    }
+    return name.toUri();
+  }
+
+  /**
+   * @param statusCode the status code of a ControlResponse that is not a success
+   * @return the outcome of an operation the forwarder rejected with that code, e.g. "nfd-404"
+   */
+  public static String forStatusCode(final int statusCode) {
+    return "nfd-" + statusCode;
+  }
+
+  /**
+   * Record one completed operation.
+   *
+   * @param elapsedNanos how long the operation took
+   * @param outcome      {@link #SUCCESS}, {@link #TIMEOUT}, {@link #NACK}, {@link #ERROR} or
+   *                     {@link #forStatusCode(int)}
+   */
+  public void record(final long elapsedNanos, final String outcome) {
+    nCompleted.increment();
+    if (!SUCCESS.equals(outcome)) {
+      nFailed.increment();
+    }
+    totalNanos.add(elapsedNanos);
+    long max = maxNanos.get();
+    while (elapsedNanos > max && !maxNanos.compareAndSet(max, elapsedNanos)) {
+      max = maxNanos.get();
+    }
+
+    LatencyHistogram histogram = histograms.get(outcome);
+    if (histogram == null) {
+      histogram = histograms.computeIfAbsent(outcome, key -> new LatencyHistogram());
+    }
+    histogram.record(elapsedNanos);
+  }
+
+  /**
+   * @return the operation, e.g. "faces/list"
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return number of operations completed, successfully or not
+   */
+  public long getCount() {
+    return nCompleted.sum();
+  }
+
+  /**
+   * @return number of operations that failed
+   */
+  public long getFailureCount() {
+    return nFailed.sum();
+  }
+
+  /**
+   * @return mean duration of an operation, in nanoseconds (0 if none completed)
+   */
+  public long getMeanNanos() {
+    long count = nCompleted.sum();
+    return count == 0 ? 0 : totalNanos.sum() / count;
+  }
+
+  /**
+   * @return longest duration of an operation, in nanoseconds
+   */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * @return latency distribution of each outcome seen so far (or since the last {@link #snapshotAndReset()}),
+   * sorted by outcome
+   */
+  public Map<String, LatencyHistogram.Snapshot> snapshot() {
+    Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+    for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+      snapshots.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return Collections.unmodifiableMap(snapshots);
+  }
+
+  /**
+   * Like {@link #snapshot()}, but start the histograms over, e.g. to report each interval separately. The counts,
+   * mean and maximum of this object are cumulative and not reset.
+   *
+   * @return latency distribution of each outcome since the previous reset, sorted by outcome
+   */
+  public Map<String, LatencyHistogram.Snapshot> snapshotAndReset() {
+    Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+    for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+      snapshots.put(entry.getKey(), entry.getValue().snapshotAndReset());
+    }
+    return Collections.unmodifiableMap(snapshots);
+  }
+
+  @Override
+  public String toString() {
+    return "OperationStats(" + name + ": " + getCount() + " completed, " + getFailureCount() + " failed, mean " +
+      getMeanNanos() + " ns, max " + getMaxNanos() + " ns)";
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesce concurrent identical requests: the first caller for a key runs the request, callers arriving while it is
+ * in flight wait for and share its outcome (value or exception). Nothing is cached once the request completes; the
+ * next caller for the key starts a new request.
+ *
+ * @param <K> request key, must implement equals() and hashCode()
+ * @param <V> request result
+ */
+public final class SingleFlight<K, V> {
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder nExecuted = new LongAdder();
+  private final LongAdder nShared = new LongAdder();
+
+  /**
+   * A request that may fail with a checked exception.
+   *
+   * @param <V> request result
+   * @param <E> exception thrown by the request
+   */
+  @FunctionalInterface
+  public interface Request<V, E extends Exception> {
+    /**
+     * @return the result of the request
+     * @throws E if the request fails
+     */
+    V execute() throws E;
+  }
+
+  /**
+   * Run {@code request}, or join the identical request already in flight for {@code key}.
+   *
+   * @param key     identifies identical requests
+   * @param request the request to run if none is in flight for the key
+   * @param <E>     exception thrown by the request; all requests for a key must throw the same type
+   * @return the result of the request
+   * @throws E the exception thrown by the request, shared by all callers that joined it
+   */
+  @SuppressWarnings("unchecked")
+  public <E extends Exception> V execute(final K key, final Request<V, E> request) throws E {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+    if (existing != null) {
+      nShared.increment();
+      try {
+        return existing.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for an identical request", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw (E) cause;
+      }
+    }
+
+    nExecuted.increment();
+    try {
+      V value = request.execute();
+      future.complete(value);
+      return value;
+    } catch (Exception | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, future);
+    }
+  }
+
+  /**
+   * @return number of requests currently in flight
+   */
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * @return number of requests actually run
+   */
+  public long getExecutedCount() {
+    return nExecuted.sum();
+  }
+
+  /**
+   * @return number of calls that joined a request already in flight instead of running their own
+   */
+  public long getSharedCount() {
+    return nShared.sum();
+  }
+}
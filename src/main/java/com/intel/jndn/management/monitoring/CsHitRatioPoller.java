@@ -0,0 +1,152 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.types.CsInfo;
+import net.named_data.jndn.Face;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Track the Content Store hit ratio over time. The NHits/NMisses counters of cs/info are cumulative since the
+ * forwarder started, so their ratio barely moves on a long-running node; each {@link #poll()} instead reports the
+ * hit ratio and lookup rate of the interval since the previous poll. Call {@link #poll()} periodically, e.g. from a
+ * ScheduledExecutorService, on a thread that may use the face.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/CsMgmt">CS Management</a>
+ */
+public final class CsHitRatioPoller {
+  private final Face face;
+  private CsInfo previous = null;
+  private long previousNanos = 0;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face only a localhost {@link Face}
+   */
+  public CsHitRatioPoller(final Face face) {
+    this.face = face;
+  }
+
+  /**
+   * Fetch cs/info and compare it to the previous poll.
+   *
+   * @return the hit ratio since the previous poll (or since the forwarder started, on the first poll)
+   * @throws ManagementException if cs/info could not be retrieved
+   */
+  public Sample poll() throws ManagementException {
+    return update(Nfdc.getCsInfo(face), System.nanoTime());
+  }
+
+  /**
+   * Compare a CsInfo obtained elsewhere to the previous one; {@link #poll()} calls this.
+   *
+   * @param info           the current CS information
+   * @param timestampNanos when {@code info} was retrieved, as given by {@link System#nanoTime()}
+   * @return the hit ratio since the previous update
+   */
+  public synchronized Sample update(final CsInfo info, final long timestampNanos) {
+    Sample sample;
+    if (previous == null || info.getNHits() < previous.getNHits() || info.getNMisses() < previous.getNMisses()) {
+      // first sample, or the counters went backwards because the forwarder restarted
+      sample = new Sample(info, info.getNHits(), info.getNMisses(), 0);
+    } else {
+      sample = new Sample(info, info.getNHits() - previous.getNHits(), info.getNMisses() - previous.getNMisses(),
+                          timestampNanos - previousNanos);
+    }
+    previous = info;
+    previousNanos = timestampNanos;
+    return sample;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Content Store activity over one polling interval.
+   */
+  public static final class Sample {
+    private final CsInfo info;
+    private final long nHits;
+    private final long nMisses;
+    private final long intervalNanos;
+
+    private Sample(final CsInfo info, final long nHits, final long nMisses, final long intervalNanos) {
+      this.info = info;
+      this.nHits = nHits;
+      this.nMisses = nMisses;
+      this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * @return the CS information the sample was computed from
+     */
+    public CsInfo getInfo() {
+      return info;
+    }
+
+    /**
+     * @return number of hits in the interval
+     */
+    public long getNHits() {
+      return nHits;
+    }
+
+    /**
+     * @return number of misses in the interval
+     */
+    public long getNMisses() {
+      return nMisses;
+    }
+
+    /**
+     * @return length of the interval in nanoseconds, or 0 if there was no previous poll to compare with
+     */
+    public long getIntervalNanos() {
+      return intervalNanos;
+    }
+
+    /**
+     * @return fraction of lookups in the interval that were hits, or 0 if there were no lookups
+     */
+    public double getHitRatio() {
+      long lookups = nHits + nMisses;
+      return lookups == 0 ? 0 : (double) nHits / lookups;
+    }
+
+    /**
+     * @return CS lookups per second in the interval, or 0 if the interval is unknown
+     */
+    public double getLookupsPerSecond() {
+      return intervalNanos <= 0 ? 0 : (nHits + nMisses) * (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    /**
+     * @return fraction of the capacity in use
+     */
+    public double getOccupancy() {
+      return info.getCapacity() == 0 ? 0 : (double) info.getNCsEntries() / info.getCapacity();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("CsSample(hitRatio: %.3f, lookups/s: %.1f, occupancy: %.3f)", getHitRatio(),
+                           getLookupsPerSecond(), getOccupancy());
+    }
+  }
+}
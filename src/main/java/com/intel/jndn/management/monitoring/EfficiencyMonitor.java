@@ -0,0 +1,262 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import net.named_data.jndn.Face;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Forwarding efficiency over time, for capacity planning. Each {@link #poll()} fetches status/general and faces/list
+ * and compares them with the previous poll: the Interest satisfaction ratio of the forwarder (from
+ * NSatisfiedInterests and NUnsatisfiedInterests, reported by NFD 0.7 and later), the ratio of Nacks to Interests of
+ * the forwarder, and for every face the fraction of Interests sent on the face that came back as Nacks and the
+ * fraction of Interests received on it that were answered with a Nack. The last {@code capacity} samples are kept.
+ * <p/>
+ * A forwarder restart (a new StartTimestamp) only re-establishes the baseline. Call {@link #poll()} periodically on
+ * a thread that may use the face.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/ForwarderStatus">ForwarderStatus</a>
+ */
+public final class EfficiencyMonitor {
+  private final Face face;
+  private final int capacity;
+  private final Deque<Sample> history;
+  private ForwarderStatus previous = null;
+  private Map<Integer, FaceStatus> previousFaces = Collections.emptyMap();
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face     only a localhost {@link Face}
+   * @param capacity number of samples kept
+   */
+  public EfficiencyMonitor(final Face face, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.face = face;
+    this.capacity = capacity;
+    this.history = new ArrayDeque<>(capacity);
+  }
+
+  /**
+   * Fetch status/general and faces/list and compute one sample.
+   *
+   * @return the sample, or null on the first poll and after a forwarder restart
+   * @throws ManagementException if a dataset could not be retrieved
+   */
+  public Sample poll() throws ManagementException {
+    ForwarderStatus status = Nfdc.getForwarderStatus(face);
+    return update(status, Nfdc.getFaceList(face));
+  }
+
+  /**
+   * Compare datasets obtained elsewhere to the previous ones; {@link #poll()} calls this.
+   *
+   * @param status   the forwarder status
+   * @param faceList the face dataset retrieved together with {@code status}
+   * @return the sample, or null on the first update, after a forwarder restart, or if no forwarder time passed
+   */
+  public synchronized Sample update(final ForwarderStatus status, final Collection<FaceStatus> faceList) {
+    Map<Integer, FaceStatus> faces = new HashMap<>();
+    for (FaceStatus faceStatus : faceList) {
+      faces.put(faceStatus.getFaceId(), faceStatus);
+    }
+
+    Sample sample = null;
+    if (previous != null && previous.getStartTimestamp() == status.getStartTimestamp()) {
+      if (status.getCurrentTimestamp() <= previous.getCurrentTimestamp()) {
+        // same dataset generation; keep the older baseline
+        return null;
+      }
+      sample = new Sample(previous, status, previousFaces, faces);
+      if (history.size() == capacity) {
+        history.removeFirst();
+      }
+      history.addLast(sample);
+    }
+    previous = status;
+    previousFaces = faces;
+    return sample;
+  }
+
+  /**
+   * @return the samples kept, oldest first
+   */
+  public synchronized List<Sample> getHistory() {
+    return new ArrayList<>(history);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Forwarding efficiency over one polling interval.
+   */
+  public static final class Sample {
+    private final long timestamp;
+    private final long intervalMillis;
+    private final long nSatisfied;
+    private final long nUnsatisfied;
+    private final long nInInterests;
+    private final long nOutNacks;
+    private final Map<Integer, FaceDeltas> faces = new HashMap<>();
+
+    private Sample(final ForwarderStatus before, final ForwarderStatus after,
+                   final Map<Integer, FaceStatus> facesBefore, final Map<Integer, FaceStatus> facesAfter) {
+      timestamp = after.getCurrentTimestamp();
+      intervalMillis = after.getCurrentTimestamp() - before.getCurrentTimestamp();
+      if (before.hasNSatisfiedInterests() && after.hasNSatisfiedInterests() &&
+          before.hasNUnsatisfiedInterests() && after.hasNUnsatisfiedInterests()) {
+        nSatisfied = after.getNSatisfiedInterests() - before.getNSatisfiedInterests();
+        nUnsatisfied = after.getNUnsatisfiedInterests() - before.getNUnsatisfiedInterests();
+      } else {
+        nSatisfied = -1;
+        nUnsatisfied = -1;
+      }
+      nInInterests = after.getNInInterests() - before.getNInInterests();
+      nOutNacks = after.getNOutNacks() - before.getNOutNacks();
+
+      for (Map.Entry<Integer, FaceStatus> entry : facesAfter.entrySet()) {
+        FaceStatus was = facesBefore.get(entry.getKey());
+        if (was != null && Objects.equals(was.getRemoteUri(), entry.getValue().getRemoteUri())) {
+          faces.put(entry.getKey(), new FaceDeltas(was, entry.getValue()));
+        }
+      }
+    }
+
+    /**
+     * @return the forwarder's CurrentTimestamp (milliseconds) at the end of the interval
+     */
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    /**
+     * @return length of the interval in milliseconds of forwarder time
+     */
+    public long getIntervalMillis() {
+      return intervalMillis;
+    }
+
+    /**
+     * @return true if the forwarder reports satisfied and unsatisfied Interests
+     */
+    public boolean hasSatisfactionRatio() {
+      return nSatisfied >= 0;
+    }
+
+    /**
+     * @return number of Interests satisfied in the interval, or -1 if not reported
+     */
+    public long getNSatisfiedInterests() {
+      return nSatisfied;
+    }
+
+    /**
+     * @return number of Interests left unsatisfied in the interval, or -1 if not reported
+     */
+    public long getNUnsatisfiedInterests() {
+      return nUnsatisfied;
+    }
+
+    /**
+     * @return fraction of the Interests finished in the interval that were satisfied, or NaN if not reported or no
+     * Interest finished
+     */
+    public double getSatisfactionRatio() {
+      long finished = nSatisfied + nUnsatisfied;
+      return !hasSatisfactionRatio() || finished == 0 ? Double.NaN : (double) nSatisfied / finished;
+    }
+
+    /**
+     * @return Nacks sent by the forwarder per Interest received in the interval, or 0 if no Interest was received
+     */
+    public double getNackRatio() {
+      return ratio(nOutNacks, nInInterests);
+    }
+
+    /**
+     * @return IDs of the faces present in both polls
+     */
+    public List<Integer> getFaceIds() {
+      return new ArrayList<>(faces.keySet());
+    }
+
+    /**
+     * @param faceId a face ID
+     * @return fraction of the Interests sent on the face in the interval that came back as Nacks (the upstream
+     * rejected them), or NaN if the face was not present in both polls
+     */
+    public double getFaceInNackRatio(final int faceId) {
+      FaceDeltas deltas = faces.get(faceId);
+      return deltas == null ? Double.NaN : ratio(deltas.nInNacks, deltas.nOutInterests);
+    }
+
+    /**
+     * @param faceId a face ID
+     * @return fraction of the Interests received on the face in the interval that were answered with a Nack, or NaN
+     * if the face was not present in both polls
+     */
+    public double getFaceOutNackRatio(final int faceId) {
+      FaceDeltas deltas = faces.get(faceId);
+      return deltas == null ? Double.NaN : ratio(deltas.nOutNacks, deltas.nInInterests);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("EfficiencySample(satisfaction: %.3f, nackRatio: %.3f, faces: %d)",
+                           getSatisfactionRatio(), getNackRatio(), faces.size());
+    }
+
+    private static double ratio(final long numerator, final long denominator) {
+      return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+  }
+
+  /**
+   * Growth of the Interest and Nack counters of one face over an interval.
+   */
+  private static final class FaceDeltas {
+    private final long nInInterests;
+    private final long nOutInterests;
+    private final long nInNacks;
+    private final long nOutNacks;
+
+    private FaceDeltas(final FaceStatus before, final FaceStatus after) {
+      nInInterests = delta(FaceCounter.IN_INTERESTS, before, after);
+      nOutInterests = delta(FaceCounter.OUT_INTERESTS, before, after);
+      nInNacks = delta(FaceCounter.IN_NACKS, before, after);
+      nOutNacks = delta(FaceCounter.OUT_NACKS, before, after);
+    }
+
+    private static long delta(final FaceCounter counter, final FaceStatus before, final FaceStatus after) {
+      return FaceCounter.delta(counter.read(before), counter.read(after));
+    }
+  }
+}
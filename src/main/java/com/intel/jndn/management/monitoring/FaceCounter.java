@@ -0,0 +1,102 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.FaceStatus;
+
+/**
+ * The traffic counters of a {@link FaceStatus}. NFD counters are 64-bit but FaceStatus keeps only their low 32 bits,
+ * so {@link #read(FaceStatus)} returns them unsigned and deltas between two readings are taken modulo 2<sup>32</sup>
+ * (see {@link #delta(long, long)}); this stays exact as long as a counter grows by less than 2<sup>32</sup> between
+ * readings.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/FaceMgmt">Face Management</a>
+ */
+public enum FaceCounter {
+  IN_INTERESTS {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNInInterests());
+    }
+  },
+  OUT_INTERESTS {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNOutInterests());
+    }
+  },
+  IN_DATA {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNInData());
+    }
+  },
+  OUT_DATA {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNOutData());
+    }
+  },
+  IN_NACKS {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNInNacks());
+    }
+  },
+  OUT_NACKS {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNOutNacks());
+    }
+  },
+  IN_BYTES {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNInBytes());
+    }
+  },
+  OUT_BYTES {
+    @Override
+    public long read(final FaceStatus status) {
+      return unsigned(status.getNOutBytes());
+    }
+  };
+
+  private static final long MASK = 0xFFFFFFFFL;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * @param status the face status
+   * @return the counter value, between 0 and 2<sup>32</sup> - 1
+   */
+  public abstract long read(FaceStatus status);
+
+  /**
+   * @param previous an earlier value returned by {@link #read(FaceStatus)}
+   * @param current  a later value returned by {@link #read(FaceStatus)}
+   * @return how much the counter grew, accounting for 32-bit wrap-around
+   */
+  public static long delta(final long previous, final long current) {
+    return (current - previous) & MASK;
+  }
+
+  /**
+   * @param value a 32-bit counter
+   * @return the counter as an unsigned value
+   */
+  private static long unsigned(final int value) {
+    return value & MASK;
+  }
+}
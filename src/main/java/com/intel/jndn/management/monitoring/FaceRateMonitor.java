@@ -0,0 +1,331 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import net.named_data.jndn.Face;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-face traffic rates over time. Each {@link #poll()} fetches status/general and faces/list and turns the growth
+ * of every face's counters since the previous poll into per-second rates. The interval is measured with the
+ * forwarder's CurrentTimestamp rather than the local clock, so fetch latency and scheduling jitter do not distort
+ * the rates. The last {@code capacity} samples of each face are kept in fixed-size primitive ring buffers, allocated
+ * when the face first appears, so memory is bounded by the number of faces; an update records the samples of known
+ * faces in place, without building any per-update collection.
+ * <p/>
+ * Faces that disappear from faces/list are dropped. A forwarder restart (a new StartTimestamp) resets all counters,
+ * so no rate is computed across it: each face's counters are re-read as a new baseline and its next sample is marked
+ * as a discontinuity (see {@link Series#isDiscontinuity(int)}); faces whose ID now belongs to another remote URI start
+ * a new series. Call {@link #poll()} periodically on a thread that may use the face.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/FaceMgmt">Face Management</a>
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/ForwarderStatus">ForwarderStatus</a>
+ */
+public final class FaceRateMonitor {
+  private static final FaceCounter[] COUNTERS = FaceCounter.values();
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
+  private final Face face;
+  private final int capacity;
+  private final Map<Integer, RingBuffer> faces = new HashMap<>();
+  private long startTimestamp = -1;
+  private long generation = 0;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face     only a localhost {@link Face}
+   * @param capacity number of samples kept per face
+   */
+  public FaceRateMonitor(final Face face, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.face = face;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Fetch status/general and faces/list and record one sample per face.
+   *
+   * @throws ManagementException if a dataset could not be retrieved
+   */
+  public void poll() throws ManagementException {
+    ForwarderStatus status = Nfdc.getForwarderStatus(face);
+    update(status, Nfdc.getFaceList(face));
+  }
+
+  /**
+   * Record datasets obtained elsewhere; {@link #poll()} calls this. Faces seen for the first time only establish a
+   * baseline; their first sample is recorded on the next update.
+   *
+   * @param status the forwarder status, whose CurrentTimestamp (milliseconds) dates the face counters
+   * @param faceList the face dataset retrieved together with {@code status}
+   */
+  public synchronized void update(final ForwarderStatus status, final Collection<FaceStatus> faceList) {
+    if (status.getStartTimestamp() != startTimestamp) {
+      // first update, or the forwarder restarted and its counters started over
+      for (RingBuffer buffer : faces.values()) {
+        buffer.restarted = true;
+      }
+      startTimestamp = status.getStartTimestamp();
+    }
+
+    // buffers not stamped with this generation belong to faces that are gone
+    generation++;
+    long timestamp = status.getCurrentTimestamp();
+    for (FaceStatus faceStatus : faceList) {
+      RingBuffer buffer = faces.get(faceStatus.getFaceId());
+      if (buffer == null || !Objects.equals(buffer.remoteUri, faceStatus.getRemoteUri())) {
+        buffer = new RingBuffer(faceStatus, timestamp, capacity);
+        faces.put(faceStatus.getFaceId(), buffer);
+      } else if (buffer.restarted) {
+        buffer.rebase(faceStatus, timestamp);
+      } else {
+        buffer.add(faceStatus, timestamp);
+      }
+      buffer.generation = generation;
+    }
+
+    Iterator<RingBuffer> buffers = faces.values().iterator();
+    while (buffers.hasNext()) {
+      if (buffers.next().generation != generation) {
+        buffers.remove();
+      }
+    }
+  }
+
+  /**
+   * @return the number of samples kept per face
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return the IDs of the faces present in the last update
+   */
+  public synchronized List<Integer> getFaceIds() {
+    return new ArrayList<>(faces.keySet());
+  }
+
+  /**
+   * @param faceId the face ID
+   * @return a copy of the samples recorded for the face, or null if the face was not present in the last update
+   */
+  public synchronized Series getSeries(final int faceId) {
+    RingBuffer buffer = faces.get(faceId);
+    return buffer == null ? null : buffer.snapshot(faceId);
+  }
+
+  /**
+   * Select the busiest faces by their rate over the most recent interval, using {@link TopK} on the ring buffers
+   * directly; only the selected faces are copied.
+   *
+   * @param counter the counter whose rate to rank by
+   * @param k       how many faces to return
+   * @return the samples of the {@code k} faces with the highest latest rate, highest first
+   */
+  public synchronized List<Series> getTopFaces(final FaceCounter counter, final int k) {
+    List<Map.Entry<Integer, RingBuffer>> top = TopK.select(faces.entrySet(), k,
+      Comparator.comparingDouble((Map.Entry<Integer, RingBuffer> entry) -> entry.getValue().getLatestRate(counter)));
+    List<Series> series = new ArrayList<>(top.size());
+    for (Map.Entry<Integer, RingBuffer> entry : top) {
+      series.add(entry.getValue().snapshot(entry.getKey()));
+    }
+    return series;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Last counter values of one face and its most recent rates; slot {@code (head + i) % capacity} holds the i-th
+   * oldest sample.
+   */
+  private static final class RingBuffer {
+    private final String remoteUri;
+    private final long[] counters = new long[COUNTERS.length];
+    private final long[] timestamps;
+    private final double[][] rates;
+    private final boolean[] discontinuities;
+    private long lastTimestamp;
+    private long generation;
+    private boolean restarted = false;
+    private boolean discontinuity = false;
+    private int head = 0;
+    private int size = 0;
+
+    private RingBuffer(final FaceStatus status, final long timestamp, final int capacity) {
+      this.remoteUri = status.getRemoteUri();
+      this.timestamps = new long[capacity];
+      this.rates = new double[COUNTERS.length][capacity];
+      this.discontinuities = new boolean[capacity];
+      rebase(status, timestamp);
+      this.discontinuity = false;
+    }
+
+    /**
+     * Take new counter values as the baseline without recording a sample; the next sample is a discontinuity.
+     *
+     * @param status    the face status
+     * @param timestamp the forwarder's CurrentTimestamp when {@code status} was read
+     */
+    private void rebase(final FaceStatus status, final long timestamp) {
+      for (FaceCounter counter : COUNTERS) {
+        counters[counter.ordinal()] = counter.read(status);
+      }
+      lastTimestamp = timestamp;
+      restarted = false;
+      discontinuity = true;
+    }
+
+    private void add(final FaceStatus status, final long timestamp) {
+      long interval = timestamp - lastTimestamp;
+      if (interval <= 0) {
+        // same dataset generation, or the forwarder clock went backwards; nothing to compute a rate over
+        return;
+      }
+
+      int slot = (head + size) % timestamps.length;
+      if (size == timestamps.length) {
+        head = (head + 1) % timestamps.length;
+      } else {
+        size++;
+      }
+      timestamps[slot] = timestamp;
+      discontinuities[slot] = discontinuity;
+      discontinuity = false;
+      for (FaceCounter counter : COUNTERS) {
+        long value = counter.read(status);
+        rates[counter.ordinal()][slot] =
+          FaceCounter.delta(counters[counter.ordinal()], value) * MILLIS_PER_SECOND / interval;
+        counters[counter.ordinal()] = value;
+      }
+      lastTimestamp = timestamp;
+    }
+
+    private double getLatestRate(final FaceCounter counter) {
+      return size == 0 ? 0 : rates[counter.ordinal()][(head + size - 1) % timestamps.length];
+    }
+
+    private Series snapshot(final int faceId) {
+      long[] orderedTimestamps = new long[size];
+      double[][] orderedRates = new double[COUNTERS.length][size];
+      boolean[] orderedDiscontinuities = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        int slot = (head + i) % timestamps.length;
+        orderedTimestamps[i] = timestamps[slot];
+        orderedDiscontinuities[i] = discontinuities[slot];
+        for (int c = 0; c < COUNTERS.length; c++) {
+          orderedRates[c][i] = rates[c][slot];
+        }
+      }
+      return new Series(faceId, remoteUri, orderedTimestamps, orderedRates, orderedDiscontinuities);
+    }
+  }
+
+  /**
+   * Samples of one face, oldest first.
+   */
+  public static final class Series {
+    private final int faceId;
+    private final String remoteUri;
+    private final long[] timestamps;
+    private final double[][] rates;
+    private final boolean[] discontinuities;
+
+    private Series(final int faceId, final String remoteUri, final long[] timestamps, final double[][] rates,
+                   final boolean[] discontinuities) {
+      this.faceId = faceId;
+      this.remoteUri = remoteUri;
+      this.timestamps = timestamps;
+      this.rates = rates;
+      this.discontinuities = discontinuities;
+    }
+
+    /**
+     * @return the face ID
+     */
+    public int getFaceId() {
+      return faceId;
+    }
+
+    /**
+     * @return the remote URI of the face
+     */
+    public String getRemoteUri() {
+      return remoteUri;
+    }
+
+    /**
+     * @return number of samples
+     */
+    public int size() {
+      return timestamps.length;
+    }
+
+    /**
+     * @return the forwarder's CurrentTimestamp (milliseconds) at the end of each sample interval, oldest first
+     */
+    public long[] getTimestamps() {
+      return timestamps.clone();
+    }
+
+    /**
+     * @param counter the counter
+     * @return the counter's growth per second over each sample interval, oldest first
+     */
+    public double[] getRates(final FaceCounter counter) {
+      return rates[counter.ordinal()].clone();
+    }
+
+    /**
+     * @param index a sample index, 0 being the oldest
+     * @return true if the forwarder restarted before this sample: its interval starts at the first reading after the
+     * restart rather than at the previous sample's timestamp
+     */
+    public boolean isDiscontinuity(final int index) {
+      return discontinuities[index];
+    }
+
+    /**
+     * @param counter the counter
+     * @return the counter's growth per second over the most recent interval, or 0 if there is no sample yet
+     */
+    public double getLatestRate(final FaceCounter counter) {
+      double[] values = rates[counter.ordinal()];
+      return values.length == 0 ? 0 : values[values.length - 1];
+    }
+
+    @Override
+    public String toString() {
+      return String.format("FaceRates(faceId: %d, samples: %d, in: %.1f B/s, out: %.1f B/s)", faceId, size(),
+                           getLatestRate(FaceCounter.IN_BYTES), getLatestRate(FaceCounter.OUT_BYTES));
+    }
+  }
+}
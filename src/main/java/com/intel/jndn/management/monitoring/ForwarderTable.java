@@ -0,0 +1,61 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.ForwarderStatus;
+
+/**
+ * The table sizes reported by a {@link ForwarderStatus}. Unlike the packet counters they are gauges: they go up and
+ * down with the forwarder's load.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/ForwarderStatus">ForwarderStatus</a>
+ */
+public enum ForwarderTable {
+  NAME_TREE {
+    @Override
+    public long read(final ForwarderStatus status) {
+      return status.getNNameTreeEntries();
+    }
+  },
+  FIB {
+    @Override
+    public long read(final ForwarderStatus status) {
+      return status.getNFibEntries();
+    }
+  },
+  PIT {
+    @Override
+    public long read(final ForwarderStatus status) {
+      return status.getNPitEntries();
+    }
+  },
+  MEASUREMENTS {
+    @Override
+    public long read(final ForwarderStatus status) {
+      return status.getNMeasurementsEntries();
+    }
+  },
+  CS {
+    @Override
+    public long read(final ForwarderStatus status) {
+      return status.getNCsEntries();
+    }
+  };
+
+  /**
+   * @param status the forwarder status
+   * @return the number of entries in this table
+   */
+  public abstract long read(ForwarderStatus status);
+}
@@ -0,0 +1,674 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.helpers.OperationStats;
+import com.intel.jndn.management.types.CsInfo;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import net.named_data.jndn.Face;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expose forwarder status, per-face counters and rates, the Content Store hit ratio and the client's own
+ * {@link Nfdc#getOperationStats() operation statistics} as JMX MXBeans under the {@value #DOMAIN} domain:
+ * <ul>
+ * <li>{@code type=Forwarder}: the status/general fields;</li>
+ * <li>{@code type=ContentStore}: cs/info and the hit ratio since the previous collection;</li>
+ * <li>{@code type=Face,id=N}: one per face, added and removed as faces come and go;</li>
+ * <li>{@code type=Operation,name="faces/list"}: one per kind of dataset fetch or command sent.</li>
+ * </ul>
+ * Attribute reads never contact the forwarder: {@link #collect()} fetches the datasets once and all MBeans read from
+ * that snapshot. Call {@link #collect()} periodically on a thread that may use the face.
+ */
+public final class JmxCollector {
+  /**
+   * The JMX domain of the MBeans.
+   */
+  public static final String DOMAIN = "com.intel.jndn.management";
+
+  private final Face face;
+  private final MBeanServer server;
+  private final FaceRateMonitor rateMonitor;
+  private final CsHitRatioPoller csPoller;
+  private final Map<Integer, FaceStatus> faces = new ConcurrentHashMap<>();
+  private final Map<Integer, ObjectName> faceBeans = new HashMap<>();
+  private final Map<String, ObjectName> operationBeans = new HashMap<>();
+  private final List<ObjectName> fixedBeans = new ArrayList<>();
+  private volatile ForwarderStatus status = new ForwarderStatus();
+  private volatile CsHitRatioPoller.Sample csSample = null;
+  private boolean registered = false;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor, using the platform MBean server.
+   *
+   * @param face only a localhost {@link Face}
+   */
+  public JmxCollector(final Face face) {
+    this(face, ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param face   only a localhost {@link Face}
+   * @param server where to register the MBeans
+   */
+  public JmxCollector(final Face face, final MBeanServer server) {
+    this.face = face;
+    this.server = server;
+    this.rateMonitor = new FaceRateMonitor(face, 1);
+    this.csPoller = new CsHitRatioPoller(face);
+  }
+
+  /**
+   * Register the forwarder, Content Store and operation MBeans; face MBeans follow on each collection.
+   *
+   * @return this
+   * @throws JMException if an MBean could not be registered, e.g. because another collector uses the same server
+   */
+  public synchronized JmxCollector register() throws JMException {
+    if (registered) {
+      return this;
+    }
+    fixedBeans.add(register(new ObjectName(DOMAIN + ":type=Forwarder"), new ForwarderBean(),
+                            ForwarderMXBean.class));
+    fixedBeans.add(register(new ObjectName(DOMAIN + ":type=ContentStore"), new ContentStoreBean(),
+                            ContentStoreMXBean.class));
+    registered = true;
+    syncFaceBeans();
+    syncOperationBeans();
+    return this;
+  }
+
+  /**
+   * Unregister all MBeans of this collector.
+   *
+   * @throws JMException if an MBean could not be unregistered
+   */
+  public synchronized void unregister() throws JMException {
+    List<ObjectName> names = new ArrayList<>(fixedBeans);
+    names.addAll(faceBeans.values());
+    names.addAll(operationBeans.values());
+    fixedBeans.clear();
+    faceBeans.clear();
+    operationBeans.clear();
+    registered = false;
+    for (ObjectName name : names) {
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+    }
+  }
+
+  /**
+   * Fetch status/general, faces/list and cs/info and publish them to the MBeans.
+   *
+   * @throws ManagementException if a dataset could not be retrieved; the MBeans keep the previous snapshot
+   * @throws JMException         if a face or operation MBean could not be (un)registered
+   */
+  public void collect() throws ManagementException, JMException {
+    ForwarderStatus forwarderStatus = Nfdc.getForwarderStatus(face);
+    List<FaceStatus> faceList = Nfdc.getFaceList(face);
+    update(forwarderStatus, faceList, Nfdc.getCsInfo(face));
+  }
+
+  /**
+   * Publish datasets obtained elsewhere; {@link #collect()} calls this. Rates are computed over the forwarder's
+   * CurrentTimestamp.
+   *
+   * @param forwarderStatus the forwarder status
+   * @param faceList        the face dataset
+   * @param csInfo          the Content Store information
+   * @throws JMException if a face or operation MBean could not be (un)registered
+   */
+  public synchronized void update(final ForwarderStatus forwarderStatus, final Collection<FaceStatus> faceList,
+                                  final CsInfo csInfo) throws JMException {
+    rateMonitor.update(forwarderStatus, faceList);
+    csSample = csPoller.update(csInfo, TimeUnit.MILLISECONDS.toNanos(forwarderStatus.getCurrentTimestamp()));
+    status = forwarderStatus;
+
+    Map<Integer, FaceStatus> latest = new HashMap<>();
+    for (FaceStatus faceStatus : faceList) {
+      latest.put(faceStatus.getFaceId(), faceStatus);
+    }
+    faces.putAll(latest);
+    faces.keySet().retainAll(latest.keySet());
+
+    syncFaceBeans();
+    syncOperationBeans();
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  private ObjectName register(final ObjectName name, final Object bean, final Class<?> mxbeanInterface)
+    throws JMException {
+    @SuppressWarnings("unchecked")
+    StandardMBean mbean = new StandardMBean(bean, (Class<Object>) mxbeanInterface, true);
+    server.registerMBean(mbean, name);
+    return name;
+  }
+
+  private void syncFaceBeans() throws JMException {
+    if (!registered) {
+      return;
+    }
+    for (Integer faceId : new ArrayList<>(faceBeans.keySet())) {
+      if (!faces.containsKey(faceId)) {
+        server.unregisterMBean(faceBeans.remove(faceId));
+      }
+    }
+    for (Integer faceId : faces.keySet()) {
+      if (!faceBeans.containsKey(faceId)) {
+        faceBeans.put(faceId, register(new ObjectName(DOMAIN + ":type=Face,id=" + faceId), new FaceBean(faceId),
+                                       FaceMXBean.class));
+      }
+    }
+  }
+
+  private void syncOperationBeans() throws JMException {
+    if (!registered) {
+      return;
+    }
+    for (Map.Entry<String, OperationStats> entry : Nfdc.getOperationStats().entrySet()) {
+      if (!operationBeans.containsKey(entry.getKey())) {
+        ObjectName name = new ObjectName(DOMAIN + ":type=Operation,name=" + ObjectName.quote(entry.getKey()));
+        operationBeans.put(entry.getKey(), register(name, new OperationBean(entry.getValue()),
+                                                    OperationMXBean.class));
+      }
+    }
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Forwarder status, as of the last collection.
+   */
+  public interface ForwarderMXBean {
+    /**
+     * @return NFD version
+     */
+    String getNfdVersion();
+
+    /**
+     * @return NFD start time, in milliseconds since the epoch
+     */
+    long getStartTimestamp();
+
+    /**
+     * @return forwarder time of the last collection, in milliseconds since the epoch
+     */
+    long getCurrentTimestamp();
+
+    /**
+     * @return number of name tree entries
+     */
+    long getNNameTreeEntries();
+
+    /**
+     * @return number of FIB entries
+     */
+    long getNFibEntries();
+
+    /**
+     * @return number of PIT entries
+     */
+    long getNPitEntries();
+
+    /**
+     * @return number of measurements entries
+     */
+    long getNMeasurementsEntries();
+
+    /**
+     * @return number of CS entries
+     */
+    long getNCsEntries();
+
+    /**
+     * @return number of Interests received
+     */
+    long getNInInterests();
+
+    /**
+     * @return number of Interests sent
+     */
+    long getNOutInterests();
+
+    /**
+     * @return number of Data received
+     */
+    long getNInData();
+
+    /**
+     * @return number of Data sent
+     */
+    long getNOutData();
+
+    /**
+     * @return number of Nacks received
+     */
+    long getNInNacks();
+
+    /**
+     * @return number of Nacks sent
+     */
+    long getNOutNacks();
+  }
+
+  /**
+   * Content Store state, as of the last collection.
+   */
+  public interface ContentStoreMXBean {
+    /**
+     * @return maximum number of entries
+     */
+    long getCapacity();
+
+    /**
+     * @return number of entries
+     */
+    long getNEntries();
+
+    /**
+     * @return number of hits since the forwarder started
+     */
+    long getNHits();
+
+    /**
+     * @return number of misses since the forwarder started
+     */
+    long getNMisses();
+
+    /**
+     * @return fraction of lookups that were hits between the last two collections
+     */
+    double getHitRatio();
+
+    /**
+     * @return lookups per second between the last two collections
+     */
+    double getLookupsPerSecond();
+  }
+
+  /**
+   * One face, as of the last collection. Counters are modulo 2<sup>32</sup> (see {@link FaceCounter}); rates cover
+   * the interval between the last two collections.
+   */
+  public interface FaceMXBean {
+    /**
+     * @return face ID
+     */
+    int getFaceId();
+
+    /**
+     * @return remote URI
+     */
+    String getRemoteUri();
+
+    /**
+     * @return local URI
+     */
+    String getLocalUri();
+
+    /**
+     * @return number of Interests received
+     */
+    long getNInInterests();
+
+    /**
+     * @return number of Interests sent
+     */
+    long getNOutInterests();
+
+    /**
+     * @return number of Data received
+     */
+    long getNInData();
+
+    /**
+     * @return number of Data sent
+     */
+    long getNOutData();
+
+    /**
+     * @return number of Nacks received
+     */
+    long getNInNacks();
+
+    /**
+     * @return number of Nacks sent
+     */
+    long getNOutNacks();
+
+    /**
+     * @return number of bytes received
+     */
+    long getNInBytes();
+
+    /**
+     * @return number of bytes sent
+     */
+    long getNOutBytes();
+
+    /**
+     * @return Interests received per second
+     */
+    double getInInterestsPerSecond();
+
+    /**
+     * @return Interests sent per second
+     */
+    double getOutInterestsPerSecond();
+
+    /**
+     * @return bytes received per second
+     */
+    double getInBytesPerSecond();
+
+    /**
+     * @return bytes sent per second
+     */
+    double getOutBytesPerSecond();
+  }
+
+  /**
+   * Dataset fetches or commands of one kind sent by this process, e.g. faces/list.
+   */
+  public interface OperationMXBean {
+    /**
+     * @return number of operations completed
+     */
+    long getCount();
+
+    /**
+     * @return number of operations that failed
+     */
+    long getFailureCount();
+
+    /**
+     * @return mean duration, in milliseconds
+     */
+    double getMeanMillis();
+
+    /**
+     * @return longest duration, in milliseconds
+     */
+    double getMaxMillis();
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Reads {@link #status}.
+   */
+  private final class ForwarderBean implements ForwarderMXBean {
+    @Override
+    public String getNfdVersion() {
+      return status.getNfdVersion();
+    }
+
+    @Override
+    public long getStartTimestamp() {
+      return status.getStartTimestamp();
+    }
+
+    @Override
+    public long getCurrentTimestamp() {
+      return status.getCurrentTimestamp();
+    }
+
+    @Override
+    public long getNNameTreeEntries() {
+      return status.getNNameTreeEntries();
+    }
+
+    @Override
+    public long getNFibEntries() {
+      return status.getNFibEntries();
+    }
+
+    @Override
+    public long getNPitEntries() {
+      return status.getNPitEntries();
+    }
+
+    @Override
+    public long getNMeasurementsEntries() {
+      return status.getNMeasurementsEntries();
+    }
+
+    @Override
+    public long getNCsEntries() {
+      return status.getNCsEntries();
+    }
+
+    @Override
+    public long getNInInterests() {
+      return status.getNInInterests();
+    }
+
+    @Override
+    public long getNOutInterests() {
+      return status.getNOutInterests();
+    }
+
+    @Override
+    public long getNInData() {
+      return status.getNInData();
+    }
+
+    @Override
+    public long getNOutData() {
+      return status.getNOutData();
+    }
+
+    @Override
+    public long getNInNacks() {
+      return status.getNInNacks();
+    }
+
+    @Override
+    public long getNOutNacks() {
+      return status.getNOutNacks();
+    }
+  }
+
+  /**
+   * Reads {@link #csSample}.
+   */
+  private final class ContentStoreBean implements ContentStoreMXBean {
+    private CsInfo info() {
+      CsHitRatioPoller.Sample sample = csSample;
+      return sample == null ? new CsInfo() : sample.getInfo();
+    }
+
+    @Override
+    public long getCapacity() {
+      return info().getCapacity();
+    }
+
+    @Override
+    public long getNEntries() {
+      return info().getNCsEntries();
+    }
+
+    @Override
+    public long getNHits() {
+      return info().getNHits();
+    }
+
+    @Override
+    public long getNMisses() {
+      return info().getNMisses();
+    }
+
+    @Override
+    public double getHitRatio() {
+      CsHitRatioPoller.Sample sample = csSample;
+      return sample == null ? 0 : sample.getHitRatio();
+    }
+
+    @Override
+    public double getLookupsPerSecond() {
+      CsHitRatioPoller.Sample sample = csSample;
+      return sample == null ? 0 : sample.getLookupsPerSecond();
+    }
+  }
+
+  /**
+   * Reads one entry of {@link #faces} and its rates.
+   */
+  private final class FaceBean implements FaceMXBean {
+    private final int faceId;
+
+    private FaceBean(final int faceId) {
+      this.faceId = faceId;
+    }
+
+    private FaceStatus face() {
+      FaceStatus faceStatus = faces.get(faceId);
+      return faceStatus == null ? new FaceStatus().setFaceId(faceId) : faceStatus;
+    }
+
+    private double rate(final FaceCounter counter) {
+      FaceRateMonitor.Series series = rateMonitor.getSeries(faceId);
+      return series == null ? 0 : series.getLatestRate(counter);
+    }
+
+    @Override
+    public int getFaceId() {
+      return faceId;
+    }
+
+    @Override
+    public String getRemoteUri() {
+      return face().getRemoteUri();
+    }
+
+    @Override
+    public String getLocalUri() {
+      return face().getLocalUri();
+    }
+
+    @Override
+    public long getNInInterests() {
+      return FaceCounter.IN_INTERESTS.read(face());
+    }
+
+    @Override
+    public long getNOutInterests() {
+      return FaceCounter.OUT_INTERESTS.read(face());
+    }
+
+    @Override
+    public long getNInData() {
+      return FaceCounter.IN_DATA.read(face());
+    }
+
+    @Override
+    public long getNOutData() {
+      return FaceCounter.OUT_DATA.read(face());
+    }
+
+    @Override
+    public long getNInNacks() {
+      return FaceCounter.IN_NACKS.read(face());
+    }
+
+    @Override
+    public long getNOutNacks() {
+      return FaceCounter.OUT_NACKS.read(face());
+    }
+
+    @Override
+    public long getNInBytes() {
+      return FaceCounter.IN_BYTES.read(face());
+    }
+
+    @Override
+    public long getNOutBytes() {
+      return FaceCounter.OUT_BYTES.read(face());
+    }
+
+    @Override
+    public double getInInterestsPerSecond() {
+      return rate(FaceCounter.IN_INTERESTS);
+    }
+
+    @Override
+    public double getOutInterestsPerSecond() {
+      return rate(FaceCounter.OUT_INTERESTS);
+    }
+
+    @Override
+    public double getInBytesPerSecond() {
+      return rate(FaceCounter.IN_BYTES);
+    }
+
+    @Override
+    public double getOutBytesPerSecond() {
+      return rate(FaceCounter.OUT_BYTES);
+    }
+  }
+
+  /**
+   * Reads live {@link OperationStats}; these are local counters, so no collection is involved.
+   */
+  private static final class OperationBean implements OperationMXBean {
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final OperationStats stats;
+
+    private OperationBean(final OperationStats stats) {
+      this.stats = stats;
+    }
+
+    @Override
+    public long getCount() {
+      return stats.getCount();
+    }
+
+    @Override
+    public long getFailureCount() {
+      return stats.getFailureCount();
+    }
+
+    @Override
+    public double getMeanMillis() {
+      return stats.getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+      return stats.getMaxNanos() / NANOS_PER_MILLI;
+    }
+  }
+}
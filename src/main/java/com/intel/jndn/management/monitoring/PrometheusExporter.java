@@ -0,0 +1,270 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.helpers.FetchHelper;
+import com.intel.jndn.management.helpers.LatencyHistogram;
+import com.intel.jndn.management.helpers.OperationStats;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import net.named_data.jndn.Face;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Publish forwarder and face metrics in the Prometheus text exposition format. {@link #refresh()} fetches
+ * status/general and faces/list and renders them once; the HTTP endpoint started by {@link #start(InetSocketAddress)}
+ * only writes out the last rendered snapshot, so a scrape never waits for (or adds load to) the forwarder. Call
+ * {@link #refresh()} periodically on a thread that may use the face, e.g. at the scrape interval.
+ * <p/>
+ * Face counters are exported modulo 2<sup>32</sup> (see {@link FaceCounter}); Prometheus' rate() treats the
+ * wrap-around as a counter reset.
+ *
+ * @see <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Exposition formats</a>
+ */
+public final class PrometheusExporter {
+  /**
+   * Content type of the text exposition format.
+   */
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final String PATH = "/metrics";
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_BAD_METHOD = 405;
+  private static final double MILLIS_PER_SECOND = 1000.0;
+  private static final double NANOS_PER_SECOND = 1e9;
+  private static final double PERCENT = 100.0;
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+  private final Face face;
+  private volatile byte[] snapshot = new byte[0];
+  private HttpServer server;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face only a localhost {@link Face}
+   */
+  public PrometheusExporter(final Face face) {
+    this.face = face;
+  }
+
+  /**
+   * Fetch status/general and faces/list and replace the published snapshot.
+   *
+   * @throws ManagementException if a dataset could not be retrieved; the previous snapshot stays published
+   */
+  public void refresh() throws ManagementException {
+    ForwarderStatus status = Nfdc.getForwarderStatus(face);
+    update(status, Nfdc.getFaceList(face));
+  }
+
+  /**
+   * Replace the published snapshot with datasets obtained elsewhere; {@link #refresh()} calls this.
+   *
+   * @param status   the forwarder status
+   * @param faceList the face dataset
+   */
+  public void update(final ForwarderStatus status, final Collection<FaceStatus> faceList) {
+    snapshot = render(status, faceList).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the published snapshot in the text exposition format
+   */
+  public String getSnapshot() {
+    return new String(snapshot, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Serve the snapshot at {@code /metrics} on the JDK's built-in HTTP server.
+   *
+   * @param address where to listen; port 0 picks a free port
+   * @return this
+   * @throws IOException if the server could not be bound
+   */
+  public synchronized PrometheusExporter start(final InetSocketAddress address) throws IOException {
+    if (server != null) {
+      throw new IllegalStateException("Exporter already started on " + server.getAddress());
+    }
+    server = HttpServer.create(address, 0);
+    server.createContext(PATH, new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        serve(exchange);
+      }
+    });
+    server.start();
+    return this;
+  }
+
+  /**
+   * @return the address the HTTP server listens on, or null if it is not started
+   */
+  public synchronized InetSocketAddress getAddress() {
+    return server == null ? null : server.getAddress();
+  }
+
+  /**
+   * Stop the HTTP server, if started.
+   */
+  public synchronized void stop() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+  }
+
+  /**
+   * Render datasets in the text exposition format, together with the library's own fetch counters.
+   *
+   * @param status   the forwarder status
+   * @param faceList the face dataset
+   * @return the metrics text
+   */
+  public static String render(final ForwarderStatus status, final Collection<FaceStatus> faceList) {
+    StringBuilder out = new StringBuilder();
+    out.append("# HELP nfd_info Forwarder version.\n# TYPE nfd_info gauge\n");
+    out.append("nfd_info{version=\"").append(escape(status.getNfdVersion())).append("\"} 1\n");
+    gauge(out, "nfd_start_time_seconds", "Time the forwarder started, in seconds since the epoch.",
+          status.getStartTimestamp() / MILLIS_PER_SECOND);
+    gauge(out, "nfd_name_tree_entries", "Entries in the name tree.", status.getNNameTreeEntries());
+    gauge(out, "nfd_fib_entries", "Entries in the FIB.", status.getNFibEntries());
+    gauge(out, "nfd_pit_entries", "Entries in the PIT.", status.getNPitEntries());
+    gauge(out, "nfd_measurements_entries", "Entries in the measurements table.", status.getNMeasurementsEntries());
+    gauge(out, "nfd_cs_entries", "Entries in the Content Store.", status.getNCsEntries());
+    counter(out, "nfd_in_interests_total", "Interests received by the forwarder.", status.getNInInterests());
+    counter(out, "nfd_out_interests_total", "Interests sent by the forwarder.", status.getNOutInterests());
+    counter(out, "nfd_in_data_total", "Data received by the forwarder.", status.getNInData());
+    counter(out, "nfd_out_data_total", "Data sent by the forwarder.", status.getNOutData());
+    counter(out, "nfd_in_nacks_total", "Nacks received by the forwarder.", status.getNInNacks());
+    counter(out, "nfd_out_nacks_total", "Nacks sent by the forwarder.", status.getNOutNacks());
+    if (status.hasNSatisfiedInterests() && status.hasNUnsatisfiedInterests()) {
+      counter(out, "nfd_satisfied_interests_total", "Interests satisfied by the forwarder.",
+              status.getNSatisfiedInterests());
+      counter(out, "nfd_unsatisfied_interests_total", "Interests the forwarder could not satisfy.",
+              status.getNUnsatisfiedInterests());
+    }
+
+    for (FaceCounter faceCounter : FaceCounter.values()) {
+      String name = "nfd_face_" + faceCounter.name().toLowerCase(Locale.ROOT) + "_total";
+      header(out, name, "Per-face " + faceCounter.name().toLowerCase(Locale.ROOT).replace('_', ' ') +
+        " counter, modulo 2^32.", "counter");
+      for (FaceStatus faceStatus : faceList) {
+        out.append(name).append("{face_id=\"").append(faceStatus.getFaceId())
+           .append("\",remote_uri=\"").append(escape(faceStatus.getRemoteUri()))
+           .append("\",local_uri=\"").append(escape(faceStatus.getLocalUri()))
+           .append("\"} ").append(faceCounter.read(faceStatus)).append('\n');
+      }
+    }
+
+    counter(out, "jndn_management_fetch_interests_total", "Interests expressed by this client, retransmissions " +
+      "included.", FetchHelper.getExpressedCount());
+    counter(out, "jndn_management_fetch_data_total", "Data received by this client.", FetchHelper.getDataCount());
+    counter(out, "jndn_management_fetch_timeouts_total", "Interest timeouts seen by this client.",
+            FetchHelper.getTimeoutCount());
+    summary(out, "jndn_management_operation_duration_seconds", "Duration of dataset fetches and commands by " +
+      "outcome.", Nfdc.getOperationStats().values());
+    summary(out, "jndn_management_interest_duration_seconds", "Round-trip time of each Interest by outcome.",
+            FetchHelper.getInterestStats().values());
+    gauge(out, "jndn_management_snapshot_time_seconds", "Forwarder time of this snapshot, in seconds since the epoch.",
+          status.getCurrentTimestamp() / MILLIS_PER_SECOND);
+    return out.toString();
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  private void serve(final HttpExchange exchange) throws IOException {
+    try {
+      String method = exchange.getRequestMethod();
+      if (!"GET".equals(method) && !"HEAD".equals(method)) {
+        exchange.sendResponseHeaders(HTTP_BAD_METHOD, -1);
+        return;
+      }
+      byte[] body = snapshot;
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      if ("HEAD".equals(method)) {
+        exchange.sendResponseHeaders(HTTP_OK, -1);
+        return;
+      }
+      exchange.sendResponseHeaders(HTTP_OK, body.length);
+      try (OutputStream stream = exchange.getResponseBody()) {
+        stream.write(body);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static void summary(final StringBuilder out, final String name, final String help,
+                              final Collection<OperationStats> operations) {
+    header(out, name, help, "summary");
+    for (OperationStats operation : operations) {
+      for (Map.Entry<String, LatencyHistogram.Snapshot> entry : operation.snapshot().entrySet()) {
+        String labels = "operation=\"" + escape(operation.getName()) + "\",outcome=\"" + escape(entry.getKey()) + "\"";
+        LatencyHistogram.Snapshot snapshot = entry.getValue();
+        for (double quantile : QUANTILES) {
+          out.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+             .append(snapshot.getValueAtPercentile(quantile * PERCENT) / NANOS_PER_SECOND).append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ")
+           .append(snapshot.getMeanNanos() * snapshot.getCount() / NANOS_PER_SECOND).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(snapshot.getCount()).append('\n');
+      }
+    }
+  }
+
+  private static void header(final StringBuilder out, final String name, final String help, final String type) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void counter(final StringBuilder out, final String name, final String help, final long value) {
+    header(out, name, help, "counter");
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void gauge(final StringBuilder out, final String name, final String help, final long value) {
+    header(out, name, help, "gauge");
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void gauge(final StringBuilder out, final String name, final String help, final double value) {
+    header(out, name, help, "gauge");
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  /**
+   * @param value a label value, possibly null
+   * @return the value with backslash, double quote and line feed escaped
+   */
+  private static String escape(final String value) {
+    if (value == null) {
+      return "";
+    }
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
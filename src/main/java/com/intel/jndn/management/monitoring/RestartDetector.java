@@ -0,0 +1,134 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.types.ForwarderStatus;
+import net.named_data.jndn.Face;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Detect forwarder restarts. A restarted NFD has a new StartTimestamp, its counters start over from zero and its
+ * faces, routes and strategy choices are gone (except those in its configuration file). Each {@link #poll()} fetches
+ * status/general and compares its StartTimestamp with the previous one; on a change, the face IDs cached by
+ * {@link Nfdc#createFace(Face, String)} are forgotten and the listeners are called, e.g. to re-install routes and
+ * strategies with a {@link com.intel.jndn.management.ForwarderStateRestorer}.
+ * <p/>
+ * {@link FaceRateMonitor} and {@link TableGrowthDetector} detect restarts the same way on their own, so their series
+ * stay correct whether or not a RestartDetector is used. Call {@link #poll()} periodically on a thread that may use
+ * the face; listeners are called on that thread.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/ForwarderStatus">ForwarderStatus</a>
+ */
+public final class RestartDetector {
+  private final Face face;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private ForwarderStatus last = null;
+  private int nRestarts = 0;
+
+  /**
+   * Receives forwarder restarts found by a {@link RestartDetector}.
+   */
+  @FunctionalInterface
+  public interface Listener {
+    /**
+     * @param previous the last status before the restart
+     * @param current  the first status after the restart
+     */
+    void onRestart(ForwarderStatus previous, ForwarderStatus current);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face only a localhost {@link Face}
+   */
+  public RestartDetector(final Face face) {
+    this.face = face;
+  }
+
+  /**
+   * @param listener called on every restart found by subsequent updates
+   * @return this
+   */
+  public RestartDetector addListener(final Listener listener) {
+    listeners.add(listener);
+    return this;
+  }
+
+  /**
+   * @param listener a listener previously added
+   * @return this
+   */
+  public RestartDetector removeListener(final Listener listener) {
+    listeners.remove(listener);
+    return this;
+  }
+
+  /**
+   * Fetch status/general and check whether the forwarder restarted since the previous poll.
+   *
+   * @return true if it restarted
+   * @throws ManagementException if status/general could not be retrieved
+   */
+  public boolean poll() throws ManagementException {
+    return update(Nfdc.getForwarderStatus(face));
+  }
+
+  /**
+   * Check a forwarder status obtained elsewhere; {@link #poll()} calls this. The first status only establishes the
+   * baseline.
+   *
+   * @param status the forwarder status
+   * @return true if the forwarder restarted since the previous update
+   */
+  public boolean update(final ForwarderStatus status) {
+    ForwarderStatus previous;
+    synchronized (this) {
+      previous = last;
+      last = status;
+      if (previous == null || previous.getStartTimestamp() == status.getStartTimestamp()) {
+        return false;
+      }
+      nRestarts++;
+    }
+
+    if (face != null) {
+      Nfdc.clearFaceIdCache(face);
+    }
+    for (Listener listener : listeners) {
+      listener.onRestart(previous, status);
+    }
+    return true;
+  }
+
+  /**
+   * @return the last status seen, or null before the first update
+   */
+  public synchronized ForwarderStatus getLastStatus() {
+    return last;
+  }
+
+  /**
+   * @return number of restarts found since the detector was created
+   */
+  public synchronized int getRestartCount() {
+    return nRestarts;
+  }
+}
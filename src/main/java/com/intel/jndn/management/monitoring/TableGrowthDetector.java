@@ -0,0 +1,316 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.ManagementException;
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.types.ForwarderStatus;
+import net.named_data.jndn.Face;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Detect abnormal growth of the forwarder tables (PIT, CS, name tree, ...), an early sign of overload. Each
+ * {@link #poll()} fetches status/general and computes, for every {@link ForwarderTable}, its growth in entries per
+ * second since the previous poll, timed by the forwarder's CurrentTimestamp. An exponentially weighted moving average
+ * and variance of that growth form the table's baseline; a growth more than {@link #setThreshold(double)} standard
+ * deviations above the baseline, and above {@link #setMinGrowth(double)}, is reported to the listeners. Anomalous
+ * samples are folded into the baseline too, so sustained growth stops being reported once it is the new normal.
+ * <p/>
+ * State is a handful of doubles per table, independent of how long the detector runs. A forwarder restart (a new
+ * StartTimestamp) discards the baselines. Call {@link #poll()} periodically on a thread that may use the face;
+ * listeners are called on that thread.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/ForwarderStatus">ForwarderStatus</a>
+ */
+public final class TableGrowthDetector {
+  private static final ForwarderTable[] TABLES = ForwarderTable.values();
+  private static final double MILLIS_PER_SECOND = 1000.0;
+  private static final double DEFAULT_ALPHA = 0.1;
+  private static final double DEFAULT_THRESHOLD = 4.0;
+  private static final int DEFAULT_WARMUP = 10;
+
+  private final Face face;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private final long[] sizes = new long[TABLES.length];
+  private final double[] means = new double[TABLES.length];
+  private final double[] variances = new double[TABLES.length];
+  private double alpha = DEFAULT_ALPHA;
+  private double threshold = DEFAULT_THRESHOLD;
+  private double minGrowth = 0;
+  private int warmup = DEFAULT_WARMUP;
+  private long startTimestamp = -1;
+  private long lastTimestamp;
+  private int nSamples;
+
+  /**
+   * Receives anomalies found by a {@link TableGrowthDetector}.
+   */
+  @FunctionalInterface
+  public interface Listener {
+    /**
+     * @param anomaly the abnormal growth of one table
+     */
+    void onAnomaly(Anomaly anomaly);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Constructor.
+   *
+   * @param face only a localhost {@link Face}
+   */
+  public TableGrowthDetector(final Face face) {
+    this.face = face;
+  }
+
+  /**
+   * @param listener receives every anomaly found by subsequent updates
+   * @return this
+   */
+  public TableGrowthDetector addListener(final Listener listener) {
+    listeners.add(listener);
+    return this;
+  }
+
+  /**
+   * @param listener a listener previously added
+   * @return this
+   */
+  public TableGrowthDetector removeListener(final Listener listener) {
+    listeners.remove(listener);
+    return this;
+  }
+
+  /**
+   * @param alpha weight of the newest sample in the baseline, between 0 (exclusive) and 1; default 0.1
+   * @return this
+   */
+  public synchronized TableGrowthDetector setAlpha(final double alpha) {
+    if (!(alpha > 0 && alpha <= 1)) {
+      throw new IllegalArgumentException("Alpha must be in (0, 1]: " + alpha);
+    }
+    this.alpha = alpha;
+    return this;
+  }
+
+  /**
+   * @param threshold how many standard deviations above the baseline a growth must be to be reported; default 4
+   * @return this
+   */
+  public synchronized TableGrowthDetector setThreshold(final double threshold) {
+    this.threshold = threshold;
+    return this;
+  }
+
+  /**
+   * @param minGrowth smallest growth, in entries per second, ever reported; guards against reporting tiny
+   *                  deviations of a very steady table; default 0
+   * @return this
+   */
+  public synchronized TableGrowthDetector setMinGrowth(final double minGrowth) {
+    this.minGrowth = minGrowth;
+    return this;
+  }
+
+  /**
+   * @param warmup number of samples used to build the baseline before anything is reported; default 10
+   * @return this
+   */
+  public synchronized TableGrowthDetector setWarmup(final int warmup) {
+    this.warmup = warmup;
+    return this;
+  }
+
+  /**
+   * Fetch status/general and check the growth of every table.
+   *
+   * @return the anomalies found, also passed to the listeners
+   * @throws ManagementException if status/general could not be retrieved
+   */
+  public List<Anomaly> poll() throws ManagementException {
+    return update(Nfdc.getForwarderStatus(face));
+  }
+
+  /**
+   * Check a forwarder status obtained elsewhere; {@link #poll()} calls this.
+   *
+   * @param status the forwarder status, whose CurrentTimestamp (milliseconds) dates the table sizes
+   * @return the anomalies found, also passed to the listeners
+   */
+  public List<Anomaly> update(final ForwarderStatus status) {
+    List<Anomaly> anomalies = check(status);
+    for (Anomaly anomaly : anomalies) {
+      for (Listener listener : listeners) {
+        listener.onAnomaly(anomaly);
+      }
+    }
+    return anomalies;
+  }
+
+  /**
+   * @param table a forwarder table
+   * @return the baseline growth of the table, in entries per second
+   */
+  public synchronized double getMeanGrowth(final ForwarderTable table) {
+    return means[table.ordinal()];
+  }
+
+  /**
+   * @param table a forwarder table
+   * @return the standard deviation of the growth of the table, in entries per second
+   */
+  public synchronized double getGrowthDeviation(final ForwarderTable table) {
+    return Math.sqrt(variances[table.ordinal()]);
+  }
+
+  /**
+   * @return number of samples folded into the baselines since the detector started or the forwarder restarted
+   */
+  public synchronized int getSampleCount() {
+    return nSamples;
+  }
+
+  /**
+   * Update the baselines with one status and collect the anomalies, without calling the listeners.
+   *
+   * @param status the forwarder status
+   * @return the anomalies found
+   */
+  private synchronized List<Anomaly> check(final ForwarderStatus status) {
+    if (status.getStartTimestamp() != startTimestamp) {
+      // first update, or the forwarder restarted and its tables started over
+      startTimestamp = status.getStartTimestamp();
+      lastTimestamp = status.getCurrentTimestamp();
+      nSamples = 0;
+      for (ForwarderTable table : TABLES) {
+        sizes[table.ordinal()] = table.read(status);
+        means[table.ordinal()] = 0;
+        variances[table.ordinal()] = 0;
+      }
+      return Collections.emptyList();
+    }
+
+    long interval = status.getCurrentTimestamp() - lastTimestamp;
+    if (interval <= 0) {
+      // same dataset generation, or the forwarder clock went backwards; nothing to compute a growth over
+      return Collections.emptyList();
+    }
+    lastTimestamp = status.getCurrentTimestamp();
+
+    List<Anomaly> anomalies = Collections.emptyList();
+    for (ForwarderTable table : TABLES) {
+      int i = table.ordinal();
+      long size = table.read(status);
+      double growth = (size - sizes[i]) * MILLIS_PER_SECOND / interval;
+      sizes[i] = size;
+
+      double mean = means[i];
+      double deviation = Math.sqrt(variances[i]);
+      if (nSamples >= warmup && growth > minGrowth && growth > mean + threshold * deviation) {
+        if (anomalies.isEmpty()) {
+          anomalies = new ArrayList<>();
+        }
+        anomalies.add(new Anomaly(table, size, growth, mean, deviation));
+      }
+
+      if (nSamples == 0) {
+        means[i] = growth;
+      } else {
+        // incremental EWMA of mean and variance (Finch, "Incremental calculation of weighted mean and variance")
+        double diff = growth - mean;
+        double increment = alpha * diff;
+        means[i] = mean + increment;
+        variances[i] = (1 - alpha) * (variances[i] + diff * increment);
+      }
+    }
+    nSamples++;
+    return anomalies;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * A growth of one table well above its baseline.
+   */
+  public static final class Anomaly {
+    private final ForwarderTable table;
+    private final long size;
+    private final double growth;
+    private final double meanGrowth;
+    private final double deviation;
+
+    private Anomaly(final ForwarderTable table, final long size, final double growth, final double meanGrowth,
+                    final double deviation) {
+      this.table = table;
+      this.size = size;
+      this.growth = growth;
+      this.meanGrowth = meanGrowth;
+      this.deviation = deviation;
+    }
+
+    /**
+     * @return the table that grew
+     */
+    public ForwarderTable getTable() {
+      return table;
+    }
+
+    /**
+     * @return the number of entries in the table
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * @return the growth of the table since the previous sample, in entries per second
+     */
+    public double getGrowth() {
+      return growth;
+    }
+
+    /**
+     * @return the baseline growth before this sample, in entries per second
+     */
+    public double getMeanGrowth() {
+      return meanGrowth;
+    }
+
+    /**
+     * @return the standard deviation of the growth before this sample, in entries per second
+     */
+    public double getDeviation() {
+      return deviation;
+    }
+
+    /**
+     * @return how many standard deviations above the baseline the growth is, or infinity for a perfectly steady
+     * baseline
+     */
+    public double getScore() {
+      return deviation == 0 ? Double.POSITIVE_INFINITY : (growth - meanGrowth) / deviation;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Anomaly(table: %s, size: %d, growth: %.1f/s, baseline: %.1f/s +- %.1f)", table, size,
+                           growth, meanGrowth, deviation);
+    }
+  }
+}
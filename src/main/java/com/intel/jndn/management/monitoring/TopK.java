@@ -0,0 +1,81 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.FaceStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Select the K largest elements without sorting the whole input: a min-heap holds the best K seen so far and each
+ * further element is compared with its smallest, so selection costs O(n log K) time and O(K) memory. With tens of
+ * thousands of faces and K = 20 this is several times cheaper than sorting the face list.
+ */
+public final class TopK {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * Prevent instances.
+   */
+  private TopK() {
+  }
+
+  /**
+   * @param items the elements to select from
+   * @param k     how many elements to return
+   * @param order the ordering; the largest elements under it are returned
+   * @param <T>   element type
+   * @return the {@code k} largest elements (or all of them if there are fewer), largest first
+   */
+  public static <T> List<T> select(final Iterable<? extends T> items, final int k, final Comparator<? super T> order) {
+    if (k < 1) {
+      return Collections.emptyList();
+    }
+
+    // k may be far larger than the input (e.g. Integer.MAX_VALUE for "all of them"): size the heap by the input
+    int capacity = items instanceof Collection ? Math.min(k, ((Collection<?>) items).size()) + 1 : DEFAULT_CAPACITY;
+    PriorityQueue<T> heap = new PriorityQueue<>(capacity, order);
+    for (T item : items) {
+      if (heap.size() < k) {
+        heap.add(item);
+      } else if (order.compare(item, heap.peek()) > 0) {
+        heap.poll();
+        heap.add(item);
+      }
+    }
+
+    List<T> top = new ArrayList<>(heap);
+    top.sort(Collections.reverseOrder(order));
+    return top;
+  }
+
+  /**
+   * Select the faces with the largest value of a cumulative counter, e.g. straight from
+   * {@link com.intel.jndn.management.Nfdc#getFaceList(net.named_data.jndn.Face)}. For the busiest faces right now
+   * rather than since they were created, see {@link FaceRateMonitor#getTopFaces(FaceCounter, int)}.
+   *
+   * @param faces   the face dataset
+   * @param counter the counter to rank by
+   * @param k       how many faces to return
+   * @return the {@code k} faces with the largest counter, largest first
+   */
+  public static List<FaceStatus> faces(final Iterable<FaceStatus> faces, final FaceCounter counter, final int k) {
+    return select(faces, k, Comparator.comparingLong(counter::read));
+  }
+}
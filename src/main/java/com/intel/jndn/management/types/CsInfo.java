@@ -0,0 +1,225 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.types;
+
+import com.intel.jndn.management.enums.CsFlags;
+import com.intel.jndn.management.enums.NfdTlv;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.encoding.tlv.TlvDecoder;
+import net.named_data.jndn.encoding.tlv.TlvEncoder;
+import net.named_data.jndn.util.Blob;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represent a CsInfo object from /localhost/nfd/cs/info.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/CsMgmt">CS Management</a>
+ */
+public class CsInfo implements Decodable {
+  private long capacity = 0;
+  private int flags = 0;
+  private long nCsEntries = 0;
+  private long nHits = 0;
+  private long nMisses = 0;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Default constructor.
+   */
+  public CsInfo() {
+    // nothing to do
+  }
+
+  /**
+   * Constructor from wire format.
+   *
+   * @param input wire format
+   * @throws EncodingException when decoding fails
+   */
+  public CsInfo(final ByteBuffer input) throws EncodingException {
+    wireDecode(input);
+  }
+
+  /**
+   * Encode using a new TLV encoder.
+   *
+   * @return The encoded buffer
+   */
+  public final Blob wireEncode() {
+    TlvEncoder encoder = new TlvEncoder();
+    wireEncode(encoder);
+    return new Blob(encoder.getOutput(), false);
+  }
+
+  /**
+   * Encode as part of an existing encode context.
+   *
+   * @param encoder TlvEncoder instance
+   */
+  public final void wireEncode(final TlvEncoder encoder) {
+    int saveLength = encoder.getLength();
+    encoder.writeNonNegativeIntegerTlv(NfdTlv.NMisses, nMisses);
+    encoder.writeNonNegativeIntegerTlv(NfdTlv.NHits, nHits);
+    encoder.writeNonNegativeIntegerTlv(NfdTlv.NCsEntries, nCsEntries);
+    encoder.writeNonNegativeIntegerTlv(NfdTlv.Flags, flags);
+    encoder.writeNonNegativeIntegerTlv(NfdTlv.Capacity, capacity);
+    encoder.writeTypeAndLength(NfdTlv.CsInfo, encoder.getLength() - saveLength);
+  }
+
+  /**
+   * Decode the input from its TLV format.
+   *
+   * @param input The input buffer to decode. This reads from position() to
+   *              limit(), but does not change the position.
+   * @throws EncodingException when decoding fails
+   */
+  public final void wireDecode(final ByteBuffer input) throws EncodingException {
+    TlvDecoder decoder = new TlvDecoder(input);
+    wireDecode(decoder);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void wireDecode(final TlvDecoder decoder) throws EncodingException {
+    int endOffset = decoder.readNestedTlvsStart(NfdTlv.CsInfo);
+    this.capacity = decoder.readNonNegativeIntegerTlv(NfdTlv.Capacity);
+    this.flags = (int) decoder.readNonNegativeIntegerTlv(NfdTlv.Flags);
+    this.nCsEntries = decoder.readNonNegativeIntegerTlv(NfdTlv.NCsEntries);
+    this.nHits = decoder.readNonNegativeIntegerTlv(NfdTlv.NHits);
+    this.nMisses = decoder.readNonNegativeIntegerTlv(NfdTlv.NMisses);
+    decoder.finishNestedTlvs(endOffset);
+  }
+
+  /**
+   * @return maximum number of packets the Content Store may hold
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Set capacity.
+   *
+   * @param capacity maximum number of packets
+   * @return this
+   */
+  public CsInfo setCapacity(final long capacity) {
+    this.capacity = capacity;
+    return this;
+  }
+
+  /**
+   * @return CS flags
+   * @see CsFlags
+   */
+  public int getFlags() {
+    return flags;
+  }
+
+  /**
+   * Set CS flags.
+   *
+   * @param flags CS flags
+   * @return this
+   */
+  public CsInfo setFlags(final int flags) {
+    this.flags = flags;
+    return this;
+  }
+
+  /**
+   * @param flag the flag to check
+   * @return true if the flag is set
+   */
+  public boolean hasFlag(final CsFlags flag) {
+    return (flags & flag.toInteger()) != 0;
+  }
+
+  /**
+   * @return number of packets in the Content Store
+   */
+  public long getNCsEntries() {
+    return nCsEntries;
+  }
+
+  /**
+   * Set number of packets in the Content Store.
+   *
+   * @param nCsEntries number of packets
+   * @return this
+   */
+  public CsInfo setNCsEntries(final long nCsEntries) {
+    this.nCsEntries = nCsEntries;
+    return this;
+  }
+
+  /**
+   * @return number of lookups that found a matching packet since the forwarder started
+   */
+  public long getNHits() {
+    return nHits;
+  }
+
+  /**
+   * Set number of hits.
+   *
+   * @param nHits number of hits
+   * @return this
+   */
+  public CsInfo setNHits(final long nHits) {
+    this.nHits = nHits;
+    return this;
+  }
+
+  /**
+   * @return number of lookups that found no matching packet since the forwarder started
+   */
+  public long getNMisses() {
+    return nMisses;
+  }
+
+  /**
+   * Set number of misses.
+   *
+   * @param nMisses number of misses
+   * @return this
+   */
+  public CsInfo setNMisses(final long nMisses) {
+    this.nMisses = nMisses;
+    return this;
+  }
+
+  /**
+   * @return fraction of lookups that were hits since the forwarder started, or 0 if there were no lookups
+   */
+  public double getHitRatio() {
+    long lookups = nHits + nMisses;
+    return lookups == 0 ? 0 : (double) nHits / lookups;
+  }
+
+  @Override
+  public String toString() {
+    return "CS information:\n" +
+      "  capacity=" + capacity + "\n" +
+      "  admit=" + (hasFlag(CsFlags.ENABLE_ADMIT) ? "on" : "off") + "\n" +
+      "  serve=" + (hasFlag(CsFlags.ENABLE_SERVE) ? "on" : "off") + "\n" +
+      "  nEntries=" + nCsEntries + "\n" +
+      "  nHits=" + nHits + "\n" +
+      "  nMisses=" + nMisses + "\n";
+  }
+}
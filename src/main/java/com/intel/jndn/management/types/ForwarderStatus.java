@@ -42,6 +42,8 @@ public class ForwarderStatus implements Decodable {
   private long nOutInterests = 0;
   private long nOutData = 0;
   private long nOutNacks = 0;
+  private long nSatisfiedInterests = -1;
+  private long nUnsatisfiedInterests = -1;
 
   /////////////////////////////////////////////////////////////////////////////
 
@@ -79,6 +81,12 @@ public class ForwarderStatus implements Decodable {
    * @param encoder TlvEncoder instance
    */
   public final void wireEncode(final TlvEncoder encoder) {
+    if (hasNUnsatisfiedInterests()) {
+      encoder.writeNonNegativeIntegerTlv(NfdTlv.NUnsatisfiedInterests, nUnsatisfiedInterests);
+    }
+    if (hasNSatisfiedInterests()) {
+      encoder.writeNonNegativeIntegerTlv(NfdTlv.NSatisfiedInterests, nSatisfiedInterests);
+    }
     encoder.writeNonNegativeIntegerTlv(NfdTlv.NOutNacks, nOutNacks);
     encoder.writeNonNegativeIntegerTlv(NfdTlv.NOutData, nOutData);
     encoder.writeNonNegativeIntegerTlv(NfdTlv.NOutInterests, nOutInterests);
@@ -104,14 +112,31 @@ public class ForwarderStatus implements Decodable {
    */
   public final void wireDecode(final ByteBuffer input) throws EncodingException {
     TlvDecoder decoder = new TlvDecoder(input);
-    wireDecode(decoder);
+    wireDecode(decoder, input.limit());
   }
 
   /**
-   * {@inheritDoc}
+   * Decode the mandatory fields only: ForwarderStatus is not wrapped in an outer TLV, so the end of the input, needed
+   * to detect the optional NSatisfiedInterests and NUnsatisfiedInterests, is unknown here; see
+   * {@link #wireDecode(TlvDecoder, int)}.
+   *
+   * @param decoder the decoder
+   * @throws EncodingException For invalid encoding.
    */
   @Override
   public void wireDecode(final TlvDecoder decoder) throws EncodingException {
+    wireDecode(decoder, decoder.getOffset());
+  }
+
+  /**
+   * Decode the input from its TLV format. NSatisfiedInterests and NUnsatisfiedInterests are decoded if present before
+   * {@code endOffset}; older NFD versions omit them.
+   *
+   * @param decoder   the decoder
+   * @param endOffset the offset of the end of the input
+   * @throws EncodingException For invalid encoding.
+   */
+  public void wireDecode(final TlvDecoder decoder, final int endOffset) throws EncodingException {
     this.nfdVersion = new Blob(decoder.readBlobTlv(NfdTlv.NfdVersion), true).toString();
     this.startTimestamp = decoder.readNonNegativeIntegerTlv(NfdTlv.StartTimestamp);
     this.currentTimestamp = decoder.readNonNegativeIntegerTlv(NfdTlv.CurrentTimestamp);
@@ -126,6 +151,8 @@ public class ForwarderStatus implements Decodable {
     this.nOutInterests = decoder.readNonNegativeIntegerTlv(NfdTlv.NOutInterests);
     this.nOutData = decoder.readNonNegativeIntegerTlv(NfdTlv.NOutData);
     this.nOutNacks = decoder.readNonNegativeIntegerTlv(NfdTlv.NOutNacks);
+    this.nSatisfiedInterests = decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.NSatisfiedInterests, endOffset);
+    this.nUnsatisfiedInterests = decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.NUnsatisfiedInterests, endOffset);
   }
 
   /**
@@ -379,4 +406,54 @@ public class ForwarderStatus implements Decodable {
     this.nOutNacks = nOutNacks;
     return this;
   }
+
+  /**
+   * @return true if the forwarder reported the number of satisfied Interests (NFD 0.7 and later)
+   */
+  public boolean hasNSatisfiedInterests() {
+    return nSatisfiedInterests >= 0;
+  }
+
+  /**
+   * @return Number of satisfied Interests since NFD start, or -1 if not reported
+   */
+  public long getNSatisfiedInterests() {
+    return nSatisfiedInterests;
+  }
+
+  /**
+   * Set the number of satisfied Interests since NFD start.
+   *
+   * @param nSatisfiedInterests the number of satisfied Interests since NFD start, or -1 if not reported
+   * @return this
+   */
+  public ForwarderStatus setNSatisfiedInterests(final long nSatisfiedInterests) {
+    this.nSatisfiedInterests = nSatisfiedInterests;
+    return this;
+  }
+
+  /**
+   * @return true if the forwarder reported the number of unsatisfied Interests (NFD 0.7 and later)
+   */
+  public boolean hasNUnsatisfiedInterests() {
+    return nUnsatisfiedInterests >= 0;
+  }
+
+  /**
+   * @return Number of Interests that expired or were rejected without Data since NFD start, or -1 if not reported
+   */
+  public long getNUnsatisfiedInterests() {
+    return nUnsatisfiedInterests;
+  }
+
+  /**
+   * Set the number of unsatisfied Interests since NFD start.
+   *
+   * @param nUnsatisfiedInterests the number of unsatisfied Interests since NFD start, or -1 if not reported
+   * @return this
+   */
+  public ForwarderStatus setNUnsatisfiedInterests(final long nUnsatisfiedInterests) {
+    this.nUnsatisfiedInterests = nUnsatisfiedInterests;
+    return this;
+  }
 }
@@ -0,0 +1,460 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.types;
+
+import com.intel.jndn.management.enums.CsFlags;
+import com.intel.jndn.management.enums.FaceFlags;
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.NfdTlv;
+import com.intel.jndn.management.helpers.EncodingHelper;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.encoding.tlv.Tlv;
+import net.named_data.jndn.encoding.tlv.TlvDecoder;
+import net.named_data.jndn.encoding.tlv.TlvEncoder;
+import net.named_data.jndn.util.Blob;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represent the ControlParameters of NFD management commands that jNDN's own ControlParameters cannot express:
+ * face persistency, congestion marking, MTU and the Flags/Mask pair of faces/create and faces/update, the Capacity
+ * of cs/config and the Name/Count pair of cs/erase. Every field is optional; unset fields are not encoded. Fields
+ * used only by other commands (Origin, Cost, ...) are skipped when decoding.
+ *
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/ControlCommand">ControlCommand</a>
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/FaceMgmt">Face Management</a>
+ * @see <a href="https://redmine.named-data.net/projects/nfd/wiki/CsMgmt">CS Management</a>
+ */
+public class NfdControlParameters implements Decodable {
+  private Name name = null;
+  private int faceId = -1;
+  private String uri = null;
+  private String localUri = null;
+  private long capacity = -1;
+  private long count = -1;
+  private FacePersistency facePersistency = FacePersistency.NONE;
+  private long baseCongestionMarkingInterval = -1;
+  private long defaultCongestionThreshold = -1;
+  private int mtu = -1;
+  private int flags = -1;
+  private int mask = -1;
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Default constructor.
+   */
+  public NfdControlParameters() {
+    // nothing to do
+  }
+
+  /**
+   * Constructor from wire format.
+   *
+   * @param input wire format
+   * @throws EncodingException when decoding fails
+   */
+  public NfdControlParameters(final ByteBuffer input) throws EncodingException {
+    wireDecode(input);
+  }
+
+  /**
+   * Encode using a new TLV encoder.
+   *
+   * @return The encoded buffer
+   */
+  public final Blob wireEncode() {
+    TlvEncoder encoder = new TlvEncoder();
+    wireEncode(encoder);
+    return new Blob(encoder.getOutput(), false);
+  }
+
+  /**
+   * Encode as part of an existing encode context.
+   *
+   * @param encoder TlvEncoder instance
+   */
+  public final void wireEncode(final TlvEncoder encoder) {
+    int saveLength = encoder.getLength();
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.Mtu, mtu);
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.DefaultCongestionThreshold, defaultCongestionThreshold);
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.BaseCongestionMarkingInterval, baseCongestionMarkingInterval);
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.FacePersistency, facePersistency.toInteger());
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.Mask, mask);
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.Flags, flags);
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.Count, count);
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.Capacity, capacity);
+    if (localUri != null) {
+      encoder.writeBlobTlv(NfdTlv.LocalUri, new Blob(localUri).buf());
+    }
+    if (uri != null) {
+      encoder.writeBlobTlv(NfdTlv.Uri, new Blob(uri).buf());
+    }
+    encoder.writeOptionalNonNegativeIntegerTlv(NfdTlv.FaceId, faceId);
+    if (name != null) {
+      EncodingHelper.encodeName(name, encoder);
+    }
+    encoder.writeTypeAndLength(NfdTlv.ControlParameters, encoder.getLength() - saveLength);
+  }
+
+  /**
+   * Decode the input from its TLV format.
+   *
+   * @param input The input buffer to decode. This reads from position() to
+   *              limit(), but does not change the position.
+   * @throws EncodingException when decoding fails
+   */
+  public final void wireDecode(final ByteBuffer input) throws EncodingException {
+    TlvDecoder decoder = new TlvDecoder(input);
+    wireDecode(decoder);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void wireDecode(final TlvDecoder decoder) throws EncodingException {
+    int endOffset = decoder.readNestedTlvsStart(NfdTlv.ControlParameters);
+    this.name = decoder.peekType(Tlv.Name, endOffset) ? EncodingHelper.decodeName(decoder) : null;
+    this.faceId = (int) decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.FaceId, endOffset);
+    ByteBuffer uriBuffer = decoder.readOptionalBlobTlv(NfdTlv.Uri, endOffset);
+    this.uri = uriBuffer == null ? null : EncodingHelper.toString(uriBuffer);
+    ByteBuffer localUriBuffer = decoder.readOptionalBlobTlv(NfdTlv.LocalUri, endOffset);
+    this.localUri = localUriBuffer == null ? null : EncodingHelper.toString(localUriBuffer);
+    decoder.skipOptionalTlv(NfdTlv.Origin, endOffset);
+    decoder.skipOptionalTlv(NfdTlv.Cost, endOffset);
+    this.capacity = decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.Capacity, endOffset);
+    this.count = decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.Count, endOffset);
+    this.flags = (int) decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.Flags, endOffset);
+    this.mask = (int) decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.Mask, endOffset);
+    decoder.skipOptionalTlv(NfdTlv.Strategy, endOffset);
+    decoder.skipOptionalTlv(NfdTlv.ExpirationPeriod, endOffset);
+    this.facePersistency = FacePersistency.fromInteger(
+      (int) decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.FacePersistency, endOffset));
+    this.baseCongestionMarkingInterval =
+      decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.BaseCongestionMarkingInterval, endOffset);
+    this.defaultCongestionThreshold =
+      decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.DefaultCongestionThreshold, endOffset);
+    this.mtu = (int) decoder.readOptionalNonNegativeIntegerTlv(NfdTlv.Mtu, endOffset);
+    decoder.finishNestedTlvs(endOffset);
+  }
+
+  /**
+   * @return the name prefix, or null if not set
+   */
+  public Name getName() {
+    return name;
+  }
+
+  /**
+   * Set the name prefix; used by cs/erase.
+   *
+   * @param name the {@link Name} prefix
+   * @return this
+   */
+  public NfdControlParameters setName(final Name name) {
+    this.name = name;
+    return this;
+  }
+
+  /**
+   * @return face ID, or -1 if not set
+   */
+  public int getFaceId() {
+    return faceId;
+  }
+
+  /**
+   * Set face ID; faces/update applies to the face the command arrives on if no face ID is set.
+   *
+   * @param faceId face ID
+   * @return this
+   */
+  public NfdControlParameters setFaceId(final int faceId) {
+    this.faceId = faceId;
+    return this;
+  }
+
+  /**
+   * @return remote face URI, or null if not set
+   */
+  public String getUri() {
+    return uri;
+  }
+
+  /**
+   * Set remote face URI; required by faces/create.
+   *
+   * @param uri remote face URI, e.g. "udp4://192.0.2.1:6363"
+   * @return this
+   */
+  public NfdControlParameters setUri(final String uri) {
+    this.uri = uri;
+    return this;
+  }
+
+  /**
+   * @return local face URI, or null if not set
+   */
+  public String getLocalUri() {
+    return localUri;
+  }
+
+  /**
+   * Set local face URI.
+   *
+   * @param localUri local face URI
+   * @return this
+   */
+  public NfdControlParameters setLocalUri(final String localUri) {
+    this.localUri = localUri;
+    return this;
+  }
+
+  /**
+   * @return Content Store capacity in packets, or -1 if not set
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Set the maximum number of packets the Content Store may hold; used by cs/config.
+   *
+   * @param capacity capacity in packets
+   * @return this
+   */
+  public NfdControlParameters setCapacity(final long capacity) {
+    this.capacity = capacity;
+    return this;
+  }
+
+  /**
+   * @return packet count, or -1 if not set
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Set a packet count: in a cs/erase command the maximum number of packets to erase, in its response the number of
+   * packets erased.
+   *
+   * @param count number of packets
+   * @return this
+   */
+  public NfdControlParameters setCount(final long count) {
+    this.count = count;
+    return this;
+  }
+
+  /**
+   * @return face persistency, or {@link FacePersistency#NONE} if not set
+   */
+  public FacePersistency getFacePersistency() {
+    return facePersistency;
+  }
+
+  /**
+   * Set face persistency.
+   *
+   * @param facePersistency face persistency
+   * @return this
+   */
+  public NfdControlParameters setFacePersistency(final FacePersistency facePersistency) {
+    this.facePersistency = facePersistency;
+    return this;
+  }
+
+  /**
+   * @return base congestion marking interval in nanoseconds, or -1 if not set
+   */
+  public long getBaseCongestionMarkingInterval() {
+    return baseCongestionMarkingInterval;
+  }
+
+  /**
+   * Set the base interval between congestion marks.
+   *
+   * @param baseCongestionMarkingInterval interval in nanoseconds
+   * @return this
+   */
+  public NfdControlParameters setBaseCongestionMarkingInterval(final long baseCongestionMarkingInterval) {
+    this.baseCongestionMarkingInterval = baseCongestionMarkingInterval;
+    return this;
+  }
+
+  /**
+   * @return default congestion threshold in bytes, or -1 if not set
+   */
+  public long getDefaultCongestionThreshold() {
+    return defaultCongestionThreshold;
+  }
+
+  /**
+   * Set the send queue length above which packets are marked as congested, for transports that cannot report
+   * their own capacity.
+   *
+   * @param defaultCongestionThreshold threshold in bytes
+   * @return this
+   */
+  public NfdControlParameters setDefaultCongestionThreshold(final long defaultCongestionThreshold) {
+    this.defaultCongestionThreshold = defaultCongestionThreshold;
+    return this;
+  }
+
+  /**
+   * @return MTU in bytes, or -1 if not set
+   */
+  public int getMtu() {
+    return mtu;
+  }
+
+  /**
+   * Set the MTU; the forwarder only accepts this for datagram faces and may cap it at the transport's MTU.
+   *
+   * @param mtu MTU in bytes
+   * @return this
+   */
+  public NfdControlParameters setMtu(final int mtu) {
+    this.mtu = mtu;
+    return this;
+  }
+
+  /**
+   * @return face flags, or -1 if not set
+   */
+  public int getFlags() {
+    return flags;
+  }
+
+  /**
+   * Set face flags; a command must also set the {@link #setMask(int) mask} of the bits to change.
+   *
+   * @param flags face flags
+   * @return this
+   */
+  public NfdControlParameters setFlags(final int flags) {
+    this.flags = flags;
+    return this;
+  }
+
+  /**
+   * @return mask of the flags to change, or -1 if not set
+   */
+  public int getMask() {
+    return mask;
+  }
+
+  /**
+   * Set the mask of the flags to change.
+   *
+   * @param mask mask of the flag bits to change
+   * @return this
+   */
+  public NfdControlParameters setMask(final int mask) {
+    this.mask = mask;
+    return this;
+  }
+
+  /**
+   * Enable or disable a face flag, leaving the other flags unchanged; updates both Flags and Mask.
+   *
+   * @param flag    the flag to change
+   * @param enabled the new value of the flag
+   * @return this
+   */
+  public NfdControlParameters setFlag(final FaceFlags flag, final boolean enabled) {
+    return setFlagBit(flag.toInteger(), enabled);
+  }
+
+  /**
+   * Enable or disable a Content Store flag, leaving the other flags unchanged; updates both Flags and Mask.
+   *
+   * @param flag    the flag to change
+   * @param enabled the new value of the flag
+   * @return this
+   */
+  public NfdControlParameters setFlag(final CsFlags flag, final boolean enabled) {
+    return setFlagBit(flag.toInteger(), enabled);
+  }
+
+  /**
+   * @param flag the flag to check
+   * @return true if the flag is set in Flags
+   */
+  public boolean hasFlag(final FaceFlags flag) {
+    return flags >= 0 && (flags & flag.toInteger()) != 0;
+  }
+
+  /**
+   * @param flag the flag to check
+   * @return true if the flag is set in Flags
+   */
+  public boolean hasFlag(final CsFlags flag) {
+    return flags >= 0 && (flags & flag.toInteger()) != 0;
+  }
+
+  private NfdControlParameters setFlagBit(final int bit, final boolean enabled) {
+    flags = enabled ? Math.max(flags, 0) | bit : Math.max(flags, 0) & ~bit;
+    mask = Math.max(mask, 0) | bit;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder os = new StringBuilder("ControlParameters(");
+    if (name != null) {
+      os.append("Name: ").append(name.toUri()).append(", ");
+    }
+    if (faceId >= 0) {
+      os.append("FaceId: ").append(faceId).append(", ");
+    }
+    if (uri != null) {
+      os.append("Uri: ").append(uri).append(", ");
+    }
+    if (localUri != null) {
+      os.append("LocalUri: ").append(localUri).append(", ");
+    }
+    if (capacity >= 0) {
+      os.append("Capacity: ").append(capacity).append(", ");
+    }
+    if (count >= 0) {
+      os.append("Count: ").append(count).append(", ");
+    }
+    if (facePersistency != FacePersistency.NONE) {
+      os.append("FacePersistency: ").append(facePersistency).append(", ");
+    }
+    if (baseCongestionMarkingInterval >= 0) {
+      os.append("BaseCongestionMarkingInterval: ").append(baseCongestionMarkingInterval).append(" nanoseconds, ");
+    }
+    if (defaultCongestionThreshold >= 0) {
+      os.append("DefaultCongestionThreshold: ").append(defaultCongestionThreshold).append(" bytes, ");
+    }
+    if (mtu >= 0) {
+      os.append("Mtu: ").append(mtu).append(" bytes, ");
+    }
+    if (flags >= 0) {
+      os.append("Flags: ").append(String.format("0x%x", flags)).append(", ");
+    }
+    if (mask >= 0) {
+      os.append("Mask: ").append(String.format("0x%x", mask)).append(", ");
+    }
+    if (os.charAt(os.length() - 1) == ' ') {
+      os.setLength(os.length() - 2);
+    }
+    return os.append(")").toString();
+  }
+}
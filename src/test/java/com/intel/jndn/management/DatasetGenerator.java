@@ -0,0 +1,533 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.FaceScope;
+import com.intel.jndn.management.enums.LinkType;
+import com.intel.jndn.management.enums.RouteFlags;
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.enums.Strategies;
+import com.intel.jndn.management.types.ChannelStatus;
+import com.intel.jndn.management.types.Decodable;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.FibEntry;
+import com.intel.jndn.management.types.NextHopRecord;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.management.types.StrategyChoice;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.MetaInfo;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.tlv.TlvEncoder;
+import net.named_data.jndn.util.Blob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Generate large synthetic status datasets (faces, channels, FIB, RIB and strategy choices) with realistic names,
+ * for benchmarks and {@link FakeForwarder}.
+ * <p/>
+ * Name depths follow a Zipf distribution between a minimum and a maximum depth, so shallow names are the most common
+ * and deep ones form a long tail. Each component is drawn from a per-depth vocabulary, again Zipf-distributed, so a
+ * few popular components are shared by many names and the names form a prefix tree with heavy branches, like a real
+ * FIB. Components are pseudo-words of 3 to 12 letters. Next hops and routes point at faces 256 and up, the popular
+ * faces again chosen more often.
+ * <p/>
+ * Datasets are encoded like NFD publishes them: the entries back to back, sorted by name. Fixture files hold exactly
+ * that payload, so loading one is a single read; see {@link #write(Path, Blob)} and {@link #read(Path)}. The output
+ * depends only on the settings and the seed.
+ */
+public final class DatasetGenerator {
+  private static final int FIRST_FACE_ID = 256;
+  private static final int MIN_WORD_LENGTH = 3;
+  private static final int MAX_WORD_LENGTH = 12;
+  private static final int MAX_NEXT_HOPS = 3;
+  private static final int MAX_COST = 100;
+  private static final int COST_STEP = 10;
+  private static final int DEFAULT_MIN_DEPTH = 2;
+  private static final int DEFAULT_MAX_DEPTH = 10;
+  private static final int DEFAULT_FANOUT = 1000;
+  private static final int DEFAULT_FACE_COUNT = 100;
+  private static final int RETRIES = 10;
+  private static final int EXPIRATION_PERIOD = 3600000;
+  private static final int FIRST_PORT = 6363;
+  private static final int PORT_RANGE = 1000;
+  private static final String[] CHANNEL_SCHEMES = {"udp4", "tcp4", "ws"};
+  private static final Name[] STRATEGIES = {
+    Strategies.BEST_ROUTE, Strategies.MULTICAST, Strategies.ASF, Strategies.ACCESS, Strategies.SELF_LEARNING
+  };
+  private static final int[] ORIGINS = {
+    RouteOrigin.APP.toInteger(), RouteOrigin.STATIC.toInteger(), RouteOrigin.NLSR.toInteger(),
+    RouteOrigin.CLIENT.toInteger(), RouteOrigin.AUTOREG.toInteger()
+  };
+
+  private final long seed;
+  private Random random;
+  private int minDepth = DEFAULT_MIN_DEPTH;
+  private int maxDepth = DEFAULT_MAX_DEPTH;
+  private int fanout = DEFAULT_FANOUT;
+  private double exponent = 1.0;
+  private int faceCount = DEFAULT_FACE_COUNT;
+  private final Map<Long, Name.Component> words = new HashMap<>();
+
+  /**
+   * Dataset kinds the generator produces.
+   */
+  public enum Type {
+    FaceStatus("/localhost/nfd/faces/list", FaceStatus.class),
+    FibEntry("/localhost/nfd/fib/list", FibEntry.class),
+    RibEntry("/localhost/nfd/rib/list", RibEntry.class),
+    StrategyChoice("/localhost/nfd/strategy-choice/list", StrategyChoice.class),
+    ChannelStatus("/localhost/nfd/faces/channels", ChannelStatus.class);
+
+    private final Name prefix;
+    private final Class<? extends Decodable> entryClass;
+
+    Type(final String prefix, final Class<? extends Decodable> entryClass) {
+      this.prefix = new Name(prefix);
+      this.entryClass = entryClass;
+    }
+
+    /**
+     * @return the dataset prefix, e.g. /localhost/nfd/faces/list
+     */
+    public Name getPrefix() {
+      return new Name(prefix);
+    }
+
+    /**
+     * @return the class of the dataset entries, for
+     *         {@link com.intel.jndn.management.helpers.StatusDatasetHelper#wireDecode(List, Class)}
+     */
+    public Class<? extends Decodable> getEntryClass() {
+      return entryClass;
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param seed random seed; the same seed and settings produce the same datasets
+   */
+  public DatasetGenerator(final long seed) {
+    this.seed = seed;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * @param min smallest number of name components, at least 1
+   * @param max largest number of name components
+   * @return this
+   */
+  public DatasetGenerator setDepth(final int min, final int max) {
+    if (min < 1 || max < min) {
+      throw new IllegalArgumentException("Invalid depth range: " + min + ".." + max);
+    }
+    this.minDepth = min;
+    this.maxDepth = max;
+    return this;
+  }
+
+  /**
+   * @param fanout number of distinct components at each depth; fewer means more shared prefixes
+   * @return this
+   */
+  public DatasetGenerator setFanout(final int fanout) {
+    if (fanout < 1) {
+      throw new IllegalArgumentException("Fanout must be positive: " + fanout);
+    }
+    this.fanout = fanout;
+    return this;
+  }
+
+  /**
+   * @param exponent Zipf exponent of depths, components and faces; 0 is uniform, larger values are more skewed
+   * @return this
+   */
+  public DatasetGenerator setZipfExponent(final double exponent) {
+    if (exponent < 0) {
+      throw new IllegalArgumentException("Zipf exponent must not be negative: " + exponent);
+    }
+    this.exponent = exponent;
+    return this;
+  }
+
+  /**
+   * @param count number of faces that next hops and routes point at, with IDs from 256
+   * @return this
+   */
+  public DatasetGenerator setFaceCount(final int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Face count must be positive: " + count);
+    }
+    this.faceCount = count;
+    return this;
+  }
+
+  /**
+   * Start over from the seed, so that the next call returns the same entries as the first one did.
+   *
+   * @return this
+   */
+  public DatasetGenerator reset() {
+    random = new Random(seed);
+    return this;
+  }
+
+  /**
+   * @param count number of names
+   * @return distinct names, sorted in NDN canonical order
+   */
+  public List<Name> names(final int count) {
+    Zipf depths = new Zipf(maxDepth - minDepth + 1, exponent);
+    Zipf components = new Zipf(fanout, exponent);
+    Set<Name> names = new HashSet<>(count * 2);
+    while (names.size() < count) {
+      Name name = null;
+      for (int attempt = 0; attempt < RETRIES && (name == null || names.contains(name)); attempt++) {
+        name = new Name();
+        int depth = minDepth + depths.next(random) - 1;
+        for (int level = 0; level < depth; level++) {
+          name.append(word(level, components.next(random)));
+        }
+      }
+      if (names.contains(name)) {
+        // the popular part of the name space is exhausted; make the name unique
+        name.appendSequenceNumber(names.size());
+      }
+      names.add(name);
+    }
+    List<Name> sorted = new ArrayList<>(names);
+    sorted.sort(null);
+    return sorted;
+  }
+
+  /**
+   * @param count number of faces
+   * @return faces with IDs from 256, a mix of UDP, TCP and Ethernet faces with random counters
+   */
+  public List<FaceStatus> faces(final int count) {
+    List<FaceStatus> faces = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String address = "10." + ((i >> 16) & 0xff) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+      String remoteUri;
+      switch (random.nextInt(3)) {
+        case 0:
+          remoteUri = "udp4://" + address + ":6363";
+          break;
+        case 1:
+          remoteUri = "tcp4://" + address + ":6363";
+          break;
+        default:
+          remoteUri = String.format("ether://[02:00:%02x:%02x:%02x:%02x]", (i >> 24) & 0xff, (i >> 16) & 0xff,
+                                    (i >> 8) & 0xff, i & 0xff);
+      }
+      faces.add(new FaceStatus()
+                  .setFaceId(FIRST_FACE_ID + i)
+                  .setRemoteUri(remoteUri)
+                  .setLocalUri(remoteUri.substring(0, remoteUri.indexOf("://")) + "://0.0.0.0:6363")
+                  .setFaceScope(FaceScope.NON_LOCAL)
+                  .setFacePersistency(random.nextBoolean() ? FacePersistency.PERSISTENT : FacePersistency.PERMANENT)
+                  .setLinkType(LinkType.POINT_TO_POINT)
+                  .setNInInterests(random.nextInt(Integer.MAX_VALUE))
+                  .setNOutInterests(random.nextInt(Integer.MAX_VALUE))
+                  .setNInData(random.nextInt(Integer.MAX_VALUE))
+                  .setNOutData(random.nextInt(Integer.MAX_VALUE))
+                  .setNInNacks(random.nextInt(Integer.MAX_VALUE))
+                  .setNOutNacks(random.nextInt(Integer.MAX_VALUE))
+                  .setNInBytes(random.nextInt(Integer.MAX_VALUE))
+                  .setNOutBytes(random.nextInt(Integer.MAX_VALUE)));
+    }
+    return faces;
+  }
+
+  /**
+   * @param count number of entries
+   * @return FIB entries with one to three next hops each, sorted by prefix
+   */
+  public List<FibEntry> fibEntries(final int count) {
+    Zipf faces = new Zipf(faceCount, exponent);
+    List<FibEntry> entries = new ArrayList<>(count);
+    for (Name prefix : names(count)) {
+      FibEntry entry = new FibEntry().setPrefix(prefix);
+      for (int faceId : nextHops(faces)) {
+        entry.addNextHopRecord(new NextHopRecord().setFaceId(faceId).setCost(cost()));
+      }
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  /**
+   * @param count number of entries
+   * @return RIB entries with one to three routes of various origins each, sorted by name
+   */
+  public List<RibEntry> ribEntries(final int count) {
+    Zipf faces = new Zipf(faceCount, exponent);
+    List<RibEntry> entries = new ArrayList<>(count);
+    for (Name name : names(count)) {
+      RibEntry entry = new RibEntry().setName(name);
+      for (int faceId : nextHops(faces)) {
+        Route route = new Route()
+          .setFaceId(faceId)
+          .setOrigin(ORIGINS[random.nextInt(ORIGINS.length)])
+          .setCost(cost())
+          .setFlags(RouteFlags.CHILD_INHERIT.toInteger());
+        if (route.getOrigin() == RouteOrigin.NLSR.toInteger()) {
+          route.setExpirationPeriod(EXPIRATION_PERIOD);
+        }
+        entry.addRoute(route);
+      }
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  /**
+   * @param count number of entries
+   * @return strategy choices on distinct prefixes, the popular strategies chosen more often, sorted by prefix
+   */
+  public List<StrategyChoice> strategyChoices(final int count) {
+    Zipf strategies = new Zipf(STRATEGIES.length, exponent);
+    List<StrategyChoice> entries = new ArrayList<>(count);
+    for (Name name : names(count)) {
+      entries.add(new StrategyChoice().setName(name).setStrategy(STRATEGIES[strategies.next(random) - 1]));
+    }
+    return entries;
+  }
+
+  /**
+   * @param count number of channels
+   * @return UDP, TCP and WebSocket channels on distinct local endpoints
+   */
+  public List<ChannelStatus> channels(final int count) {
+    List<ChannelStatus> channels = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String scheme = CHANNEL_SCHEMES[random.nextInt(CHANNEL_SCHEMES.length)];
+      channels.add(new ChannelStatus().setLocalUri(scheme + "://10." + ((i >> 8) & 0xff) + "." + (i & 0xff) + ".1:" +
+                                                     (FIRST_PORT + random.nextInt(PORT_RANGE))));
+    }
+    return channels;
+  }
+
+  /**
+   * @param type  dataset kind
+   * @param count number of entries
+   * @return the dataset payload, as NFD would publish it
+   */
+  public Blob dataset(final Type type, final int count) {
+    switch (type) {
+      case FaceStatus:
+        return encode(faces(count), FaceStatus::wireEncode);
+      case FibEntry:
+        return encode(fibEntries(count), FibEntry::wireEncode);
+      case RibEntry:
+        return encode(ribEntries(count), RibEntry::wireEncode);
+      case StrategyChoice:
+        return encode(strategyChoices(count), StrategyChoice::wireEncode);
+      case ChannelStatus:
+        return encode(channels(count), ChannelStatus::wireEncode);
+      default:
+        throw new IllegalArgumentException("Unknown dataset type: " + type);
+    }
+  }
+
+  /**
+   * Encode dataset entries back to back, like NFD does.
+   *
+   * @param entries     dataset entries
+   * @param encodeEntry appends an entry to an encoder, e.g. {@code FibEntry::wireEncode}
+   * @param <T>         entry type
+   * @return the dataset payload
+   */
+  public static <T> Blob encode(final List<T> entries, final BiConsumer<T, TlvEncoder> encodeEntry) {
+    TlvEncoder encoder = new TlvEncoder();
+    // the encoder prepends, so encode the last entry first
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      encodeEntry.accept(entries.get(i), encoder);
+    }
+    return new Blob(encoder.getOutput(), false);
+  }
+
+  /**
+   * Split a dataset payload into segments the way NFD publishes it.
+   *
+   * @param versioned   the dataset prefix with a version component, e.g. /localhost/nfd/faces/list/v=1
+   * @param payload     the dataset payload
+   * @param segmentSize largest payload size of a segment, in bytes
+   * @return the segments, named /prefix/version/segment, each carrying the FinalBlockId
+   */
+  public static List<Data> segments(final Name versioned, final Blob payload, final int segmentSize) {
+    ByteBuffer buffer = payload.buf();
+    int nSegments = Math.max(1, (buffer.remaining() + segmentSize - 1) / segmentSize);
+    List<Data> segments = new ArrayList<>(nSegments);
+    for (int segment = 0; segment < nSegments; segment++) {
+      ByteBuffer chunk = buffer.duplicate();
+      chunk.position(buffer.position() + segment * segmentSize);
+      chunk.limit(Math.min(buffer.limit(), chunk.position() + segmentSize));
+
+      Data data = new Data(new Name(versioned).appendSegment(segment));
+      MetaInfo meta = new MetaInfo();
+      meta.setFinalBlockId(Name.Component.fromSegment(nSegments - 1));
+      data.setMetaInfo(meta);
+      data.setContent(new Blob(chunk, true));
+      segments.add(data);
+    }
+    return segments;
+  }
+
+  /**
+   * Write a dataset payload to a fixture file. The payload is written to a temporary file in the same directory and
+   * then renamed, so the fixture file is either absent or complete, even if the writer is interrupted or several
+   * processes generate the same fixture.
+   *
+   * @param file    the fixture file; parent directories are created
+   * @param payload the dataset payload
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(final Path file, final Blob payload) throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      Files.write(temporary, payload.getImmutableArray());
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * @param file a fixture file written by {@link #write(Path, Blob)}
+   * @return the dataset payload
+   * @throws IOException if the file cannot be read
+   */
+  public static Blob read(final Path file) throws IOException {
+    return new Blob(ByteBuffer.wrap(Files.readAllBytes(file)), false);
+  }
+
+  /**
+   * Read a fixture file, generating it first if it does not exist, e.g. to share fixtures between benchmark runs.
+   * Fixture files are written with {@link #write(Path, Blob)}, so an existing one is complete.
+   *
+   * @param directory where fixtures are kept
+   * @param type      dataset kind
+   * @param count     number of entries
+   * @return the dataset payload
+   * @throws IOException if the file cannot be written or read
+   */
+  public Blob fixture(final Path directory, final Type type, final int count) throws IOException {
+    Path file = directory.resolve(String.format("%s-%d-seed%d-depth%d-%d-fanout%d-zipf%s-faces%d.tlv", type, count,
+                                                seed, minDepth, maxDepth, fanout, exponent, faceCount));
+    if (!Files.exists(file)) {
+      reset();
+      write(file, dataset(type, count));
+    }
+    return read(file);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * @param faces Zipf distribution over the face ranks
+   * @return one to three distinct face IDs
+   */
+  private int[] nextHops(final Zipf faces) {
+    int[] faceIds = new int[1 + random.nextInt(Math.min(MAX_NEXT_HOPS, faceCount))];
+    for (int i = 0; i < faceIds.length; i++) {
+      int faceId;
+      do {
+        faceId = FIRST_FACE_ID + faces.next(random) - 1;
+      } while (contains(faceIds, i, faceId));
+      faceIds[i] = faceId;
+    }
+    return faceIds;
+  }
+
+  private static boolean contains(final int[] values, final int length, final int value) {
+    for (int i = 0; i < length; i++) {
+      if (values[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int cost() {
+    return random.nextInt(MAX_COST / COST_STEP + 1) * COST_STEP;
+  }
+
+  /**
+   * @param level depth of the component, from 0
+   * @param rank  popularity rank of the component at that depth, from 1
+   * @return the same pseudo-word for the same level and rank
+   */
+  private Name.Component word(final int level, final int rank) {
+    long key = ((long) level << Integer.SIZE) | rank;
+    Name.Component word = words.get(key);
+    if (word == null) {
+      Random letters = new Random(seed ^ key * 0x9e3779b97f4a7c15L);
+      char[] chars = new char[MIN_WORD_LENGTH + letters.nextInt(MAX_WORD_LENGTH - MIN_WORD_LENGTH + 1)];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = (char) ('a' + letters.nextInt('z' - 'a' + 1));
+      }
+      // the rank keeps words of the same level distinct
+      word = new Name.Component(new String(chars) + rank);
+      words.put(key, word);
+    }
+    return word;
+  }
+
+  /**
+   * Zipf distribution over ranks 1..n: P(k) is proportional to 1 / k^exponent.
+   */
+  private static final class Zipf {
+    private final double[] cdf;
+
+    private Zipf(final int n, final double exponent) {
+      cdf = new double[n];
+      double sum = 0;
+      for (int k = 1; k <= n; k++) {
+        sum += 1 / Math.pow(k, exponent);
+        cdf[k - 1] = sum;
+      }
+      for (int k = 0; k < n; k++) {
+        cdf[k] /= sum;
+      }
+    }
+
+    /**
+     * @param random source of randomness
+     * @return a rank between 1 and n
+     */
+    private int next(final Random random) {
+      int index = Arrays.binarySearch(cdf, random.nextDouble());
+      return Math.min(index < 0 ? -index - 1 : index, cdf.length - 1) + 1;
+    }
+  }
+}
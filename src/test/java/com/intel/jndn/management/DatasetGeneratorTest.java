@@ -0,0 +1,131 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.helpers.StatusDatasetHelper;
+import com.intel.jndn.management.types.Decodable;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.FibEntry;
+import com.intel.jndn.management.types.RibEntry;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test DatasetGenerator.
+ */
+public class DatasetGeneratorTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testNames() {
+    List<Name> names = new DatasetGenerator(1).setDepth(2, 6).names(10000);
+    assertEquals(10000, new HashSet<>(names).size());
+
+    int[] depths = new int[8];
+    Set<Name.Component> roots = new HashSet<>();
+    for (int i = 0; i < names.size(); i++) {
+      Name name = names.get(i);
+      depths[Math.min(name.size(), 7)]++;
+      roots.add(name.get(0));
+      if (i > 0) {
+        assertTrue(names.get(i - 1).compare(name) < 0);
+      }
+    }
+    // Zipf-distributed depths: the shallowest names are the most common, none are outside the range
+    assertEquals(0, depths[1]);
+    assertTrue(depths[2] > depths[3]);
+    assertTrue(depths[3] > depths[4]);
+    assertTrue(depths[5] > depths[6]);
+    // shared prefixes: first components come from the 1000-word vocabulary of the top level
+    assertTrue(roots.size() <= 1000);
+  }
+
+  @Test
+  public void testSaturatedNameSpaceStaysUnique() {
+    List<Name> names = new DatasetGenerator(1).setDepth(1, 1).setFanout(10).names(100);
+    assertEquals(100, new HashSet<>(names).size());
+  }
+
+  @Test
+  public void testDatasetsDecode() throws Exception {
+    DatasetGenerator generator = new DatasetGenerator(7).setFaceCount(20);
+
+    List<FaceStatus> faces = decode(generator.dataset(DatasetGenerator.Type.FaceStatus, 300), FaceStatus.class);
+    assertEquals(300, faces.size());
+    assertEquals(256, faces.get(0).getFaceId());
+
+    List<FibEntry> fib = decode(generator.dataset(DatasetGenerator.Type.FibEntry, 2000), FibEntry.class);
+    assertEquals(2000, fib.size());
+    for (FibEntry entry : fib) {
+      assertTrue(entry.getNextHopRecords().size() >= 1 && entry.getNextHopRecords().size() <= 3);
+      assertTrue(entry.getNextHopRecords().get(0).getFaceId() < 256 + 20);
+    }
+
+    List<RibEntry> rib = decode(generator.dataset(DatasetGenerator.Type.RibEntry, 2000), RibEntry.class);
+    assertEquals(2000, rib.size());
+    assertTrue(rib.get(0).getName().size() >= 2);
+
+    for (DatasetGenerator.Type type : DatasetGenerator.Type.values()) {
+      assertEquals(100, decode(generator.dataset(type, 100), type.getEntryClass()).size());
+    }
+  }
+
+  @Test
+  public void testDeterministic() {
+    Blob first = new DatasetGenerator(42).dataset(DatasetGenerator.Type.RibEntry, 1000);
+    assertEquals(first, new DatasetGenerator(42).dataset(DatasetGenerator.Type.RibEntry, 1000));
+    assertNotEquals(first, new DatasetGenerator(43).dataset(DatasetGenerator.Type.RibEntry, 1000));
+  }
+
+  @Test
+  public void testFixture() throws Exception {
+    Path directory = folder.getRoot().toPath().resolve("fixtures");
+    DatasetGenerator generator = new DatasetGenerator(3);
+
+    Blob generated = generator.fixture(directory, DatasetGenerator.Type.FibEntry, 500);
+    assertEquals(1, Files.list(directory).count());
+    assertEquals(generated, generator.fixture(directory, DatasetGenerator.Type.FibEntry, 500));
+    assertEquals(generated, new DatasetGenerator(3).dataset(DatasetGenerator.Type.FibEntry, 500));
+
+    // an existing file is replaced, and no temporary file is left behind
+    Path file = directory.resolve("rib.tlv");
+    DatasetGenerator.write(file, generator.dataset(DatasetGenerator.Type.RibEntry, 10));
+    DatasetGenerator.write(file, generator.dataset(DatasetGenerator.Type.RibEntry, 100));
+    assertEquals(100, decode(DatasetGenerator.read(file), RibEntry.class).size());
+    assertEquals(2, Files.list(directory).count());
+  }
+
+  private static <T extends Decodable> List<T> decode(final Blob payload, final Class<T> type)
+    throws ManagementException {
+    Data data = new Data();
+    data.setContent(payload);
+    return StatusDatasetHelper.wireDecode(Collections.singletonList(data), type);
+  }
+}
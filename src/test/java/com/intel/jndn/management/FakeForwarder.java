@@ -0,0 +1,955 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.CsFlags;
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.FaceScope;
+import com.intel.jndn.management.enums.LinkType;
+import com.intel.jndn.management.enums.NfdTlv;
+import com.intel.jndn.management.enums.RouteFlags;
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.enums.Strategies;
+import com.intel.jndn.management.types.ChannelStatus;
+import com.intel.jndn.management.types.CsInfo;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.FibEntry;
+import com.intel.jndn.management.types.ForwarderStatus;
+import com.intel.jndn.management.types.NextHopRecord;
+import com.intel.jndn.management.types.NfdControlParameters;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.management.types.StrategyChoice;
+import com.intel.jndn.mock.MockFace;
+import com.intel.jndn.mock.MockTransport;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.encoding.tlv.TlvEncoder;
+import net.named_data.jndn.util.Blob;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for the NFD management protocol, for tests and benchmarks that need realistic dataset and
+ * command exchanges without a running forwarder.
+ * <p/>
+ * The forwarder keeps faces, RIB, strategy choices and Content Store settings in memory and answers the Interests
+ * sent on its client faces (see {@link #getFace()} and {@link #connect()}):
+ * <ul>
+ * <li>datasets: faces/list, faces/channels, fib/list, rib/list, strategy-choice/list, status/general and cs/info are
+ * published as versioned, segmented Data like NFD does, so multi-segment fetches go through the real retrieval
+ * path;</li>
+ * <li>commands: faces/create, faces/update, faces/destroy, rib/register, rib/unregister, strategy-choice/set,
+ * strategy-choice/unset, cs/config and cs/erase change the state and reply with NFD's status codes and response
+ * bodies;</li>
+ * <li>other names under /localhost/nfd are not answered, other prefixes are Nacked with NO_ROUTE.</li>
+ * </ul>
+ * A dataset can also be served from a fixed payload, such as a large {@link DatasetGenerator} fixture
+ * ({@link #setDataset(Name, Blob)}).
+ * <p/>
+ * Replies can be delayed ({@link #setLatency(long)}, {@link #setJitter(long)}) and Interests can be dropped
+ * ({@link #setLossRate(double)}, {@link #dropNext(int)}) or Nacked ({@link #setNackRate(double)}); random choices
+ * use a seeded generator so that runs are repeatable. Command Interests are not authenticated and the published
+ * Data is not signed.
+ * <p/>
+ * Example:
+ * <pre>{@code
+ * try (FakeForwarder forwarder = new FakeForwarder()) {
+ *   forwarder.setLatency(5).setLossRate(0.01);
+ *   Nfdc.register(forwarder.getFace(), new Name("/example"), 10);
+ *   List<FibEntry> fib = Nfdc.getFibList(forwarder.getFace());
+ * }
+ * }</pre>
+ */
+public final class FakeForwarder implements Closeable {
+  public static final int DEFAULT_SEGMENT_SIZE = 8000;
+  public static final String VERSION = "0.0.0-fake";
+
+  private static final Name MANAGEMENT_PREFIX = new Name("/localhost/nfd");
+  private static final int VERB_SIZE = 4;
+  private static final int PARAMETERS_INDEX = 4;
+  private static final int FIRST_FACE_ID = 256;
+  private static final long DEFAULT_CS_CAPACITY = 65536;
+  private static final int MAX_CACHED_DATASETS = 64;
+  private static final long DEFAULT_SEED = 0x6e6664L;
+
+  private static final int OK = 200;
+  private static final int BAD_REQUEST = 400;
+  private static final int NOT_FOUND = 404;
+  private static final int CONFLICT = 409;
+  private static final int FACE_NOT_FOUND = 410;
+  private static final int NOT_IMPLEMENTED = 501;
+
+  // NDNLPv2 https://redmine.named-data.net/projects/nfd/wiki/NDNLPv2
+  private static final int LP_PACKET = 0x64;
+  private static final int LP_FRAGMENT = 0x50;
+  private static final int LP_NACK = 0x0320;
+  private static final int LP_NACK_REASON = 0x0321;
+
+  private static final Set<Name> DATASETS = new HashSet<>(Arrays.asList(
+    new Name("/localhost/nfd/faces/list"),
+    new Name("/localhost/nfd/faces/channels"),
+    new Name("/localhost/nfd/fib/list"),
+    new Name("/localhost/nfd/rib/list"),
+    new Name("/localhost/nfd/strategy-choice/list"),
+    new Name("/localhost/nfd/status/general"),
+    new Name("/localhost/nfd/cs/info")));
+
+  private final Random random;
+  private final MockFace face;
+  private ScheduledExecutorService scheduler = null;
+
+  private volatile long latency = 0;
+  private volatile long jitter = 0;
+  private volatile double lossRate = 0;
+  private volatile double nackRate = 0;
+  private volatile NetworkNack.Reason nackReason = NetworkNack.Reason.CONGESTION;
+  private volatile int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+  // forwarder state, guarded by this
+  private final Map<Integer, FaceStatus> faces = new TreeMap<>();
+  private final Set<Integer> clientFaceIds = new HashSet<>();
+  private final Map<Name, List<Route>> rib = new TreeMap<>();
+  private final Map<Name, Name> strategies = new TreeMap<>();
+  private final List<ChannelStatus> channels = new ArrayList<>();
+  private final Map<Name, List<Data>> publishedDatasets = new LinkedHashMap<Name, List<Data>>() {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<Name, List<Data>> eldest) {
+      return size() > MAX_CACHED_DATASETS;
+    }
+  };
+  private final Map<Name, Blob> fixedDatasets = new HashMap<>();
+  private int nextFaceId = FIRST_FACE_ID;
+  private long nextVersion = 1;
+  private long startTimestamp;
+  private long csCapacity = DEFAULT_CS_CAPACITY;
+  private int csFlags = CsFlags.ENABLE_ADMIT.toInteger() | CsFlags.ENABLE_SERVE.toInteger();
+  private long nCsEntries = 0;
+  private int nDropNext = 0;
+
+  // counters, guarded by this
+  private long nInInterests = 0;
+  private long nOutData = 0;
+  private long nOutNacks = 0;
+  private long nDropped = 0;
+  private long nCommands = 0;
+
+  /**
+   * Create a forwarder with an empty RIB, the best-route strategy at the root and one client face.
+   */
+  public FakeForwarder() {
+    this(DEFAULT_SEED);
+  }
+
+  /**
+   * Create a forwarder whose loss, Nack and jitter decisions are drawn from a generator with the given seed.
+   *
+   * @param seed random seed
+   */
+  public FakeForwarder(final long seed) {
+    random = new Random(seed);
+    startTimestamp = System.currentTimeMillis();
+    reset();
+    face = connect();
+  }
+
+  /**
+   * @return the client face created with the forwarder
+   */
+  public MockFace getFace() {
+    return face;
+  }
+
+  /**
+   * Connect another client face, e.g. one per client thread, since a Face must not be used by several threads at
+   * once. The face gets the next free face ID and shows up in faces/list like an application face of NFD.
+   *
+   * @return the new client face
+   */
+  public MockFace connect() {
+    final MockFace client = new MockFace(new MockFace.Options()
+                                           .setEnablePacketLogging(false)
+                                           .setEnableRegistrationReply(false));
+    final int faceId;
+    synchronized (this) {
+      faceId = nextFaceId++;
+      clientFaceIds.add(faceId);
+      faces.put(faceId, clientFace(faceId));
+    }
+    client.onSendInterest.add(interest -> onInterest(client, faceId, interest));
+    return client;
+  }
+
+  /**
+   * Set the delay between receiving an Interest and delivering its reply.
+   *
+   * @param milliseconds reply delay; 0 delivers replies while the Interest is being expressed
+   * @return this
+   */
+  public FakeForwarder setLatency(final long milliseconds) {
+    this.latency = milliseconds;
+    return this;
+  }
+
+  /**
+   * Set the maximum random delay added to {@link #setLatency(long)}, drawn uniformly per reply.
+   *
+   * @param milliseconds maximum additional delay
+   * @return this
+   */
+  public FakeForwarder setJitter(final long milliseconds) {
+    this.jitter = milliseconds;
+    return this;
+  }
+
+  /**
+   * @param rate probability in [0, 1] that an Interest is dropped without reply
+   * @return this
+   */
+  public FakeForwarder setLossRate(final double rate) {
+    this.lossRate = rate;
+    return this;
+  }
+
+  /**
+   * @param rate probability in [0, 1] that an Interest which is not dropped is answered by a Nack
+   * @return this
+   */
+  public FakeForwarder setNackRate(final double rate) {
+    this.nackRate = rate;
+    return this;
+  }
+
+  /**
+   * @param reason the reason of the Nacks sent for {@link #setNackRate(double)}, CONGESTION by default
+   * @return this
+   */
+  public FakeForwarder setNackReason(final NetworkNack.Reason reason) {
+    this.nackReason = reason;
+    return this;
+  }
+
+  /**
+   * @param bytes maximum content size of a dataset segment
+   * @return this
+   */
+  public FakeForwarder setSegmentSize(final int bytes) {
+    if (bytes < 1) {
+      throw new IllegalArgumentException("Segment size must be positive: " + bytes);
+    }
+    this.segmentSize = bytes;
+    return this;
+  }
+
+  /**
+   * Drop the next Interests regardless of the loss rate, e.g. to force a retransmission in a test.
+   *
+   * @param count number of Interests to drop
+   * @return this
+   */
+  public synchronized FakeForwarder dropNext(final int count) {
+    this.nDropNext = count;
+    return this;
+  }
+
+  /**
+   * Add a face as if it had been created by the forwarder's configuration or another application.
+   *
+   * @param uri remote URI of the face
+   * @param persistency face persistency
+   * @return the face ID
+   */
+  public synchronized int addFace(final String uri, final FacePersistency persistency) {
+    int faceId = nextFaceId++;
+    faces.put(faceId, remoteFace(faceId, uri, persistency));
+    return faceId;
+  }
+
+  /**
+   * Add a route as if it had been registered by another application.
+   *
+   * @param prefix route prefix
+   * @param faceId next hop
+   * @param origin route origin
+   * @param cost route cost
+   */
+  public synchronized void addRoute(final Name prefix, final int faceId, final RouteOrigin origin, final int cost) {
+    putRoute(prefix, new Route().setFaceId(faceId).setOrigin(origin.toInteger()).setCost(cost)
+      .setFlags(RouteFlags.CHILD_INHERIT.toInteger()));
+  }
+
+  /**
+   * Add a channel to the faces/channels dataset.
+   *
+   * @param localUri local URI of the channel, e.g. udp4://0.0.0.0:6363
+   */
+  public synchronized void addChannel(final String localUri) {
+    channels.add(new ChannelStatus().setLocalUri(localUri));
+  }
+
+  /**
+   * Publish a fixed payload for a dataset instead of encoding the forwarder state, e.g. a large fixture from
+   * {@link DatasetGenerator}; commands no longer change what the dataset shows.
+   *
+   * @param dataset the dataset prefix, e.g. /localhost/nfd/fib/list
+   * @param payload the dataset payload, or null to publish the forwarder state again
+   */
+  public synchronized void setDataset(final Name dataset, final Blob payload) {
+    if (!DATASETS.contains(dataset)) {
+      throw new IllegalArgumentException("Unknown dataset: " + dataset);
+    }
+    if (payload == null) {
+      fixedDatasets.remove(dataset);
+    } else {
+      fixedDatasets.put(new Name(dataset), payload);
+    }
+  }
+
+  /**
+   * @param count number of packets the Content Store reports, and cs/erase can erase
+   */
+  public synchronized void setCsEntries(final long count) {
+    this.nCsEntries = count;
+  }
+
+  /**
+   * Simulate a forwarder restart: faces other than the client faces, routes and strategy choices are lost, counters
+   * restart from zero and the forwarder reports a new StartTimestamp. Client faces keep their face IDs, as if the
+   * applications had reconnected.
+   */
+  public synchronized void restart() {
+    startTimestamp = Math.max(System.currentTimeMillis(), startTimestamp + 1);
+    faces.keySet().retainAll(clientFaceIds);
+    for (int faceId : clientFaceIds) {
+      faces.put(faceId, clientFace(faceId));
+    }
+    reset();
+  }
+
+  /**
+   * @return copies of the faces
+   */
+  public synchronized List<FaceStatus> getFaces() {
+    List<FaceStatus> copy = new ArrayList<>();
+    for (FaceStatus faceStatus : faces.values()) {
+      copy.add(copy(faceStatus));
+    }
+    return copy;
+  }
+
+  /**
+   * @return the RIB, sorted by name
+   */
+  public synchronized List<RibEntry> getRib() {
+    List<RibEntry> entries = new ArrayList<>(rib.size());
+    for (Map.Entry<Name, List<Route>> entry : rib.entrySet()) {
+      RibEntry ribEntry = new RibEntry().setName(new Name(entry.getKey()));
+      for (Route route : entry.getValue()) {
+        ribEntry.addRoute(copy(route));
+      }
+      entries.add(ribEntry);
+    }
+    return entries;
+  }
+
+  /**
+   * @return the FIB computed from the RIB: one next hop per face, with the lowest cost among its routes
+   */
+  public synchronized List<FibEntry> getFib() {
+    List<FibEntry> entries = new ArrayList<>(rib.size());
+    for (Map.Entry<Name, List<Route>> entry : rib.entrySet()) {
+      Map<Integer, Integer> costs = new TreeMap<>();
+      for (Route route : entry.getValue()) {
+        costs.merge(route.getFaceId(), route.getCost(), Math::min);
+      }
+      FibEntry fibEntry = new FibEntry().setPrefix(new Name(entry.getKey()));
+      for (Map.Entry<Integer, Integer> cost : costs.entrySet()) {
+        fibEntry.addNextHopRecord(new NextHopRecord().setFaceId(cost.getKey()).setCost(cost.getValue()));
+      }
+      entries.add(fibEntry);
+    }
+    return entries;
+  }
+
+  /**
+   * @return the strategy choices, sorted by name
+   */
+  public synchronized List<StrategyChoice> getStrategies() {
+    List<StrategyChoice> choices = new ArrayList<>(strategies.size());
+    for (Map.Entry<Name, Name> entry : strategies.entrySet()) {
+      choices.add(new StrategyChoice().setName(new Name(entry.getKey())).setStrategy(new Name(entry.getValue())));
+    }
+    return choices;
+  }
+
+  /**
+   * @return the forwarder status as published in status/general
+   */
+  public synchronized ForwarderStatus getStatus() {
+    return new ForwarderStatus()
+      .setNfdVersion(VERSION)
+      .setStartTimestamp(startTimestamp)
+      .setCurrentTimestamp(Math.max(System.currentTimeMillis(), startTimestamp))
+      .setNNameTreeEntries(rib.size() + strategies.size())
+      .setNFibEntries(rib.size())
+      .setNPitEntries(0)
+      .setNMeasurementsEntries(0)
+      .setNCsEntries(nCsEntries)
+      .setNInInterests(nInInterests)
+      .setNInData(0)
+      .setNOutInterests(0)
+      .setNOutData(nOutData)
+      .setNInNacks(0)
+      .setNOutNacks(nOutNacks)
+      .setNSatisfiedInterests(nOutData)
+      .setNUnsatisfiedInterests(nOutNacks + nDropped);
+  }
+
+  /**
+   * @return number of Interests received on all client faces
+   */
+  public synchronized long getInterestCount() {
+    return nInInterests;
+  }
+
+  /**
+   * @return number of Interests dropped without reply
+   */
+  public synchronized long getDroppedCount() {
+    return nDropped;
+  }
+
+  /**
+   * @return number of Nacks sent
+   */
+  public synchronized long getNackCount() {
+    return nOutNacks;
+  }
+
+  /**
+   * @return number of command Interests answered, successful or not
+   */
+  public synchronized long getCommandCount() {
+    return nCommands;
+  }
+
+  /**
+   * Stop delivering delayed replies.
+   */
+  @Override
+  public synchronized void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Answer an Interest sent on a client face; called while the client expresses it.
+   *
+   * @param client   the client face
+   * @param faceId   its face ID
+   * @param interest the Interest
+   */
+  private void onInterest(final MockFace client, final int faceId, final Interest interest) {
+    Name name = interest.getName();
+    Data reply = null;
+    boolean nack = false;
+    NetworkNack.Reason reason = nackReason;
+    synchronized (this) {
+      nInInterests++;
+      FaceStatus incoming = faces.get(faceId);
+      if (incoming != null) {
+        incoming.setNInInterests(incoming.getNInInterests() + 1);
+      }
+
+      if (nDropNext > 0 || random.nextDouble() < lossRate) {
+        nDropNext = Math.max(nDropNext - 1, 0);
+        nDropped++;
+        return;
+      }
+
+      if (!MANAGEMENT_PREFIX.isPrefixOf(name)) {
+        nack = true;
+        reason = NetworkNack.Reason.NO_ROUTE;
+      } else if (random.nextDouble() < nackRate) {
+        nack = true;
+      } else {
+        reply = answer(faceId, name);
+        if (reply == null) {
+          nDropped++;
+          return;
+        }
+      }
+
+      if (nack) {
+        nOutNacks++;
+        if (incoming != null) {
+          incoming.setNOutNacks(incoming.getNOutNacks() + 1);
+        }
+      } else {
+        nOutData++;
+        if (incoming != null) {
+          incoming.setNOutData(incoming.getNOutData() + 1);
+        }
+      }
+    }
+
+    deliver(client, nack ? encodeNack(interest, reason) : reply.wireEncode().buf());
+  }
+
+  /**
+   * @param faceId face ID of the requesting client
+   * @param name   name of a management Interest
+   * @return the Data answering the Interest, or null if the forwarder does not answer it
+   */
+  private Data answer(final int faceId, final Name name) {
+    if (name.size() < VERB_SIZE) {
+      return null;
+    }
+    Name verb = name.getPrefix(VERB_SIZE);
+    if (DATASETS.contains(verb)) {
+      return publish(verb, name);
+    }
+    if (name.size() <= PARAMETERS_INDEX) {
+      return null;
+    }
+    nCommands++;
+    return command(faceId, verb, name);
+  }
+
+  /**
+   * Serve a dataset segment: an Interest for the dataset prefix publishes a new version and returns its first segment,
+   * an Interest for a versioned segment returns that segment of a published version.
+   *
+   * @param dataset dataset prefix, e.g. /localhost/nfd/faces/list
+   * @param name    name of the Interest
+   * @return the segment, or null if it was not published
+   */
+  private Data publish(final Name dataset, final Name name) {
+    if (name.size() == dataset.size()) {
+      Blob payload = fixedDatasets.containsKey(dataset) ? fixedDatasets.get(dataset) : encode(dataset);
+      List<Data> segments = DatasetGenerator.segments(new Name(dataset).appendVersion(nextVersion++), payload,
+                                                       segmentSize);
+      publishedDatasets.put(segments.get(0).getName().getPrefix(-1), segments);
+      return segments.get(0);
+    }
+
+    try {
+      List<Data> segments = publishedDatasets.get(name.getPrefix(dataset.size() + 1));
+      long segment = name.size() == dataset.size() + 1 ? 0 : name.get(dataset.size() + 1).toSegment();
+      if (segments == null || segment >= segments.size()) {
+        return null;
+      }
+      return segments.get((int) segment);
+    } catch (EncodingException e) {
+      return null;
+    }
+  }
+
+  private Blob encode(final Name dataset) {
+    switch (dataset.get(2).toEscapedString() + "/" + dataset.get(VERB_SIZE - 1).toEscapedString()) {
+      case "faces/list":
+        return DatasetGenerator.encode(new ArrayList<>(faces.values()), FaceStatus::wireEncode);
+      case "faces/channels":
+        return DatasetGenerator.encode(channels, ChannelStatus::wireEncode);
+      case "fib/list":
+        return DatasetGenerator.encode(getFib(), FibEntry::wireEncode);
+      case "rib/list":
+        return DatasetGenerator.encode(getRib(), RibEntry::wireEncode);
+      case "strategy-choice/list":
+        return DatasetGenerator.encode(getStrategies(), StrategyChoice::wireEncode);
+      case "status/general":
+        return DatasetGenerator.encode(Arrays.asList(getStatus()), ForwarderStatus::wireEncode);
+      case "cs/info":
+        return new CsInfo().setCapacity(csCapacity).setFlags(csFlags).setNCsEntries(nCsEntries).wireEncode();
+      default:
+        throw new IllegalArgumentException("Unknown dataset: " + dataset);
+    }
+  }
+
+  /**
+   * Execute a control command and build its response.
+   *
+   * @param faceId face ID of the requesting client
+   * @param verb   command prefix, e.g. /localhost/nfd/rib/register
+   * @param name   name of the command Interest
+   * @return the response Data
+   */
+  private Data command(final int faceId, final Name verb, final Name name) {
+    ByteBuffer parameters = name.get(PARAMETERS_INDEX).getValue().buf();
+    Blob response;
+    try {
+      switch (verb.get(2).toEscapedString() + "/" + verb.get(VERB_SIZE - 1).toEscapedString()) {
+        case "faces/create":
+          response = createFace(new NfdControlParameters(parameters));
+          break;
+        case "faces/update":
+          response = updateFace(faceId, new NfdControlParameters(parameters));
+          break;
+        case "faces/destroy":
+          response = destroyFace(new NfdControlParameters(parameters));
+          break;
+        case "rib/register":
+          response = register(faceId, decode(parameters));
+          break;
+        case "rib/unregister":
+          response = unregister(faceId, decode(parameters));
+          break;
+        case "strategy-choice/set":
+          response = setStrategy(decode(parameters));
+          break;
+        case "strategy-choice/unset":
+          response = unsetStrategy(decode(parameters));
+          break;
+        case "cs/config":
+          response = configureCs(new NfdControlParameters(parameters));
+          break;
+        case "cs/erase":
+          response = eraseCs(new NfdControlParameters(parameters));
+          break;
+        default:
+          response = response(NOT_IMPLEMENTED, "Unknown command", null);
+      }
+    } catch (EncodingException e) {
+      response = response(BAD_REQUEST, "Malformed ControlParameters: " + e.getMessage(), null);
+    }
+
+    Data data = new Data(name);
+    data.setContent(response);
+    return data;
+  }
+
+  private Blob createFace(final NfdControlParameters parameters) {
+    if (parameters.getUri() == null) {
+      return response(BAD_REQUEST, "Uri is required", null);
+    }
+    for (FaceStatus existing : faces.values()) {
+      if (parameters.getUri().equals(existing.getRemoteUri())) {
+        return response(CONFLICT, "Face with remote URI already exists",
+                        new ControlParameters().setFaceId(existing.getFaceId()).setUri(existing.getRemoteUri())
+                          .wireEncode());
+      }
+    }
+
+    FacePersistency persistency = parameters.getFacePersistency() == FacePersistency.NONE ?
+      FacePersistency.PERSISTENT : parameters.getFacePersistency();
+    int faceId = nextFaceId++;
+    FaceStatus created = remoteFace(faceId, parameters.getUri(), persistency);
+    if (parameters.getMtu() >= 0) {
+      created.setMtu(parameters.getMtu());
+    }
+    faces.put(faceId, created);
+    return response(OK, "OK", new ControlParameters().setFaceId(faceId).setUri(created.getRemoteUri()).wireEncode());
+  }
+
+  private Blob updateFace(final int incomingFaceId, final NfdControlParameters parameters) {
+    int faceId = parameters.getFaceId() > 0 ? parameters.getFaceId() : incomingFaceId;
+    FaceStatus updated = faces.get(faceId);
+    if (updated == null) {
+      return response(NOT_FOUND, "Face not found", null);
+    }
+    if (parameters.getFacePersistency() != FacePersistency.NONE) {
+      updated.setFacePersistency(parameters.getFacePersistency());
+    }
+    if (parameters.getMask() > 0) {
+      updated.setFlags((updated.getFlags() & ~parameters.getMask()) | (parameters.getFlags() & parameters.getMask()));
+    }
+    return response(OK, "OK", new NfdControlParameters()
+      .setFaceId(faceId)
+      .setFacePersistency(updated.getFacePersistency())
+      .setFlags(updated.getFlags())
+      .wireEncode());
+  }
+
+  private Blob destroyFace(final NfdControlParameters parameters) {
+    if (parameters.getFaceId() < 0) {
+      return response(BAD_REQUEST, "FaceId is required", null);
+    }
+    // like NFD, destroying a face that does not exist succeeds
+    faces.remove(parameters.getFaceId());
+    clientFaceIds.remove(parameters.getFaceId());
+    Iterator<List<Route>> entries = rib.values().iterator();
+    while (entries.hasNext()) {
+      List<Route> routes = entries.next();
+      routes.removeIf(route -> route.getFaceId() == parameters.getFaceId());
+      if (routes.isEmpty()) {
+        entries.remove();
+      }
+    }
+    return response(OK, "OK", new ControlParameters().setFaceId(parameters.getFaceId()).wireEncode());
+  }
+
+  private Blob register(final int incomingFaceId, final ControlParameters parameters) {
+    if (parameters.getName() == null) {
+      return response(BAD_REQUEST, "Name is required", null);
+    }
+    if (parameters.getFaceId() > 0 && !faces.containsKey(parameters.getFaceId())) {
+      return response(FACE_NOT_FOUND, "Face not found", null);
+    }
+    Route route = new Route()
+      .setFaceId(parameters.getFaceId() > 0 ? parameters.getFaceId() : incomingFaceId)
+      .setOrigin(Math.max(parameters.getOrigin(), RouteOrigin.APP.toInteger()))
+      .setCost(Math.max(parameters.getCost(), 0))
+      .setFlags(parameters.getForwardingFlags().getNfdForwardingFlags());
+    if (parameters.getExpirationPeriod() >= 0) {
+      route.setExpirationPeriod((int) parameters.getExpirationPeriod());
+    }
+    putRoute(parameters.getName(), route);
+
+    ControlParameters body = new ControlParameters()
+      .setName(parameters.getName())
+      .setFaceId(route.getFaceId())
+      .setOrigin(route.getOrigin())
+      .setCost(route.getCost())
+      .setForwardingFlags(parameters.getForwardingFlags());
+    return response(OK, "OK", body.wireEncode());
+  }
+
+  private Blob unregister(final int incomingFaceId, final ControlParameters parameters) {
+    if (parameters.getName() == null) {
+      return response(BAD_REQUEST, "Name is required", null);
+    }
+    final int faceId = parameters.getFaceId() > 0 ? parameters.getFaceId() : incomingFaceId;
+    final int origin = Math.max(parameters.getOrigin(), RouteOrigin.APP.toInteger());
+    List<Route> routes = rib.get(parameters.getName());
+    if (routes != null) {
+      routes.removeIf(route -> route.getFaceId() == faceId && route.getOrigin() == origin);
+      if (routes.isEmpty()) {
+        rib.remove(parameters.getName());
+      }
+    }
+
+    ControlParameters body = new ControlParameters()
+      .setName(parameters.getName())
+      .setFaceId(faceId)
+      .setOrigin(origin);
+    return response(OK, "OK", body.wireEncode());
+  }
+
+  private Blob setStrategy(final ControlParameters parameters) {
+    if (parameters.getName() == null || parameters.getStrategy().size() == 0) {
+      return response(BAD_REQUEST, "Name and Strategy are required", null);
+    }
+    if (!new Name("/localhost/nfd/strategy").isPrefixOf(parameters.getStrategy())) {
+      return response(NOT_FOUND, "Strategy not registered", null);
+    }
+    strategies.put(new Name(parameters.getName()), new Name(parameters.getStrategy()));
+
+    ControlParameters body = new ControlParameters()
+      .setName(parameters.getName())
+      .setStrategy(parameters.getStrategy());
+    return response(OK, "OK", body.wireEncode());
+  }
+
+  private Blob unsetStrategy(final ControlParameters parameters) {
+    if (parameters.getName() == null || parameters.getName().size() == 0) {
+      return response(BAD_REQUEST, "Cannot unset the root strategy", null);
+    }
+    strategies.remove(parameters.getName());
+    return response(OK, "OK", new ControlParameters().setName(parameters.getName()).wireEncode());
+  }
+
+  private Blob configureCs(final NfdControlParameters parameters) {
+    if (parameters.getCapacity() >= 0) {
+      csCapacity = parameters.getCapacity();
+      nCsEntries = Math.min(nCsEntries, csCapacity);
+    }
+    if (parameters.getMask() > 0) {
+      csFlags = (csFlags & ~parameters.getMask()) | (parameters.getFlags() & parameters.getMask());
+    }
+    return response(OK, "OK", new NfdControlParameters().setCapacity(csCapacity).setFlags(csFlags).wireEncode());
+  }
+
+  /**
+   * Erase up to Count packets; the fake Content Store does not track names, so any prefix matches every packet.
+   *
+   * @param parameters command parameters
+   * @return the ControlResponse
+   */
+  private Blob eraseCs(final NfdControlParameters parameters) {
+    if (parameters.getName() == null) {
+      return response(BAD_REQUEST, "Name is required", null);
+    }
+    long erased = parameters.getCount() >= 0 ? Math.min(parameters.getCount(), nCsEntries) : nCsEntries;
+    nCsEntries -= erased;
+
+    NfdControlParameters body = new NfdControlParameters().setName(parameters.getName()).setCount(erased);
+    // like NFD, Capacity signals that the limit was reached and more packets may remain
+    if (parameters.getCount() >= 0 && erased == parameters.getCount() && nCsEntries > 0) {
+      body.setCapacity(parameters.getCount());
+    }
+    return response(OK, "OK", body.wireEncode());
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  private void reset() {
+    rib.clear();
+    strategies.clear();
+    strategies.put(new Name("/"), Strategies.BEST_ROUTE);
+    publishedDatasets.clear();
+    csCapacity = DEFAULT_CS_CAPACITY;
+    nCsEntries = 0;
+    nInInterests = 0;
+    nOutData = 0;
+    nOutNacks = 0;
+    nDropped = 0;
+  }
+
+  private void putRoute(final Name prefix, final Route route) {
+    List<Route> routes = rib.computeIfAbsent(new Name(prefix), p -> new ArrayList<>());
+    routes.removeIf(existing -> existing.getFaceId() == route.getFaceId() &&
+      existing.getOrigin() == route.getOrigin());
+    routes.add(route);
+  }
+
+  /**
+   * Deliver a reply to a client face, after the configured latency.
+   *
+   * @param client the client face
+   * @param packet the encoded reply
+   */
+  private void deliver(final MockFace client, final ByteBuffer packet) {
+    final MockTransport transport = (MockTransport) client.getTransport();
+    long delay = latency;
+    if (jitter > 0) {
+      synchronized (this) {
+        delay += (long) (random.nextDouble() * (jitter + 1));
+      }
+    }
+    if (delay <= 0) {
+      transport.receive(packet);
+      return;
+    }
+    synchronized (this) {
+      if (scheduler == null) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "fake-forwarder");
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+      scheduler.schedule(() -> transport.receive(packet), delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Encode a ControlResponse; unlike jNDN's ControlResponse the body may hold any ControlParameters fields.
+   *
+   * @param statusCode status code
+   * @param statusText status text
+   * @param body       encoded ControlParameters, or null
+   * @return the encoded ControlResponse
+   */
+  private static Blob response(final int statusCode, final String statusText, final Blob body) {
+    TlvEncoder encoder = new TlvEncoder();
+    if (body != null) {
+      encoder.writeBuffer(body.buf());
+    }
+    encoder.writeBlobTlv(NfdTlv.StatusText, new Blob(statusText).buf());
+    encoder.writeNonNegativeIntegerTlv(NfdTlv.StatusCode, statusCode);
+    encoder.writeTypeAndLength(NfdTlv.ControlResponse, encoder.getLength());
+    return new Blob(encoder.getOutput(), false);
+  }
+
+  /**
+   * Encode an NDNLPv2 packet carrying a Nack for the Interest.
+   *
+   * @param interest the Nacked Interest
+   * @param reason   the Nack reason
+   * @return the encoded LpPacket
+   */
+  private static ByteBuffer encodeNack(final Interest interest, final NetworkNack.Reason reason) {
+    TlvEncoder encoder = new TlvEncoder();
+    encoder.writeBuffer(interest.wireEncode().buf());
+    encoder.writeTypeAndLength(LP_FRAGMENT, encoder.getLength());
+    int saveLength = encoder.getLength();
+    encoder.writeNonNegativeIntegerTlv(LP_NACK_REASON, reason.getNumericType());
+    encoder.writeTypeAndLength(LP_NACK, encoder.getLength() - saveLength);
+    encoder.writeTypeAndLength(LP_PACKET, encoder.getLength());
+    return encoder.getOutput();
+  }
+
+  private static ControlParameters decode(final ByteBuffer parameters) throws EncodingException {
+    ControlParameters decoded = new ControlParameters();
+    decoded.wireDecode(parameters);
+    return decoded;
+  }
+
+  private static FaceStatus clientFace(final int faceId) {
+    return new FaceStatus()
+      .setFaceId(faceId)
+      .setRemoteUri("fd://" + faceId)
+      .setLocalUri("unix:///run/nfd.sock")
+      .setFaceScope(FaceScope.LOCAL)
+      .setFacePersistency(FacePersistency.ON_DEMAND)
+      .setLinkType(LinkType.POINT_TO_POINT);
+  }
+
+  private static FaceStatus remoteFace(final int faceId, final String uri, final FacePersistency persistency) {
+    int schemeEnd = uri.indexOf("://");
+    String scheme = schemeEnd < 0 ? "udp4" : uri.substring(0, schemeEnd);
+    return new FaceStatus()
+      .setFaceId(faceId)
+      .setRemoteUri(uri)
+      .setLocalUri(scheme + "://0.0.0.0:6363")
+      .setFaceScope(FaceScope.NON_LOCAL)
+      .setFacePersistency(persistency)
+      .setLinkType(LinkType.POINT_TO_POINT);
+  }
+
+  private static FaceStatus copy(final FaceStatus faceStatus) {
+    FaceStatus copy = new FaceStatus();
+    try {
+      copy.wireDecode(faceStatus.wireEncode().buf());
+    } catch (EncodingException e) {
+      throw new IllegalStateException(e);
+    }
+    return copy;
+  }
+
+  private static Route copy(final Route route) {
+    Route copy = new Route()
+      .setFaceId(route.getFaceId())
+      .setOrigin(route.getOrigin())
+      .setCost(route.getCost())
+      .setFlags(route.getFlags());
+    if (route.getExpirationPeriod() >= 0) {
+      copy.setExpirationPeriod(route.getExpirationPeriod());
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.enums.Strategies;
+import com.intel.jndn.management.helpers.FetchHelper;
+import com.intel.jndn.management.helpers.LatencyHistogram;
+import com.intel.jndn.management.helpers.NetworkNackException;
+import com.intel.jndn.management.helpers.OperationStats;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.FibEntry;
+import com.intel.jndn.management.types.ForwarderStatus;
+import com.intel.jndn.management.types.NfdControlParameters;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.StrategyChoice;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test FakeForwarder through Nfdc.
+ */
+public class FakeForwarderTest {
+  private FakeForwarder forwarder;
+
+  @Before
+  public void setUp() {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+    forwarder = new FakeForwarder();
+  }
+
+  @After
+  public void tearDown() {
+    forwarder.close();
+  }
+
+  @Test
+  public void testCommandsChangeDatasets() throws Exception {
+    int faceId = Nfdc.createFace(forwarder.getFace(), "udp4://192.0.2.1:6363");
+    Nfdc.register(forwarder.getFace(), faceId, new Name("/example"), 10);
+    Nfdc.setStrategy(forwarder.getFace(), new Name("/example"), Strategies.MULTICAST);
+
+    List<RibEntry> rib = Nfdc.getRouteList(forwarder.getFace());
+    assertEquals(1, rib.size());
+    assertEquals(new Name("/example"), rib.get(0).getName());
+    assertEquals(faceId, rib.get(0).getRoutes().get(0).getFaceId());
+    assertEquals(10, rib.get(0).getRoutes().get(0).getCost());
+
+    List<FibEntry> fib = Nfdc.getFibList(forwarder.getFace());
+    assertEquals(1, fib.size());
+    assertEquals(faceId, fib.get(0).getNextHopRecords().get(0).getFaceId());
+
+    List<StrategyChoice> strategies = Nfdc.getStrategyList(forwarder.getFace());
+    assertEquals(2, strategies.size());
+    assertEquals(Strategies.MULTICAST, strategies.get(1).getStrategy());
+
+    // destroying the face withdraws its routes
+    Nfdc.destroyFace(forwarder.getFace(), faceId);
+    assertTrue(Nfdc.getRouteList(forwarder.getFace()).isEmpty());
+    assertEquals(1, Nfdc.getFaceList(forwarder.getFace()).size());
+  }
+
+  @Test
+  public void testCreateExistingFace() throws Exception {
+    int faceId = forwarder.addFace("tcp4://192.0.2.2:6363", FacePersistency.PERMANENT);
+
+    NfdControlParameters parameters = new NfdControlParameters().setUri("tcp4://192.0.2.2:6363");
+    assertEquals(faceId, Nfdc.createFace(forwarder.getFace(), parameters));
+  }
+
+  @Test
+  public void testRegisterRecreatesFaceClosedBehindTheCache() throws Exception {
+    String uri = "udp4://192.0.2.3:6363";
+    Nfdc.register(forwarder.getFace(), uri, new Name("/a"), 10);
+    int faceId = Nfdc.createFace(forwarder.getFace(), uri);
+
+    // another application destroys the face; the cache of this one still holds its ID
+    Nfdc.destroyFace(forwarder.connect(), faceId);
+    assertEquals(faceId, Nfdc.createFace(forwarder.getFace(), uri));
+
+    Nfdc.register(forwarder.getFace(), uri, new Name("/b"), 10);
+    int newFaceId = Nfdc.createFace(forwarder.getFace(), uri);
+    assertNotEquals(faceId, newFaceId);
+    List<RibEntry> rib = Nfdc.getRouteList(forwarder.getFace());
+    assertEquals(1, rib.size());
+    assertEquals(new Name("/b"), rib.get(0).getName());
+    assertEquals(newFaceId, rib.get(0).getRoutes().get(0).getFaceId());
+  }
+
+  @Test
+  public void testCreateFaceWithParametersIsCached() throws Exception {
+    long commands = forwarder.getCommandCount();
+    int faceId = Nfdc.createFace(forwarder.getFace(), new NfdControlParameters()
+      .setUri("udp4://192.0.2.4:6363")
+      .setFacePersistency(FacePersistency.PERMANENT));
+    assertEquals(commands + 1, forwarder.getCommandCount());
+
+    // the same face by either overload, in another spelling, needs no further faces/create
+    assertEquals(faceId, Nfdc.createFace(forwarder.getFace(), "UDP4://192.0.2.4"));
+    assertEquals(faceId, Nfdc.createFace(forwarder.getFace(), new NfdControlParameters()
+      .setUri("udp4://192.0.2.4:6363")));
+    assertEquals(commands + 1, forwarder.getCommandCount());
+    for (FaceStatus face : forwarder.getFaces()) {
+      if (face.getFaceId() == faceId) {
+        assertEquals(FacePersistency.PERMANENT, face.getFacePersistency());
+      }
+    }
+  }
+
+  @Test
+  public void testSegmentedDataset() throws Exception {
+    for (int i = 0; i < 200; i++) {
+      forwarder.addFace("udp4://192.0.2." + i + ":6363", FacePersistency.PERSISTENT);
+    }
+    forwarder.setSegmentSize(500);
+
+    List<Data> segments = FetchHelper.getSegmentedData(forwarder.getFace(), new Name("/localhost/nfd/faces/list"));
+    assertTrue(segments.size() > 10);
+    for (int i = 0; i < segments.size(); i++) {
+      assertEquals(i, segments.get(i).getName().get(-1).toSegment());
+    }
+
+    List<FaceStatus> faces = Nfdc.getFaceList(forwarder.getFace());
+    assertEquals(201, faces.size());
+    assertEquals("udp4://192.0.2.199:6363", faces.get(200).getRemoteUri());
+  }
+
+  @Test
+  public void testFixedDataset() throws Exception {
+    Name fibList = DatasetGenerator.Type.FibEntry.getPrefix();
+    forwarder.setDataset(fibList, new DatasetGenerator(1).dataset(DatasetGenerator.Type.FibEntry, 5000));
+    assertEquals(5000, Nfdc.getFibList(forwarder.getFace()).size());
+
+    forwarder.setDataset(fibList, null);
+    assertTrue(Nfdc.getFibList(forwarder.getFace()).isEmpty());
+  }
+
+  @Test
+  public void testRestart() throws Exception {
+    forwarder.addRoute(new Name("/a"), 256, RouteOrigin.STATIC, 0);
+    ForwarderStatus before = Nfdc.getForwarderStatus(forwarder.getFace());
+    assertEquals(1, before.getNFibEntries());
+
+    forwarder.restart();
+    ForwarderStatus after = Nfdc.getForwarderStatus(forwarder.getFace());
+    assertTrue(after.getStartTimestamp() > before.getStartTimestamp());
+    assertEquals(0, after.getNFibEntries());
+    assertEquals(1, after.getNInInterests());
+  }
+
+  @Test
+  public void testLatency() throws Exception {
+    forwarder.setLatency(100);
+
+    long start = System.nanoTime();
+    Nfdc.getForwarderStatus(forwarder.getFace());
+    assertTrue(System.nanoTime() - start >= 100_000_000L);
+  }
+
+  @Test
+  public void testLossIsRetransmitted() throws Exception {
+    forwarder.dropNext(1);
+
+    Nfdc.register(forwarder.getFace(), new Name("/example"), 0);
+    assertEquals(1, forwarder.getDroppedCount());
+    assertEquals(1, forwarder.getRib().size());
+  }
+
+  @Test
+  public void testNack() throws Exception {
+    forwarder.setNackRate(1).setNackReason(NetworkNack.Reason.NO_ROUTE);
+
+    ManagementException e = assertThrows(ManagementException.class,
+                                         () -> Nfdc.getForwarderStatus(forwarder.getFace()));
+    assertTrue(e.getCause() instanceof NetworkNackException);
+    assertEquals(NetworkNack.Reason.NO_ROUTE, ((NetworkNackException) e.getCause()).getReason());
+    // the forwarder would answer NoRoute again: not retried
+    assertEquals(1, forwarder.getNackCount());
+  }
+
+  @Test
+  public void testCongestionNackIsRetriedAfterBackoff() throws Exception {
+    forwarder.setNackRate(1).setNackReason(NetworkNack.Reason.CONGESTION);
+
+    long start = System.nanoTime();
+    ManagementException e = assertThrows(ManagementException.class,
+                                         () -> Nfdc.getForwarderStatus(forwarder.getFace()));
+    assertEquals(NetworkNack.Reason.CONGESTION, ((NetworkNackException) e.getCause()).getReason());
+    assertEquals(3, forwarder.getNackCount());
+    // backoffs of 50 and 100 ms before the two retransmissions
+    assertTrue(System.nanoTime() - start >= 150_000_000L);
+  }
+
+  @Test
+  public void testPipelinedNacks() throws Exception {
+    List<ControlParameters> routes = Arrays.asList(new ControlParameters().setName(new Name("/a")),
+                                                   new ControlParameters().setName(new Name("/b")));
+
+    forwarder.setNackRate(1).setNackReason(NetworkNack.Reason.NO_ROUTE);
+    for (CommandResult result : Nfdc.registerAll(forwarder.getFace(), routes)) {
+      assertFalse(result.isSuccess());
+    }
+    assertEquals(2, forwarder.getNackCount());
+
+    forwarder.setNackReason(NetworkNack.Reason.CONGESTION);
+    long start = System.nanoTime();
+    Nfdc.registerAll(forwarder.getFace(), routes);
+    assertEquals(2 + 2 * 3, forwarder.getNackCount());
+    assertTrue(System.nanoTime() - start >= 150_000_000L);
+
+    forwarder.setNackRate(0);
+    for (CommandResult result : Nfdc.registerAll(forwarder.getFace(), routes)) {
+      assertTrue(result.isSuccess());
+    }
+  }
+
+  @Test
+  public void testPipelinedNackIsRecordedAsNack() throws Exception {
+    List<ControlParameters> routes = Arrays.asList(new ControlParameters().setName(new Name("/a")),
+                                                   new ControlParameters().setName(new Name("/b")));
+    long nacks = outcomes("rib/register", OperationStats.NACK);
+    long timeouts = outcomes("rib/register", OperationStats.TIMEOUT);
+
+    forwarder.setNackRate(1).setNackReason(NetworkNack.Reason.NO_ROUTE);
+    for (CommandResult result : Nfdc.registerAll(forwarder.getFace(), routes)) {
+      NetworkNackException cause = (NetworkNackException) result.getError().getCause();
+      assertEquals(NetworkNack.Reason.NO_ROUTE, cause.getReason());
+    }
+    assertEquals(nacks + 2, outcomes("rib/register", OperationStats.NACK));
+    assertEquals(timeouts, outcomes("rib/register", OperationStats.TIMEOUT));
+  }
+
+  private static long outcomes(final String operation, final String outcome) {
+    OperationStats stats = Nfdc.getOperationStats().get(operation);
+    LatencyHistogram.Snapshot snapshot = stats == null ? null : stats.snapshot().get(outcome);
+    return snapshot == null ? 0 : snapshot.getCount();
+  }
+
+  @Test
+  public void testConcurrentClients() throws Exception {
+    Thread[] clients = new Thread[4];
+    for (int i = 0; i < clients.length; i++) {
+      final Name prefix = new Name("/client").appendSegment(i);
+      clients[i] = new Thread(() -> {
+        try {
+          Nfdc.register(forwarder.connect(), prefix, 0);
+        } catch (ManagementException e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      clients[i].start();
+    }
+    for (Thread client : clients) {
+      client.join();
+    }
+
+    assertEquals(4, forwarder.getRib().size());
+    assertEquals(5, forwarder.getFaces().size());
+  }
+}
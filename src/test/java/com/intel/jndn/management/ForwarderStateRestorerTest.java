@@ -0,0 +1,253 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.management.types.StrategyChoice;
+import com.intel.jndn.mock.MockFace;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.ControlResponse;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test ForwarderStateRestorer.
+ */
+public class ForwarderStateRestorerTest {
+  private static final String UNREACHABLE = "udp4://192.0.2.9:6363";
+  private static final String EXISTING = "udp4://192.0.2.7:6363";
+
+  private MockFace face;
+  private List<Name> commands;
+  private List<ControlParameters> parameters;
+  private List<Interest> heldCreates;
+  private int createBatch;
+  private int nextFaceId;
+
+  @Before
+  public void setUp() {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+
+    face = new MockFace(new MockFace.Options());
+    commands = new ArrayList<>();
+    parameters = new ArrayList<>();
+    heldCreates = new ArrayList<>();
+    createBatch = 1;
+    nextFaceId = 301;
+    face.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        ControlParameters command = new ControlParameters();
+        try {
+          command.wireDecode(interest.getName().get(4).getValue());
+        } catch (Exception e) {
+          fail("Failed to decode command parameters: " + e);
+        }
+        Name verb = interest.getName().getPrefix(4);
+        commands.add(verb);
+        parameters.add(command);
+        if (!verb.equals(new Name("/localhost/nfd/faces/create"))) {
+          reply(interest, new ControlResponse().setStatusCode(200).setStatusText("OK"));
+          return;
+        }
+
+        // faces/create replies are held until a whole batch has arrived, so only pipelined creation completes
+        heldCreates.add(interest);
+        if (heldCreates.size() < createBatch) {
+          return;
+        }
+        for (Interest held : heldCreates) {
+          reply(held, createResponse(held));
+        }
+        heldCreates.clear();
+      }
+    });
+  }
+
+  private ControlResponse createResponse(final Interest interest) {
+    ControlParameters command = new ControlParameters();
+    try {
+      command.wireDecode(interest.getName().get(4).getValue());
+    } catch (Exception e) {
+      fail("Failed to decode command parameters: " + e);
+    }
+    if (EXISTING.equals(command.getUri())) {
+      return new ControlResponse().setStatusCode(409).setStatusText("Face exists")
+        .setBodyAsControlParameters(new ControlParameters().setFaceId(299).setUri(EXISTING));
+    }
+    ControlResponse response = new ControlResponse().setStatusCode(200).setStatusText("OK");
+    if (UNREACHABLE.equals(command.getUri())) {
+      response.setStatusCode(400).setStatusText("unreachable");
+    }
+    // the restarted forwarder hands out new face IDs
+    return response.setBodyAsControlParameters(new ControlParameters().setFaceId(nextFaceId++));
+  }
+
+  private void reply(final Interest interest, final ControlResponse response) {
+    Data data = new Data(interest.getName());
+    data.setContent(response.wireEncode());
+    try {
+      face.receive(data);
+    } catch (Exception e) {
+      fail("Failed to receive data on mock face: " + e);
+    }
+  }
+
+  @Test
+  public void testRestore() throws Exception {
+    List<FaceStatus> faces = Arrays.asList(
+      face(260, "udp4://192.0.2.1:6363", FacePersistency.PERMANENT),
+      face(261, UNREACHABLE, FacePersistency.PERSISTENT),
+      face(262, "tcp4://192.0.2.3:6363", FacePersistency.ON_DEMAND));
+    List<RibEntry> rib = Arrays.asList(
+      new RibEntry().setName(new Name("/a"))
+        .addRoute(route(260, RouteOrigin.STATIC, 10))
+        .addRoute(route(261, RouteOrigin.STATIC, 20))
+        .addRoute(route(262, RouteOrigin.STATIC, 30))  // on-demand face, not captured
+        .addRoute(route(260, RouteOrigin.APP, 0)),     // not a captured origin
+      new RibEntry().setName(new Name("/b"))
+        .addRoute(route(260, RouteOrigin.STATIC, 5))
+        .addRoute(route(254, RouteOrigin.STATIC, 0))); // reserved face, same ID after restart
+    List<StrategyChoice> strategies = Collections.singletonList(
+      new StrategyChoice().setName(new Name("/a")).setStrategy(new Name("/localhost/nfd/strategy/multicast")));
+
+    ForwarderStateRestorer restorer = new ForwarderStateRestorer(face);
+    restorer.capture(faces, rib, strategies);
+    assertEquals(4, restorer.getRouteCount());
+    assertEquals(1, restorer.getStrategyCount());
+
+    List<CommandResult> results = restorer.restore();
+    assertEquals(5, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertFalse(results.get(1).isSuccess());
+    assertTrue(results.get(2).isSuccess());
+    assertTrue(results.get(3).isSuccess());
+    assertTrue(results.get(4).isSuccess());
+
+    assertEquals(Arrays.asList(new Name("/localhost/nfd/faces/create"), new Name("/localhost/nfd/faces/create"),
+                               new Name("/localhost/nfd/rib/register"), new Name("/localhost/nfd/rib/register"),
+                               new Name("/localhost/nfd/rib/register"), new Name("/localhost/nfd/strategy-choice/set")),
+                 commands);
+    // the routes of the permanent face move to its new face ID
+    assertEquals(301, parameters.get(2).getFaceId());
+    assertEquals(new Name("/a"), parameters.get(2).getName());
+    assertEquals(10, parameters.get(2).getCost());
+    assertEquals(301, parameters.get(3).getFaceId());
+    assertEquals(new Name("/b"), parameters.get(3).getName());
+    assertEquals(254, parameters.get(4).getFaceId());
+    assertEquals(new Name("/localhost/nfd/strategy/multicast"), parameters.get(5).getStrategy());
+  }
+
+  @Test
+  public void testRestorePipelinesFaceCreation() throws Exception {
+    List<FaceStatus> faces = Arrays.asList(
+      face(260, "udp4://192.0.2.1:6363", FacePersistency.PERMANENT),
+      face(261, "udp4://192.0.2.2:6363", FacePersistency.PERMANENT),
+      face(262, EXISTING, FacePersistency.PERSISTENT));
+    List<RibEntry> rib = Arrays.asList(
+      new RibEntry().setName(new Name("/a")).addRoute(route(260, RouteOrigin.STATIC, 10)),
+      new RibEntry().setName(new Name("/b")).addRoute(route(261, RouteOrigin.STATIC, 10)),
+      new RibEntry().setName(new Name("/c")).addRoute(route(262, RouteOrigin.STATIC, 10)));
+    ForwarderStateRestorer restorer = new ForwarderStateRestorer(face);
+    restorer.capture(faces, rib, Collections.<StrategyChoice>emptyList());
+
+    // a face ID remembered before the restart
+    assertEquals(301, Nfdc.createFace(face, "udp4://192.0.2.1:6363"));
+
+    createBatch = 3;
+    List<CommandResult> results = restorer.restore();
+    assertEquals(3, results.size());
+    for (CommandResult result : results) {
+      assertTrue(result.isSuccess());
+    }
+    assertEquals(Arrays.asList(new Name("/localhost/nfd/faces/create"), new Name("/localhost/nfd/faces/create"),
+                               new Name("/localhost/nfd/faces/create"), new Name("/localhost/nfd/faces/create"),
+                               new Name("/localhost/nfd/rib/register"), new Name("/localhost/nfd/rib/register"),
+                               new Name("/localhost/nfd/rib/register")),
+                 commands);
+    assertEquals(302, parameters.get(4).getFaceId());
+    assertEquals(303, parameters.get(5).getFaceId());
+    // the already existing face is used with the ID the forwarder reports
+    assertEquals(299, parameters.get(6).getFaceId());
+
+    // the stale face ID was replaced by the new one
+    assertEquals(302, Nfdc.createFace(face, "udp4://192.0.2.1:6363"));
+    assertEquals(7, commands.size());
+  }
+
+  @Test
+  public void testCaptureKeepsSnapshotUntilRestored() throws Exception {
+    FakeForwarder forwarder = new FakeForwarder();
+    try {
+      String uri = "udp4://192.0.2.1:6363";
+      forwarder.addRoute(new Name("/a"), forwarder.addFace(uri, FacePersistency.PERMANENT), RouteOrigin.STATIC, 10);
+      ForwarderStateRestorer restorer = new ForwarderStateRestorer(forwarder.getFace());
+      assertTrue(restorer.capture());
+      assertEquals(1, restorer.getRouteCount());
+
+      // a periodic capture after the restart must not replace the routes to restore with the empty RIB
+      forwarder.restart();
+      assertFalse(restorer.capture());
+      assertEquals(1, restorer.getRouteCount());
+
+      for (CommandResult result : restorer.restore()) {
+        assertTrue(result.isSuccess());
+      }
+      List<RibEntry> restored = forwarder.getRib();
+      assertEquals(1, restored.size());
+      assertEquals(new Name("/a"), restored.get(0).getName());
+      int faceId = restored.get(0).getRoutes().get(0).getFaceId();
+      String restoredUri = null;
+      for (FaceStatus status : forwarder.getFaces()) {
+        if (status.getFaceId() == faceId) {
+          restoredUri = status.getRemoteUri();
+        }
+      }
+      assertEquals(uri, restoredUri);
+
+      // once restored, captures follow the restarted forwarder again
+      assertTrue(restorer.capture());
+      assertEquals(1, restorer.getRouteCount());
+    } finally {
+      forwarder.close();
+    }
+  }
+
+  private static FaceStatus face(final int faceId, final String uri, final FacePersistency persistency) {
+    return new FaceStatus().setFaceId(faceId).setRemoteUri(uri).setFacePersistency(persistency);
+  }
+
+  private static Route route(final int faceId, final RouteOrigin origin, final int cost) {
+    return new Route().setFaceId(faceId).setOrigin(origin.toInteger()).setCost(cost);
+  }
+}
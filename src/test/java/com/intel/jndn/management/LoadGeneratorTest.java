@@ -0,0 +1,97 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.LoadGenerator.Operation;
+import com.intel.jndn.management.helpers.OperationStats;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test LoadGenerator against a FakeForwarder.
+ */
+public class LoadGeneratorTest {
+  private FakeForwarder forwarder;
+
+  @Before
+  public void setUp() {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+    forwarder = new FakeForwarder();
+  }
+
+  @After
+  public void tearDown() {
+    forwarder.close();
+  }
+
+  @Test
+  public void testRun() throws Exception {
+    LoadReport report = new LoadGenerator(forwarder::connect)
+      .setClients(4)
+      .setOperationsPerClient(55)
+      .setDuration(1, TimeUnit.MINUTES)
+      .setWeight(Operation.SET_STRATEGY, 1)
+      .setWeight(Operation.STATUS, 1)
+      .run();
+
+    // weights 4:4:1:1:1 make rounds of 11 operations, so each client runs 5 rounds
+    assertEquals(4, report.getClientCount());
+    assertEquals(4 * 20, report.getCount(Operation.REGISTER));
+    assertEquals(4 * 20, report.getCount(Operation.UNREGISTER));
+    assertEquals(4 * 5, report.getCount(Operation.SET_STRATEGY));
+    assertEquals(4 * 5, report.getCount(Operation.RIB_LIST));
+    assertEquals(0, report.getCount(Operation.FIB_LIST));
+    assertEquals(0, report.getErrorRate(Operation.REGISTER), 0);
+    assertTrue(report.getThroughput(Operation.REGISTER) > 0);
+    assertEquals(4 * 20, report.getLatency(Operation.REGISTER).getCount());
+    assertTrue(report.toString().contains("REGISTER"));
+
+    // clients clean up after themselves
+    assertTrue(forwarder.getRib().isEmpty());
+    assertEquals(1, forwarder.getStrategies().size());
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    forwarder.setNackRate(1);
+
+    LoadReport report = new LoadGenerator(forwarder::connect)
+      .setClients(2)
+      .setOperationsPerClient(3)
+      .run();
+
+    assertEquals(1.0, report.getErrorRate(Operation.REGISTER), 0);
+    assertEquals(Collections.singletonMap(OperationStats.NACK, 2L), report.getFailures(Operation.REGISTER));
+    assertEquals(0, report.getLatency(Operation.REGISTER).getCount());
+  }
+
+  @Test
+  public void testNoOperations() {
+    LoadGenerator generator = new LoadGenerator(forwarder::connect)
+      .setWeight(Operation.REGISTER, 0)
+      .setWeight(Operation.UNREGISTER, 0)
+      .setWeight(Operation.RIB_LIST, 0);
+    assertThrows(IllegalStateException.class, generator::run);
+  }
+}
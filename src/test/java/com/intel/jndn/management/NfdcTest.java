@@ -13,9 +13,19 @@
  */
 package com.intel.jndn.management;
 
+import com.intel.jndn.management.enums.CsFlags;
+import com.intel.jndn.management.enums.FaceFlags;
+import com.intel.jndn.management.enums.NfdTlv;
 import com.intel.jndn.management.enums.Strategies;
+import com.intel.jndn.management.helpers.CommandSigner;
+import com.intel.jndn.management.helpers.FetchHelper;
+import com.intel.jndn.management.helpers.LatencyHistogram;
+import com.intel.jndn.management.helpers.OperationStats;
+import com.intel.jndn.management.types.CsInfo;
+import com.intel.jndn.management.types.NfdControlParameters;
 import com.intel.jndn.mock.MockFace;
 import com.intel.jndn.mock.MockKeyChain;
+import net.named_data.jndn.ControlParameters;
 import net.named_data.jndn.ControlResponse;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Interest;
@@ -25,14 +35,27 @@ import net.named_data.jndn.MetaInfo;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.encoding.Tlv0_3WireFormat;
 import net.named_data.jndn.encoding.WireFormat;
+import net.named_data.jndn.encoding.tlv.TlvEncoder;
 import net.named_data.jndn.security.KeyChain;
 import net.named_data.jndn.security.SecurityException;
 import net.named_data.jndn.security.SigningInfo;
+import net.named_data.jndn.util.Blob;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -170,6 +193,21 @@ public class NfdcTest {
     assertThrows(ManagementException.class, () -> Nfdc.unregister(mockFace, new Name("/my/route/to/app/face")));
   }
 
+  @Test
+  public void testRejectedCommandReportsStatusCode() throws Exception {
+    mockFace.onSendInterest.add(replyWithStatus(403, "not authorized"));
+
+    ManagementException exception = assertThrows(ManagementException.class,
+      () -> Nfdc.register(mockFace, new Name("/my/route/to/app/face"), 333));
+    assertEquals(403, exception.getStatusCode());
+    assertEquals("Action failed, forwarder returned: 403 not authorized", exception.getMessage());
+
+    assertEquals(403, assertThrows(ManagementException.class,
+      () -> Nfdc.unsetStrategy(mockFace, new Name("/"))).getStatusCode());
+    assertEquals(403, assertThrows(ManagementException.class,
+      () -> Nfdc.destroyFace(mockFace, 270)).getStatusCode());
+  }
+
   @Test
   public void testGetStrategyList() throws Exception {
     assertThrows(ManagementException.class, () -> Nfdc.getStrategyList(mockFace));
@@ -210,4 +248,498 @@ public class NfdcTest {
     mockFace.onSendInterest.add(replyWithEmptyData);
     assertThrows(ManagementException.class, () -> Nfdc.unsetStrategy(mockFace, new Name("/")));
   }
+
+  @Test
+  public void testRegisterAll() throws Exception {
+    final List<Interest> sent = new ArrayList<>();
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        sent.add(interest);
+      }
+    });
+    mockFace.onSendInterest.add(replyWithStatus(200, "OK"));
+
+    List<ControlParameters> routes = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      routes.add(new ControlParameters().setName(new Name("/route/" + i)).setFaceId(1));
+    }
+
+    List<CommandResult> results = Nfdc.registerAll(mockFace, routes, 3);
+    assertEquals(routes.size(), results.size());
+    assertEquals(routes.size(), sent.size());
+    for (int i = 0; i < routes.size(); i++) {
+      assertTrue(results.get(i).isSuccess());
+      assertSame(routes.get(i), results.get(i).getParameters());
+      assertEquals(new Name("/localhost/nfd/rib/register"), sent.get(i).getName().getPrefix(4));
+    }
+  }
+
+  @Test
+  public void testRegisterAllRecordsPerCommandLatency() throws Exception {
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        try {
+          Thread.sleep(10);
+        } catch (InterruptedException e) {
+          fail("Interrupted: " + e);
+        }
+        replyWithStatus(200, "OK").emit(interest);
+      }
+    });
+
+    List<ControlParameters> routes = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      routes.add(new ControlParameters().setName(new Name("/route/" + i)));
+    }
+    Nfdc.registerAll(mockFace, routes);
+    Nfdc.getOperationStats().get("rib/register").snapshotAndReset();
+
+    long start = System.nanoTime();
+    Nfdc.registerAll(mockFace, routes, 1);
+    long batchNanos = System.nanoTime() - start;
+
+    // one command at a time: each takes about 1/20 of the batch, not the time since the batch started
+    LatencyHistogram.Snapshot latency = Nfdc.getOperationStats().get("rib/register").snapshot()
+      .get(OperationStats.SUCCESS);
+    assertEquals(20, latency.getCount());
+    assertTrue(latency.getValueAtPercentile(50) < batchNanos / 4);
+  }
+
+  @Test
+  public void testUnregisterAllReportsPerItemFailures() throws Exception {
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        ControlParameters parameters = new ControlParameters();
+        try {
+          parameters.wireDecode(interest.getName().get(4).getValue());
+        } catch (Exception e) {
+          fail("Failed to decode command parameters: " + e);
+        }
+        boolean isKnown = parameters.getName().equals(new Name("/known"));
+        replyWithStatus(isKnown ? 200 : 404, isKnown ? "OK" : "not found").emit(interest);
+      }
+    });
+
+    List<ControlParameters> routes = new ArrayList<>();
+    routes.add(new ControlParameters().setName(new Name("/known")));
+    routes.add(new ControlParameters().setName(new Name("/unknown")));
+
+    List<CommandResult> results = Nfdc.unregisterAll(mockFace, routes);
+    assertTrue(results.get(0).isSuccess());
+    assertFalse(results.get(1).isSuccess());
+    assertEquals(404, results.get(1).getResponse().getStatusCode());
+    assertEquals("Action failed, forwarder returned: 404 not found", results.get(1).getError().getMessage());
+  }
+
+  @Test
+  public void testRegisterAllWithoutReply() throws Exception {
+    List<CommandResult> results = Nfdc.registerAll(mockFace,
+                                                   Collections.singletonList(new ControlParameters()
+                                                                               .setName(new Name("/lost"))));
+    assertFalse(results.get(0).isSuccess());
+    assertNull(results.get(0).getResponse());
+  }
+
+  @Test
+  public void testRegisterAllWithCommandSigner() throws Exception {
+    final List<Interest> sent = new ArrayList<>();
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        sent.add(interest);
+      }
+    });
+    mockFace.onSendInterest.add(replyWithStatus(200, "OK"));
+
+    CommandSigner signer = new CommandSigner(keyChain, keyChain.getDefaultCertificateName());
+    Nfdc.setCommandSigner(mockFace, signer);
+    try {
+      List<ControlParameters> routes = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        routes.add(new ControlParameters().setName(new Name("/route/" + i)));
+      }
+      for (CommandResult result : Nfdc.registerAll(mockFace, routes)) {
+        assertTrue(result.isSuccess());
+      }
+      Nfdc.setStrategy(mockFace, new Name("/"), Strategies.MULTICAST);
+    } finally {
+      Nfdc.setCommandSigner(mockFace, null);
+    }
+
+    assertEquals(6, signer.getSignedCount());
+    long last = 0;
+    for (Interest interest : sent) {
+      long timestamp = interest.getName().get(-4).toNumber();
+      assertTrue(timestamp > last);
+      last = timestamp;
+    }
+  }
+
+  @Test
+  public void testRetransmittedCommandIsSignedAnew() throws Exception {
+    final List<Name> sent = new ArrayList<>();
+    final long[] lastTimestamp = {0};
+    final boolean[] lost = {false};
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        sent.add(interest.getName());
+        // like NFD, reject a command whose timestamp is not greater than the last accepted one
+        long timestamp = interest.getName().get(-4).toNumber();
+        if (timestamp <= lastTimestamp[0]) {
+          replyWithStatus(403, "replayed timestamp").emit(interest);
+          return;
+        }
+        lastTimestamp[0] = timestamp;
+
+        // the reply to the first transmission of /route/3 is lost
+        ControlParameters parameters = new ControlParameters();
+        try {
+          parameters.wireDecode(interest.getName().get(4).getValue());
+        } catch (Exception e) {
+          fail("Failed to decode command parameters: " + e);
+        }
+        if (!lost[0] && parameters.getName().equals(new Name("/route/3"))) {
+          lost[0] = true;
+          return;
+        }
+        replyWithStatus(200, "OK").emit(interest);
+      }
+    });
+
+    CommandSigner signer = new CommandSigner(keyChain, keyChain.getDefaultCertificateName());
+    Nfdc.setCommandSigner(mockFace, signer);
+    List<CommandResult> results;
+    try {
+      List<ControlParameters> routes = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        routes.add(new ControlParameters().setName(new Name("/route/" + i)));
+      }
+      results = Nfdc.registerAll(mockFace, routes, 2);
+    } finally {
+      Nfdc.setCommandSigner(mockFace, null);
+    }
+
+    for (CommandResult result : results) {
+      assertTrue(result.toString(), result.isSuccess());
+    }
+    // the retransmission of /route/3 is sent last, with a new timestamp and nonce
+    assertEquals(7, sent.size());
+    assertEquals(7, signer.getSignedCount());
+    Name first = sent.get(3);
+    Name retransmitted = sent.get(6);
+    assertEquals(first.getPrefix(5), retransmitted.getPrefix(5));
+    assertTrue(retransmitted.get(-4).toNumber() > first.get(-4).toNumber());
+    assertNotEquals(first.get(-3), retransmitted.get(-3));
+  }
+
+  @Test
+  public void testUpdateFace() throws Exception {
+    final List<Name> sent = new ArrayList<>();
+    mockFace.onSendInterest.add(echoParameters(sent));
+
+    NfdControlParameters face = Nfdc.updateFace(mockFace, new NfdControlParameters()
+      .setFaceId(260)
+      .setBaseCongestionMarkingInterval(50000000)
+      .setDefaultCongestionThreshold(32768)
+      .setFlag(FaceFlags.CONGESTION_MARKING_ENABLED, true));
+    assertEquals(260, face.getFaceId());
+    assertEquals(50000000, face.getBaseCongestionMarkingInterval());
+    assertEquals(32768, face.getDefaultCongestionThreshold());
+    assertTrue(face.hasFlag(FaceFlags.CONGESTION_MARKING_ENABLED));
+
+    int faceId = Nfdc.createFace(mockFace, new NfdControlParameters()
+      .setFaceId(261)
+      .setUri("udp4://192.0.2.1:6363")
+      .setMtu(1400));
+    assertEquals(261, faceId);
+
+    assertEquals(new Name("/localhost/nfd/faces/update"), sent.get(0));
+    assertEquals(new Name("/localhost/nfd/faces/create"), sent.get(1));
+  }
+
+  @Test
+  public void testCsInfoAndConfig() throws Exception {
+    final List<Name> sent = new ArrayList<>();
+    final MockFace.SignalOnSendInterest echo = echoParameters(sent);
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        if (!new Name("/localhost/nfd/cs/info").isPrefixOf(interest.getName())) {
+          echo.emit(interest);
+          return;
+        }
+        Data data = new Data();
+        data.setName(new Name(interest.getName()).appendVersion(0).appendSegment(0));
+        MetaInfo meta = new MetaInfo();
+        meta.setFinalBlockId(data.getName().get(-1));
+        data.setMetaInfo(meta);
+        data.setContent(new CsInfo().setCapacity(65536).setFlags(3).setNCsEntries(12).setNHits(3).setNMisses(1)
+                          .wireEncode());
+        try {
+          mockFace.receive(data);
+        } catch (Exception e) {
+          fail("Failed to receive data on mock face: " + e);
+        }
+      }
+    });
+
+    CsInfo info = Nfdc.getCsInfo(mockFace);
+    assertEquals(65536, info.getCapacity());
+    assertTrue(info.hasFlag(CsFlags.ENABLE_SERVE));
+    assertEquals(12, info.getNCsEntries());
+    assertEquals(0.75, info.getHitRatio(), 1e-9);
+
+    NfdControlParameters config = Nfdc.setCsConfig(mockFace, 1024, false, true);
+    assertEquals(1024, config.getCapacity());
+    assertFalse(config.hasFlag(CsFlags.ENABLE_ADMIT));
+    assertTrue(config.hasFlag(CsFlags.ENABLE_SERVE));
+    assertEquals(CsFlags.ENABLE_ADMIT.toInteger() | CsFlags.ENABLE_SERVE.toInteger(), config.getMask());
+    assertEquals(Collections.singletonList(new Name("/localhost/nfd/cs/config")), sent);
+  }
+
+  @Test
+  public void testEraseCsAll() throws Exception {
+    final long[] remaining = {1000};
+    final List<Long> limits = new ArrayList<>();
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        NfdControlParameters request = new NfdControlParameters();
+        try {
+          request.wireDecode(interest.getName().get(4).getValue().buf());
+        } catch (Exception e) {
+          fail("Failed to decode command parameters: " + e);
+        }
+        limits.add(request.getCount());
+
+        // like NFD: report the number erased, and the limit if it was reached
+        long erased = Math.min(request.getCount(), remaining[0]);
+        remaining[0] -= erased;
+        NfdControlParameters response = new NfdControlParameters().setName(request.getName()).setCount(erased);
+        if (erased == request.getCount()) {
+          response.setCapacity(request.getCount());
+        }
+        replyWithParameters(interest, response);
+      }
+    });
+
+    CsEraseReport report = Nfdc.eraseCsAll(mockFace, new Name("/video"), 256);
+    assertEquals(1000, report.getErasedCount());
+    assertEquals(4, report.getCommandCount());
+    assertEquals(Arrays.asList(256L, 256L, 256L, 256L), limits);
+    assertEquals(0, remaining[0]);
+    assertTrue(report.getErasedPerSecond() > 0);
+
+    // an exact multiple of the page size needs one more command to learn that nothing is left
+    remaining[0] = 512;
+    assertEquals(3, Nfdc.eraseCsAll(mockFace, new Name("/video"), 256).getCommandCount());
+  }
+
+  @Test
+  public void testFailOfUpdateFace() throws Exception {
+    mockFace.onSendInterest.add(replyWithStatus(404, "face not found"));
+    ManagementException exception = assertThrows(ManagementException.class,
+      () -> Nfdc.updateFace(mockFace, new NfdControlParameters().setFaceId(1).setMtu(1400)));
+    assertEquals("Action failed, forwarder returned: 404 face not found", exception.getMessage());
+  }
+
+  @Test
+  public void testCreateFaceRemembersFaceId() throws Exception {
+    final List<Name> sent = new ArrayList<>();
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        sent.add(interest.getName().getPrefix(4));
+        ControlResponse response = new ControlResponse()
+          .setStatusCode(200)
+          .setStatusText("OK")
+          .setBodyAsControlParameters(new ControlParameters().setFaceId(270).setUri("udp4://192.0.2.1:6363"));
+
+        Data data = new Data();
+        data.setName(interest.getName());
+        data.setContent(response.wireEncode());
+        try {
+          mockFace.receive(data);
+        } catch (Exception e) {
+          fail("Failed to receive data on mock face: " + e);
+        }
+      }
+    });
+
+    assertEquals(270, Nfdc.createFace(mockFace, "UDP4://192.0.2.1"));
+    assertEquals(270, Nfdc.createFace(mockFace, "udp4://192.0.2.1:6363"));
+    assertEquals(1, sent.size());
+
+    Nfdc.destroyFace(mockFace, 270);
+    assertEquals(270, Nfdc.createFace(mockFace, "udp4://192.0.2.1:6363"));
+    assertEquals(Arrays.asList(new Name("/localhost/nfd/faces/create"),
+                               new Name("/localhost/nfd/faces/destroy"),
+                               new Name("/localhost/nfd/faces/create")), sent);
+
+    Nfdc.clearFaceIdCache(mockFace);
+    Nfdc.createFace(mockFace, "udp4://192.0.2.1:6363");
+    assertEquals(4, sent.size());
+  }
+
+  @Test
+  public void testConcurrentDatasetFetchesAreCoalesced() throws Exception {
+    final CountDownLatch requested = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger nSent = new AtomicInteger();
+    mockFace.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        nSent.incrementAndGet();
+        requested.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          fail("Interrupted: " + e);
+        }
+        replyWithEmptyData.emit(interest);
+      }
+    });
+
+    final List<Integer> sizes = Collections.synchronizedList(new ArrayList<Integer>());
+    Thread first = new Thread(() -> fetchFaceListSize(sizes));
+    first.start();
+    assertTrue(requested.await(5, TimeUnit.SECONDS));
+
+    Thread second = new Thread(() -> fetchFaceListSize(sizes));
+    second.start();
+    while (second.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    first.join();
+    second.join();
+
+    assertEquals(Arrays.asList(0, 0), sizes);
+    assertEquals(1, nSent.get());
+  }
+
+  @Test
+  public void testCompletedDatasetFetchesAreNotRetained() throws Exception {
+    mockFace.onSendInterest.add(replyWithEmptyData);
+    for (int i = 0; i < 3; i++) {
+      Nfdc.getFaceList(mockFace);
+    }
+    assertEquals(0, Nfdc.getInFlightDatasetFetchCount());
+  }
+
+  private void fetchFaceListSize(final List<Integer> sizes) {
+    try {
+      sizes.add(Nfdc.getFaceList(mockFace).size());
+    } catch (ManagementException e) {
+      fail("Failed to fetch face list: " + e);
+    }
+  }
+
+  @Test
+  public void testOperationStats() throws Exception {
+    long nFetches = count("faces/list");
+    long nFailures = failures("faces/update");
+    mockFace.onSendInterest.add(replyWithEmptyData);
+    Nfdc.getFaceList(mockFace);
+    assertEquals(nFetches + 1, count("faces/list"));
+
+    mockFace.onSendInterest.clear();
+    mockFace.onSendInterest.add(replyWithStatus(404, "face not found"));
+    if (Nfdc.getOperationStats().containsKey("faces/update")) {
+      Nfdc.getOperationStats().get("faces/update").snapshotAndReset();
+    }
+    assertThrows(ManagementException.class,
+      () -> Nfdc.updateFace(mockFace, new NfdControlParameters().setFaceId(1).setMtu(1400)));
+    assertEquals(nFailures + 1, failures("faces/update"));
+    OperationStats update = Nfdc.getOperationStats().get("faces/update");
+    assertTrue(update.getMaxNanos() > 0);
+    assertEquals(1, update.snapshotAndReset().get("nfd-404").getCount());
+    assertEquals(0, update.snapshot().get("nfd-404").getCount());
+    OperationStats interests = FetchHelper.getInterestStats().get("faces/update");
+    assertTrue(interests.snapshot().get(OperationStats.SUCCESS).getCount() > 0);
+  }
+
+  private static long count(final String operation) {
+    OperationStats stats = Nfdc.getOperationStats().get(operation);
+    return stats == null ? 0 : stats.getCount();
+  }
+
+  private static long failures(final String operation) {
+    OperationStats stats = Nfdc.getOperationStats().get(operation);
+    return stats == null ? 0 : stats.getFailureCount();
+  }
+
+  @Test
+  public void testCanonicalizeUri() {
+    assertEquals("udp4://192.0.2.1:6363", Nfdc.canonicalizeUri(" UDP4://192.0.2.1/"));
+    assertEquals("tcp4://router.example.net:6364", Nfdc.canonicalizeUri("tcp4://Router.Example.NET:6364"));
+    assertEquals("udp6://[2001:db8::1]:6363", Nfdc.canonicalizeUri("udp6://[2001:DB8::1]"));
+    assertEquals("ether://[01:00:5e:00:17:aa]", Nfdc.canonicalizeUri("ether://[01:00:5e:00:17:aa]"));
+  }
+
+  /**
+   * Reply to each command with status 200 and the command's own parameters as body, as NFD does for successful
+   * faces/update and cs/config commands.
+   *
+   * @param sent receives the verb of each command
+   * @return the responder
+   */
+  private MockFace.SignalOnSendInterest echoParameters(final List<Name> sent) {
+    return new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        NfdControlParameters request = new NfdControlParameters();
+        try {
+          request.wireDecode(interest.getName().get(4).getValue().buf());
+        } catch (Exception e) {
+          fail("Failed to decode command parameters: " + e);
+        }
+        sent.add(interest.getName().getPrefix(4));
+        replyWithParameters(interest, request);
+      }
+    };
+  }
+
+  private void replyWithParameters(final Interest interest, final NfdControlParameters body) {
+    TlvEncoder encoder = new TlvEncoder();
+    int saveLength = encoder.getLength();
+    body.wireEncode(encoder);
+    encoder.writeBlobTlv(NfdTlv.StatusText, new Blob("OK").buf());
+    encoder.writeNonNegativeIntegerTlv(NfdTlv.StatusCode, 200);
+    encoder.writeTypeAndLength(NfdTlv.ControlResponse, encoder.getLength() - saveLength);
+
+    Data data = new Data();
+    data.setName(interest.getName());
+    data.setContent(new Blob(encoder.getOutput(), false));
+    try {
+      mockFace.receive(data);
+    } catch (Exception e) {
+      fail("Failed to receive data on mock face: " + e);
+    }
+  }
+
+  private MockFace.SignalOnSendInterest replyWithStatus(final int statusCode, final String statusText) {
+    return new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        ControlResponse response = new ControlResponse();
+        response.setStatusCode(statusCode);
+        response.setStatusText(statusText);
+
+        Data data = new Data();
+        data.setName(interest.getName());
+        data.setContent(response.wireEncode());
+
+        try {
+          mockFace.receive(data);
+        } catch (Exception e) {
+          fail("Failed to receive data on mock face: " + e);
+        }
+      }
+    };
+  }
 }
@@ -0,0 +1,193 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.enums.Strategies;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.StrategyChoice;
+import com.intel.jndn.mock.MockFace;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.ControlResponse;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.MetaInfo;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test NfdcTransaction.
+ */
+public class NfdcTransactionTest {
+  private static final Name STRATEGY_LIST = new Name("/localhost/nfd/strategy-choice/list");
+  private static final Name RIB_LIST = new Name("/localhost/nfd/rib/list");
+
+  private MockFace face;
+  private List<Name> commands;
+  private List<ControlParameters> parameters;
+
+  @Before
+  public void setUp() {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+
+    face = new MockFace(new MockFace.Options());
+    commands = new ArrayList<>();
+    parameters = new ArrayList<>();
+    face.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        Data data = new Data();
+        if (STRATEGY_LIST.isPrefixOf(interest.getName()) || RIB_LIST.isPrefixOf(interest.getName())) {
+          data.setName(new Name(interest.getName()).appendVersion(0).appendSegment(0));
+          MetaInfo meta = new MetaInfo();
+          meta.setFinalBlockId(data.getName().get(-1));
+          data.setMetaInfo(meta);
+          if (STRATEGY_LIST.isPrefixOf(interest.getName())) {
+            data.setContent(new StrategyChoice().setName(new Name("/")).setStrategy(Strategies.BEST_ROUTE)
+                              .wireEncode());
+          }
+        } else {
+          ControlParameters command = new ControlParameters();
+          try {
+            command.wireDecode(interest.getName().get(4).getValue());
+          } catch (Exception e) {
+            fail("Failed to decode command parameters: " + e);
+          }
+          commands.add(interest.getName().getPrefix(4));
+          parameters.add(command);
+
+          ControlResponse response = new ControlResponse().setStatusCode(200).setStatusText("OK");
+          if (command.getName() != null && command.getName().equals(new Name("/fail"))) {
+            response.setStatusCode(400).setStatusText("bad route");
+          }
+          response.setBodyAsControlParameters(new ControlParameters().setFaceId(42));
+          data.setName(interest.getName());
+          data.setContent(response.wireEncode());
+        }
+
+        try {
+          face.receive(data);
+        } catch (Exception e) {
+          fail("Failed to receive data on mock face: " + e);
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testRollbackUndoesAppliedStepsNewestFirst() throws Exception {
+    NfdcTransaction transaction = new NfdcTransaction(face);
+    int faceId = transaction.createFace("udp4://127.0.0.1:6363");
+    transaction.register(faceId, new Name("/app"), 10);
+    transaction.setStrategy(new Name("/"), Strategies.MULTICAST);
+    transaction.setStrategy(new Name("/app"), Strategies.ASF);
+    assertEquals(4, transaction.getJournalSize());
+
+    commands.clear();
+    parameters.clear();
+    List<CommandResult> results = transaction.rollback();
+
+    assertEquals(4, results.size());
+    for (CommandResult result : results) {
+      assertTrue(result.isSuccess());
+    }
+    assertEquals(Arrays.asList(new Name("/localhost/nfd/strategy-choice/unset"),
+                               new Name("/localhost/nfd/strategy-choice/set"),
+                               new Name("/localhost/nfd/rib/unregister"),
+                               new Name("/localhost/nfd/faces/destroy")), commands);
+    assertEquals(new Name("/app"), parameters.get(0).getName());
+    assertEquals(Strategies.BEST_ROUTE, parameters.get(1).getStrategy());
+    assertEquals(42, parameters.get(2).getFaceId());
+    assertEquals(42, parameters.get(3).getFaceId());
+
+    assertThrows(IllegalStateException.class, () -> transaction.createFace("udp4://127.0.0.1:6363"));
+  }
+
+  @Test
+  public void testExecuteRollsBackOnFailure() throws Exception {
+    ManagementException exception = assertThrows(ManagementException.class, () -> {
+      NfdcTransaction.execute(face, transaction -> {
+        int faceId = transaction.createFace("udp4://127.0.0.1:6363");
+        transaction.register(faceId, new Name("/ok"), 10);
+        transaction.register(faceId, new Name("/fail"), 10);
+        transaction.register(faceId, new Name("/never"), 10);
+      });
+    });
+    assertEquals("Action failed, forwarder returned: 400 bad route", exception.getMessage());
+
+    assertEquals(Arrays.asList(new Name("/localhost/nfd/faces/create"),
+                               new Name("/localhost/nfd/rib/register"),
+                               new Name("/localhost/nfd/rib/register"),
+                               new Name("/localhost/nfd/rib/unregister"),
+                               new Name("/localhost/nfd/faces/destroy")), commands);
+    assertEquals(new Name("/ok"), parameters.get(3).getName());
+  }
+
+  @Test
+  public void testRollbackRestoresUpdatedRoute() throws Exception {
+    try (FakeForwarder forwarder = new FakeForwarder()) {
+      int faceId = forwarder.addFace("udp4://192.0.2.1:6363", FacePersistency.PERSISTENT);
+      forwarder.addRoute(new Name("/app"), faceId, RouteOrigin.STATIC, 5);
+
+      NfdcTransaction transaction = new NfdcTransaction(forwarder.getFace());
+      transaction.register(faceId, new Name("/app"), 10);
+      transaction.register(faceId, new Name("/app"), 20);
+      transaction.register(faceId, new Name("/new"), 10);
+      assertEquals(20, forwarder.getRib().get(0).getRoutes().get(0).getCost());
+      transaction.rollback();
+
+      List<RibEntry> rib = forwarder.getRib();
+      assertEquals(1, rib.size());
+      assertEquals(new Name("/app"), rib.get(0).getName());
+      assertEquals(5, rib.get(0).getRoutes().get(0).getCost());
+    }
+  }
+
+  @Test
+  public void testRollbackForgetsDestroyedFaces() throws Exception {
+    try (FakeForwarder forwarder = new FakeForwarder()) {
+      NfdcTransaction transaction = new NfdcTransaction(forwarder.getFace());
+      int faceId = transaction.createFace("udp4://192.0.2.1:6363");
+      assertEquals(faceId, Nfdc.createFace(forwarder.getFace(), "udp4://192.0.2.1:6363"));
+      transaction.rollback();
+
+      int recreated = Nfdc.createFace(forwarder.getFace(), "udp4://192.0.2.1:6363");
+      assertNotEquals(faceId, recreated);
+      assertEquals(recreated, forwarder.getFaces().get(1).getFaceId());
+    }
+  }
+
+  @Test
+  public void testCommitClearsJournal() throws Exception {
+    NfdcTransaction transaction = new NfdcTransaction(face);
+    transaction.register(42, new Name("/app"), 10);
+    transaction.commit();
+    assertEquals(0, transaction.getJournalSize());
+    assertThrows(IllegalStateException.class, transaction::rollback);
+  }
+}
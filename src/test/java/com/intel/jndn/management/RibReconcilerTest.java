@@ -0,0 +1,147 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.RouteOrigin;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.mock.MockFace;
+import net.named_data.jndn.ControlResponse;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.MetaInfo;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import net.named_data.jndn.encoding.tlv.TlvEncoder;
+import net.named_data.jndn.util.Blob;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test RibReconciler.
+ */
+public class RibReconcilerTest {
+  private List<RibEntry> current;
+
+  @Before
+  public void setUp() {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+
+    current = new ArrayList<>();
+    current.add(new RibEntry().setName(new Name("/a"))
+                  .addRoute(route(1, RouteOrigin.STATIC, 10))
+                  .addRoute(route(2, RouteOrigin.STATIC, 10))
+                  .addRoute(route(3, RouteOrigin.APP, 0)));
+    current.add(new RibEntry().setName(new Name("/b"))
+                  .addRoute(route(1, RouteOrigin.STATIC, 10)));
+  }
+
+  @Test
+  public void testPlan() {
+    List<RibEntry> target = new ArrayList<>();
+    target.add(new RibEntry().setName(new Name("/a"))
+                 .addRoute(route(1, RouteOrigin.NLSR, 10))   // unchanged; origin is replaced
+                 .addRoute(route(2, RouteOrigin.STATIC, 20))); // cost change
+    target.add(new RibEntry().setName(new Name("/c"))
+                 .addRoute(route(4, RouteOrigin.STATIC, 5)));  // new
+
+    RibReconciler.Plan plan = RibReconciler.plan(current, target, RouteOrigin.STATIC);
+    assertEquals(3, plan.size());
+
+    assertEquals(1, plan.getRegistrations().size());
+    assertEquals(new Name("/c"), plan.getRegistrations().get(0).getName());
+    assertEquals(4, plan.getRegistrations().get(0).getFaceId());
+    assertEquals(RouteOrigin.STATIC.toInteger(), plan.getRegistrations().get(0).getOrigin());
+
+    assertEquals(1, plan.getUpdates().size());
+    assertEquals(2, plan.getUpdates().get(0).getFaceId());
+    assertEquals(20, plan.getUpdates().get(0).getCost());
+
+    // the APP route on /a/3 is not owned by the reconciler and stays
+    assertEquals(1, plan.getUnregistrations().size());
+    assertEquals(new Name("/b"), plan.getUnregistrations().get(0).getName());
+    assertEquals(1, plan.getUnregistrations().get(0).getFaceId());
+  }
+
+  @Test
+  public void testPlanWhenInSync() {
+    assertTrue(RibReconciler.plan(current, current, RouteOrigin.STATIC).getUnregistrations().isEmpty());
+    assertTrue(RibReconciler.plan(current, Arrays.asList(
+      new RibEntry().setName(new Name("/a"))
+        .addRoute(route(1, RouteOrigin.STATIC, 10))
+        .addRoute(route(2, RouteOrigin.STATIC, 10)),
+      new RibEntry().setName(new Name("/b"))
+        .addRoute(route(1, RouteOrigin.STATIC, 10))), RouteOrigin.STATIC).isEmpty());
+  }
+
+  @Test
+  public void testReconcile() throws Exception {
+    final MockFace face = new MockFace(new MockFace.Options());
+    final List<Name> commands = new ArrayList<>();
+    face.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        Data data = new Data();
+        if (new Name("/localhost/nfd/rib/list").isPrefixOf(interest.getName())) {
+          TlvEncoder encoder = new TlvEncoder();
+          for (int i = current.size() - 1; i >= 0; i--) {
+            current.get(i).wireEncode(encoder);
+          }
+          data.setName(new Name(interest.getName()).appendVersion(0).appendSegment(0));
+          MetaInfo meta = new MetaInfo();
+          meta.setFinalBlockId(data.getName().get(-1));
+          data.setMetaInfo(meta);
+          data.setContent(new Blob(encoder.getOutput(), false));
+        } else {
+          commands.add(interest.getName().getPrefix(4));
+          data.setName(interest.getName());
+          data.setContent(new ControlResponse().setStatusCode(200).setStatusText("OK").wireEncode());
+        }
+
+        try {
+          face.receive(data);
+        } catch (Exception e) {
+          fail("Failed to receive data on mock face: " + e);
+        }
+      }
+    });
+
+    RibReconciler.Report report = new RibReconciler(face, RouteOrigin.STATIC)
+      .setWindowSize(2)
+      .reconcile(Collections.singletonList(new RibEntry().setName(new Name("/a"))
+                                             .addRoute(route(1, RouteOrigin.STATIC, 10))));
+
+    assertEquals(2, report.getPlan().size());
+    assertEquals(2, report.getResults().size());
+    assertEquals(0, report.getFailureCount());
+    assertTrue(report.getPlanningNanos() > 0);
+    assertTrue(report.getExecutionNanos() > 0);
+    assertEquals(Arrays.asList(new Name("/localhost/nfd/rib/unregister"), new Name("/localhost/nfd/rib/unregister")),
+                 commands);
+  }
+
+  private static Route route(final int faceId, final RouteOrigin origin, final int cost) {
+    return new Route().setFaceId(faceId).setOrigin(origin.toInteger()).setCost(cost);
+  }
+}
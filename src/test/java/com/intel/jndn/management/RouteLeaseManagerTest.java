@@ -0,0 +1,168 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management;
+
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.mock.MockFace;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.ControlResponse;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test RouteLeaseManager.
+ */
+public class RouteLeaseManagerTest {
+  private static final long LEASE = 6400;
+
+  private MockFace face;
+  private List<ControlParameters> registered;
+  private Name rejected;
+
+  @Before
+  public void setUp() throws Exception {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+    face = new MockFace(new MockFace.Options());
+    registered = new ArrayList<>();
+    face.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        try {
+          ControlParameters parameters = new ControlParameters();
+          parameters.wireDecode(interest.getName().get(4).getValue());
+          registered.add(parameters);
+
+          int status = rejected != null && rejected.equals(parameters.getName()) ? 403 : 200;
+          Data data = new Data(interest.getName());
+          data.setContent(new ControlResponse().setStatusCode(status).setStatusText("-").wireEncode());
+          face.receive(data);
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testRegisterAndRenew() throws Exception {
+    RouteLeaseManager manager = new RouteLeaseManager(face, LEASE);
+    assertEquals(100, manager.getTickMillis());
+    manager.lease(new Name("/a"), 1, 10);
+    manager.lease(new Name("/b"), 1, 10);
+    manager.lease(new Name("/a"), 2, 10);
+    assertEquals(3, manager.size());
+
+    assertEquals(3, manager.renewDue(0).size());
+    assertEquals(3, registered.size());
+    assertEquals(LEASE, registered.get(0).getExpirationPeriod(), 0);
+    assertEquals(10, registered.get(0).getCost());
+
+    // renewed once two thirds of the lease have elapsed, all in one batch
+    assertTrue(manager.renewDue(LEASE / 2).isEmpty());
+    assertEquals(3, manager.renewDue(LEASE - LEASE / 3).size());
+    assertEquals(6, manager.getRenewedCount());
+
+    assertTrue(manager.cancel(new Name("/b"), 1));
+    assertFalse(manager.cancel(new Name("/b"), 1));
+    assertEquals(2, manager.renewDue(2 * (LEASE - LEASE / 3)).size());
+    assertEquals(2, manager.size());
+  }
+
+  @Test
+  public void testBatchSizeIsBounded() throws Exception {
+    RouteLeaseManager manager = new RouteLeaseManager(face, LEASE).setMaxBatchSize(2);
+    for (int i = 0; i < 5; i++) {
+      manager.lease(new Name("/p").append(Integer.toString(i)), 1, 0);
+    }
+
+    assertEquals(2, manager.renewDue(0).size());
+    assertEquals(2, manager.renewDue(0).size());
+    assertEquals(1, manager.renewDue(0).size());
+    assertTrue(manager.renewDue(0).isEmpty());
+
+    // everything falls due in one tick; the excess is deferred to the following calls
+    long due = LEASE - LEASE / 3;
+    assertEquals(2, manager.renewDue(due).size());
+    assertEquals(2, manager.renewDue(due).size());
+    assertEquals(1, manager.renewDue(due + manager.getTickMillis()).size());
+    assertEquals(10, manager.getRenewedCount());
+  }
+
+  @Test
+  public void testRejectedLeaseIsDropped() throws Exception {
+    List<CommandResult> reported = new ArrayList<>();
+    RouteLeaseManager manager = new RouteLeaseManager(face, LEASE)
+      .addListener((parameters, result) -> reported.add(result));
+    rejected = new Name("/x");
+    manager.lease(rejected, 1, 0);
+    manager.lease(new Name("/y"), 1, 0);
+
+    List<CommandResult> results = manager.renewDue(0);
+    assertFalse(results.get(0).isSuccess());
+    assertTrue(results.get(1).isSuccess());
+    assertEquals(1, manager.getFailedCount());
+    assertEquals(1, manager.size());
+    assertEquals(1, reported.size());
+    assertEquals(403, reported.get(0).getResponse().getStatusCode());
+    assertEquals(rejected, reported.get(0).getParameters().getName());
+
+    // a rejection is not retried
+    assertTrue(manager.renewDue(manager.getTickMillis()).isEmpty());
+    assertEquals(1, manager.renewDue(LEASE - LEASE / 3).size());
+    assertEquals(3, registered.size());
+  }
+
+  @Test
+  public void testUnansweredRenewalBacksOff() throws Exception {
+    try (FakeForwarder forwarder = new FakeForwarder()) {
+      int faceId = forwarder.addFace("udp4://192.0.2.1:6363", FacePersistency.PERMANENT);
+      forwarder.setNackRate(1).setNackReason(NetworkNack.Reason.NO_ROUTE);
+      RouteLeaseManager manager = new RouteLeaseManager(forwarder.getFace(), LEASE);
+      long tick = manager.getTickMillis();
+      manager.lease(new Name("/x"), faceId, 0);
+
+      // retried after 1, 2, 4, 8, 16 ticks, then every renewal margin
+      long now = 0;
+      for (long delay : new long[]{tick, 2 * tick, 4 * tick, 8 * tick, 16 * tick, LEASE / 3, LEASE / 3}) {
+        assertFalse(manager.renewDue(now).get(0).isSuccess());
+        assertTrue(manager.renewDue(now + delay - tick).isEmpty());
+        now += delay;
+      }
+      assertEquals(7, manager.getFailedCount());
+      assertEquals(1, manager.size());
+
+      // the forwarder is back: the route is registered and the backoff starts over
+      forwarder.setNackRate(0);
+      assertTrue(manager.renewDue(now).get(0).isSuccess());
+      assertEquals(1, forwarder.getRib().size());
+      forwarder.setNackRate(1);
+      now += LEASE - LEASE / 3;
+      assertFalse(manager.renewDue(now).get(0).isSuccess());
+      assertEquals(1, manager.renewDue(now + tick).size());
+    }
+  }
+}
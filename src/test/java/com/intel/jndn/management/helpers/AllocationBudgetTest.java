@@ -0,0 +1,193 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import com.intel.jndn.management.DatasetGenerator;
+import com.intel.jndn.management.enums.FacePersistency;
+import com.intel.jndn.management.enums.FaceScope;
+import com.intel.jndn.management.enums.LinkType;
+import com.intel.jndn.management.types.Decodable;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.FibEntry;
+import com.intel.jndn.management.types.NextHopRecord;
+import com.intel.jndn.management.types.RibEntry;
+import com.intel.jndn.management.types.Route;
+import com.intel.jndn.mock.MockFace;
+import com.intel.jndn.mock.MockTransport;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import net.named_data.jndn.util.Blob;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Guard the heap allocation of the decode and fetch hot paths: each test measures the bytes allocated per decoded
+ * entry or per fetched segment with the thread allocation counter of the JVM and fails when it exceeds a budget.
+ * <p/>
+ * The budgets were recorded on OpenJDK 17 (x86_64, compressed oops) with about 1.5x headroom; when a change
+ * legitimately needs more, re-record them by running the test and reading the measured value from the failure
+ * message. The tests are skipped on JVMs without thread allocation measurement.
+ */
+public class AllocationBudgetTest {
+  // bytes per entry or per 8000-byte segment; measured: 652, 1277, 1311 and 18078
+  private static final long FACE_STATUS_BUDGET = 1000;
+  private static final long FIB_ENTRY_BUDGET = 1900;
+  private static final long RIB_ENTRY_BUDGET = 2000;
+  private static final long SEGMENT_BUDGET = 27000;
+
+  private static final int ENTRIES = 20000;
+  private static final int SEGMENTS = 20;
+  private static final int SEGMENT_SIZE = 8000;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 5;
+
+  private com.sun.management.ThreadMXBean threads;
+
+  @Before
+  public void setUp() {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    threads = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @Test
+  public void testFaceStatusDecode() throws Exception {
+    List<FaceStatus> entries = new ArrayList<>();
+    for (int i = 0; i < ENTRIES; i++) {
+      entries.add(new FaceStatus()
+                    .setFaceId(256 + i)
+                    .setRemoteUri("udp4://192.0.2." + (i % 256) + ":6363")
+                    .setLocalUri("udp4://0.0.0.0:6363")
+                    .setFaceScope(FaceScope.NON_LOCAL)
+                    .setFacePersistency(FacePersistency.PERSISTENT)
+                    .setLinkType(LinkType.POINT_TO_POINT)
+                    .setNInInterests(i)
+                    .setNOutData(i)
+                    .setNInBytes(i * 100));
+    }
+    List<Data> segments = segments(DatasetGenerator.encode(entries, FaceStatus::wireEncode));
+
+    assertDecodeBudget(segments, FaceStatus.class, FACE_STATUS_BUDGET);
+  }
+
+  @Test
+  public void testFibEntryDecode() throws Exception {
+    List<FibEntry> entries = new ArrayList<>();
+    for (int i = 0; i < ENTRIES; i++) {
+      entries.add(new FibEntry()
+                    .setPrefix(new Name("/example/site").append("host" + i).append("app"))
+                    .addNextHopRecord(new NextHopRecord().setFaceId(256 + i % 100).setCost(10))
+                    .addNextHopRecord(new NextHopRecord().setFaceId(356 + i % 100).setCost(20)));
+    }
+    List<Data> segments = segments(DatasetGenerator.encode(entries, FibEntry::wireEncode));
+
+    assertDecodeBudget(segments, FibEntry.class, FIB_ENTRY_BUDGET);
+  }
+
+  @Test
+  public void testRibEntryDecode() throws Exception {
+    List<RibEntry> entries = new ArrayList<>();
+    for (int i = 0; i < ENTRIES; i++) {
+      entries.add(new RibEntry()
+                    .setName(new Name("/example/site").append("host" + i).append("app"))
+                    .addRoute(new Route().setFaceId(256 + i % 100).setOrigin(255).setCost(10).setFlags(1))
+                    .addRoute(new Route().setFaceId(356 + i % 100).setOrigin(0).setCost(0).setFlags(1)
+                                .setExpirationPeriod(3600000)));
+    }
+    List<Data> segments = segments(DatasetGenerator.encode(entries, RibEntry::wireEncode));
+
+    assertDecodeBudget(segments, RibEntry.class, RIB_ENTRY_BUDGET);
+  }
+
+  @Test
+  public void testSegmentedFetch() throws Exception {
+    final List<ByteBuffer> wire = new ArrayList<>();
+    for (Data segment : segments(new Blob(new byte[SEGMENTS * SEGMENT_SIZE]))) {
+      wire.add(segment.wireEncode().buf());
+    }
+    final MockFace face = new MockFace(new MockFace.Options().setEnablePacketLogging(false));
+    final MockTransport transport = (MockTransport) face.getTransport();
+    face.onSendInterest.add((Interest interest) -> {
+      Name name = interest.getName();
+      int segment = name.get(-1).isSegment() ? (int) name.get(-1).toNumber() : 0;
+      transport.receive(wire.get(segment).duplicate());
+    });
+
+    final Name prefix = new Name("/localhost/nfd/faces/list");
+    long perSegment = measure(() -> assertEquals(SEGMENTS, FetchHelper.getSegmentedData(face, prefix).size()),
+                              SEGMENTS, 1);
+    assertBudget("FetchHelper.getSegmentedData, per segment", perSegment, SEGMENT_BUDGET);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////
+
+  private <T extends Decodable> void assertDecodeBudget(final List<Data> segments, final Class<T> type,
+                                                        final long budget) throws Exception {
+    long perEntry = measure(() -> assertEquals(ENTRIES, StatusDatasetHelper.wireDecode(segments, type).size()),
+                            ENTRIES, WARMUP_ROUNDS);
+    assertBudget("StatusDatasetHelper.wireDecode, per " + type.getSimpleName(), perEntry, budget);
+  }
+
+  private static void assertBudget(final String operation, final long measured, final long budget) {
+    assertTrue(operation + " allocates " + measured + " bytes, budget is " + budget, measured <= budget);
+  }
+
+  /**
+   * @param operation  the operation to measure
+   * @param nUnits     number of entries or segments the operation handles
+   * @param nWarmups   number of unmeasured runs, to let the JIT compile the path
+   * @return the fewest bytes allocated per unit over the measured runs
+   * @throws Exception if the operation fails
+   */
+  private long measure(final Operation operation, final int nUnits, final int nWarmups) throws Exception {
+    for (int i = 0; i < nWarmups; i++) {
+      operation.run();
+    }
+    long threadId = Thread.currentThread().getId();
+    long fewest = Long.MAX_VALUE;
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      long before = threads.getThreadAllocatedBytes(threadId);
+      operation.run();
+      fewest = Math.min(fewest, threads.getThreadAllocatedBytes(threadId) - before);
+    }
+    return fewest / nUnits;
+  }
+
+  private static List<Data> segments(final Blob payload) {
+    return DatasetGenerator.segments(new Name("/localhost/nfd/faces/list").appendVersion(1), payload, SEGMENT_SIZE);
+  }
+
+  /**
+   * An operation to measure.
+   */
+  private interface Operation {
+    void run() throws Exception;
+  }
+}
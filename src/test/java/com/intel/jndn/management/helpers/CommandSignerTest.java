@@ -0,0 +1,175 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import com.intel.jndn.mock.MockFace;
+import com.intel.jndn.mock.MockKeyChain;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.OnNetworkNack;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import net.named_data.jndn.security.KeyChain;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test CommandSigner.
+ */
+public class CommandSignerTest {
+  private KeyChain keyChain;
+
+  @Before
+  public void setUp() throws Exception {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+    keyChain = MockKeyChain.configure(new Name("/tmp/identity"));
+  }
+
+  @Test
+  public void testCommandInterestLayout() throws Exception {
+    CommandSigner signer = new CommandSigner(keyChain, keyChain.getDefaultCertificateName());
+    Interest interest = new Interest(new Name("/localhost/nfd/rib/register/params"));
+    signer.sign(interest);
+
+    // name/timestamp/nonce/SignatureInfo/SignatureValue
+    assertEquals(9, interest.getName().size());
+    assertEquals(8, interest.getName().get(-3).getValue().size());
+    assertTrue(interest.getName().get(-4).toNumber() > 0);
+    assertEquals(1, signer.getSignedCount());
+    assertTrue(signer.getMaxSigningNanos() > 0);
+    assertTrue(signer.getMeanSigningNanos() <= signer.getMaxSigningNanos());
+  }
+
+  @Test
+  public void testTimestampsAreUniqueAcrossThreads() throws Exception {
+    final CommandSigner signer = new CommandSigner(keyChain, keyChain.getDefaultCertificateName());
+    final List<Long> timestamps = Collections.synchronizedList(new ArrayList<Long>());
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(new Thread(() -> {
+        long last = 0;
+        for (int i = 0; i < 50; i++) {
+          Interest interest = new Interest(new Name("/localhost/nfd/rib/register"));
+          try {
+            signer.sign(interest);
+          } catch (Exception e) {
+            throw new AssertionError(e);
+          }
+          long timestamp = interest.getName().get(-4).toNumber();
+          assertTrue(timestamp > last);
+          last = timestamp;
+          timestamps.add(timestamp);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Set<Long> unique = new HashSet<>(timestamps);
+    assertEquals(200, unique.size());
+    assertEquals(200, signer.getSignedCount());
+  }
+
+  @Test
+  public void testInterleavedThreadsSendInTimestampOrder() throws Exception {
+    final CommandSigner signer = new CommandSigner(keyChain, keyChain.getDefaultCertificateName());
+    final long[] lastSent = {0};
+    final AtomicInteger nReordered = new AtomicInteger();
+    final AtomicInteger nSent = new AtomicInteger();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      // one face per thread, all checked like a forwarder checks the timestamps of one signing key
+      final MockFace face = new MockFace(new MockFace.Options());
+      face.onSendInterest.add(interest -> {
+        synchronized (lastSent) {
+          long timestamp = interest.getName().get(-4).toNumber();
+          if (timestamp <= lastSent[0]) {
+            nReordered.incrementAndGet();
+          }
+          lastSent[0] = Math.max(lastSent[0], timestamp);
+          nSent.incrementAndGet();
+        }
+      });
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 100; i++) {
+          try {
+            signer.signAndExpress(face, new Interest(new Name("/localhost/nfd/rib/register")), null, null, null);
+            if (i % 10 == 0) {
+              List<Name> batch = Collections.nCopies(5, new Name("/localhost/nfd/rib/register"));
+              signer.dispatch(() -> {
+                for (Interest interest : signer.signAll(batch)) {
+                  face.expressInterest(interest, null, null, (OnNetworkNack) null);
+                }
+              });
+            }
+          } catch (Exception e) {
+            throw new AssertionError(e);
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(4 * (100 + 10 * 5), nSent.get());
+    assertEquals(0, nReordered.get());
+  }
+
+  @Test
+  public void testSignAllInParallelKeepsOrder() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      CommandSigner signer = new CommandSigner(keyChain, keyChain.getDefaultCertificateName(), executor);
+      List<Name> commands = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        commands.add(new Name("/localhost/nfd/rib/register").append("p" + i));
+      }
+
+      List<Interest> interests = signer.signAll(commands);
+      assertEquals(commands.size(), interests.size());
+      long last = 0;
+      for (int i = 0; i < interests.size(); i++) {
+        Name name = interests.get(i).getName();
+        assertEquals(commands.get(i), name.getPrefix(commands.get(i).size()));
+        assertTrue(name.get(-4).toNumber() > last);
+        last = name.get(-4).toNumber();
+      }
+      assertEquals(100, signer.getSignedCount());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
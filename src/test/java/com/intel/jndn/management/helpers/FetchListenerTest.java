@@ -0,0 +1,164 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import com.intel.jndn.mock.MockFace;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.MetaInfo;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.Tlv0_3WireFormat;
+import net.named_data.jndn.encoding.WireFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.fail;
+
+/**
+ * Test FetchListener events reported by FetchHelper.
+ */
+public class FetchListenerTest {
+  private MockFace face;
+  private List<String> events;
+
+  @Before
+  public void setUp() {
+    WireFormat.setDefaultWireFormat(Tlv0_3WireFormat.get());
+    face = new MockFace(new MockFace.Options());
+    events = new ArrayList<>();
+    FetchHelper.setListener(new FetchListener() {
+      @Override
+      public void onInterest(final Interest interest, final long segment, final int attempt, final long timestamp) {
+        events.add("interest " + segment + " " + attempt);
+      }
+
+      @Override
+      public void onRetransmission(final Interest interest, final long segment, final int attempt,
+                                   final long timestamp) {
+        events.add("retransmission " + segment + " " + attempt);
+      }
+
+      @Override
+      public void onData(final Interest interest, final Data data, final long segment, final long rttNanos,
+                         final long timestamp) {
+        events.add("data " + segment);
+      }
+
+      @Override
+      public void onTimeout(final Interest interest, final long segment, final int attempt, final long timestamp) {
+        events.add("timeout " + segment + " " + attempt);
+      }
+
+      @Override
+      public void onComplete(final Name name, final int nData, final int nFailed, final long elapsedNanos,
+                             final long timestamp) {
+        events.add("complete " + name.toUri() + " " + nData + " " + nFailed);
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    FetchHelper.setListener(null);
+  }
+
+  @Test
+  public void testSegmentedFetch() throws Exception {
+    face.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        Name name = interest.getName();
+        if (!name.get(-1).isSegment()) {
+          name = new Name(name).appendVersion(1).appendSegment(0);
+        }
+        Data data = new Data(name);
+        MetaInfo meta = new MetaInfo();
+        meta.setFinalBlockId(Name.Component.fromSegment(0));
+        data.setMetaInfo(meta);
+        try {
+          face.receive(data);
+        } catch (Exception e) {
+          fail("Failed to receive data on mock face: " + e);
+        }
+      }
+    });
+
+    Name prefix = new Name("/localhost/nfd/faces/list");
+    List<Data> segments = FetchHelper.getSegmentedData(face, prefix);
+
+    assertEquals(1, segments.size());
+    assertEquals(new Name("/localhost/nfd/faces/list"), prefix);
+    assertEquals(events.toString(), 3, events.size());
+    assertEquals("interest -1 1", events.get(0));
+    assertEquals("data -1", events.get(1));
+    assertEquals("complete /localhost/nfd/faces/list 1 0", events.get(2));
+  }
+
+  @Test
+  public void testPipelinedFetch() throws Exception {
+    face.onSendInterest.add(new MockFace.SignalOnSendInterest() {
+      @Override
+      public void emit(final Interest interest) {
+        try {
+          face.receive(new Data(interest.getName()));
+        } catch (Exception e) {
+          fail("Failed to receive data on mock face: " + e);
+        }
+      }
+    });
+
+    List<Interest> interests = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      interests.add(new Interest(new Name("/localhost/nfd/faces/list").appendVersion(1).appendSegment(i)));
+    }
+    FetchHelper.getData(face, interests, 1);
+
+    assertEquals(events.toString(), 7, events.size());
+    assertEquals("interest 0 1", events.get(0));
+    assertEquals("data 0", events.get(1));
+    assertEquals("interest 2 1", events.get(4));
+    assertEquals("data 2", events.get(5));
+    assertEquals("complete " + interests.get(0).getName().toUri() + " 3 0", events.get(6));
+  }
+
+  @Test
+  public void testTimeoutAndRetransmission() {
+    Interest interest = new Interest(new Name("/localhost/nfd/status/general"));
+    interest.setInterestLifetimeMilliseconds(10);
+
+    assertThrows(IOException.class, () -> FetchHelper.getData(face, interest));
+
+    assertEquals(events.toString(), 9, events.size());
+    assertEquals("interest -1 1", events.get(0));
+    assertEquals("timeout -1 1", events.get(1));
+    assertEquals("retransmission -1 2", events.get(2));
+    assertEquals("interest -1 2", events.get(3));
+    assertEquals("timeout -1 3", events.get(7));
+    assertEquals("complete /localhost/nfd/status/general 0 1", events.get(8));
+  }
+
+  @Test
+  public void testNullListenerRestoresNone() {
+    FetchHelper.setListener(null);
+    assertSame(FetchListener.NONE, FetchHelper.getListener());
+  }
+}
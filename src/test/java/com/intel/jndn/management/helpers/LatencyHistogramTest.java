@@ -0,0 +1,96 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+  @Test
+  public void testBucketsCoverTheRange() {
+    long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE};
+    for (long value : values) {
+      int bucket = LatencyHistogram.bucket(value);
+      long highest = LatencyHistogram.highestValue(bucket);
+      assertTrue(value + " <= " + highest, value <= highest);
+      assertTrue(value + " within 1/16 of " + highest, highest - value <= value / 16);
+      if (bucket > 0) {
+        assertTrue(LatencyHistogram.highestValue(bucket - 1) < value);
+      }
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), snapshot.getMaxNanos());
+    assertEquals(500.5e3, snapshot.getMeanNanos(), 1e-6);
+    assertEquals(500e3, snapshot.getValueAtPercentile(50), 500e3 / 16);
+    assertEquals(990e3, snapshot.getValueAtPercentile(99), 990e3 / 16);
+    assertEquals(snapshot.getMaxNanos(), snapshot.getValueAtPercentile(100));
+    assertEquals(0, new LatencyHistogram().snapshot().getValueAtPercentile(50));
+  }
+
+  @Test
+  public void testSnapshotAndReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(100);
+    histogram.record(-5);
+
+    LatencyHistogram.Snapshot first = histogram.snapshotAndReset();
+    assertEquals(2, first.getCount());
+    assertEquals(0, first.getValueAtPercentile(0));
+    assertEquals(0, histogram.snapshot().getCount());
+
+    histogram.record(7);
+    assertEquals(7, histogram.snapshotAndReset().getMaxNanos());
+  }
+
+  @Test
+  public void testConcurrentRecording() throws Exception {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final Random random = new Random(t);
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 100000; i++) {
+          histogram.record(random.nextInt(1000000));
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(400000, histogram.snapshot().getCount());
+  }
+}
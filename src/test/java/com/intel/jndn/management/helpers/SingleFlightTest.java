@@ -0,0 +1,87 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.helpers;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test SingleFlight.
+ */
+public class SingleFlightTest {
+  @Test
+  public void testConcurrentCallersShareOneRequest() throws Exception {
+    final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+    final AtomicInteger nCalls = new AtomicInteger();
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      results.add(executor.submit(() -> singleFlight.execute("udp4://192.0.2.1:6363", () -> {
+        started.countDown();
+        release.await();
+        return nCalls.incrementAndGet();
+      })));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      for (int i = 0; i < 7; i++) {
+        results.add(executor.submit(() -> singleFlight.execute("udp4://192.0.2.1:6363", nCalls::incrementAndGet)));
+      }
+      while (singleFlight.getSharedCount() < 7) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      for (Future<Integer> result : results) {
+        assertEquals(1, (int) result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, nCalls.get());
+      assertEquals(1, singleFlight.getExecutedCount());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // nothing is cached once the request completed
+    assertEquals(0, singleFlight.getInFlightCount());
+    assertEquals(2, (int) singleFlight.execute("udp4://192.0.2.1:6363", nCalls::incrementAndGet));
+  }
+
+  @Test
+  public void testFailureIsSharedAndNotCached() throws Exception {
+    final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+    final IOException failure = new IOException("timeout");
+
+    IOException thrown = assertThrows(IOException.class, () -> singleFlight.execute("key", () -> {
+      throw failure;
+    }));
+    assertSame(failure, thrown);
+    assertEquals(42, (int) singleFlight.execute("key", () -> 42));
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.CsInfo;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test CsHitRatioPoller.
+ */
+public class CsHitRatioPollerTest {
+  @Test
+  public void testIntervalHitRatio() {
+    CsHitRatioPoller poller = new CsHitRatioPoller(null);
+    long start = TimeUnit.SECONDS.toNanos(100);
+
+    CsHitRatioPoller.Sample first = poller.update(info(1000, 9000), start);
+    assertEquals(0.1, first.getHitRatio(), 1e-9);
+    assertEquals(0, first.getIntervalNanos());
+    assertEquals(0, first.getLookupsPerSecond(), 0);
+
+    // 800 hits and 200 misses in two seconds
+    CsHitRatioPoller.Sample second = poller.update(info(1800, 9200), start + TimeUnit.SECONDS.toNanos(2));
+    assertEquals(800, second.getNHits());
+    assertEquals(200, second.getNMisses());
+    assertEquals(0.8, second.getHitRatio(), 1e-9);
+    assertEquals(500, second.getLookupsPerSecond(), 1e-9);
+    assertEquals(0.5, second.getOccupancy(), 1e-9);
+  }
+
+  @Test
+  public void testCounterReset() {
+    CsHitRatioPoller poller = new CsHitRatioPoller(null);
+    poller.update(info(1000, 9000), 0);
+
+    CsHitRatioPoller.Sample afterRestart = poller.update(info(30, 10), TimeUnit.SECONDS.toNanos(1));
+    assertEquals(30, afterRestart.getNHits());
+    assertEquals(0.75, afterRestart.getHitRatio(), 1e-9);
+    assertEquals(0, afterRestart.getIntervalNanos());
+  }
+
+  private static CsInfo info(final long nHits, final long nMisses) {
+    return new CsInfo().setCapacity(100).setNCsEntries(50).setNHits(nHits).setNMisses(nMisses);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test EfficiencyMonitor.
+ */
+public class EfficiencyMonitorTest {
+  private static final long START = 1500000000000L;
+
+  @Test
+  public void testRatios() {
+    EfficiencyMonitor monitor = new EfficiencyMonitor(null, 2);
+    assertNull(monitor.update(status(START + 1000, 1000, 100, 10, 50, 100),
+                              Arrays.asList(face(1, 0, 0, 0, 0), face(2, 0, 0, 0, 0))));
+
+    EfficiencyMonitor.Sample sample = monitor.update(status(START + 3000, 1900, 200, 30, 90, 200),
+                                                     Arrays.asList(face(1, 100, 10, 40, 10), face(3, 5, 5, 5, 5)));
+    assertEquals(2000, sample.getIntervalMillis());
+    assertTrue(sample.hasSatisfactionRatio());
+    assertEquals(900, sample.getNSatisfiedInterests());
+    assertEquals(0.9, sample.getSatisfactionRatio(), 1e-9);
+    assertEquals(0.5, sample.getNackRatio(), 1e-9);
+
+    // face 2 disappeared and face 3 is new: only face 1 has an interval
+    assertEquals(Collections.singletonList(1), sample.getFaceIds());
+    assertEquals(0.25, sample.getFaceInNackRatio(1), 1e-9);
+    assertEquals(0.1, sample.getFaceOutNackRatio(1), 1e-9);
+    assertTrue(Double.isNaN(sample.getFaceInNackRatio(3)));
+
+    // same dataset generation
+    assertNull(monitor.update(status(START + 3000, 1900, 200, 30, 90, 200), Collections.<FaceStatus>emptyList()));
+    monitor.update(status(START + 4000, 2000, 200, 30, 90, 200), Collections.<FaceStatus>emptyList());
+    monitor.update(status(START + 5000, 2100, 200, 30, 90, 200), Collections.<FaceStatus>emptyList());
+    assertEquals(2, monitor.getHistory().size());
+    assertEquals(START + 4000, monitor.getHistory().get(0).getTimestamp());
+  }
+
+  @Test
+  public void testOlderForwarderAndRestart() {
+    EfficiencyMonitor monitor = new EfficiencyMonitor(null, 2);
+    ForwarderStatus before = status(START + 1000, 0, 0, 0, 0, 0).setNSatisfiedInterests(-1);
+    ForwarderStatus after = status(START + 2000, 0, 0, 0, 0, 0).setNSatisfiedInterests(-1);
+    monitor.update(before, Collections.<FaceStatus>emptyList());
+    EfficiencyMonitor.Sample sample = monitor.update(after, Collections.<FaceStatus>emptyList());
+    assertFalse(sample.hasSatisfactionRatio());
+    assertTrue(Double.isNaN(sample.getSatisfactionRatio()));
+
+    // counters started over: no sample across the restart
+    assertNull(monitor.update(status(START + 3000, 0, 0, 0, 0, 0).setStartTimestamp(START + 2500),
+                              Collections.<FaceStatus>emptyList()));
+  }
+
+  private static ForwarderStatus status(final long currentTimestamp, final long nSatisfied, final long nUnsatisfied,
+                                        final long nOutNacks, final long nInInterests, final long nOutInterests) {
+    return new ForwarderStatus().setStartTimestamp(START).setCurrentTimestamp(currentTimestamp)
+                                .setNSatisfiedInterests(nSatisfied).setNUnsatisfiedInterests(nUnsatisfied)
+                                .setNOutNacks(nOutNacks).setNInInterests(nInInterests)
+                                .setNOutInterests(nOutInterests);
+  }
+
+  private static FaceStatus face(final int faceId, final int nInInterests, final int nOutNacks,
+                                 final int nOutInterests, final int nInNacks) {
+    return new FaceStatus().setFaceId(faceId).setRemoteUri("udp4://192.0.2." + faceId + ":6363")
+                           .setNInInterests(nInInterests).setNOutNacks(nOutNacks)
+                           .setNOutInterests(nOutInterests).setNInNacks(nInNacks);
+  }
+}
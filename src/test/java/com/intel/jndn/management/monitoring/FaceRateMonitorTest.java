@@ -0,0 +1,128 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test FaceRateMonitor.
+ */
+public class FaceRateMonitorTest {
+  private static final long START = 1500000000000L;
+
+  @Test
+  public void testRates() {
+    FaceRateMonitor monitor = new FaceRateMonitor(null, 3);
+    monitor.update(status(START), Arrays.asList(face(1, 0, 0), face(2, 100, 5000)));
+    assertEquals(0, monitor.getSeries(1).size());
+    assertEquals(0, monitor.getSeries(1).getLatestRate(FaceCounter.IN_BYTES), 0);
+
+    // 2 seconds of forwarder time, however long the fetch took locally
+    monitor.update(status(START + 2000), Arrays.asList(face(1, 10, 3000), face(2, 300, 5000)));
+    FaceRateMonitor.Series series = monitor.getSeries(1);
+    assertEquals(1, series.size());
+    assertEquals(5, series.getLatestRate(FaceCounter.IN_INTERESTS), 1e-9);
+    assertEquals(1500, series.getLatestRate(FaceCounter.IN_BYTES), 1e-9);
+    assertEquals(100, monitor.getSeries(2).getLatestRate(FaceCounter.IN_INTERESTS), 1e-9);
+    assertEquals(0, monitor.getSeries(2).getLatestRate(FaceCounter.IN_BYTES), 1e-9);
+  }
+
+  @Test
+  public void testRingBufferKeepsLastSamples() {
+    FaceRateMonitor monitor = new FaceRateMonitor(null, 3);
+    for (int i = 0; i <= 5; i++) {
+      monitor.update(status(START + i * 1000), Collections.singletonList(face(1, i * i, 0)));
+    }
+
+    FaceRateMonitor.Series series = monitor.getSeries(1);
+    assertEquals(3, series.size());
+    assertArrayEquals(new long[]{START + 3000, START + 4000, START + 5000}, series.getTimestamps());
+    assertArrayEquals(new double[]{5, 7, 9}, series.getRates(FaceCounter.IN_INTERESTS), 1e-9);
+  }
+
+  @Test
+  public void testCounterWrapAround() {
+    FaceRateMonitor monitor = new FaceRateMonitor(null, 3);
+    monitor.update(status(START), Collections.singletonList(face(1, 0, Integer.MAX_VALUE)));
+    monitor.update(status(START + 1000), Collections.singletonList(face(1, 0, Integer.MIN_VALUE + 9)));
+    assertEquals(10, monitor.getSeries(1).getLatestRate(FaceCounter.IN_BYTES), 1e-9);
+
+    monitor.update(status(START + 2000), Collections.singletonList(face(1, 0, -1)));
+    monitor.update(status(START + 3000), Collections.singletonList(face(1, 0, 4)));
+    assertEquals(5, monitor.getSeries(1).getLatestRate(FaceCounter.IN_BYTES), 1e-9);
+  }
+
+  @Test
+  public void testRestartAndRemovedFaces() {
+    FaceRateMonitor monitor = new FaceRateMonitor(null, 3);
+    monitor.update(status(START), Arrays.asList(face(1, 1000, 0), face(2, 0, 0)));
+    monitor.update(status(START + 1000), Collections.singletonList(face(1, 2000, 0)));
+    assertEquals(Collections.singletonList(1), monitor.getFaceIds());
+    assertNull(monitor.getSeries(2));
+
+    // counters start over after a restart; no bogus rate is computed across it
+    ForwarderStatus restarted = new ForwarderStatus().setStartTimestamp(START + 5000).setCurrentTimestamp(START + 6000);
+    monitor.update(restarted, Collections.singletonList(face(1, 10, 0)));
+    assertEquals(1, monitor.getSeries(1).size());
+    assertEquals(1000, monitor.getSeries(1).getLatestRate(FaceCounter.IN_INTERESTS), 1e-9);
+
+    // the next sample is measured from the first reading after the restart and marked as a discontinuity
+    restarted.setCurrentTimestamp(START + 8000);
+    monitor.update(restarted, Collections.singletonList(face(1, 30, 0)));
+    FaceRateMonitor.Series series = monitor.getSeries(1);
+    assertEquals(2, series.size());
+    assertEquals(10, series.getLatestRate(FaceCounter.IN_INTERESTS), 1e-9);
+    assertFalse(series.isDiscontinuity(0));
+    assertTrue(series.isDiscontinuity(1));
+
+    // a reused face ID with another remote URI starts a new series
+    restarted.setStartTimestamp(START + 9000).setCurrentTimestamp(START + 10000);
+    monitor.update(restarted, Collections.singletonList(face(1, 0, 0).setRemoteUri("tcp4://192.0.2.2:6363")));
+    assertEquals(0, monitor.getSeries(1).size());
+  }
+
+  @Test
+  public void testTopFaces() {
+    FaceRateMonitor monitor = new FaceRateMonitor(null, 3);
+    monitor.update(status(START), Arrays.asList(face(1, 0, 0), face(2, 0, 0), face(3, 0, 0)));
+    monitor.update(status(START + 1000), Arrays.asList(face(1, 0, 100), face(2, 0, 300), face(3, 0, 200)));
+
+    List<FaceRateMonitor.Series> top = monitor.getTopFaces(FaceCounter.IN_BYTES, 2);
+    assertEquals(2, top.size());
+    assertEquals(2, top.get(0).getFaceId());
+    assertEquals(3, top.get(1).getFaceId());
+    assertEquals(200, top.get(1).getLatestRate(FaceCounter.IN_BYTES), 1e-9);
+  }
+
+  private static ForwarderStatus status(final long currentTimestamp) {
+    return new ForwarderStatus().setStartTimestamp(START - 1000).setCurrentTimestamp(currentTimestamp);
+  }
+
+  private static FaceStatus face(final int faceId, final int nInInterests, final int nInBytes) {
+    return new FaceStatus().setFaceId(faceId).setRemoteUri("udp4://192.0.2.1:6363")
+                           .setNInInterests(nInInterests).setNInBytes(nInBytes);
+  }
+}
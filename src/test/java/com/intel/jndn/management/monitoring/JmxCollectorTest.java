@@ -0,0 +1,95 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.Nfdc;
+import com.intel.jndn.management.types.CsInfo;
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test JmxCollector.
+ */
+public class JmxCollectorTest {
+  private static final long START = 1500000000000L;
+
+  private MBeanServer server;
+  private JmxCollector collector;
+
+  @Before
+  public void setUp() throws Exception {
+    server = MBeanServerFactory.newMBeanServer();
+    collector = new JmxCollector(null, server).register();
+  }
+
+  @Test
+  public void testAttributesReadTheLastCollection() throws Exception {
+    collector.update(status(START).setNPitEntries(7), Arrays.asList(face(1, 0), face(2, 0)), cs(10, 90));
+    collector.update(status(START + 2000).setNPitEntries(9), Arrays.asList(face(1, 4000), face(2, 0)), cs(90, 110));
+
+    ObjectName forwarder = new ObjectName(JmxCollector.DOMAIN + ":type=Forwarder");
+    assertEquals(9L, server.getAttribute(forwarder, "NPitEntries"));
+    assertEquals("0.6.2", server.getAttribute(forwarder, "NfdVersion"));
+
+    ObjectName contentStore = new ObjectName(JmxCollector.DOMAIN + ":type=ContentStore");
+    assertEquals(0.8, (Double) server.getAttribute(contentStore, "HitRatio"), 1e-9);
+    assertEquals(50.0, (Double) server.getAttribute(contentStore, "LookupsPerSecond"), 1e-9);
+
+    ObjectName face1 = new ObjectName(JmxCollector.DOMAIN + ":type=Face,id=1");
+    assertEquals(4000L, server.getAttribute(face1, "NInBytes"));
+    assertEquals(2000.0, (Double) server.getAttribute(face1, "InBytesPerSecond"), 1e-9);
+    assertEquals("udp4://192.0.2.1:6363", server.getAttribute(face1, "RemoteUri"));
+  }
+
+  @Test
+  public void testBeansFollowFacesAndOperations() throws Exception {
+    ObjectName face2 = new ObjectName(JmxCollector.DOMAIN + ":type=Face,id=2");
+    collector.update(status(START), Arrays.asList(face(1, 0), face(2, 0)), cs(0, 0));
+    assertTrue(server.isRegistered(face2));
+
+    collector.update(status(START + 1000), Collections.singletonList(face(1, 0)), cs(0, 0));
+    assertFalse(server.isRegistered(face2));
+
+    ObjectName operations = new ObjectName(JmxCollector.DOMAIN + ":type=Operation,*");
+    assertEquals(Nfdc.getOperationStats().size(), server.queryNames(operations, null).size());
+
+    collector.unregister();
+    assertTrue(server.queryNames(new ObjectName(JmxCollector.DOMAIN + ":*"), null).isEmpty());
+  }
+
+  private static ForwarderStatus status(final long currentTimestamp) {
+    return new ForwarderStatus().setNfdVersion("0.6.2").setStartTimestamp(START - 1000)
+                                .setCurrentTimestamp(currentTimestamp);
+  }
+
+  private static FaceStatus face(final int faceId, final int nInBytes) {
+    return new FaceStatus().setFaceId(faceId).setRemoteUri("udp4://192.0.2.1:6363").setNInBytes(nInBytes);
+  }
+
+  private static CsInfo cs(final long nHits, final long nMisses) {
+    return new CsInfo().setCapacity(100).setNHits(nHits).setNMisses(nMisses);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.FaceStatus;
+import com.intel.jndn.management.types.ForwarderStatus;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test PrometheusExporter.
+ */
+public class PrometheusExporterTest {
+  @Test
+  public void testRender() {
+    ForwarderStatus status = new ForwarderStatus().setNfdVersion("0.6.2").setStartTimestamp(1500000000000L)
+                                                  .setNPitEntries(12).setNInInterests(9000);
+    String text = PrometheusExporter.render(status, Arrays.asList(
+      new FaceStatus().setFaceId(1).setRemoteUri("udp4://192.0.2.1:6363").setLocalUri("udp4://192.0.2.2:6363")
+                      .setNOutBytes(-1),
+      new FaceStatus().setFaceId(2).setRemoteUri("fd://\"weird\"").setLocalUri("").setNInData(5)));
+
+    assertTrue(text.contains("nfd_info{version=\"0.6.2\"} 1\n"));
+    assertTrue(text.contains("# TYPE nfd_pit_entries gauge\nnfd_pit_entries 12\n"));
+    assertTrue(text.contains("# TYPE nfd_in_interests_total counter\nnfd_in_interests_total 9000\n"));
+    assertTrue(text.contains("nfd_start_time_seconds 1.5E9\n"));
+    assertTrue(text.contains("nfd_face_out_bytes_total{face_id=\"1\",remote_uri=\"udp4://192.0.2.1:6363\"," +
+                             "local_uri=\"udp4://192.0.2.2:6363\"} 4294967295\n"));
+    assertTrue(text.contains("nfd_face_in_data_total{face_id=\"2\",remote_uri=\"fd://\\\"weird\\\"\"," +
+                             "local_uri=\"\"} 5\n"));
+    assertTrue(text.contains("# TYPE jndn_management_fetch_interests_total counter\n"));
+
+    // every sample line belongs to a declared metric
+    for (String line : text.split("\n")) {
+      assertTrue(line, line.startsWith("# ") || line.matches("[a-z_]+(\\{.*\\})? [0-9.E-]+"));
+    }
+  }
+
+  @Test
+  public void testServeSnapshot() throws Exception {
+    PrometheusExporter exporter = new PrometheusExporter(null);
+    exporter.update(new ForwarderStatus().setNfdVersion("0.6.2"), Arrays.<FaceStatus>asList());
+    exporter.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    try {
+      URL url = new URL("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" +
+                        exporter.getAddress().getPort() + "/metrics");
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      assertEquals(200, connection.getResponseCode());
+      assertEquals(PrometheusExporter.CONTENT_TYPE, connection.getContentType());
+      assertEquals(exporter.getSnapshot(), read(connection.getInputStream()));
+    } finally {
+      exporter.stop();
+    }
+  }
+
+  private static String read(final InputStream stream) throws Exception {
+    try (InputStream input = stream) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int n;
+      while ((n = input.read(buffer)) > 0) {
+        output.write(buffer, 0, n);
+      }
+      return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
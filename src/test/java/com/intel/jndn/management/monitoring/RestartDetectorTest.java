@@ -0,0 +1,59 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.ForwarderStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test RestartDetector.
+ */
+public class RestartDetectorTest {
+  private static final long START = 1500000000000L;
+
+  @Test
+  public void testRestart() {
+    final List<ForwarderStatus[]> restarts = new ArrayList<>();
+    RestartDetector detector = new RestartDetector(null)
+      .addListener((previous, current) -> restarts.add(new ForwarderStatus[]{previous, current}));
+
+    ForwarderStatus first = status(START, START + 1000);
+    assertFalse(detector.update(first));
+    ForwarderStatus second = status(START, START + 2000);
+    assertFalse(detector.update(second));
+    assertTrue(restarts.isEmpty());
+
+    ForwarderStatus restarted = status(START + 2500, START + 3000);
+    assertTrue(detector.update(restarted));
+    assertEquals(1, restarts.size());
+    assertSame(second, restarts.get(0)[0]);
+    assertSame(restarted, restarts.get(0)[1]);
+    assertSame(restarted, detector.getLastStatus());
+
+    assertFalse(detector.update(status(START + 2500, START + 4000)));
+    assertEquals(1, detector.getRestartCount());
+  }
+
+  private static ForwarderStatus status(final long startTimestamp, final long currentTimestamp) {
+    return new ForwarderStatus().setStartTimestamp(startTimestamp).setCurrentTimestamp(currentTimestamp);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.ForwarderStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test TableGrowthDetector.
+ */
+public class TableGrowthDetectorTest {
+  private static final long START = 1500000000000L;
+
+  @Test
+  public void testBurstAboveBaseline() {
+    List<TableGrowthDetector.Anomaly> reported = new ArrayList<>();
+    TableGrowthDetector detector = new TableGrowthDetector(null).setWarmup(5).addListener(reported::add);
+
+    // the PIT grows by 100 +- 10 entries per second, the CS by 50 per second
+    long nPit = 0;
+    for (int i = 0; i <= 20; i++) {
+      nPit += 100 + (i % 2 == 0 ? 10 : -10);
+      assertTrue(detector.update(status(START + i * 1000, START, nPit, i * 50)).isEmpty());
+    }
+    assertEquals(20, detector.getSampleCount());
+    assertEquals(100, detector.getMeanGrowth(ForwarderTable.PIT), 10);
+    assertEquals(50, detector.getMeanGrowth(ForwarderTable.CS), 1e-9);
+
+    nPit += 1000;
+    List<TableGrowthDetector.Anomaly> anomalies = detector.update(status(START + 21000, START, nPit, 21 * 50));
+    assertEquals(1, anomalies.size());
+    assertEquals(anomalies, reported);
+    TableGrowthDetector.Anomaly anomaly = anomalies.get(0);
+    assertEquals(ForwarderTable.PIT, anomaly.getTable());
+    assertEquals(nPit, anomaly.getSize());
+    assertEquals(1000, anomaly.getGrowth(), 1e-9);
+    assertTrue(anomaly.getScore() > 4);
+  }
+
+  @Test
+  public void testWarmupAndRestart() {
+    TableGrowthDetector detector = new TableGrowthDetector(null).setWarmup(3).setMinGrowth(10);
+    detector.update(status(START, START, 0, 0));
+    // no baseline yet
+    assertTrue(detector.update(status(START + 1000, START, 50, 0)).isEmpty());
+    detector.update(status(START + 2000, START, 50, 0));
+    detector.update(status(START + 3000, START, 50, 0));
+    // below the minimum growth
+    assertTrue(detector.update(status(START + 4000, START, 55, 0)).isEmpty());
+    assertEquals(1, detector.update(status(START + 5000, START, 100000, 0)).size());
+
+    // the forwarder restarted: the emptied tables are a new baseline, not a shrink
+    assertTrue(detector.update(status(START + 6000, START + 5500, 0, 0)).isEmpty());
+    assertEquals(0, detector.getSampleCount());
+    assertEquals(0, detector.getMeanGrowth(ForwarderTable.PIT), 0);
+  }
+
+  private static ForwarderStatus status(final long currentTimestamp, final long startTimestamp, final long nPit,
+                                        final long nCs) {
+    return new ForwarderStatus().setStartTimestamp(startTimestamp).setCurrentTimestamp(currentTimestamp)
+                                .setNPitEntries(nPit).setNCsEntries(nCs);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.monitoring;
+
+import com.intel.jndn.management.types.FaceStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test TopK.
+ */
+public class TopKTest {
+  @Test
+  public void testSelectMatchesFullSort() {
+    Random random = new Random(42);
+    List<Integer> items = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      items.add(random.nextInt(1000000));
+    }
+
+    List<Integer> sorted = new ArrayList<>(items);
+    sorted.sort(Comparator.reverseOrder());
+    assertEquals(sorted.subList(0, 20), TopK.select(items, 20, Comparator.naturalOrder()));
+    assertEquals(sorted, TopK.select(items, 20000, Comparator.naturalOrder()));
+    assertTrue(TopK.select(items, 0, Comparator.naturalOrder()).isEmpty());
+  }
+
+  @Test
+  public void testHugeK() {
+    List<Integer> items = Arrays.asList(3, 1, 2);
+    Iterable<Integer> sizeUnknown = items::iterator;
+    assertEquals(Arrays.asList(3, 2, 1), TopK.select(items, Integer.MAX_VALUE, Comparator.naturalOrder()));
+    assertEquals(Arrays.asList(3, 2, 1), TopK.select(sizeUnknown, Integer.MAX_VALUE, Comparator.naturalOrder()));
+  }
+
+  @Test
+  public void testFaces() {
+    List<FaceStatus> faces = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      faces.add(new FaceStatus().setFaceId(i).setNOutBytes(i % 10 == 0 ? -i : i));
+    }
+
+    // counters are unsigned; a "negative" int is a counter past 2^31
+    List<FaceStatus> top = TopK.faces(faces, FaceCounter.OUT_BYTES, 3);
+    assertEquals(3, top.size());
+    assertEquals(10, top.get(0).getFaceId());
+    assertEquals(20, top.get(1).getFaceId());
+    assertEquals(30, top.get(2).getFaceId());
+  }
+}
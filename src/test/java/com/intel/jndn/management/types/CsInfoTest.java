@@ -0,0 +1,64 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.types;
+
+import com.intel.jndn.management.TestHelper;
+import com.intel.jndn.management.enums.CsFlags;
+import net.named_data.jndn.encoding.EncodingException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test CsInfo encoding/decoding.
+ */
+public class CsInfoTest {
+  private ByteBuffer testCsInfoWire;
+
+  @Before
+  public void setUp() throws Exception {
+    testCsInfoWire = TestHelper.bufferFromIntArray(new int[]{
+      0x80, 0x12, 0x83, 0x04, 0x00, 0x01, 0x00, 0x00, 0x6c, 0x01, 0x01, 0x87, 0x01, 0x05,
+      0x81, 0x01, 0x64, 0x82, 0x01, 0xc8
+    });
+  }
+
+  @Test
+  public void testEncode() {
+    CsInfo info = new CsInfo()
+      .setCapacity(65536)
+      .setFlags(CsFlags.ENABLE_ADMIT.toInteger())
+      .setNCsEntries(5)
+      .setNHits(100)
+      .setNMisses(200);
+    assertEquals(testCsInfoWire, info.wireEncode().buf());
+  }
+
+  @Test
+  public void testDecode() throws EncodingException {
+    CsInfo info = new CsInfo(testCsInfoWire);
+    assertEquals(65536, info.getCapacity());
+    assertTrue(info.hasFlag(CsFlags.ENABLE_ADMIT));
+    assertFalse(info.hasFlag(CsFlags.ENABLE_SERVE));
+    assertEquals(5, info.getNCsEntries());
+    assertEquals(100, info.getNHits());
+    assertEquals(200, info.getNMisses());
+    assertEquals(1.0 / 3, info.getHitRatio(), 1e-9);
+  }
+}
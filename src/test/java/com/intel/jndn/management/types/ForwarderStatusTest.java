@@ -21,6 +21,8 @@ import org.junit.Test;
 import java.nio.ByteBuffer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test encoding/decoding of ForwarderStatus.
@@ -85,5 +87,22 @@ public class ForwarderStatusTest {
     assertEquals(952144445,           status.getNOutInterests());
     assertEquals(138198826,           status.getNOutData());
     assertEquals(4321,                status.getNOutNacks());
+    // omitted by this NFD version
+    assertFalse(status.hasNSatisfiedInterests());
+    assertEquals(-1, status.getNUnsatisfiedInterests());
+  }
+
+  @Test
+  public void testSatisfactionCounters() throws EncodingException {
+    ForwarderStatus status = new ForwarderStatus(testForwarderStatusWire)
+      .setNSatisfiedInterests(3000000000L)
+      .setNUnsatisfiedInterests(42);
+
+    ForwarderStatus decoded = new ForwarderStatus(status.wireEncode().buf());
+    assertTrue(decoded.hasNSatisfiedInterests());
+    assertEquals(3000000000L, decoded.getNSatisfiedInterests());
+    assertTrue(decoded.hasNUnsatisfiedInterests());
+    assertEquals(42, decoded.getNUnsatisfiedInterests());
+    assertEquals(4321, decoded.getNOutNacks());
   }
 }
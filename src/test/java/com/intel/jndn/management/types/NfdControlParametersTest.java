@@ -0,0 +1,92 @@
+/*
+ * jndn-management
+ * Copyright (c) 2015-2018, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.management.types;
+
+import com.intel.jndn.management.TestHelper;
+import com.intel.jndn.management.enums.FaceFlags;
+import com.intel.jndn.management.enums.FacePersistency;
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.Name;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test NfdControlParameters encoding/decoding.
+ */
+public class NfdControlParametersTest {
+  @Test
+  public void testEncode() {
+    NfdControlParameters parameters = new NfdControlParameters()
+      .setFaceId(10)
+      .setMtu(1400)
+      .setFlag(FaceFlags.CONGESTION_MARKING_ENABLED, true);
+
+    // FaceId, Flags, Mask, Mtu
+    ByteBuffer expected = TestHelper.bufferFromIntArray(new int[]{
+      0x68, 0x0d, 0x69, 0x01, 0x0a, 0x6c, 0x01, 0x04, 0x70, 0x01, 0x04, 0x89, 0x02, 0x05, 0x78
+    });
+    assertEquals(expected, parameters.wireEncode().buf());
+  }
+
+  @Test
+  public void testEncodeDecode() throws Exception {
+    NfdControlParameters parameters = new NfdControlParameters()
+      .setFaceId(260)
+      .setUri("udp4://192.0.2.1:6363")
+      .setLocalUri("udp4://192.0.2.2:6363")
+      .setFacePersistency(FacePersistency.PERMANENT)
+      .setBaseCongestionMarkingInterval(3000000000L)
+      .setDefaultCongestionThreshold(65536)
+      .setMtu(8800)
+      .setFlag(FaceFlags.LP_RELIABILITY_ENABLED, true)
+      .setFlag(FaceFlags.LOCAL_FIELDS_ENABLED, false);
+
+    NfdControlParameters decoded = new NfdControlParameters(parameters.wireEncode().buf());
+    assertEquals(260, decoded.getFaceId());
+    assertEquals("udp4://192.0.2.1:6363", decoded.getUri());
+    assertEquals("udp4://192.0.2.2:6363", decoded.getLocalUri());
+    assertEquals(FacePersistency.PERMANENT, decoded.getFacePersistency());
+    assertEquals(3000000000L, decoded.getBaseCongestionMarkingInterval());
+    assertEquals(65536, decoded.getDefaultCongestionThreshold());
+    assertEquals(8800, decoded.getMtu());
+    assertEquals(FaceFlags.LP_RELIABILITY_ENABLED.toInteger(), decoded.getFlags());
+    assertEquals(FaceFlags.LP_RELIABILITY_ENABLED.toInteger() | FaceFlags.LOCAL_FIELDS_ENABLED.toInteger(),
+                 decoded.getMask());
+    assertTrue(decoded.hasFlag(FaceFlags.LP_RELIABILITY_ENABLED));
+    assertFalse(decoded.hasFlag(FaceFlags.LOCAL_FIELDS_ENABLED));
+  }
+
+  @Test
+  public void testDecodeSkipsOtherFields() throws Exception {
+    ControlParameters routeParameters = new ControlParameters()
+      .setName(new Name("/a/b"))
+      .setFaceId(7)
+      .setCost(10)
+      .setOrigin(255);
+
+    NfdControlParameters decoded = new NfdControlParameters(routeParameters.wireEncode().buf());
+    assertEquals(new Name("/a/b"), decoded.getName());
+    assertEquals(7, decoded.getFaceId());
+    assertNull(decoded.getUri());
+    assertEquals(FacePersistency.NONE, decoded.getFacePersistency());
+    assertEquals(-1, decoded.getMtu());
+    assertEquals(-1, decoded.getFlags());
+  }
+}